@@ -0,0 +1,73 @@
+package net.vulkanmod.render.chunk.buffer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Segment allocation of an {@link AreaBuffer}, without the backing GPU buffer.
+ * Each invocation frees a random live segment and allocates a new one, as section rebuilds do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SegmentAllocatorBenchmark {
+    private static final int ELEMENT_SIZE = 20;
+
+    // Live segments, roughly the sections of a chunk area with some render types
+    @Param({"128", "1024"})
+    int liveSegments;
+
+    final DrawBuffers.DrawParameters drawParameters = new DrawBuffers.DrawParameters();
+
+    SegmentAllocator allocator;
+    int[] offsets;
+    Random random;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        this.random = new Random(0);
+        this.allocator = new SegmentAllocator(this.liveSegments * 1024 * ELEMENT_SIZE, ELEMENT_SIZE);
+        this.offsets = new int[this.liveSegments];
+
+        for (int i = 0; i < this.liveSegments; i++) {
+            this.offsets[i] = allocate();
+        }
+    }
+
+    @Benchmark
+    public void freeAndAllocate(Blackhole blackhole) {
+        int i = this.random.nextInt(this.liveSegments);
+
+        blackhole.consume(this.allocator.free(this.offsets[i]));
+        this.offsets[i] = allocate();
+    }
+
+    @Benchmark
+    public void planCompaction(Blackhole blackhole) {
+        blackhole.consume(this.allocator.planCompaction(2 * 1024 * 1024, 256));
+    }
+
+    private int allocate() {
+        // Section vertex counts are heavily skewed towards small meshes
+        int vertices = 4 + (int) (Math.pow(this.random.nextDouble(), 3) * 2000) * 4;
+        int size = vertices * ELEMENT_SIZE;
+
+        AreaBuffer.Segment segment = this.allocator.allocate(size);
+        if (segment == null) {
+            int increment = (this.allocator.getSize() >> 3) / ELEMENT_SIZE * ELEMENT_SIZE;
+            this.allocator.grow(Math.max(size, increment));
+            segment = this.allocator.allocate(size);
+        }
+
+        // Makes the segment a compaction candidate
+        segment.drawParameters = this.drawParameters;
+
+        return segment.offset;
+    }
+}
@@ -0,0 +1,111 @@
+package net.vulkanmod.render.chunk.build;
+
+import net.minecraft.util.BitStorage;
+import net.minecraft.util.SimpleBitStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Fill of a render region block array from the 27 section storages,
+ * decoding each storage directly versus a per block palette lookup like {@code PalettedContainer.get}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaletteDecoderBenchmark {
+    private static final int WIDTH = RenderRegion.REGION_BLOCK_WIDTH;
+    private static final int BORDER = RenderRegion.BOUNDARY_BLOCK_WIDTH;
+
+    // Typical section palettes range from a handful of states to a few dozens
+    @Param({"2", "4", "6"})
+    int bits;
+
+    BitStorage[] storages;
+    Object[] paletteValues;
+    IntFunction<Object> palette;
+
+    Object[] blockData;
+    Object[] paletteCache;
+    int[] unpackBuffer;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        int paletteSize = 1 << this.bits;
+
+        this.paletteValues = new Object[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            this.paletteValues[i] = new Object();
+        }
+        this.palette = id -> this.paletteValues[id];
+
+        this.storages = new BitStorage[RenderRegion.SIZE];
+        for (int i = 0; i < this.storages.length; i++) {
+            SimpleBitStorage storage = new SimpleBitStorage(this.bits, PaletteDecoder.SECTION_SIZE);
+            for (int j = 0; j < PaletteDecoder.SECTION_SIZE; j++) {
+                storage.set(j, random.nextInt(paletteSize));
+            }
+            this.storages[i] = storage;
+        }
+
+        this.blockData = new Object[WIDTH * WIDTH * WIDTH];
+        this.paletteCache = new Object[PaletteDecoder.MAX_CACHED_PALETTE_SIZE];
+        this.unpackBuffer = new int[PaletteDecoder.SECTION_SIZE];
+    }
+
+    @Benchmark
+    public Object[] decodeStorage() {
+        for (int secY = 0; secY < 3; secY++) {
+            for (int secZ = 0; secZ < 3; secZ++) {
+                for (int secX = 0; secX < 3; secX++) {
+                    int minX = min(secX), maxX = max(secX);
+                    int minY = min(secY), maxY = max(secY);
+                    int minZ = min(secZ), maxZ = max(secZ);
+
+                    PaletteDecoder.copyBox(this.storages[(secY * 3 + secZ) * 3 + secX], this.palette, this.paletteValues.length,
+                            this.blockData, WIDTH, dst(secX, minX), dst(secY, minY), dst(secZ, minZ),
+                            minX, minY, minZ, maxX, maxY, maxZ,
+                            this.paletteCache, this.unpackBuffer);
+                }
+            }
+        }
+
+        return this.blockData;
+    }
+
+    @Benchmark
+    public Object[] perBlockLookup() {
+        for (int y = 0; y < WIDTH; y++) {
+            for (int z = 0; z < WIDTH; z++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    int sx = x + 16 - BORDER, sy = y + 16 - BORDER, sz = z + 16 - BORDER;
+                    BitStorage storage = this.storages[((sy >> 4) * 3 + (sz >> 4)) * 3 + (sx >> 4)];
+
+                    int idx = ((sy & 15) << 4 | (sz & 15)) << 4 | (sx & 15);
+                    this.blockData[(y * WIDTH + z) * WIDTH + x] = this.palette.apply(storage.get(idx));
+                }
+            }
+        }
+
+        return this.blockData;
+    }
+
+    // Section relative box of the region, the center section is whole and neighbours contribute their border
+    private static int min(int sec) {
+        return sec == 0 ? 16 - BORDER : 0;
+    }
+
+    private static int max(int sec) {
+        return sec == 2 ? BORDER : 16;
+    }
+
+    private static int dst(int sec, int min) {
+        return sec == 0 ? 0 : (sec - 1) * 16 + BORDER + min;
+    }
+}
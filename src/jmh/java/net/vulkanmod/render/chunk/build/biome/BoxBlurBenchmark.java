@@ -0,0 +1,49 @@
+package net.vulkanmod.render.chunk.build.biome;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Biome color blending of a section layer, as done by the TintCache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoxBlurBenchmark {
+    private static final int SECTION_WIDTH = 16;
+
+    // Biome blend radius option values
+    @Param({"1", "3", "7"})
+    int blendRadius;
+
+    int[] colors;
+    int[] buffer;
+    BoxBlur boxBlur;
+
+    @Setup
+    public void setup() {
+        int totalWidth = SECTION_WIDTH + this.blendRadius * 2;
+        int size = totalWidth * totalWidth;
+
+        Random random = new Random(0);
+        this.colors = new int[size];
+        for (int i = 0; i < size; i++) {
+            this.colors[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+
+        this.buffer = new int[size];
+        this.boxBlur = new BoxBlur();
+    }
+
+    @Benchmark
+    public int[] blur() {
+        System.arraycopy(this.colors, 0, this.buffer, 0, this.colors.length);
+        this.boxBlur.blur(this.buffer, SECTION_WIDTH, this.blendRadius);
+        return this.buffer;
+    }
+}
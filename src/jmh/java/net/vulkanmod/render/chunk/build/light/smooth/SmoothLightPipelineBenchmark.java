@@ -0,0 +1,273 @@
+package net.vulkanmod.render.chunk.build.light.smooth;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.BlockAndTintGetter;
+import net.minecraft.world.level.ColorResolver;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+import net.minecraft.world.level.material.FluidState;
+import net.vulkanmod.render.chunk.build.light.data.ArrayLightDataCache;
+import net.vulkanmod.render.chunk.build.light.data.LightDataAccess;
+import net.vulkanmod.render.chunk.build.light.data.QuadLightData;
+import net.vulkanmod.render.model.quad.ModelQuad;
+import net.vulkanmod.render.model.quad.ModelQuadFlags;
+import net.vulkanmod.render.model.quad.QuadView;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Smooth lighting of every face of a section's blocks, over a synthetic light data cache
+ * so that no world is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmoothLightPipelineBenchmark {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int CACHE_RADIUS = 2;
+
+    public enum QuadShape {
+        // Full block faces, fast path
+        FULL,
+        // Slab tops and similar faces parallel to, but inset from, the block face
+        INSET,
+        // Plants and other diagonal quads
+        NON_PARALLEL
+    }
+
+    @Param
+    QuadShape shape;
+
+    // The vector blender needs the jdk.incubator.vector module, see build.gradle
+    @Param({"scalar", "vector"})
+    String blender;
+
+    ArrayLightDataCache lightCache;
+    SmoothLightPipeline pipeline;
+    QuadView[] quads;
+    final QuadLightData quadLightData = new QuadLightData();
+    final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+    @Setup
+    public void setup() {
+        this.lightCache = new ArrayLightDataCache(false);
+        this.lightCache.reset(new SyntheticWorld(), 0, 0, 0);
+
+        Random random = new Random(0);
+        for (int x = -CACHE_RADIUS; x < 16 + CACHE_RADIUS; x++) {
+            for (int y = -CACHE_RADIUS; y < 16 + CACHE_RADIUS; y++) {
+                for (int z = -CACHE_RADIUS; z < 16 + CACHE_RADIUS; z++) {
+                    boolean opaque = random.nextInt(4) == 0;
+                    float ao = opaque ? 0.2f : 1.0f;
+
+                    int word = LightDataAccess.packFO(opaque) | LightDataAccess.packOP(opaque) | LightDataAccess.packFC(opaque)
+                            | LightDataAccess.packAO(ao)
+                            | LightDataAccess.packSL(random.nextInt(16)) | LightDataAccess.packBL(random.nextInt(16));
+
+                    this.lightCache.put(x, y, z, word);
+                }
+            }
+        }
+
+        this.pipeline = new SmoothLightPipeline(this.lightCache, createBlender(this.blender));
+
+        this.quads = new QuadView[DIRECTIONS.length];
+        for (Direction direction : DIRECTIONS) {
+            this.quads[direction.ordinal()] = createQuad(direction, this.shape);
+        }
+    }
+
+    @Benchmark
+    public void lightSection(Blackhole blackhole) {
+        QuadLightData out = this.quadLightData;
+
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    this.pos.set(x, y, z);
+
+                    for (Direction direction : DIRECTIONS) {
+                        this.pipeline.calculate(this.quads[direction.ordinal()], this.pos, out, direction, direction, true);
+                    }
+
+                    blackhole.consume(out.br[0]);
+                }
+            }
+        }
+    }
+
+    private static CornerBlender createBlender(String name) {
+        return switch (name) {
+            case "scalar" -> new ScalarCornerBlender();
+            case "vector" -> createVectorBlender();
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+    // Loaded like CornerBlender.create() does, so that compiling the benchmarks doesn't need the module
+    private static CornerBlender createVectorBlender() {
+        try {
+            return (CornerBlender) Class.forName(CornerBlender.VECTOR_BLENDER_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static QuadView createQuad(Direction face, QuadShape shape) {
+        float inset = shape == QuadShape.INSET ? 0.5f : 0.0f;
+        float[] positions = new float[12];
+
+        // Corners of the face in the plane, counterclockwise when looking at the face
+        float[][] corners = {{0, 0}, {0, 1}, {1, 1}, {1, 0}};
+        for (int i = 0; i < 4; i++) {
+            float u = corners[i][0];
+            float v = corners[i][1];
+            float d = face.getAxisDirection() == Direction.AxisDirection.POSITIVE ? 1.0f - inset : inset;
+
+            if (shape == QuadShape.NON_PARALLEL) {
+                // Diagonal plane through the block
+                d = face.getAxisDirection() == Direction.AxisDirection.POSITIVE ? u : 1.0f - u;
+            }
+
+            switch (face.getAxis()) {
+                case X -> setPosition(positions, i, d, u, v);
+                case Y -> setPosition(positions, i, u, d, v);
+                case Z -> setPosition(positions, i, u, v, d);
+            }
+        }
+
+        return new SyntheticQuad(positions, face);
+    }
+
+    private static void setPosition(float[] positions, int i, float x, float y, float z) {
+        positions[i * 3] = x;
+        positions[i * 3 + 1] = y;
+        positions[i * 3 + 2] = z;
+    }
+
+    static class SyntheticQuad implements QuadView {
+        final float[] positions;
+        final Direction face;
+        final int flags;
+
+        SyntheticQuad(float[] positions, Direction face) {
+            this.positions = positions;
+            this.face = face;
+
+            int[] vertices = new int[4 * ModelQuad.VERTEX_SIZE];
+            for (int i = 0; i < 4; i++) {
+                vertices[i * ModelQuad.VERTEX_SIZE] = Float.floatToRawIntBits(positions[i * 3]);
+                vertices[i * ModelQuad.VERTEX_SIZE + 1] = Float.floatToRawIntBits(positions[i * 3 + 1]);
+                vertices[i * ModelQuad.VERTEX_SIZE + 2] = Float.floatToRawIntBits(positions[i * 3 + 2]);
+            }
+            this.flags = ModelQuadFlags.getQuadFlags(vertices, face);
+        }
+
+        @Override
+        public int getFlags() {
+            return this.flags;
+        }
+
+        @Override
+        public float getX(int idx) {
+            return this.positions[idx * 3];
+        }
+
+        @Override
+        public float getY(int idx) {
+            return this.positions[idx * 3 + 1];
+        }
+
+        @Override
+        public float getZ(int idx) {
+            return this.positions[idx * 3 + 2];
+        }
+
+        @Override
+        public int getColor(int idx) {
+            return -1;
+        }
+
+        @Override
+        public float getU(int idx) {
+            return 0;
+        }
+
+        @Override
+        public float getV(int idx) {
+            return 0;
+        }
+
+        @Override
+        public int getColorIndex() {
+            return -1;
+        }
+
+        @Override
+        public Direction getFacingDirection() {
+            return this.face;
+        }
+    }
+
+    /**
+     * Only provides face shading, light data is read from the pre-filled cache.
+     */
+    static class SyntheticWorld implements BlockAndTintGetter {
+
+        @Override
+        public float getShade(Direction direction, boolean shade) {
+            if (!shade)
+                return 1.0f;
+
+            return switch (direction) {
+                case DOWN -> 0.5f;
+                case UP -> 1.0f;
+                case NORTH, SOUTH -> 0.8f;
+                case WEST, EAST -> 0.6f;
+            };
+        }
+
+        @Override
+        public LevelLightEngine getLightEngine() {
+            return null;
+        }
+
+        @Override
+        public int getBlockTint(BlockPos blockPos, ColorResolver colorResolver) {
+            return -1;
+        }
+
+        @Override
+        public BlockEntity getBlockEntity(BlockPos blockPos) {
+            return null;
+        }
+
+        @Override
+        public BlockState getBlockState(BlockPos blockPos) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FluidState getFluidState(BlockPos blockPos) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getHeight() {
+            return 384;
+        }
+
+        @Override
+        public int getMinBuildHeight() {
+            return -64;
+        }
+    }
+}
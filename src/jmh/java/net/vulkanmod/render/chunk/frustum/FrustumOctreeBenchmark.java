@@ -0,0 +1,74 @@
+package net.vulkanmod.render.chunk.frustum;
+
+import net.vulkanmod.render.chunk.ChunkAreaManager;
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frustum visibility update of every chunk area in render distance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrustumOctreeBenchmark {
+    private static final int AREA_WIDTH = 1 << (ChunkAreaManager.AREA_SH_XZ + 4);
+    private static final int AREA_HEIGHT = 1 << (ChunkAreaManager.AREA_SH_Y + 4);
+    private static final int MIN_Y = -64;
+    private static final int WORLD_HEIGHT = 384;
+
+    @Param({"12", "32"})
+    int renderDistance;
+
+    // Camera yaw in degrees, changes how many areas intersect the frustum planes
+    @Param({"0", "45"})
+    float yaw;
+
+    VFrustum frustum;
+    int[] positions;
+    byte[][] buffers;
+
+    @Setup
+    public void setup() {
+        Matrix4f projection = new Matrix4f().setPerspective((float) Math.toRadians(70.0), 16.0f / 9.0f, 0.05f, this.renderDistance * 16 * 4.0f);
+        Matrix4f modelView = new Matrix4f().rotateX((float) Math.toRadians(15.0)).rotateY((float) Math.toRadians(this.yaw));
+
+        this.frustum = new VFrustum();
+        this.frustum.calculateFrustum(modelView, projection);
+        this.frustum.setCamOffset(8.0, 70.0, 8.0);
+
+        int areasXZ = (this.renderDistance * 2 * 16) / AREA_WIDTH + 2;
+        int areasY = (WORLD_HEIGHT + AREA_HEIGHT - 1) / AREA_HEIGHT;
+        int areaCount = areasXZ * areasXZ * areasY;
+
+        this.positions = new int[areaCount * 3];
+        this.buffers = new byte[areaCount][64];
+
+        int i = 0;
+        for (int x = 0; x < areasXZ; x++) {
+            for (int y = 0; y < areasY; y++) {
+                for (int z = 0; z < areasXZ; z++) {
+                    this.positions[i * 3] = (x - areasXZ / 2) * AREA_WIDTH;
+                    this.positions[i * 3 + 1] = MIN_Y + y * AREA_HEIGHT;
+                    this.positions[i * 3 + 2] = (z - areasXZ / 2) * AREA_WIDTH;
+                    i++;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void updateFrustumVisibility(Blackhole blackhole) {
+        for (int i = 0; i < this.buffers.length; i++) {
+            FrustumOctree.updateFrustumVisibility(this.frustum, this.buffers[i],
+                    this.positions[i * 3], this.positions[i * 3 + 1], this.positions[i * 3 + 2]);
+        }
+
+        blackhole.consume(this.buffers);
+    }
+}
@@ -0,0 +1,115 @@
+package net.vulkanmod.render.chunk.occlusion;
+
+import net.vulkanmod.render.chunk.graph.GraphDirections;
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Occluder rasterization and section tests over a random terrain heightmap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OcclusionCullerBenchmark {
+    private static final int RADIUS = OcclusionCuller.OCCLUDER_RADIUS;
+    private static final double CAM_X = 8.5, CAM_Y = 8.5, CAM_Z = 8.5;
+
+    @Param({"12", "32"})
+    int renderDistance;
+
+    // Camera yaw in degrees
+    @Param({"0", "45"})
+    float yaw;
+
+    Matrix4f viewProjection;
+    int[] faces;
+    int faceCount;
+
+    OcclusionCuller culler;
+
+    @Setup
+    public void setup() {
+        Matrix4f projection = new Matrix4f().setPerspective((float) Math.toRadians(70.0), 16.0f / 9.0f, 0.05f, this.renderDistance * 16 * 4.0f);
+        Matrix4f modelView = new Matrix4f().rotateX((float) Math.toRadians(15.0)).rotateY((float) Math.toRadians(this.yaw));
+        this.viewProjection = projection.mul(modelView, new Matrix4f());
+
+        // Solid columns of random height around the camera section, the camera column is kept lower
+        Random random = new Random(0);
+        int width = RADIUS * 2 + 1;
+        int[] heights = new int[width * width];
+        for (int i = 0; i < heights.length; ++i) {
+            heights[i] = random.nextInt(4) - 1;
+        }
+        heights[RADIUS * width + RADIUS] = -1;
+
+        this.faces = new int[width * width * 8 * 4];
+        for (int z = -RADIUS; z <= RADIUS; ++z) {
+            for (int x = -RADIUS; x <= RADIUS; ++x) {
+                int height = heights[(z + RADIUS) * width + x + RADIUS];
+
+                for (int y = -RADIUS; y <= height; ++y) {
+                    for (int dir = 0; dir < 6; ++dir) {
+                        if (dir != GraphDirections.DOWN)
+                            this.addFace(x, y, z, dir);
+                    }
+                }
+            }
+        }
+
+        this.culler = new OcclusionCuller();
+        this.buildOccluders();
+    }
+
+    private void addFace(int x, int y, int z, int dir) {
+        if (this.faceCount * 4 + 4 > this.faces.length)
+            this.faces = Arrays.copyOf(this.faces, this.faces.length * 2);
+
+        int i = this.faceCount++ * 4;
+        this.faces[i] = x;
+        this.faces[i + 1] = y;
+        this.faces[i + 2] = z;
+        this.faces[i + 3] = dir;
+    }
+
+    private void buildOccluders() {
+        this.culler.begin(this.viewProjection, CAM_X, CAM_Y, CAM_Z);
+
+        for (int i = 0; i < this.faceCount; ++i) {
+            this.culler.addFace(this.faces[i * 4], this.faces[i * 4 + 1], this.faces[i * 4 + 2], this.faces[i * 4 + 3]);
+        }
+
+        this.culler.build();
+    }
+
+    @Benchmark
+    public void build(Blackhole blackhole) {
+        this.buildOccluders();
+
+        blackhole.consume(this.culler.getOccluderCount());
+    }
+
+    @Benchmark
+    public void testSections(Blackhole blackhole) {
+        int occluded = 0;
+        int rd = this.renderDistance;
+
+        for (int z = -rd; z <= rd; ++z) {
+            for (int y = -RADIUS; y <= RADIUS; ++y) {
+                for (int x = -rd; x <= rd; ++x) {
+                    if (this.culler.isOccluded(x << 4, y << 4, z << 4, (x + 1) << 4, (y + 1) << 4, (z + 1) << 4))
+                        ++occluded;
+                }
+            }
+        }
+
+        blackhole.consume(occluded);
+    }
+}
@@ -0,0 +1,66 @@
+package net.vulkanmod.render.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuadSortBenchmark {
+
+    // Translucent quad counts, from a few water surfaces to a section full of glass
+    @Param({"256", "2048", "16384"})
+    int quadCount;
+
+    float[] distances;
+
+    RadixSort radixSort;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+
+        this.distances = new float[this.quadCount];
+        for (int i = 0; i < this.quadCount; i++) {
+            float dx = random.nextInt(32) * 0.5f - 8.0f;
+            float dy = random.nextInt(32) * 0.5f - 8.0f;
+            float dz = random.nextInt(32) * 0.5f - 8.0f;
+            this.distances[i] = dx * dx + dy * dy + dz * dz;
+        }
+
+        this.radixSort = new RadixSort();
+    }
+
+    @Benchmark
+    public void mergeSort(Blackhole blackhole) {
+        int[] indices = new int[this.quadCount];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+
+        SortUtil.mergeSort(indices, this.distances);
+        blackhole.consume(indices);
+    }
+
+    @Benchmark
+    public void quickSort(Blackhole blackhole) {
+        int[] indices = new int[this.quadCount];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+
+        SortUtil.quickSort(indices, this.distances);
+        blackhole.consume(indices);
+    }
+
+    @Benchmark
+    public void radixSort(Blackhole blackhole) {
+        blackhole.consume(this.radixSort.sortDescending(this.distances, this.quadCount));
+    }
+}
@@ -0,0 +1,50 @@
+package net.vulkanmod.vulkan.memory;
+
+import org.lwjgl.system.MemoryUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index generation of the shared auto index buffers, done on every reallocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutoIndexBufferBenchmark {
+
+    // 16 bit indices can address up to 65536 vertices
+    @Param({"4096", "65536"})
+    int vertexCount;
+
+    @Benchmark
+    public int quadIndices() {
+        return consume(AutoIndexBuffer.genQuadIndices(this.vertexCount));
+    }
+
+    @Benchmark
+    public int intQuadIndices() {
+        return consume(AutoIndexBuffer.genIntQuadIndices(this.vertexCount));
+    }
+
+    @Benchmark
+    public int triangleFanIndices() {
+        return consume(AutoIndexBuffer.genTriangleFanIndices(this.vertexCount));
+    }
+
+    @Benchmark
+    public int triangleStripIndices() {
+        return consume(AutoIndexBuffer.genTriangleStripIndices(this.vertexCount));
+    }
+
+    private static int consume(ByteBuffer buffer) {
+        // Read back the last index so the writes can't be eliminated
+        int value = buffer.get(buffer.capacity() - 1);
+        MemoryUtil.memFree(buffer);
+        return value;
+    }
+}
@@ -0,0 +1,89 @@
+package net.vulkanmod.vulkan.shader.parser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of a legacy core shader pair, done for every shader loaded from resource packs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlslConverterBenchmark {
+    private static final String VERTEX_SHADER = """
+            #version 150
+
+            #moj_import <light.glsl>
+            #moj_import <fog.glsl>
+
+            in vec3 Position;
+            in vec4 Color;
+            in vec2 UV0;
+            in ivec2 UV2;
+            in vec3 Normal;
+
+            uniform sampler2D Sampler2;
+
+            uniform mat4 ModelViewMat;
+            uniform mat4 ProjMat;
+            uniform vec3 ChunkOffset;
+            uniform int FogShape;
+
+            out float vertexDistance;
+            out vec4 vertexColor;
+            out vec2 texCoord0;
+            out vec4 normal;
+
+            void main() {
+                vec3 pos = Position + ChunkOffset;
+                gl_Position = ProjMat * ModelViewMat * vec4(pos, 1.0);
+
+                vertexDistance = fog_distance(ModelViewMat, pos, FogShape);
+                vertexColor = Color * minecraft_sample_lightmap(Sampler2, UV2);
+                texCoord0 = UV0;
+                normal = ProjMat * ModelViewMat * vec4(Normal, 0.0);
+            }
+            """;
+
+    private static final String FRAGMENT_SHADER = """
+            #version 150
+
+            #moj_import <fog.glsl>
+
+            uniform sampler2D Sampler0;
+
+            uniform vec4 ColorModulator;
+            uniform float FogStart;
+            uniform float FogEnd;
+            uniform vec4 FogColor;
+
+            in float vertexDistance;
+            in vec4 vertexColor;
+            in vec2 texCoord0;
+            in vec4 normal;
+
+            out vec4 fragColor;
+
+            void main() {
+                vec4 color = texture(Sampler0, texCoord0) * vertexColor * ColorModulator;
+                if (color.a < 0.1) {
+                    discard;
+                }
+                fragColor = linear_fog(color, vertexDistance, FogStart, FogEnd, FogColor);
+            }
+            """;
+
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        GlslConverter converter = new GlslConverter();
+        converter.process(VERTEX_SHADER, FRAGMENT_SHADER);
+
+        blackhole.consume(converter.getVshConverted());
+        blackhole.consume(converter.getFshConverted());
+    }
+}
@@ -5,6 +5,8 @@ import net.fabricmc.loader.api.FabricLoader;
 import net.vulkanmod.config.Config;
 import net.vulkanmod.config.Platform;
 import net.vulkanmod.config.video.VideoModeManager;
+import net.vulkanmod.vulkan.shader.PipelineCacheData;
+import net.vulkanmod.vulkan.shader.SPIRVUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -35,6 +37,15 @@ public class Initializer implements ClientModInitializer {
 				.resolve("vulkanmod_settings.json");
 
 		CONFIG = loadConfig(configPath);
+
+		SPIRVUtils.setCacheDirectory(getCacheDir().resolve("spirv"));
+		PipelineCacheData.setCacheFile(getCacheDir().resolve("pipeline_cache.bin"));
+	}
+
+	public static Path getCacheDir() {
+		return FabricLoader.getInstance()
+				.getGameDir()
+				.resolve("vulkanmod_cache");
 	}
 
 	private static Config loadConfig(Path path) {
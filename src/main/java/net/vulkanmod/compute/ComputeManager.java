@@ -153,6 +153,8 @@ public class ComputeManager {
     public long compute(int x, int y, int z) {
         CommandPool.CommandBuffer commandBuffer = queue.beginCommands();
         currentCmdBuffer = commandBuffer.getHandle();
+        // Every dispatch records a new command buffer
+        boundPipeline = 0;
 //        recordingCmds = true;
 //
 //        vkWaitForFences(device, inFlightFences.get(currentFrame), true, VUtil.UINT64_MAX);
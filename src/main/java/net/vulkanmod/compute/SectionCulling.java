@@ -0,0 +1,134 @@
+package net.vulkanmod.compute;
+
+import net.vulkanmod.render.chunk.buffer.DrawCommandList;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Buffer layout of the section culling compute pass, see {@code shaders/compute/section_cull.comp}.
+ * <p>
+ * The buffer starts with the 6 frustum planes, the section count, the draw count and the start of the
+ * command array in uints after the header. Section records follow, made of a vec4 min whose w holds the section flags,
+ * a vec4 max and the indexCount, firstIndex, vertexOffset and baseInstance of the section draw, then the compacted
+ * {@code VkDrawIndexedIndirectCommand}s. Boxes are camera relative, as in {@link net.vulkanmod.render.chunk.frustum.VFrustum}.
+ * <p>
+ * Commands are drawn through a single 16 bit index buffer binding: sections with 32 bit indices, see
+ * {@link net.vulkanmod.render.chunk.buffer.DrawBuffers}, get no command and have to be drawn directly.
+ * <p>
+ * {@link #cull} is the CPU reference of the shader: it writes the same commands, in section order.
+ */
+public abstract class SectionCulling {
+    public static final int PLANES = 6;
+
+    public static final int SECTION_COUNT_OFFSET = PLANES * 16;
+    public static final int DRAW_COUNT_OFFSET = SECTION_COUNT_OFFSET + 4;
+    public static final int COMMANDS_START_OFFSET = DRAW_COUNT_OFFSET + 4;
+    public static final int HEADER_SIZE = COMMANDS_START_OFFSET + 8;
+
+    public static final int SECTION_SIZE = 48;
+    public static final int WIDE_INDICES_FLAG = 1;
+    public static final int COMMAND_SIZE = DrawCommandList.COMMAND_SIZE;
+
+    public static int getBufferSize(int capacity) {
+        return getCommandsOffset(capacity) + capacity * COMMAND_SIZE;
+    }
+
+    public static int getCommandsOffset(int capacity) {
+        return HEADER_SIZE + capacity * SECTION_SIZE;
+    }
+
+    /**
+     * @param planes the frustum planes as returned by {@link net.vulkanmod.render.chunk.frustum.VFrustum#getPlanes}
+     */
+    public static void setPlanes(long ptr, float[] planes) {
+        for (int i = 0; i < PLANES * 4; ++i) {
+            memPutFloat(ptr + i * 4L, planes[i]);
+        }
+    }
+
+    public static void setSection(long ptr, int i, float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+                                  int indexCount, int firstIndex, int vertexOffset, int baseInstance, boolean wideIndices) {
+        long section = ptr + HEADER_SIZE + (long) i * SECTION_SIZE;
+
+        memPutFloat(section, minX);
+        memPutFloat(section + 4, minY);
+        memPutFloat(section + 8, minZ);
+        memPutInt(section + 12, wideIndices ? WIDE_INDICES_FLAG : 0);
+        memPutFloat(section + 16, maxX);
+        memPutFloat(section + 20, maxY);
+        memPutFloat(section + 24, maxZ);
+
+        memPutInt(section + 32, indexCount);
+        memPutInt(section + 36, firstIndex);
+        memPutInt(section + 40, vertexOffset);
+        memPutInt(section + 44, baseInstance);
+    }
+
+    /**
+     * Sets the section count and resets the draw count, to be called before each dispatch.
+     */
+    public static void setSectionCount(long ptr, int capacity, int sectionCount) {
+        memPutInt(ptr + SECTION_COUNT_OFFSET, sectionCount);
+        memPutInt(ptr + DRAW_COUNT_OFFSET, 0);
+        memPutInt(ptr + COMMANDS_START_OFFSET, capacity * SECTION_SIZE / 4);
+    }
+
+    public static int getDrawCount(long ptr) {
+        return memGetInt(ptr + DRAW_COUNT_OFFSET);
+    }
+
+    public static long getCommand(long ptr, int capacity, int i) {
+        return ptr + getCommandsOffset(capacity) + (long) i * COMMAND_SIZE;
+    }
+
+    /**
+     * Writes a command for each non empty section with 16 bit indices that is not outside of a frustum plane, and the draw count.
+     *
+     * @return the draw count
+     */
+    public static int cull(long ptr) {
+        int sectionCount = memGetInt(ptr + SECTION_COUNT_OFFSET);
+        long commands = ptr + HEADER_SIZE + memGetInt(ptr + COMMANDS_START_OFFSET) * 4L;
+
+        int drawCount = 0;
+        for (int i = 0; i < sectionCount; ++i) {
+            long section = ptr + HEADER_SIZE + (long) i * SECTION_SIZE;
+            int indexCount = memGetInt(section + 32);
+
+            if (indexCount <= 0 || (memGetInt(section + 12) & WIDE_INDICES_FLAG) != 0 || !isInFrustum(ptr, section))
+                continue;
+
+            long command = commands + (long) drawCount * COMMAND_SIZE;
+            memPutInt(command, indexCount);
+            memPutInt(command + 4, 1);
+            memPutInt(command + 8, memGetInt(section + 36));
+            memPutInt(command + 12, memGetInt(section + 40));
+            memPutInt(command + 16, memGetInt(section + 44));
+
+            ++drawCount;
+        }
+
+        memPutInt(ptr + DRAW_COUNT_OFFSET, drawCount);
+        return drawCount;
+    }
+
+    private static boolean isInFrustum(long ptr, long section) {
+        for (int p = 0; p < PLANES; ++p) {
+            long plane = ptr + p * 16L;
+            float a = memGetFloat(plane);
+            float b = memGetFloat(plane + 4);
+            float c = memGetFloat(plane + 8);
+            float d = memGetFloat(plane + 12);
+
+            // The farthest vertex along the plane normal tells if the box is outside
+            float farX = memGetFloat(section + (a < 0 ? 0 : 16));
+            float farY = memGetFloat(section + (b < 0 ? 4 : 20));
+            float farZ = memGetFloat(section + (c < 0 ? 8 : 24));
+
+            if (a * farX + b * farY + c * farZ < -d)
+                return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,132 @@
+package net.vulkanmod.compute;
+
+import net.vulkanmod.render.chunk.frustum.VFrustum;
+import net.vulkanmod.vulkan.device.DeviceManager;
+import net.vulkanmod.vulkan.memory.MemoryTypes;
+import net.vulkanmod.vulkan.memory.StorageBuffer;
+import net.vulkanmod.vulkan.shader.ComputePipeline;
+import net.vulkanmod.vulkan.shader.descriptor.BufferDescriptor;
+import org.lwjgl.vulkan.VkCommandBuffer;
+
+import static org.lwjgl.vulkan.VK10.*;
+import static org.lwjgl.vulkan.VK12.vkCmdDrawIndexedIndirectCount;
+
+/**
+ * Frustum culls section boxes in a compute shader, writing the visible sections as compacted
+ * {@code VkDrawIndexedIndirectCommand}s and a draw count, see {@link SectionCulling} for the buffer layout.
+ * <p>
+ * Commands are written in the order invocations add to the draw count, the set of commands
+ * is the same as the one of {@link SectionCulling#cull}.
+ */
+public class SectionCullingPass {
+    private static final int GROUP_SIZE = 64;
+
+    private final ComputeManager computeManager;
+    private final ComputePipeline pipeline;
+
+    private final StorageBuffer buffer;
+    private final long ptr;
+    private final int capacity;
+
+    private final float[] planes = new float[SectionCulling.PLANES * 4];
+    private int sectionCount;
+
+    public SectionCullingPass(ComputeManager computeManager, int capacity) {
+        this.computeManager = computeManager;
+        this.capacity = capacity;
+
+        // Host visible so that sections can be written in place, commands are read by indirect draws
+        this.buffer = new StorageBuffer(SectionCulling.getBufferSize(capacity), MemoryTypes.HOST_MEM, VK_BUFFER_USAGE_INDIRECT_BUFFER_BIT);
+        this.ptr = this.buffer.getPointer();
+
+        ComputePipeline.Builder builder = new ComputePipeline.Builder();
+        builder.setShaderPath("compute/section_cull");
+        builder.addDescriptor(new BufferDescriptor(0, VK_SHADER_STAGE_COMPUTE_BIT, this.buffer.getBufferSize(), null, VK_DESCRIPTOR_TYPE_STORAGE_BUFFER_DYNAMIC));
+        builder.compileShaders();
+        this.pipeline = builder.createComputePipeline();
+
+        this.pipeline.updateBuffer(this.buffer, 0);
+    }
+
+    public void setFrustum(VFrustum frustum) {
+        frustum.getPlanes(this.planes);
+        SectionCulling.setPlanes(this.ptr, this.planes);
+    }
+
+    public void setPlanes(float[] planes) {
+        SectionCulling.setPlanes(this.ptr, planes);
+    }
+
+    public void begin() {
+        this.sectionCount = 0;
+    }
+
+    /**
+     * Adds a section box, in camera relative coordinates, and its draw parameters.
+     * Sections with {@code wideIndices} are never drawn by the pass.
+     */
+    public void addSection(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+                           int indexCount, int firstIndex, int vertexOffset, int baseInstance, boolean wideIndices) {
+        if (this.sectionCount >= this.capacity)
+            throw new IllegalStateException("Section culling capacity exceeded: %d".formatted(this.capacity));
+
+        SectionCulling.setSection(this.ptr, this.sectionCount++, minX, minY, minZ, maxX, maxY, maxZ,
+                indexCount, firstIndex, vertexOffset, baseInstance, wideIndices);
+    }
+
+    /**
+     * Submits the culling dispatch.
+     *
+     * @return the fence signaled when the commands are written
+     */
+    public long dispatch() {
+        SectionCulling.setSectionCount(this.ptr, this.capacity, this.sectionCount);
+
+        this.computeManager.setPipeline(this.pipeline);
+        return this.computeManager.compute((this.sectionCount + GROUP_SIZE - 1) / GROUP_SIZE, 1, 1);
+    }
+
+    /**
+     * Records the draw of the culled sections with the bound 16 bit index buffer, the dispatch must have completed
+     * before the draw is executed. Without {@code drawIndirectCount} support the draw count is read back on the host,
+     * so the dispatch must have completed before the draw is recorded.
+     * Sections with 32 bit indices have to be drawn separately, as in {@link net.vulkanmod.render.chunk.buffer.DrawBuffers}.
+     */
+    public void draw(VkCommandBuffer commandBuffer) {
+        long id = this.buffer.getId();
+        long commandsOffset = SectionCulling.getCommandsOffset(this.capacity);
+
+        if (usesDrawCountBuffer())
+            vkCmdDrawIndexedIndirectCount(commandBuffer, id, commandsOffset, id, SectionCulling.DRAW_COUNT_OFFSET,
+                    this.capacity, SectionCulling.COMMAND_SIZE);
+        else
+            vkCmdDrawIndexedIndirect(commandBuffer, id, commandsOffset, this.getDrawCount(), SectionCulling.COMMAND_SIZE);
+    }
+
+    /**
+     * @return true if {@link #draw} reads the draw count written by the dispatch on the GPU
+     */
+    public static boolean usesDrawCountBuffer() {
+        return DeviceManager.device.isDrawIndirectCountSupported();
+    }
+
+    public int getDrawCount() {
+        return SectionCulling.getDrawCount(this.ptr);
+    }
+
+    /**
+     * @return the address of the {@code i}-th written command
+     */
+    public long getCommand(int i) {
+        return SectionCulling.getCommand(this.ptr, this.capacity, i);
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public void cleanUp() {
+        this.pipeline.cleanUp();
+        this.buffer.freeBuffer();
+    }
+}
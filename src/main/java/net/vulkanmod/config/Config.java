@@ -20,6 +20,9 @@ public class Config {
 
     public int advCulling = 2;
     public boolean indirectDraw = false;
+    // Reuse the section graph traversal while the camera stays in the same section
+    public boolean incrementalGraph = false;
+    public boolean occlusionCulling = false;
 
     public boolean uniqueOpaqueLayer = true;
     public boolean entityCulling = true;
@@ -27,6 +30,9 @@ public class Config {
 
     public int ambientOcclusion = 1;
 
+    // Entries of each builder thread face occlusion cache
+    public int faceOcclusionCacheSize = 16384;
+
     public void write() {
 
         if(!Files.exists(CONFIG_PATH.getParent())) {
@@ -249,6 +249,14 @@ public abstract class Options {
                                 value -> config.entityCulling = value,
                                 () -> config.entityCulling)
                                 .setTooltip(Component.translatable("vulkanmod.options.entityCulling.tooltip")),
+                        new SwitchOption(Component.translatable("vulkanmod.options.incrementalGraph"),
+                                value -> config.incrementalGraph = value,
+                                () -> config.incrementalGraph)
+                                .setTooltip(Component.translatable("vulkanmod.options.incrementalGraph.tooltip")),
+                        new SwitchOption(Component.translatable("vulkanmod.options.occlusionCulling"),
+                                value -> config.occlusionCulling = value,
+                                () -> config.occlusionCulling)
+                                .setTooltip(Component.translatable("vulkanmod.options.occlusionCulling.tooltip")),
                         new SwitchOption(Component.translatable("vulkanmod.options.uniqueOpaqueLayer"),
                                 value -> {
                                     config.uniqueOpaqueLayer = value;
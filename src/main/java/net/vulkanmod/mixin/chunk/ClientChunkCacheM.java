@@ -1,14 +1,18 @@
 package net.vulkanmod.mixin.chunk;
 
 import net.minecraft.client.multiplayer.ClientChunkCache;
+import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.game.ClientboundLevelChunkPacketData;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.vulkanmod.render.chunk.ChunkStatusMap;
+import net.vulkanmod.render.chunk.build.biome.BiomeColorCache;
 import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
@@ -19,10 +23,33 @@ import java.util.function.Consumer;
 @Mixin(ClientChunkCache.class)
 public class ClientChunkCacheM {
 
+    @Shadow @Final ClientLevel level;
+
+    @Inject(method = "<init>", at = @At("RETURN"))
+    private void createStatusMap(ClientLevel clientLevel, int viewDistance, CallbackInfo ci) {
+        ChunkStatusMap.createInstance(viewDistance);
+    }
+
+    @Inject(method = "updateViewCenter", at = @At("RETURN"))
+    private void updateStatusMapCenter(int x, int z, CallbackInfo ci) {
+        ChunkStatusMap.INSTANCE.setCenter(x, z);
+    }
+
+    @Inject(method = "updateViewRadius", at = @At("RETURN"))
+    private void updateStatusMapRadius(int viewDistance, CallbackInfo ci) {
+        ChunkStatusMap.INSTANCE.updateDistance(viewDistance);
+    }
+
     @Inject(method = "replaceWithPacketData", at = @At(value = "INVOKE",
             target = "Lnet/minecraft/client/multiplayer/ClientLevel;onChunkLoaded(Lnet/minecraft/world/level/ChunkPos;)V"))
     private void setChunkStatus(int x, int z, FriendlyByteBuf friendlyByteBuf, CompoundTag compoundTag, Consumer<ClientboundLevelChunkPacketData.BlockEntityTagOutput> consumer, CallbackInfoReturnable<@Nullable LevelChunk> cir) {
         ChunkStatusMap.INSTANCE.setChunkStatus(x, z, ChunkStatusMap.DATA_READY);
+        BiomeColorCache.INSTANCE.invalidateChunk(x, z, this.level.getMinBuildHeight(), this.level.getMaxBuildHeight());
+    }
+
+    @Inject(method = "replaceBiomes", at = @At("RETURN"))
+    private void invalidateBiomeColors(int x, int z, FriendlyByteBuf friendlyByteBuf, CallbackInfo ci) {
+        BiomeColorCache.INSTANCE.invalidateChunk(x, z, this.level.getMinBuildHeight(), this.level.getMaxBuildHeight());
     }
 
     @Inject(method = "drop", at = @At(value = "INVOKE",
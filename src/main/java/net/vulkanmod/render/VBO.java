@@ -7,12 +7,10 @@ import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.renderer.ShaderInstance;
 import net.vulkanmod.interfaces.ShaderMixed;
+import net.vulkanmod.vulkan.Drawer;
 import net.vulkanmod.vulkan.Renderer;
 import net.vulkanmod.vulkan.VRenderSystem;
-import net.vulkanmod.vulkan.memory.AutoIndexBuffer;
-import net.vulkanmod.vulkan.memory.IndexBuffer;
-import net.vulkanmod.vulkan.memory.MemoryTypes;
-import net.vulkanmod.vulkan.memory.VertexBuffer;
+import net.vulkanmod.vulkan.memory.*;
 import net.vulkanmod.vulkan.shader.GraphicsPipeline;
 import net.vulkanmod.vulkan.texture.VTextureSelector;
 import org.joml.Matrix4f;
@@ -21,17 +19,44 @@ import java.nio.ByteBuffer;
 
 @Environment(EnvType.CLIENT)
 public class VBO {
-    private VertexBuffer vertexBuffer;
-    private IndexBuffer indexBuffer;
+    private static final int VERTEX_ARENA_SIZE = 4 * 1024 * 1024;
+    private static final int INDEX_ARENA_SIZE = 512 * 1024;
+    private static final int ALIGNMENT = 16;
+
+    // Shared by every VBO, so that uploads don't need dedicated allocations
+    private static BufferArena<VertexBuffer> vertexArena;
+    private static BufferArena<IndexBuffer> indexArena;
+
+    private ArenaAllocator.Range vertexRange;
+    private ArenaAllocator.Range indexRange;
+    private AutoIndexBuffer autoIndexBuffer;
 
     private int indexCount;
     private int vertexCount;
     private VertexFormat.Mode mode;
 
-    private boolean autoIndexed = false;
-
     public VBO() {}
 
+    public static void createArenas() {
+        vertexArena = new BufferArena<>(VERTEX_ARENA_SIZE, ALIGNMENT, size -> new VertexBuffer(size, MemoryTypes.GPU_MEM));
+        indexArena = new BufferArena<>(INDEX_ARENA_SIZE, ALIGNMENT, size -> new IndexBuffer(size, MemoryTypes.GPU_MEM));
+    }
+
+    public static void beginFrame(long frame) {
+        vertexArena.beginFrame(frame);
+        indexArena.beginFrame(frame);
+    }
+
+    public static void retireFrames(long frame) {
+        vertexArena.retireFrames(frame);
+        indexArena.retireFrames(frame);
+    }
+
+    public static void freeArenas() {
+        vertexArena.cleanUp();
+        indexArena.cleanUp();
+    }
+
     public void upload(BufferBuilder.RenderedBuffer buffer) {
         BufferBuilder.DrawState parameters = buffer.drawState();
 
@@ -48,13 +73,7 @@ public class VBO {
 
     private void configureVertexFormat(BufferBuilder.DrawState parameters, ByteBuffer data) {
         if (!parameters.indexOnly()) {
-
-            if (this.vertexBuffer != null)
-                this.vertexBuffer.freeBuffer();
-
-            this.vertexBuffer = new VertexBuffer(data.remaining(), MemoryTypes.GPU_MEM);
-            this.vertexBuffer.copyToVertexBuffer(parameters.format().getVertexSize(), parameters.vertexCount(), data);
-
+            this.vertexRange = vertexArena.upload(this.vertexRange, data);
         }
     }
 
@@ -86,22 +105,19 @@ public class VBO {
                 default -> throw new IllegalStateException("Unexpected draw mode: %s".formatted(this.mode));
             }
 
-            if (this.indexBuffer != null && !this.autoIndexed)
-                this.indexBuffer.freeBuffer();
+            if (this.indexRange != null) {
+                indexArena.free(this.indexRange);
+                this.indexRange = null;
+            }
 
-            if (autoIndexBuffer != null) {
+            if (autoIndexBuffer != null)
                 autoIndexBuffer.checkCapacity(this.vertexCount);
-                this.indexBuffer = autoIndexBuffer.getIndexBuffer();
-            }
 
-            this.autoIndexed = true;
+            this.autoIndexBuffer = autoIndexBuffer;
 
         } else {
-            if (this.indexBuffer != null)
-                this.indexBuffer.freeBuffer();
-
-            this.indexBuffer = new IndexBuffer(data.remaining(), MemoryTypes.GPU_MEM);
-            this.indexBuffer.copyToBuffer(data);
+            this.indexRange = indexArena.upload(this.indexRange, data);
+            this.autoIndexBuffer = null;
         }
 
     }
@@ -130,10 +146,7 @@ public class VBO {
             VTextureSelector.bindShaderTextures(pipeline);
             renderer.uploadAndBindUBOs(pipeline);
 
-            if (this.indexBuffer != null)
-                Renderer.getDrawer().drawIndexed(this.vertexBuffer, this.indexBuffer, this.indexCount);
-            else
-                Renderer.getDrawer().draw(this.vertexBuffer, this.vertexCount);
+            this.draw();
 
             VRenderSystem.applyMVP(RenderSystem.getModelViewMatrix(), RenderSystem.getProjectionMatrix());
 
@@ -144,21 +157,41 @@ public class VBO {
         if (this.indexCount != 0) {
 
             RenderSystem.assertOnRenderThread();
-            Renderer.getDrawer().drawIndexed(this.vertexBuffer, this.indexBuffer, this.indexCount);
+            this.draw();
         }
     }
 
-    public void close() {
-        if (this.vertexCount <= 0)
+    private void draw() {
+        if (this.vertexRange == null)
             return;
 
-        this.vertexBuffer.freeBuffer();
-        this.vertexBuffer = null;
+        Drawer drawer = Renderer.getDrawer();
+        VertexBuffer vertexBuffer = vertexArena.getBuffer();
+        vertexArena.markUsed(this.vertexRange);
 
-        if (!this.autoIndexed) {
-            this.indexBuffer.freeBuffer();
-            this.indexBuffer = null;
+        if (this.indexRange != null) {
+            indexArena.markUsed(this.indexRange);
+            drawer.drawIndexed(vertexBuffer, this.vertexRange.getOffset(), indexArena.getBuffer(), this.indexRange.getOffset(), this.indexCount);
+        } else if (this.autoIndexBuffer != null) {
+            IndexBuffer indexBuffer = this.autoIndexBuffer.getIndexBuffer();
+            drawer.drawIndexed(vertexBuffer, this.vertexRange.getOffset(), indexBuffer, indexBuffer.getOffset(), this.indexCount);
+        } else {
+            drawer.draw(vertexBuffer, this.vertexRange.getOffset(), this.vertexCount);
         }
+    }
+
+    public void close() {
+        if (this.vertexRange != null) {
+            vertexArena.free(this.vertexRange);
+            this.vertexRange = null;
+        }
+
+        if (this.indexRange != null) {
+            indexArena.free(this.indexRange);
+            this.indexRange = null;
+        }
+
+        this.autoIndexBuffer = null;
 
         this.vertexCount = 0;
         this.indexCount = 0;
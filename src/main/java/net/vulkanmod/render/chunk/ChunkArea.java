@@ -3,7 +3,7 @@ package net.vulkanmod.render.chunk;
 import net.minecraft.core.BlockPos;
 import net.vulkanmod.render.chunk.buffer.DrawBuffers;
 import net.vulkanmod.render.chunk.frustum.VFrustum;
-import net.vulkanmod.render.chunk.util.StaticQueue;
+import net.vulkanmod.render.chunk.util.VersionedQueue;
 import org.joml.FrustumIntersection;
 import org.joml.Vector3i;
 
@@ -18,7 +18,7 @@ public class ChunkArea {
     DrawBuffers drawBuffers;
 
     //Help JIT optimisations by hardcoding the queue size to the max possible ChunkArea limit
-    public final StaticQueue<RenderSection> sectionQueue = new StaticQueue<>(512);
+    public final VersionedQueue<RenderSection> sectionQueue = new VersionedQueue<>(512);
 
     public ChunkArea(int i, Vector3i origin, int minHeight) {
         this.index = i;
@@ -1,8 +1,9 @@
 package net.vulkanmod.render.chunk;
 
 import net.minecraft.util.Mth;
+import net.vulkanmod.render.chunk.buffer.AreaBuffer;
 import net.vulkanmod.render.chunk.buffer.DrawBuffers;
-import net.vulkanmod.render.chunk.frustum.FrustumOctree;
+import net.vulkanmod.render.chunk.frustum.BatchedFrustumCuller;
 import net.vulkanmod.render.chunk.frustum.VFrustum;
 import net.vulkanmod.render.chunk.util.CircularIntList;
 import net.vulkanmod.render.chunk.util.Util;
@@ -26,9 +27,13 @@ public class ChunkAreaManager {
     final int minHeight;
     final ChunkArea[] chunkAreasArr;
 
+    private final BatchedFrustumCuller frustumCuller = new BatchedFrustumCuller(BatchedFrustumCuller.AREA_CELLS);
+
     int prevX;
     int prevZ;
 
+    int compactionIndex = 0;
+
     public ChunkAreaManager(int width, int height, int minHeight) {
         this.minHeight = minHeight;
         this.sectionGridWidth = width;
@@ -182,7 +187,7 @@ public class ChunkAreaManager {
     }
 
     public void updateFrustumVisibility(VFrustum frustum) {
-        FrustumOctree.updateFrustumVisibility(frustum, this.chunkAreasArr);
+        this.frustumCuller.updateFrustumVisibility(frustum, this.chunkAreasArr);
     }
 
     public void resetQueues() {
@@ -201,6 +206,22 @@ public class ChunkAreaManager {
         }
     }
 
+    /**
+     * Incrementally defragments area buffers, moving at most {@code maxBytes} per call.
+     * Areas are visited round-robin so that every buffer eventually gets compacted.
+     */
+    public void compactBuffers(int maxBytes) {
+        int moved = 0;
+
+        for (int i = 0; i < this.size && moved < maxBytes; ++i) {
+            this.compactionIndex = (this.compactionIndex + 1) % this.size;
+
+            DrawBuffers drawBuffers = this.chunkAreasArr[this.compactionIndex].drawBuffers;
+            if (drawBuffers.isAllocated())
+                moved += drawBuffers.compactBuffers(maxBytes - moved);
+        }
+    }
+
     public String[] getStats() {
         long vbSize = 0, ibSize = 0, frag = 0;
         long vbUsed = 0, ibUsed = 0;
@@ -218,11 +239,12 @@ public class ChunkAreaManager {
                     frag += buffer.fragmentation();
                 }
 
-                var indexBuffer = drawBuffers.getIndexBuffer();
-                if (indexBuffer != null) {
-                    ibSize += indexBuffer.getSize();
-                    ibUsed += indexBuffer.getUsed();
-                    frag += indexBuffer.fragmentation();
+                for (var indexBuffer : new AreaBuffer[]{drawBuffers.getIndexBuffer(), drawBuffers.getWideIndexBuffer()}) {
+                    if (indexBuffer != null) {
+                        ibSize += indexBuffer.getSize();
+                        ibUsed += indexBuffer.getUsed();
+                        frag += indexBuffer.fragmentation();
+                    }
                 }
 
                 count++;
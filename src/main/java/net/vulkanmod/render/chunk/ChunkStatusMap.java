@@ -1,8 +1,14 @@
 package net.vulkanmod.render.chunk;
 
-import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
-import net.minecraft.world.level.ChunkPos;
-
+import java.util.Arrays;
+
+/**
+ * Ready flags of the loaded chunks, stored in a circular 2D array that mirrors the client chunk cache storage:
+ * same view center and same radius, so every chunk the client can hold has a cell.
+ * <p>
+ * Each cell also keeps the count of ready chunks in its 3x3 neighbourhood, updated as chunks load and unload,
+ * so that {@link #chunkRenderReady} is a single lookup.
+ */
 public class ChunkStatusMap {
     public static final byte DATA_READY = 0b1;
     public static final byte LIGHT_READY = 0b10;
@@ -10,89 +16,221 @@ public class ChunkStatusMap {
     public static final byte CHUNK_READY = DATA_READY | LIGHT_READY;
     public static final byte ALL_FLAGS = CHUNK_READY | NEIGHBOURS_READY;
 
+    // Size of the 3x3 neighbourhood, chunk included
+    static final int NEIGHBOURHOOD = 9;
+
     public static ChunkStatusMap INSTANCE;
 
     public static void createInstance(int renderDistance) {
         INSTANCE = new ChunkStatusMap(renderDistance);
     }
 
-    private final Long2ByteOpenHashMap map;
+    private int radius;
+    private int width;
+
+    private int centerX;
+    private int centerZ;
+
+    private byte[] status;
+    private byte[] readyNeighbours;
 
     public ChunkStatusMap(int renderDistance) {
-        int diameter = renderDistance * 2 + 1;
-        map = new Long2ByteOpenHashMap(diameter * diameter);
-        map.defaultReturnValue((byte) 0);
+        this.allocate(storageRadius(renderDistance));
+    }
+
+    /**
+     * Same range as {@code ClientChunkCache.calculateStorageRange}.
+     */
+    public static int storageRadius(int renderDistance) {
+        return Math.max(2, renderDistance) + 3;
     }
 
+    private void allocate(int radius) {
+        this.radius = radius;
+        this.width = radius * 2 + 1;
+        this.status = new byte[this.width * this.width];
+        this.readyNeighbours = new byte[this.width * this.width];
+    }
+
+    /**
+     * Resizes the map keeping the status of chunks in range of both sizes.
+     */
     public void updateDistance(int renderDistance) {
-        int diameter = renderDistance * 2 + 1;
-        this.map.ensureCapacity(diameter * diameter);
+        int radius = storageRadius(renderDistance);
+        if (radius == this.radius)
+            return;
+
+        int oldRadius = this.radius;
+        int oldWidth = this.width;
+        byte[] oldStatus = this.status;
+
+        this.allocate(radius);
+
+        int r = Math.min(radius, oldRadius);
+        for (int z = this.centerZ - r; z <= this.centerZ + r; ++z) {
+            for (int x = this.centerX - r; x <= this.centerX + r; ++x) {
+                this.status[this.getIndex(x, z)] = oldStatus[getIndex(x, z, oldWidth)];
+            }
+        }
+
+        this.forEachInRange((x, z) -> this.readyNeighbours[this.getIndex(x, z)] = this.countReadyNeighbours(x, z));
+    }
+
+    /**
+     * Moves the map to a new view center, chunks that fall out of range are dropped
+     * as the client chunk cache does.
+     */
+    public void setCenter(int x, int z) {
+        if (x == this.centerX && z == this.centerZ)
+            return;
+
+        int oldX = this.centerX;
+        int oldZ = this.centerZ;
+
+        if (Math.abs(x - oldX) >= this.width || Math.abs(z - oldZ) >= this.width) {
+            this.centerX = x;
+            this.centerZ = z;
+            this.clear();
+            return;
+        }
+
+        // Leaving chunks are no longer ready for the neighbours that stay
+        this.forEachInRange((x1, z1) -> {
+            if (!inRange(x1, z1, x, z, this.radius) && isReady(this.status[this.getIndex(x1, z1)]))
+                this.updateNeighbourCounts(x1, z1, -1);
+        });
+
+        this.forEachInRange((x1, z1) -> {
+            if (!inRange(x1, z1, x, z, this.radius)) {
+                int idx = this.getIndex(x1, z1);
+                this.status[idx] = 0;
+                this.readyNeighbours[idx] = 0;
+            }
+        });
+
+        this.centerX = x;
+        this.centerZ = z;
+
+        // Entering chunks are not loaded, but their neighbours might be
+        this.forEachInRange((x1, z1) -> {
+            if (!inRange(x1, z1, oldX, oldZ, this.radius))
+                this.readyNeighbours[this.getIndex(x1, z1)] = this.countReadyNeighbours(x1, z1);
+        });
     }
 
     public void setChunkStatus(int x, int z, byte flag) {
-        long l = ChunkPos.asLong(x, z);
+        if (!this.inRange(x, z))
+            return;
 
-        byte current = map.get(l);
-        current |= flag;
-        map.put(l, current);
+        int idx = this.getIndex(x, z);
+        byte current = this.status[idx];
+        byte updated = (byte) (current | flag);
+        this.status[idx] = updated;
 
-        if ((current & CHUNK_READY) == CHUNK_READY)
-            updateNeighbours(x, z);
+        if (!isReady(current) && isReady(updated))
+            this.updateNeighbourCounts(x, z, 1);
     }
 
     public void resetChunkStatus(int x, int z, byte flag) {
-        long l = ChunkPos.asLong(x, z);
+        if (!this.inRange(x, z))
+            return;
 
-        byte current = map.get(l);
-        current = (byte) (current & ~flag);
-        map.put(l, current);
+        int idx = this.getIndex(x, z);
+        byte current = this.status[idx];
+        byte updated = (byte) (current & ~flag);
+        this.status[idx] = updated;
 
-        updateNeighbours(x, z);
+        if (isReady(current) && !isReady(updated))
+            this.updateNeighbourCounts(x, z, -1);
     }
 
-    public void updateNeighbours(int x, int z) {
-        for (int x1 = x - 1; x1 <= x + 1; ++x1) {
-            for (int z1 = z - 1; z1 <= z + 1; ++z1) {
-                if (checkNeighbours(x1, z1)) {
-                    map.put(ChunkPos.asLong(x1, z1), ALL_FLAGS);
-                }
-                else {
-                    long l = ChunkPos.asLong(x1, z1);
-
-                    byte current = map.get(l);
-                    byte n = (byte) (current & ~NEIGHBOURS_READY);
+    private void updateNeighbourCounts(int x, int z, int delta) {
+        for (int z1 = z - 1; z1 <= z + 1; ++z1) {
+            for (int x1 = x - 1; x1 <= x + 1; ++x1) {
+                if (this.inRange(x1, z1))
+                    this.readyNeighbours[this.getIndex(x1, z1)] += delta;
+            }
+        }
+    }
 
-                    if (current == 0b0)
-                        map.remove(l);
-                    else if (current != n)
-                        map.put(l, n);
-                }
+    private byte countReadyNeighbours(int x, int z) {
+        byte count = 0;
+        for (int z1 = z - 1; z1 <= z + 1; ++z1) {
+            for (int x1 = x - 1; x1 <= x + 1; ++x1) {
+                if (this.inRange(x1, z1) && isReady(this.status[this.getIndex(x1, z1)]))
+                    ++count;
             }
         }
+        return count;
     }
 
     public boolean checkNeighbours(int x, int z) {
-        byte flags = CHUNK_READY;
-        for (int x1 = x - 1; x1 <= x + 1; ++x1) {
-            for (int z1 = z - 1; z1 <= z + 1; ++z1) {
-                flags &= map.get(ChunkPos.asLong(x1, z1));
+        return this.inRange(x, z) && this.readyNeighbours[this.getIndex(x, z)] == NEIGHBOURHOOD;
+    }
+
+    public boolean chunkRenderReady(int x, int z) {
+        return this.checkNeighbours(x, z);
+    }
+
+    /**
+     * @return the chunk flags, with {@link #NEIGHBOURS_READY} set if the whole neighbourhood is ready
+     */
+    public byte getStatus(int x, int z) {
+        if (!this.inRange(x, z))
+            return 0;
+
+        int idx = this.getIndex(x, z);
+        byte neighbours = this.readyNeighbours[idx] == NEIGHBOURHOOD ? NEIGHBOURS_READY : 0;
+        return (byte) (this.status[idx] | neighbours);
+    }
+
+    int getReadyNeighbours(int x, int z) {
+        return this.inRange(x, z) ? this.readyNeighbours[this.getIndex(x, z)] : 0;
+    }
+
+    public boolean inRange(int x, int z) {
+        return inRange(x, z, this.centerX, this.centerZ, this.radius);
+    }
 
-                if (flags != CHUNK_READY)
-                    return false;
+    public int getRadius() {
+        return this.radius;
+    }
+
+    public void clear() {
+        Arrays.fill(this.status, (byte) 0);
+        Arrays.fill(this.readyNeighbours, (byte) 0);
+    }
+
+    public void reset() {
+        this.clear();
+    }
+
+    private void forEachInRange(PosConsumer consumer) {
+        for (int z = this.centerZ - this.radius; z <= this.centerZ + this.radius; ++z) {
+            for (int x = this.centerX - this.radius; x <= this.centerX + this.radius; ++x) {
+                consumer.accept(x, z);
             }
         }
-        return true;
+    }
 
-//        return flags == CHUNK_READY;
+    private int getIndex(int x, int z) {
+        return getIndex(x, z, this.width);
     }
 
-    public boolean chunkRenderReady(int x, int z) {
-        byte status = map.get(ChunkPos.asLong(x, z));
-        return status == ALL_FLAGS;
+    private static int getIndex(int x, int z, int width) {
+        return Math.floorMod(z, width) * width + Math.floorMod(x, width);
     }
 
-    public void reset() {
+    private static boolean inRange(int x, int z, int centerX, int centerZ, int radius) {
+        return Math.abs(x - centerX) <= radius && Math.abs(z - centerZ) <= radius;
+    }
 
+    private static boolean isReady(byte status) {
+        return (status & CHUNK_READY) == CHUNK_READY;
     }
 
+    @FunctionalInterface
+    private interface PosConsumer {
+        void accept(int x, int z);
+    }
 }
@@ -55,6 +55,7 @@ public class RenderSection {
     public byte sourceDirs;
     public byte steps;
     public byte directionChanges;
+    public short lastReachedFrame = -1;
 
     public RenderSection(int index, int x, int y, int z) {
         this.xOffset = x;
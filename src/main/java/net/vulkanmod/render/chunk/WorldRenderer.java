@@ -29,6 +29,7 @@ import net.vulkanmod.render.chunk.buffer.DrawBuffers;
 import net.vulkanmod.render.chunk.build.BlockRenderer;
 import net.vulkanmod.render.chunk.build.RenderRegionBuilder;
 import net.vulkanmod.render.chunk.build.TaskDispatcher;
+import net.vulkanmod.render.chunk.build.biome.BiomeColorCache;
 import net.vulkanmod.render.chunk.build.task.ChunkTask;
 import net.vulkanmod.render.chunk.graph.SectionGraph;
 import net.vulkanmod.render.profiling.BuildTimeProfiler;
@@ -51,6 +52,8 @@ import java.util.*;
 public class WorldRenderer {
     private static WorldRenderer INSTANCE;
 
+    private static final int COMPACTION_BYTES_PER_FRAME = 2 * 1024 * 1024;
+
     private final Minecraft minecraft;
     private ClientLevel level;
     private int renderDistance;
@@ -212,8 +215,16 @@ public class WorldRenderer {
         profiler.push("Uploads");
 
         try {
-            if (this.taskDispatcher.updateSections())
+            if (this.taskDispatcher.updateSections()) {
                 this.graphNeedsUpdate = true;
+
+                // Uploaded sections may have new visibility data
+                if (this.sectionGraph != null)
+                    this.sectionGraph.invalidateTraversal();
+            }
+
+            if (this.sectionGrid != null)
+                this.sectionGrid.chunkAreaManager.compactBuffers(COMPACTION_BYTES_PER_FRAME);
         } catch (Exception e) {
             Initializer.LOGGER.error(e.getMessage());
             allChanged();
@@ -233,6 +244,7 @@ public class WorldRenderer {
         if (this.level != null) {
 //            this.graphicsChanged();
             this.level.clearTintCaches();
+            BiomeColorCache.INSTANCE.clear();
 
             this.renderRegionCache.clear();
             this.taskDispatcher.createThreads();
@@ -273,7 +285,7 @@ public class WorldRenderer {
 
 //        this.entityRenderDispatcher.setLevel(level);
         this.level = level;
-        ChunkStatusMap.createInstance(renderDistance);
+        BiomeColorCache.INSTANCE.clear();
         if (level != null) {
             this.allChanged();
         } else {
@@ -338,7 +350,7 @@ public class WorldRenderer {
                     renderer.uploadAndBindUBOs(pipeline);
 
                     if (indirectDraw)
-                        drawBuffers.buildDrawBatchesIndirect(indirectBuffers[currentFrame], queue, terrainRenderType);
+                        drawBuffers.buildDrawBatchesIndirect(indirectBuffers[currentFrame], queue, queue.getVersion(), terrainRenderType);
                     else
                         drawBuffers.buildDrawBatchesDirect(queue, terrainRenderType);
                 }
@@ -439,7 +451,7 @@ public class WorldRenderer {
     public void setSectionDirty(int x, int y, int z, boolean flag) {
         this.sectionGrid.setDirty(x, y, z, flag);
 
-        this.renderRegionCache.remove(x, z);
+        this.renderRegionCache.setSectionDirty(x, y, z);
     }
 
     public SectionGrid getSectionGrid() {
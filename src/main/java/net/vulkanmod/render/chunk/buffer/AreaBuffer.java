@@ -1,12 +1,12 @@
 package net.vulkanmod.render.chunk.buffer;
 
-import it.unimi.dsi.fastutil.ints.Int2ReferenceOpenHashMap;
 import net.vulkanmod.Initializer;
 import net.vulkanmod.render.chunk.util.Util;
 import net.vulkanmod.vulkan.memory.*;
 import org.apache.logging.log4j.Logger;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 public class AreaBuffer {
     private static final boolean DEBUG = false;
@@ -14,17 +14,16 @@ public class AreaBuffer {
 
     private static final MemoryType MEMORY_TYPE = MemoryTypes.GPU_MEM;
 
+    private static final int MAX_COMPACTION_CANDIDATES = 256;
+
     private final int usage;
     private final int elementSize;
 
-    private final Int2ReferenceOpenHashMap<Segment> usedSegments = new Int2ReferenceOpenHashMap<>();
-
-    Segment first, last;
+    private final SegmentAllocator allocator;
 
     private Buffer buffer;
 
-    int size, used = 0;
-    int segments = 0;
+    int size;
 
     public AreaBuffer(Usage usage, int elementCount, int elementSize) {
         this.usage = usage.usage;
@@ -33,10 +32,7 @@ public class AreaBuffer {
         this.size = elementCount * elementSize;
         this.buffer = this.allocateBuffer();
 
-        Segment s = new Segment(0, this.size);
-
-        segments++;
-        last = first = s;
+        this.allocator = new SegmentAllocator(this.size, elementSize);
     }
 
     private Buffer allocateBuffer() {
@@ -64,54 +60,26 @@ public class AreaBuffer {
 
         Segment segment = findSegment(size);
 
-        if (segment.size - size > 0) {
-            Segment s1 = new Segment(segment.offset + size, segment.size - size);
-            segments++;
-
-            if (segment.next != null) {
-                s1.bindNext(segment.next);
-            } else
-                this.last = s1;
-
-            segment.bindNext(s1);
-
-            segment.size = size;
-        }
-
-        segment.free = false;
-        this.usedSegments.put(segment.offset, segment);
-
         segment.drawParameters = drawParameters;
 
         Buffer dst = this.buffer;
         UploadManager.INSTANCE.recordUpload(dst, segment.offset, size, byteBuffer);
 
-        this.used += size;
-
         return segment;
     }
 
     public Segment findSegment(int size) {
-        Segment segment = null;
-
-        Segment segment1 = this.first;
-        while (segment1 != null) {
-            if (segment1.isFree() && segment1.size >= size) {
-                if (segment == null || segment1.size < segment.size)
-                    segment = segment1;
-            }
-
-            segment1 = segment1.next;
-        }
+        Segment segment = this.allocator.allocate(size);
 
-        if (segment == null || segment.size < size) {
-            return this.reallocate(size);
+        if (segment == null) {
+            this.reallocate(size);
+            segment = this.allocator.allocate(size);
         }
 
         return segment;
     }
 
-    public Segment reallocate(int uploadSize) {
+    public void reallocate(int uploadSize) {
         int oldSize = this.size;
 
         int minIncrement = this.size >> 3;
@@ -129,128 +97,52 @@ public class AreaBuffer {
 
         UploadManager.INSTANCE.copyBuffer(this.buffer, dst);
 
-        // TODO: moving only used segments causes corruption
-//        moveUsedSegments(dst);
-
         this.buffer.freeBuffer();
         this.buffer = dst;
 
-        if (last.isFree()) {
-            last.size += increment;
-        }
-        else {
-            int offset = last.offset + last.size;
-            Segment segment = new Segment(offset, newSize - offset);
-            segments++;
-
-            last.bindNext(segment);
-
-            last = segment;
-        }
+        this.allocator.grow(increment);
 
         if (DEBUG)
-            checkSegments();
-
-        return last;
-    }
-
-    void moveUsedSegments(Buffer dst) {
-        int srcOffset, dstOffset, uploadSize;
-        int usedCount = 0;
-
-        dstOffset = 0;
-        int currOffset = dstOffset;
-
-        Segment segment = this.first;
-        Segment prevUsed = null;
-
-        srcOffset = -1;
-        uploadSize = 0;
-
-        while (segment != null) {
-            if (!segment.isFree()) {
-                usedCount++;
-
-                if (segment.offset != srcOffset + uploadSize) {
-
-                    if (srcOffset == -1) {
-                        dstOffset = 0;
-                        this.first = segment;
-                        segment.prev = null;
-                    } else {
-                        UploadManager.INSTANCE.copyBuffer(this.buffer, srcOffset, dst, dstOffset, uploadSize);
-
-                        dstOffset += uploadSize;
-                    }
-
-                    srcOffset = segment.offset;
-                    uploadSize = segment.size;
-
-                } else {
-                    uploadSize += segment.size;
-                }
-
-                this.usedSegments.remove(segment.offset);
-                segment.offset = currOffset;
-                currOffset += segment.size;
-                updateDrawParams(segment);
-                this.usedSegments.put(segment.offset, segment);
-
-                if (prevUsed != null) {
-                    prevUsed.bindNext(segment);
-                }
-
-                prevUsed = segment;
-            }
-
-            segment = segment.next;
-        }
-
-        if (uploadSize > 0) {
-            UploadManager.INSTANCE.copyBuffer(this.buffer, srcOffset, dst, dstOffset, uploadSize);
-        }
-
-        if (prevUsed != null) {
-            prevUsed.next = null;
-            this.last = prevUsed;
-
-            this.segments = usedCount;
-        }
+            this.allocator.checkSegments();
     }
 
     public void setSegmentFree(int offset) {
-        Segment segment = usedSegments.remove(offset * elementSize);
+        this.allocator.free(offset * elementSize);
+    }
 
-        if (segment == null)
-            return;
+    /**
+     * Moves up to {@code maxBytes} of used segments from the end of the buffer into earlier free ranges.
+     * Draw parameters are updated together with the recorded copy, old ranges are freed once
+     * the frames that might still read them have completed.
+     * @return the number of bytes moved
+     */
+    public int compact(int maxBytes) {
+        // Small holes are left to be filled by uploads
+        if (this.fragmentation() < this.size >> 5)
+            return 0;
 
-        this.used -= segment.size;
+        List<SegmentAllocator.Move> moves = this.allocator.planCompaction(maxBytes, MAX_COMPACTION_CANDIDATES);
 
-        segment.free = true;
-        segment.drawParameters = null;
+        int moved = 0;
+        for (SegmentAllocator.Move move : moves) {
+            Segment src = move.src();
+            Segment dst = this.allocator.applyMove(move);
 
-        Segment next = segment.next;
-        if (next != null && next.isFree()) {
-            mergeSegments(segment, next);
-        }
+            if (dst == null)
+                continue;
 
-        Segment prev = segment.prev;
-        if (prev != null && prev.isFree()) {
-            mergeSegments(prev, segment);
-        }
-    }
+            UploadManager.INSTANCE.copyBuffer(this.buffer, src.offset, this.buffer, dst.offset, dst.size);
+            updateDrawParams(dst);
 
-    private void mergeSegments(Segment segment, Segment next) {
-        segment.size += next.size;
+            MemoryManager.getInstance().addToFreeSegment(this, src.offset / elementSize);
 
-        if (next.next != null) {
-            next.next.prev = segment;
-        } else {
-            this.last = segment;
+            moved += dst.size;
         }
 
-        segment.next = next.next;
-        this.segments--;
+        if (DEBUG)
+            this.allocator.checkSegments();
+
+        return moved;
     }
 
     private void updateDrawParams(Segment segment) {
@@ -273,71 +165,11 @@ public class AreaBuffer {
     }
 
     public int fragmentation() {
-        return (size - used) - (last.isFree() ? last.size : 0);
+        return this.allocator.fragmentation();
     }
 
     public void checkSegments() {
-        Segment segment = first;
-        Segment prev = null;
-        int i = 0;
-        int usedSegments = 0;
-
-        if (segment.offset != 0)
-            LOGGER.error(String.format("expected first offset 0 but got %d", segment.offset));
-
-        while (segment != null) {
-            if (i >= this.segments) {
-                LOGGER.error("Count is greater than segments");
-                break;
-            }
-
-            if (segment.prev != prev) {
-                LOGGER.error(String.format("expected previous segment not matching (segment %d)", i));
-            }
-
-            if (!segment.isFree()) {
-                usedSegments++;
-            }
-
-            if (segment.offset % elementSize != 0) {
-                LOGGER.error(String.format("offset %d misaligned (segment %d)", segment.offset, i));
-            }
-
-            Segment next = segment.next;
-
-            if (next != null) {
-                int offset = segment.offset + segment.size;
-                if (offset != next.offset)
-                    LOGGER.error(String.format("expected offset %d but got %d (segment %d)", offset, next.offset, i));
-
-                if (next.prev != segment)
-                    LOGGER.error(String.format("segment pointer not correct (segment %d)", i));
-
-            } else {
-                if (segment != this.last)
-                    LOGGER.error(String.format("segment has no next pointer and it's not last (segment %d)", i));
-                else {
-                    int segmentEnd = segment.offset + segment.size;
-                    if (segment.offset + segment.size != this.size)
-                        LOGGER.error(String.format("last segment end (%d) does not match buffer size (%d)", segmentEnd, this.size));
-
-                    // Check segmentation
-                    if (segment.offset != this.used)
-                        LOGGER.error(String.format("last segment offset (%d) does not match buffer used size (%d)", segmentEnd, this.size));
-                }
-
-            }
-
-            prev = segment;
-            segment = next;
-            i++;
-        }
-
-        if (i != this.segments)
-            LOGGER.error("Count do not match segments");
-
-        if (usedSegments != this.usedSegments.size())
-            LOGGER.error("Counted used segment do not match used segments map size");
+        this.allocator.checkSegments();
     }
 
     public int getSize() {
@@ -345,7 +177,7 @@ public class AreaBuffer {
     }
 
     public int getUsed() {
-        return used;
+        return this.allocator.getUsed();
     }
 
     public static class Segment {
@@ -355,7 +187,7 @@ public class AreaBuffer {
 
         Segment next, prev;
 
-        private Segment(int offset, int size) {
+        Segment(int offset, int size) {
             this.offset = offset;
             this.size = size;
         }
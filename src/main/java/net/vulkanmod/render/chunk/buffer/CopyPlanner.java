@@ -0,0 +1,156 @@
+package net.vulkanmod.render.chunk.buffer;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Groups buffer copies into batches that can be recorded without barriers between them.
+ * <p>
+ * Copies are kept in recording order across batches, a copy starts a new batch when it reads a range written
+ * in the current batch, or writes a range read or written in it. Inside a batch copies with the same
+ * source and destination buffers are merged into a single region list, joining contiguous ranges.
+ * A barrier is needed before every batch but the first one.
+ */
+public abstract class CopyPlanner {
+    private static final Comparator<Region> SRC_OFFSET_COMPARATOR = Comparator.comparingLong(Region::srcOffset);
+
+    public static List<Batch> plan(List<Copy> copies) {
+        List<Batch> batches = new ObjectArrayList<>();
+
+        BatchBuilder builder = new BatchBuilder();
+        for (Copy copy : copies) {
+            if (copy.size <= 0)
+                continue;
+
+            if (builder.conflicts(copy)) {
+                batches.add(builder.build());
+                builder = new BatchBuilder();
+            }
+
+            builder.add(copy);
+        }
+
+        if (!builder.isEmpty())
+            batches.add(builder.build());
+
+        return batches;
+    }
+
+    static class BatchBuilder {
+        final Long2ObjectOpenHashMap<Ranges> reads = new Long2ObjectOpenHashMap<>();
+        final Long2ObjectOpenHashMap<Ranges> writes = new Long2ObjectOpenHashMap<>();
+
+        final List<Group> groups = new ObjectArrayList<>();
+
+        boolean conflicts(Copy copy) {
+            long srcEnd = copy.srcOffset + copy.size;
+            long dstEnd = copy.dstOffset + copy.size;
+
+            return overlaps(this.writes, copy.src, copy.srcOffset, srcEnd)
+                    || overlaps(this.writes, copy.dst, copy.dstOffset, dstEnd)
+                    || overlaps(this.reads, copy.dst, copy.dstOffset, dstEnd);
+        }
+
+        void add(Copy copy) {
+            this.reads.computeIfAbsent(copy.src, id -> new Ranges()).add(copy.srcOffset, copy.srcOffset + copy.size);
+            this.writes.computeIfAbsent(copy.dst, id -> new Ranges()).add(copy.dstOffset, copy.dstOffset + copy.size);
+
+            Group group = null;
+            for (Group g : this.groups) {
+                if (g.src == copy.src && g.dst == copy.dst) {
+                    group = g;
+                    break;
+                }
+            }
+
+            if (group == null) {
+                group = new Group(copy.src, copy.dst, new ObjectArrayList<>());
+                this.groups.add(group);
+            }
+
+            group.regions.add(new Region(copy.srcOffset, copy.dstOffset, copy.size));
+        }
+
+        boolean isEmpty() {
+            return this.groups.isEmpty();
+        }
+
+        Batch build() {
+            for (Group group : this.groups) {
+                mergeRegions(group.regions);
+            }
+
+            return new Batch(this.groups);
+        }
+
+        private static boolean overlaps(Long2ObjectOpenHashMap<Ranges> map, long buffer, long start, long end) {
+            Ranges ranges = map.get(buffer);
+            return ranges != null && ranges.overlaps(start, end);
+        }
+    }
+
+    static void mergeRegions(List<Region> regions) {
+        if (regions.size() < 2)
+            return;
+
+        regions.sort(SRC_OFFSET_COMPARATOR);
+
+        int j = 0;
+        Region last = regions.get(0);
+        for (int i = 1; i < regions.size(); ++i) {
+            Region region = regions.get(i);
+
+            if (last.srcOffset + last.size == region.srcOffset && last.dstOffset + last.size == region.dstOffset) {
+                last = new Region(last.srcOffset, last.dstOffset, last.size + region.size);
+            } else {
+                regions.set(j++, last);
+                last = region;
+            }
+        }
+        regions.set(j++, last);
+
+        regions.subList(j, regions.size()).clear();
+    }
+
+    /**
+     * Disjoint [start, end) ranges, adjacent ranges are joined.
+     */
+    static class Ranges {
+        final TreeMap<Long, Long> ranges = new TreeMap<>();
+
+        boolean overlaps(long start, long end) {
+            Map.Entry<Long, Long> entry = this.ranges.lowerEntry(end);
+            return entry != null && entry.getValue() > start;
+        }
+
+        void add(long start, long end) {
+            Map.Entry<Long, Long> entry = this.ranges.floorEntry(start);
+            if (entry != null && entry.getValue() >= start) {
+                start = entry.getKey();
+                end = Math.max(end, entry.getValue());
+            }
+
+            entry = this.ranges.ceilingEntry(start);
+            while (entry != null && entry.getKey() <= end) {
+                end = Math.max(end, entry.getValue());
+                this.ranges.remove(entry.getKey());
+                entry = this.ranges.higherEntry(entry.getKey());
+            }
+
+            this.ranges.put(start, end);
+        }
+    }
+
+    public record Copy(long src, long srcOffset, long dst, long dstOffset, long size) {}
+
+    public record Region(long srcOffset, long dstOffset, long size) {}
+
+    public record Group(long src, long dst, List<Region> regions) {}
+
+    public record Batch(List<Group> groups) {}
+}
@@ -12,7 +12,6 @@ import net.vulkanmod.vulkan.memory.IndirectBuffer;
 import net.vulkanmod.vulkan.shader.Pipeline;
 import org.joml.Vector3i;
 import org.lwjgl.system.MemoryStack;
-import org.lwjgl.system.MemoryUtil;
 import org.lwjgl.vulkan.VkCommandBuffer;
 
 import java.nio.ByteBuffer;
@@ -23,14 +22,21 @@ import static org.lwjgl.vulkan.VK10.*;
 public class DrawBuffers {
     private static final int VERTEX_SIZE = PipelineManager.TERRAIN_VERTEX_FORMAT.getVertexSize();
     private static final int INDEX_SIZE = Short.BYTES;
+    private static final int WIDE_INDEX_SIZE = Integer.BYTES;
     private final int index;
     private final Vector3i origin;
     private final int minHeight;
 
     private boolean allocated = false;
     AreaBuffer indexBuffer;
+    // Sections with too many vertices for 16 bit indices
+    AreaBuffer wideIndexBuffer;
     private final EnumMap<TerrainRenderType, AreaBuffer> vertexBuffers = new EnumMap<>(TerrainRenderType.class);
 
+    // Incremented when the draw parameters of any section change
+    private int version;
+    private final EnumMap<TerrainRenderType, DrawCommandList> commandLists = new EnumMap<>(TerrainRenderType.class);
+
     //Need ugly minHeight Parameter to fix custom world heights (exceeding 384 Blocks in total)
     public DrawBuffers(int index, Vector3i origin, int minHeight) {
         this.index = index;
@@ -51,17 +57,29 @@ public class DrawBuffers {
         }
 
         if (!buffer.autoIndices) {
-            if (this.indexBuffer == null)
-                this.indexBuffer = new AreaBuffer(AreaBuffer.Usage.INDEX, 60000, INDEX_SIZE);
+            int oldFirstIndex = drawParameters.firstIndex;
+
+            // Previous indices might be in the other index buffer
+            if (oldFirstIndex != -1 && drawParameters.wideIndices != buffer.wideIndices) {
+                AreaBuffer oldIndexBuffer = this.getIndexBuffer(drawParameters.wideIndices);
+                if (oldIndexBuffer != null)
+                    oldIndexBuffer.setSegmentFree(oldFirstIndex);
+
+                oldFirstIndex = -1;
+            }
 
-            AreaBuffer.Segment segment = this.indexBuffer.upload(buffer.getIndexBuffer(), drawParameters.firstIndex, drawParameters);
-            firstIndex = segment.offset / INDEX_SIZE;
+            AreaBuffer indexBuffer = this.getIndexBufferOrAlloc(buffer.wideIndices);
+            AreaBuffer.Segment segment = indexBuffer.upload(buffer.getIndexBuffer(), oldFirstIndex, drawParameters);
+            firstIndex = segment.offset / (buffer.wideIndices ? WIDE_INDEX_SIZE : INDEX_SIZE);
+            drawParameters.wideIndices = buffer.wideIndices;
         }
 
         drawParameters.indexCount = buffer.indexCount;
         drawParameters.firstIndex = firstIndex;
         drawParameters.vertexOffset = vertexOffset;
 
+        this.version++;
+
         buffer.release();
     }
 
@@ -78,6 +96,20 @@ public class DrawBuffers {
                 renderType, renderType1 -> new AreaBuffer(AreaBuffer.Usage.VERTEX, initialSize, VERTEX_SIZE));
     }
 
+    private AreaBuffer getIndexBufferOrAlloc(boolean wideIndices) {
+        if (wideIndices) {
+            if (this.wideIndexBuffer == null)
+                this.wideIndexBuffer = new AreaBuffer(AreaBuffer.Usage.INDEX, 60000, WIDE_INDEX_SIZE);
+
+            return this.wideIndexBuffer;
+        }
+
+        if (this.indexBuffer == null)
+            this.indexBuffer = new AreaBuffer(AreaBuffer.Usage.INDEX, 60000, INDEX_SIZE);
+
+        return this.indexBuffer;
+    }
+
     public AreaBuffer getAreaBuffer(TerrainRenderType r) {
         return this.vertexBuffers.get(r);
     }
@@ -110,16 +142,22 @@ public class DrawBuffers {
         vkCmdPushConstants(commandBuffer, pipeline.getLayout(), VK_SHADER_STAGE_VERTEX_BIT, 0, byteBuffer);
     }
 
-    public void buildDrawBatchesIndirect(IndirectBuffer indirectBuffer, StaticQueue<RenderSection> queue, TerrainRenderType terrainRenderType) {
-
-        try (MemoryStack stack = MemoryStack.stackPush()) {
+    /**
+     * @param queueVersion version of {@code queue}, the cached commands are reused while it and the draw parameters don't change
+     */
+    public void buildDrawBatchesIndirect(IndirectBuffer indirectBuffer, StaticQueue<RenderSection> queue, int queueVersion, TerrainRenderType terrainRenderType) {
+        // A single indirect draw can't switch index type, wide sections are rare so draw directly instead
+        if (terrainRenderType == TerrainRenderType.TRANSLUCENT && this.wideIndexBuffer != null && this.wideIndexBuffer.getUsed() > 0) {
+            buildDrawBatchesDirect(queue, terrainRenderType);
+            return;
+        }
 
-            ByteBuffer byteBuffer = stack.malloc(20 * queue.size());
-            long bufferPtr = MemoryUtil.memAddress0(byteBuffer);
+        DrawCommandList commandList = this.commandLists.computeIfAbsent(terrainRenderType, renderType -> new DrawCommandList());
 
+        if (!commandList.isValid(queueVersion, this.version)) {
             boolean isTranslucent = terrainRenderType == TerrainRenderType.TRANSLUCENT;
 
-            int drawCount = 0;
+            commandList.begin(queue.size());
             for (var iterator = queue.iterator(isTranslucent); iterator.hasNext(); ) {
 
                 final RenderSection section = iterator.next();
@@ -128,30 +166,24 @@ public class DrawBuffers {
                 if (drawParameters.indexCount <= 0)
                     continue;
 
-                long ptr = bufferPtr + (drawCount * 20L);
-                MemoryUtil.memPutInt(ptr, drawParameters.indexCount);
-                MemoryUtil.memPutInt(ptr + 4, 1);
-                MemoryUtil.memPutInt(ptr + 8, drawParameters.firstIndex == -1 ? 0 : drawParameters.firstIndex);
-                MemoryUtil.memPutInt(ptr + 12, drawParameters.vertexOffset);
-                MemoryUtil.memPutInt(ptr + 16, drawParameters.baseInstance);
-
-                drawCount++;
+                commandList.add(drawParameters.indexCount, drawParameters.firstIndex == -1 ? 0 : drawParameters.firstIndex,
+                        drawParameters.vertexOffset, drawParameters.baseInstance);
             }
-
-            if (drawCount == 0) return;
-
-            indirectBuffer.recordCopyCmd(byteBuffer.position(0));
-
-
-            vkCmdDrawIndexedIndirect(Renderer.getCommandBuffer(), indirectBuffer.getId(), indirectBuffer.getOffset(), drawCount, 20);
+            commandList.end(queueVersion, this.version);
         }
 
+        int drawCount = commandList.getDrawCount();
+        if (drawCount == 0) return;
+
+        indirectBuffer.recordCopyCmd(commandList.getCommands());
 
+        vkCmdDrawIndexedIndirect(Renderer.getCommandBuffer(), indirectBuffer.getId(), indirectBuffer.getOffset(), drawCount, DrawCommandList.COMMAND_SIZE);
     }
 
     public void buildDrawBatchesDirect(StaticQueue<RenderSection> queue, TerrainRenderType renderType) {
         boolean isTranslucent = renderType == TerrainRenderType.TRANSLUCENT;
         VkCommandBuffer commandBuffer = Renderer.getCommandBuffer();
+        boolean wideIndices = false;
 
         for (var iterator = queue.iterator(isTranslucent); iterator.hasNext(); ) {
             final RenderSection section = iterator.next();
@@ -160,6 +192,11 @@ public class DrawBuffers {
             if (drawParameters.indexCount <= 0)
                 continue;
 
+            if (isTranslucent && drawParameters.wideIndices != wideIndices) {
+                wideIndices = drawParameters.wideIndices;
+                bindIndexBuffer(commandBuffer, wideIndices);
+            }
+
             final int firstIndex = drawParameters.firstIndex == -1 ? 0 : drawParameters.firstIndex;
             vkCmdDrawIndexed(commandBuffer, drawParameters.indexCount, 1, firstIndex, drawParameters.vertexOffset, drawParameters.baseInstance);
         }
@@ -173,12 +210,19 @@ public class DrawBuffers {
             updateChunkAreaOrigin(commandBuffer, pipeline, camX, camY, camZ, stack);
         }
 
-        if (terrainRenderType == TerrainRenderType.TRANSLUCENT) {
-            vkCmdBindIndexBuffer(commandBuffer, this.indexBuffer.getId(), 0, VK_INDEX_TYPE_UINT16);
+        if (terrainRenderType == TerrainRenderType.TRANSLUCENT && this.indexBuffer != null) {
+            bindIndexBuffer(commandBuffer, false);
         }
 
     }
 
+    private void bindIndexBuffer(VkCommandBuffer commandBuffer, boolean wideIndices) {
+        if (wideIndices)
+            vkCmdBindIndexBuffer(commandBuffer, this.wideIndexBuffer.getId(), 0, VK_INDEX_TYPE_UINT32);
+        else
+            vkCmdBindIndexBuffer(commandBuffer, this.indexBuffer.getId(), 0, VK_INDEX_TYPE_UINT16);
+    }
+
     public void releaseBuffers() {
         if (!this.allocated)
             return;
@@ -190,9 +234,40 @@ public class DrawBuffers {
             this.indexBuffer.freeBuffer();
         this.indexBuffer = null;
 
+        if (this.wideIndexBuffer != null)
+            this.wideIndexBuffer.freeBuffer();
+        this.wideIndexBuffer = null;
+
+        this.commandLists.values().forEach(DrawCommandList::free);
+        this.commandLists.clear();
+        this.version++;
+
         this.allocated = false;
     }
 
+    public int compactBuffers(int maxBytes) {
+        int moved = 0;
+
+        for (AreaBuffer areaBuffer : this.vertexBuffers.values()) {
+            if (moved >= maxBytes)
+                break;
+
+            moved += areaBuffer.compact(maxBytes - moved);
+        }
+
+        if (this.indexBuffer != null && moved < maxBytes)
+            moved += this.indexBuffer.compact(maxBytes - moved);
+
+        if (this.wideIndexBuffer != null && moved < maxBytes)
+            moved += this.wideIndexBuffer.compact(maxBytes - moved);
+
+        // Moved segments change draw offsets
+        if (moved > 0)
+            this.version++;
+
+        return moved;
+    }
+
     public boolean isAllocated() {
         return !this.vertexBuffers.isEmpty();
     }
@@ -205,24 +280,43 @@ public class DrawBuffers {
         return indexBuffer;
     }
 
+    public AreaBuffer getWideIndexBuffer() {
+        return wideIndexBuffer;
+    }
+
+    AreaBuffer getIndexBuffer(boolean wideIndices) {
+        return wideIndices ? this.wideIndexBuffer : this.indexBuffer;
+    }
+
     public static class DrawParameters {
         int indexCount = 0;
         int firstIndex = -1;
         int vertexOffset = -1;
         int baseInstance;
+        boolean wideIndices;
 
         public DrawParameters() {}
 
         public void reset(ChunkArea chunkArea, TerrainRenderType r) {
-            AreaBuffer areaBuffer = chunkArea.getDrawBuffers().getAreaBuffer(r);
+            DrawBuffers drawBuffers = chunkArea.getDrawBuffers();
+
+            // Offsets are in elements, AreaBuffer converts them to bytes
+            AreaBuffer areaBuffer = drawBuffers.getAreaBuffer(r);
             if (areaBuffer != null && this.vertexOffset != -1) {
-                int segmentOffset = this.vertexOffset * VERTEX_SIZE;
-                areaBuffer.setSegmentFree(segmentOffset);
+                areaBuffer.setSegmentFree(this.vertexOffset);
+            }
+
+            AreaBuffer indexBuffer = drawBuffers.getIndexBuffer(this.wideIndices);
+            if (indexBuffer != null && this.firstIndex != -1) {
+                indexBuffer.setSegmentFree(this.firstIndex);
             }
 
             this.indexCount = 0;
             this.firstIndex = -1;
             this.vertexOffset = -1;
+            this.wideIndices = false;
+
+            drawBuffers.version++;
         }
     }
 
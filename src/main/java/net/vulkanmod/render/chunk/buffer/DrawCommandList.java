@@ -0,0 +1,82 @@
+package net.vulkanmod.render.chunk.buffer;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encoded {@code VkDrawIndexedIndirectCommand} list of a chunk area and render type, kept across frames.
+ * <p>
+ * The list is tagged with the versions of the visible sections queue and of the area draw parameters
+ * it was built from, it only needs to be encoded again when one of them changes.
+ */
+public class DrawCommandList {
+    public static final int COMMAND_SIZE = 20;
+
+    private ByteBuffer buffer;
+    private int drawCount;
+
+    private boolean valid = false;
+    private int queueVersion;
+    private int buffersVersion;
+
+    public boolean isValid(int queueVersion, int buffersVersion) {
+        return this.valid && queueVersion == this.queueVersion && buffersVersion == this.buffersVersion;
+    }
+
+    /**
+     * Clears the list to encode at most {@code maxCommands} commands.
+     */
+    public void begin(int maxCommands) {
+        int size = Math.max(maxCommands, 1) * COMMAND_SIZE;
+
+        if (this.buffer == null)
+            this.buffer = MemoryUtil.memAlloc(size);
+        else if (this.buffer.capacity() < size)
+            this.buffer = MemoryUtil.memRealloc(this.buffer, size);
+
+        this.drawCount = 0;
+        this.valid = false;
+    }
+
+    public void add(int indexCount, int firstIndex, int vertexOffset, int baseInstance) {
+        long ptr = MemoryUtil.memAddress0(this.buffer) + (long) this.drawCount * COMMAND_SIZE;
+        MemoryUtil.memPutInt(ptr, indexCount);
+        MemoryUtil.memPutInt(ptr + 4, 1);
+        MemoryUtil.memPutInt(ptr + 8, firstIndex);
+        MemoryUtil.memPutInt(ptr + 12, vertexOffset);
+        MemoryUtil.memPutInt(ptr + 16, baseInstance);
+
+        this.drawCount++;
+    }
+
+    public void end(int queueVersion, int buffersVersion) {
+        this.queueVersion = queueVersion;
+        this.buffersVersion = buffersVersion;
+        this.valid = true;
+    }
+
+    public void invalidate() {
+        this.valid = false;
+    }
+
+    /**
+     * @return the encoded commands, from position 0 to the end of the last command
+     */
+    public ByteBuffer getCommands() {
+        return this.buffer.limit(this.drawCount * COMMAND_SIZE).position(0);
+    }
+
+    public int getDrawCount() {
+        return this.drawCount;
+    }
+
+    public void free() {
+        if (this.buffer != null)
+            MemoryUtil.memFree(this.buffer);
+
+        this.buffer = null;
+        this.drawCount = 0;
+        this.valid = false;
+    }
+}
@@ -0,0 +1,388 @@
+package net.vulkanmod.render.chunk.buffer;
+
+import it.unimi.dsi.fastutil.ints.Int2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.vulkanmod.Initializer;
+import net.vulkanmod.render.chunk.buffer.AreaBuffer.Segment;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * CPU side bookkeeping of an {@link AreaBuffer}.
+ * Segments are kept in an offset ordered linked list (for O(1) neighbour coalescing)
+ * and free segments are also indexed by size so that best fit lookups are O(log n).
+ */
+public class SegmentAllocator {
+    private static final Logger LOGGER = Initializer.LOGGER;
+
+    // Order by size first, then by offset to keep allocations packed towards the start of the buffer
+    private static final Comparator<Segment> SIZE_COMPARATOR = (s1, s2) -> {
+        int cmp = Integer.compare(s1.size, s2.size);
+        return cmp != 0 ? cmp : Integer.compare(s1.offset, s2.offset);
+    };
+
+    private final int alignment;
+
+    final Int2ReferenceOpenHashMap<Segment> usedSegments = new Int2ReferenceOpenHashMap<>();
+    private final TreeSet<Segment> freeSegments = new TreeSet<>(SIZE_COMPARATOR);
+
+    // Reused key for size lookups
+    private final Segment searchKey = new Segment(-1, 0);
+
+    Segment first, last;
+
+    int size, used = 0;
+    int segments = 0;
+
+    public SegmentAllocator(int size, int alignment) {
+        this.size = size;
+        this.alignment = alignment;
+
+        Segment s = new Segment(0, size);
+
+        segments++;
+        last = first = s;
+        this.freeSegments.add(s);
+    }
+
+    /**
+     * Finds the smallest free segment that can hold {@code size} bytes, splitting off the remainder.
+     * @return the allocated segment or null if there's no free segment large enough
+     */
+    public Segment allocate(int size) {
+        this.searchKey.size = size;
+        Segment segment = this.freeSegments.ceiling(this.searchKey);
+
+        if (segment == null)
+            return null;
+
+        this.freeSegments.remove(segment);
+
+        if (segment.size - size > 0) {
+            Segment s1 = new Segment(segment.offset + size, segment.size - size);
+            segments++;
+
+            if (segment.next != null) {
+                s1.bindNext(segment.next);
+            } else
+                this.last = s1;
+
+            segment.bindNext(s1);
+
+            segment.size = size;
+            this.freeSegments.add(s1);
+        }
+
+        segment.free = false;
+        this.usedSegments.put(segment.offset, segment);
+
+        this.used += size;
+
+        return segment;
+    }
+
+    /**
+     * Frees the used segment starting at {@code offset} (in bytes) and merges it with its free neighbours.
+     * @return the freed segment or null if no used segment starts at the given offset
+     */
+    public Segment free(int offset) {
+        Segment segment = this.usedSegments.remove(offset);
+
+        if (segment == null)
+            return null;
+
+        this.used -= segment.size;
+
+        segment.free = true;
+        segment.drawParameters = null;
+
+        Segment next = segment.next;
+        if (next != null && next.isFree()) {
+            this.freeSegments.remove(next);
+            mergeSegments(segment, next);
+        }
+
+        Segment prev = segment.prev;
+        if (prev != null && prev.isFree()) {
+            this.freeSegments.remove(prev);
+            mergeSegments(prev, segment);
+            segment = prev;
+        }
+
+        this.freeSegments.add(segment);
+
+        return segment;
+    }
+
+    /**
+     * Extends the managed range by {@code increment} bytes at the end.
+     */
+    public void grow(int increment) {
+        int newSize = this.size + increment;
+
+        if (last.isFree()) {
+            this.freeSegments.remove(last);
+            last.size += increment;
+            this.freeSegments.add(last);
+        }
+        else {
+            int offset = last.offset + last.size;
+            Segment segment = new Segment(offset, newSize - offset);
+            segments++;
+
+            last.bindNext(segment);
+
+            last = segment;
+            this.freeSegments.add(segment);
+        }
+
+        this.size = newSize;
+    }
+
+    /**
+     * Plans moving used segments from the end of the buffer into the lowest free ranges that can hold them,
+     * until at least {@code maxBytes} are scheduled or {@code maxCandidates} segments have been examined.
+     * Does not modify the allocator: each move's destination is the front of its hole at the time it's applied.
+     * Segments without draw parameters (e.g. moved segments awaiting a deferred free) are never moved
+     * and source ranges are not reused within the same plan, so moves never overlap.
+     */
+    public List<Move> planCompaction(int maxBytes, int maxCandidates) {
+        ObjectArrayList<Move> moves = new ObjectArrayList<>();
+
+        // Offset ordered holes, simulated as they get filled
+        ObjectArrayList<Segment> holes = new ObjectArrayList<>();
+        IntArrayList holeOffsets = new IntArrayList();
+        IntArrayList holeSizes = new IntArrayList();
+
+        for (Segment segment = this.first; segment != null; segment = segment.next) {
+            if (segment.isFree() && segment != this.last) {
+                holes.add(segment);
+                holeOffsets.add(segment.offset);
+                holeSizes.add(segment.size);
+            }
+        }
+
+        if (holes.isEmpty())
+            return moves;
+
+        int bytes = 0;
+        int candidates = 0;
+        for (Segment segment = this.last; segment != null && bytes < maxBytes && candidates < maxCandidates; segment = segment.prev) {
+            if (segment.isFree() || segment.drawParameters == null)
+                continue;
+
+            candidates++;
+
+            for (int i = 0; i < holes.size(); i++) {
+                int holeOffset = holeOffsets.getInt(i);
+
+                if (holeOffset >= segment.offset)
+                    break;
+
+                int holeSize = holeSizes.getInt(i);
+                if (holeSize >= segment.size) {
+                    moves.add(new Move(segment, holes.get(i), holeOffset));
+
+                    holeOffsets.set(i, holeOffset + segment.size);
+                    holeSizes.set(i, holeSize - segment.size);
+                    bytes += segment.size;
+                    break;
+                }
+            }
+        }
+
+        return moves;
+    }
+
+    /**
+     * Applies a planned move: the front of the destination hole becomes a used segment that takes over
+     * the source draw parameters. The source segment stays reserved until it's explicitly freed.
+     * @return the destination segment or null if the hole can no longer hold the source segment
+     */
+    public Segment applyMove(Move move) {
+        Segment src = move.src;
+        Segment hole = move.hole;
+        int size = src.size;
+
+        if (src.isFree() || src.drawParameters == null || !hole.isFree() || hole.size < size || hole.offset >= src.offset)
+            return null;
+
+        this.freeSegments.remove(hole);
+
+        Segment dst;
+        if (hole.size == size) {
+            dst = hole;
+        }
+        else {
+            dst = new Segment(hole.offset, size);
+            segments++;
+
+            if (hole.prev != null)
+                hole.prev.bindNext(dst);
+            else {
+                dst.prev = null;
+                this.first = dst;
+            }
+
+            dst.bindNext(hole);
+
+            hole.offset += size;
+            hole.size -= size;
+            this.freeSegments.add(hole);
+        }
+
+        dst.free = false;
+        this.usedSegments.put(dst.offset, dst);
+        this.used += size;
+
+        dst.drawParameters = src.drawParameters;
+        src.drawParameters = null;
+
+        return dst;
+    }
+
+    private void mergeSegments(Segment segment, Segment next) {
+        segment.size += next.size;
+
+        if (next.next != null) {
+            next.next.prev = segment;
+        } else {
+            this.last = segment;
+        }
+
+        segment.next = next.next;
+        this.segments--;
+    }
+
+    public Segment getUsedSegment(int offset) {
+        return this.usedSegments.get(offset);
+    }
+
+    public int fragmentation() {
+        return (size - used) - (last.isFree() ? last.size : 0);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getUsed() {
+        return used;
+    }
+
+    public int getSegmentCount() {
+        return segments;
+    }
+
+    public int getFreeSegmentCount() {
+        return this.freeSegments.size();
+    }
+
+    /**
+     * Validates the segment list, logging every inconsistency found.
+     * @return true if the structure is consistent
+     */
+    public boolean checkSegments() {
+        Segment segment = first;
+        Segment prev = null;
+        int i = 0;
+        int usedSegments = 0;
+        int freeSegments = 0;
+        boolean valid = true;
+
+        if (segment.offset != 0) {
+            LOGGER.error(String.format("expected first offset 0 but got %d", segment.offset));
+            valid = false;
+        }
+
+        while (segment != null) {
+            if (i >= this.segments) {
+                LOGGER.error("Count is greater than segments");
+                valid = false;
+                break;
+            }
+
+            if (segment.prev != prev) {
+                LOGGER.error(String.format("expected previous segment not matching (segment %d)", i));
+                valid = false;
+            }
+
+            if (!segment.isFree()) {
+                usedSegments++;
+            } else {
+                freeSegments++;
+
+                if (!this.freeSegments.contains(segment)) {
+                    LOGGER.error(String.format("free segment not indexed (segment %d)", i));
+                    valid = false;
+                }
+
+                if (prev != null && prev.isFree()) {
+                    LOGGER.error(String.format("adjacent free segments not merged (segment %d)", i));
+                    valid = false;
+                }
+            }
+
+            if (segment.offset % alignment != 0) {
+                LOGGER.error(String.format("offset %d misaligned (segment %d)", segment.offset, i));
+                valid = false;
+            }
+
+            Segment next = segment.next;
+
+            if (next != null) {
+                int offset = segment.offset + segment.size;
+                if (offset != next.offset) {
+                    LOGGER.error(String.format("expected offset %d but got %d (segment %d)", offset, next.offset, i));
+                    valid = false;
+                }
+
+                if (next.prev != segment) {
+                    LOGGER.error(String.format("segment pointer not correct (segment %d)", i));
+                    valid = false;
+                }
+
+            } else {
+                if (segment != this.last) {
+                    LOGGER.error(String.format("segment has no next pointer and it's not last (segment %d)", i));
+                    valid = false;
+                }
+                else {
+                    int segmentEnd = segment.offset + segment.size;
+                    if (segmentEnd != this.size) {
+                        LOGGER.error(String.format("last segment end (%d) does not match buffer size (%d)", segmentEnd, this.size));
+                        valid = false;
+                    }
+                }
+
+            }
+
+            prev = segment;
+            segment = next;
+            i++;
+        }
+
+        if (i != this.segments) {
+            LOGGER.error("Count do not match segments");
+            valid = false;
+        }
+
+        if (usedSegments != this.usedSegments.size()) {
+            LOGGER.error("Counted used segment do not match used segments map size");
+            valid = false;
+        }
+
+        if (freeSegments != this.freeSegments.size()) {
+            LOGGER.error("Counted free segment do not match free segments set size");
+            valid = false;
+        }
+
+        return valid;
+    }
+
+    public record Move(Segment src, Segment hole, int dstOffset) {}
+}
@@ -1,6 +1,6 @@
 package net.vulkanmod.render.chunk.buffer;
 
-import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import net.vulkanmod.vulkan.Synchronization;
 import net.vulkanmod.vulkan.Vulkan;
 import net.vulkanmod.vulkan.device.DeviceManager;
@@ -8,13 +8,13 @@ import net.vulkanmod.vulkan.memory.Buffer;
 import net.vulkanmod.vulkan.memory.StagingBuffer;
 import net.vulkanmod.vulkan.queue.CommandPool;
 import net.vulkanmod.vulkan.queue.Queue;
-import net.vulkanmod.vulkan.queue.TransferQueue;
 import org.lwjgl.system.MemoryStack;
-import org.lwjgl.vulkan.VkBufferMemoryBarrier;
+import org.lwjgl.vulkan.VkBufferCopy;
 import org.lwjgl.vulkan.VkCommandBuffer;
 import org.lwjgl.vulkan.VkMemoryBarrier;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 import static org.lwjgl.vulkan.VK10.*;
 
@@ -26,49 +26,32 @@ public class UploadManager {
     }
 
     Queue queue = DeviceManager.getTransferQueue();
-    CommandPool.CommandBuffer commandBuffer;
 
-    LongOpenHashSet dstBuffers = new LongOpenHashSet();
+    final List<CopyPlanner.Copy> pendingCopies = new ObjectArrayList<>();
+    VkBufferCopy.Buffer copyRegions = VkBufferCopy.calloc(64);
 
+    /**
+     * Records the pending copies, batched by {@link CopyPlanner}, and submits them.
+     */
     public void submitUploads() {
-        if (this.commandBuffer == null)
+        if (this.pendingCopies.isEmpty())
             return;
 
-        this.queue.submitCommands(this.commandBuffer);
+        CommandPool.CommandBuffer commandBuffer = this.queue.beginCommands();
+        recordCopies(commandBuffer.getHandle());
 
-        Synchronization.INSTANCE.addCommandBuffer(this.commandBuffer);
+        this.queue.submitCommands(commandBuffer);
 
-        this.commandBuffer = null;
-        this.dstBuffers.clear();
+        Synchronization.INSTANCE.addCommandBuffer(commandBuffer);
+
+        this.pendingCopies.clear();
     }
 
     public void recordUpload(Buffer buffer, long dstOffset, long bufferSize, ByteBuffer src) {
-        beginCommands();
-
-        VkCommandBuffer commandBuffer = this.commandBuffer.getHandle();
-
         StagingBuffer stagingBuffer = Vulkan.getStagingBuffer();
         stagingBuffer.copyBuffer((int) bufferSize, src);
 
-        if (!this.dstBuffers.add(buffer.getId())) {
-            try (MemoryStack stack = MemoryStack.stackPush()) {
-                VkMemoryBarrier.Buffer barrier = VkMemoryBarrier.calloc(1, stack);
-                barrier.sType$Default();
-                barrier.srcAccessMask(VK_ACCESS_TRANSFER_WRITE_BIT);
-                barrier.dstAccessMask(VK_ACCESS_TRANSFER_WRITE_BIT);
-
-                vkCmdPipelineBarrier(commandBuffer,
-                        VK_PIPELINE_STAGE_TRANSFER_BIT, VK_PIPELINE_STAGE_TRANSFER_BIT,
-                        0,
-                        barrier,
-                        null,
-                        null);
-            }
-
-            this.dstBuffers.clear();
-        }
-
-        TransferQueue.uploadBufferCmd(commandBuffer, stagingBuffer.getId(), stagingBuffer.getOffset(), buffer.getId(), dstOffset, bufferSize);
+        this.pendingCopies.add(new CopyPlanner.Copy(stagingBuffer.getId(), stagingBuffer.getOffset(), buffer.getId(), dstOffset, bufferSize));
     }
 
     public void copyBuffer(Buffer src, Buffer dst) {
@@ -76,33 +59,54 @@ public class UploadManager {
     }
 
     public void copyBuffer(Buffer src, int srcOffset, Buffer dst, int dstOffset, int size) {
-        beginCommands();
+        this.pendingCopies.add(new CopyPlanner.Copy(src.getId(), srcOffset, dst.getId(), dstOffset, size));
+    }
+
+    private void recordCopies(VkCommandBuffer commandBuffer) {
+        List<CopyPlanner.Batch> batches = CopyPlanner.plan(this.pendingCopies);
+
+        for (int i = 0; i < batches.size(); ++i) {
+            if (i > 0)
+                transferBarrier(commandBuffer);
+
+            for (CopyPlanner.Group group : batches.get(i).groups()) {
+                List<CopyPlanner.Region> regions = group.regions();
 
-        VkCommandBuffer commandBuffer = this.commandBuffer.getHandle();
+                if (regions.size() > this.copyRegions.capacity()) {
+                    this.copyRegions.free();
+                    this.copyRegions = VkBufferCopy.calloc(Integer.highestOneBit(regions.size()) << 1);
+                }
 
+                VkBufferCopy.Buffer copyRegions = this.copyRegions;
+                copyRegions.clear();
+
+                for (CopyPlanner.Region region : regions) {
+                    copyRegions.get()
+                            .srcOffset(region.srcOffset())
+                            .dstOffset(region.dstOffset())
+                            .size(region.size());
+                }
+
+                copyRegions.flip();
+                vkCmdCopyBuffer(commandBuffer, group.src(), group.dst(), copyRegions);
+            }
+        }
+    }
+
+    private static void transferBarrier(VkCommandBuffer commandBuffer) {
         try (MemoryStack stack = MemoryStack.stackPush()) {
             VkMemoryBarrier.Buffer barrier = VkMemoryBarrier.calloc(1, stack);
             barrier.sType$Default();
-
-            VkBufferMemoryBarrier.Buffer bufferMemoryBarriers = VkBufferMemoryBarrier.calloc(1, stack);
-            VkBufferMemoryBarrier bufferMemoryBarrier = bufferMemoryBarriers.get(0);
-            bufferMemoryBarrier.sType$Default();
-            bufferMemoryBarrier.buffer(src.getId());
-            bufferMemoryBarrier.srcAccessMask(VK_ACCESS_TRANSFER_WRITE_BIT);
-            bufferMemoryBarrier.dstAccessMask(VK_ACCESS_TRANSFER_READ_BIT);
-            bufferMemoryBarrier.size(VK_WHOLE_SIZE);
+            barrier.srcAccessMask(VK_ACCESS_TRANSFER_WRITE_BIT);
+            barrier.dstAccessMask(VK_ACCESS_TRANSFER_READ_BIT | VK_ACCESS_TRANSFER_WRITE_BIT);
 
             vkCmdPipelineBarrier(commandBuffer,
                     VK_PIPELINE_STAGE_TRANSFER_BIT, VK_PIPELINE_STAGE_TRANSFER_BIT,
                     0,
                     barrier,
-                    bufferMemoryBarriers,
+                    null,
                     null);
         }
-
-        this.dstBuffers.add(dst.getId());
-
-        TransferQueue.uploadBufferCmd(commandBuffer, src.getId(), srcOffset, dst.getId(), dstOffset, size);
     }
 
     public void syncUploads() {
@@ -111,9 +115,4 @@ public class UploadManager {
         Synchronization.INSTANCE.waitFences();
     }
 
-    private void beginCommands() {
-        if (this.commandBuffer == null)
-            this.commandBuffer = queue.beginCommands();
-    }
-
 }
@@ -0,0 +1,126 @@
+package net.vulkanmod.render.chunk.build;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.client.resources.model.SimpleBakedModel;
+import net.minecraft.client.resources.model.WeightedBakedModel;
+import net.minecraft.core.Direction;
+import net.minecraft.util.RandomSource;
+import net.minecraft.util.random.WeightedEntry;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Per {@link BlockState} cache of the quad lists of models whose quads don't depend on the random seed,
+ * or only pick one of such models by weight.
+ * <p>
+ * Entries are bound to the model they were built from, a model reload replaces them on the next lookup.
+ */
+public class BakedQuadCache {
+    static final Direction[] DIRECTIONS = Direction.values();
+
+    // Index of the unculled quads, after the 6 directions
+    public static final int UNCULLED_IDX = DIRECTIONS.length;
+    public static final int FACES = DIRECTIONS.length + 1;
+
+    private final Reference2ObjectOpenHashMap<BlockState, Entry> entries = new Reference2ObjectOpenHashMap<>();
+
+    /**
+     * @return the quads of {@code model} for the given seed indexed by direction ordinal,
+     * and {@link #UNCULLED_IDX} for unculled quads, or null if the model is not cacheable
+     */
+    @Nullable
+    public List<BakedQuad>[] getQuads(BlockState blockState, BakedModel model, RandomSource randomSource, long seed) {
+        Entry entry = this.entries.get(blockState);
+
+        if (entry == null || entry.model != model) {
+            entry = createEntry(blockState, model, randomSource);
+            this.entries.put(blockState, entry);
+        }
+
+        return entry.getQuads(randomSource, seed);
+    }
+
+    public void clear() {
+        this.entries.clear();
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    static Entry createEntry(BlockState blockState, BakedModel model, RandomSource randomSource) {
+        if (isRandomInvariant(model)) {
+            List<BakedQuad>[][] quads = new List[][]{getFaceQuads(blockState, model, randomSource)};
+            return new Entry(model, quads, null, 0);
+        }
+
+        if (model.getClass() == WeightedBakedModel.class) {
+            WeightedBakedModel weightedModel = (WeightedBakedModel) model;
+            List<WeightedEntry.Wrapper<BakedModel>> variants = weightedModel.list;
+
+            List<BakedQuad>[][] quads = new List[variants.size()][];
+            int[] cumulativeWeights = new int[variants.size()];
+            int weight = 0;
+
+            for (int i = 0; i < variants.size(); ++i) {
+                WeightedEntry.Wrapper<BakedModel> variant = variants.get(i);
+                if (!isRandomInvariant(variant.getData()))
+                    return new Entry(model, null, null, 0);
+
+                quads[i] = getFaceQuads(blockState, variant.getData(), randomSource);
+                weight += variant.getWeight().asInt();
+                cumulativeWeights[i] = weight;
+            }
+
+            if (weight == 0 || weight != weightedModel.totalWeight)
+                return new Entry(model, null, null, 0);
+
+            return new Entry(model, quads, cumulativeWeights, weight);
+        }
+
+        return new Entry(model, null, null, 0);
+    }
+
+    static boolean isRandomInvariant(BakedModel model) {
+        // Subclasses may override getQuads, only trust the vanilla implementation
+        return model.getClass() == SimpleBakedModel.class;
+    }
+
+    private static List<BakedQuad>[] getFaceQuads(BlockState blockState, BakedModel model, RandomSource randomSource) {
+        List<BakedQuad>[] quads = new List[FACES];
+
+        for (int i = 0; i < DIRECTIONS.length; ++i) {
+            quads[i] = model.getQuads(blockState, DIRECTIONS[i], randomSource);
+        }
+        quads[UNCULLED_IDX] = model.getQuads(blockState, null, randomSource);
+
+        return quads;
+    }
+
+    record Entry(BakedModel model, List<BakedQuad>[][] variants, int[] cumulativeWeights, int totalWeight) {
+
+        @Nullable
+        List<BakedQuad>[] getQuads(RandomSource randomSource, long seed) {
+            if (this.variants == null)
+                return null;
+
+            if (this.cumulativeWeights == null)
+                return this.variants[0];
+
+            // Same pick as WeightedBakedModel.getQuads
+            randomSource.setSeed(seed);
+            int weight = Math.abs((int) randomSource.nextLong()) % this.totalWeight;
+
+            for (int i = 0; i < this.cumulativeWeights.length; ++i) {
+                if (weight < this.cumulativeWeights[i])
+                    return this.variants[i];
+            }
+
+            return null;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package net.vulkanmod.render.chunk.build;
 
-import it.unimi.dsi.fastutil.objects.Object2ByteLinkedOpenHashMap;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.color.block.BlockColors;
 import net.minecraft.client.renderer.block.model.BakedQuad;
@@ -10,7 +9,6 @@ import net.minecraft.core.Direction;
 import net.minecraft.core.Vec3i;
 import net.minecraft.util.RandomSource;
 import net.minecraft.world.level.BlockGetter;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.Vec3;
 import net.minecraft.world.phys.shapes.BooleanOp;
@@ -35,6 +33,8 @@ public class BlockRenderer {
 
     RandomSource randomSource = RandomSource.createNewThreadLocalInstance();
 
+    final BakedQuadCache quadCache = new BakedQuadCache();
+
     Vector3f pos;
     BlockPos blockPos;
     BlockPos.MutableBlockPos mutableBlockPos = new BlockPos.MutableBlockPos();
@@ -47,13 +47,10 @@ public class BlockRenderer {
         this.resources = resources;
     }
 
-    final Object2ByteLinkedOpenHashMap<Block.BlockStatePairKey> occlusionCache = new Object2ByteLinkedOpenHashMap<>(2048, 0.25F) {
-        protected void rehash(int i) {
-        }
-    };
+    final FaceOcclusionCache occlusionCache;
 
-    public BlockRenderer() {
-        occlusionCache.defaultReturnValue((byte) 127);
+    public BlockRenderer(int occlusionCacheSize) {
+        this.occlusionCache = new FaceOcclusionCache(occlusionCacheSize);
     }
 
     public static void setBlockColors(BlockColors blockColors) {
@@ -79,12 +76,19 @@ public class BlockRenderer {
         boolean useAO = Minecraft.useAmbientOcclusion() && blockState.getLightEmission() == 0 && bakedModel.useAmbientOcclusion();
         LightPipeline lightPipeline = useAO ? resources.smoothLightPipeline : resources.flatLightPipeline;
 
+        List<BakedQuad>[] cachedQuads = quadCache.getQuads(blockState, bakedModel, randomSource, seed);
+
         //noinspection ForLoopReplaceableByForEach
         for (int i = 0; i < DIRECTIONS.length; ++i) {
             Direction direction = DIRECTIONS[i];
 
-            randomSource.setSeed(seed);
-            List<BakedQuad> quads = bakedModel.getQuads(blockState, direction, randomSource);
+            List<BakedQuad> quads;
+            if (cachedQuads != null) {
+                quads = cachedQuads[i];
+            } else {
+                randomSource.setSeed(seed);
+                quads = bakedModel.getQuads(blockState, direction, randomSource);
+            }
 
             if (!quads.isEmpty()) {
                 mutableBlockPos.setWithOffset(blockPos, direction);
@@ -94,13 +98,28 @@ public class BlockRenderer {
             }
         }
 
-        randomSource.setSeed(seed);
-        List<BakedQuad> quads = bakedModel.getQuads(blockState, null, randomSource);
+        List<BakedQuad> quads;
+        if (cachedQuads != null) {
+            quads = cachedQuads[BakedQuadCache.UNCULLED_IDX];
+        } else {
+            randomSource.setSeed(seed);
+            quads = bakedModel.getQuads(blockState, null, randomSource);
+        }
+
         if (!quads.isEmpty()) {
             renderModelFace(bufferBuilder, quads, lightPipeline, null);
         }
     }
 
+    public FaceOcclusionCache getOcclusionCache() {
+        return occlusionCache;
+    }
+
+    public void clearCaches() {
+        quadCache.clear();
+        occlusionCache.clear();
+    }
+
     private void renderModelFace(TerrainBufferBuilder bufferBuilder, List<BakedQuad> quads, LightPipeline lightPipeline, Direction cullFace) {
         QuadLightData quadLightData = resources.quadLightData;
 
@@ -171,7 +190,10 @@ public class BlockRenderer {
     }
 
     public boolean shouldRenderFace(BlockState blockState, Direction direction, BlockPos adjPos) {
-        BlockGetter blockGetter = resources.region;
+        return shouldRenderFace(resources.region, blockState, blockPos, direction, adjPos);
+    }
+
+    public boolean shouldRenderFace(BlockGetter blockGetter, BlockState blockState, BlockPos blockPos, Direction direction, BlockPos adjPos) {
         BlockState adjBlockState = blockGetter.getBlockState(adjPos);
 
         if (blockState.skipRendering(adjBlockState, direction)) {
@@ -193,19 +215,13 @@ public class BlockRenderer {
                 return false;
             }
 
-            Block.BlockStatePairKey blockStatePairKey = new Block.BlockStatePairKey(blockState, adjBlockState, direction);
-
-            byte b = occlusionCache.getAndMoveToFirst(blockStatePairKey);
-            if (b != 127) {
-                return b != 0;
+            int cached = occlusionCache.get(blockState, adjBlockState, direction.ordinal());
+            if (cached != FaceOcclusionCache.MISS) {
+                return cached != 0;
             } else {
                 boolean bl = Shapes.joinIsNotEmpty(shape, adjShape, BooleanOp.ONLY_FIRST);
 
-                if (occlusionCache.size() == 2048) {
-                    occlusionCache.removeLastByte();
-                }
-
-                occlusionCache.putAndMoveToFirst(blockStatePairKey, (byte) (bl ? 1 : 0));
+                occlusionCache.put(blockState, adjBlockState, direction.ordinal(), bl);
                 return bl;
             }
         }
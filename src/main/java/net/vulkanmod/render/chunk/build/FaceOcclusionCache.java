@@ -0,0 +1,87 @@
+package net.vulkanmod.render.chunk.build;
+
+import net.minecraft.util.Mth;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size, direct mapped cache of face occlusion results keyed by the identity of two states and a direction.
+ * <p>
+ * Lookups don't allocate, a colliding insert evicts the previous entry of its slot.
+ * Not thread safe, each builder thread owns its cache.
+ */
+public class FaceOcclusionCache {
+    public static final int MISS = -1;
+
+    private final int mask;
+
+    // Pair of keys per slot
+    private final Object[] keys;
+    // (direction << 1 | result) + 1, 0 marks an empty slot
+    private final byte[] values;
+
+    private long hits, misses;
+
+    /**
+     * @param size number of entries, rounded up to a power of two
+     */
+    public FaceOcclusionCache(int size) {
+        int capacity = Mth.smallestEncompassingPowerOfTwo(Math.max(size, 16));
+
+        this.mask = capacity - 1;
+        this.keys = new Object[capacity * 2];
+        this.values = new byte[capacity];
+    }
+
+    /**
+     * @return 1 or 0 for a cached result, {@link #MISS} otherwise
+     */
+    public int get(Object first, Object second, int direction) {
+        int idx = slot(first, second, direction);
+        int value = this.values[idx] - 1;
+
+        if (value >= 0 && value >> 1 == direction && this.keys[idx * 2] == first && this.keys[idx * 2 + 1] == second) {
+            this.hits++;
+            return value & 1;
+        }
+
+        this.misses++;
+        return MISS;
+    }
+
+    public void put(Object first, Object second, int direction, boolean result) {
+        int idx = slot(first, second, direction);
+
+        this.keys[idx * 2] = first;
+        this.keys[idx * 2 + 1] = second;
+        this.values[idx] = (byte) (((direction << 1) | (result ? 1 : 0)) + 1);
+    }
+
+    int slot(Object first, Object second, int direction) {
+        int h = System.identityHashCode(first) * 0x9E3779B9 + System.identityHashCode(second) * 0x85EBCA6B + direction;
+        h ^= h >>> 16;
+        return h & this.mask;
+    }
+
+    public void clear() {
+        Arrays.fill(this.keys, null);
+        Arrays.fill(this.values, (byte) 0);
+    }
+
+    public int capacity() {
+        return this.values.length;
+    }
+
+    public long getHits() {
+        return this.hits;
+    }
+
+    public long getMisses() {
+        return this.misses;
+    }
+
+    public void resetCounters() {
+        this.hits = 0;
+        this.misses = 0;
+    }
+}
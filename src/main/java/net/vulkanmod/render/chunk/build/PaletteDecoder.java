@@ -0,0 +1,79 @@
+package net.vulkanmod.render.chunk.build;
+
+import net.minecraft.util.BitStorage;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Decodes section palette storages straight into a flat array,
+ * skipping the per block container lookups.
+ */
+public abstract class PaletteDecoder {
+    public static final int SECTION_SIZE = 16 * 16 * 16;
+
+    // Larger palettes (i.e. the global one) are looked up per block instead of being decoded upfront
+    public static final int MAX_CACHED_PALETTE_SIZE = 256;
+
+    /**
+     * @return the value of every entry if the container uses a single value palette, null otherwise
+     */
+    @Nullable
+    public static <T> T getSingleValue(PalettedContainer<T> container) {
+        PalettedContainer.Data<T> data = container.data;
+        return data.storage().getBits() == 0 ? data.palette().valueFor(0) : null;
+    }
+
+    /**
+     * Copies the values of the section box [minX, maxX) x [minY, maxY) x [minZ, maxZ) into {@code dst},
+     * a {@code dstWidth}^3 array indexed as (y * width + z) * width + x, with the box origin at ({@code dstX}, {@code dstY}, {@code dstZ}).
+     * Section indices are (y * 16 + z) * 16 + x, as in {@code PalettedContainer.Strategy.SECTION_STATES}.
+     *
+     * @param paletteCache scratch array of at least {@link #MAX_CACHED_PALETTE_SIZE} elements
+     * @param unpackBuffer scratch array of at least {@link #SECTION_SIZE} elements
+     */
+    public static <T> void copyBox(BitStorage storage, IntFunction<T> palette, int paletteSize,
+                                   T[] dst, int dstWidth, int dstX, int dstY, int dstZ,
+                                   int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                                   T[] paletteCache, int[] unpackBuffer) {
+        int rowLength = maxX - minX;
+
+        // Single value palette, nothing to decode
+        if (storage.getBits() == 0) {
+            T value = palette.apply(0);
+
+            for (int y = minY; y < maxY; ++y) {
+                for (int z = minZ; z < maxZ; ++z) {
+                    int dstIdx = ((dstY + y - minY) * dstWidth + (dstZ + z - minZ)) * dstWidth + dstX;
+                    Arrays.fill(dst, dstIdx, dstIdx + rowLength, value);
+                }
+            }
+            return;
+        }
+
+        boolean cachePalette = paletteSize <= MAX_CACHED_PALETTE_SIZE;
+        if (cachePalette) {
+            for (int i = 0; i < paletteSize; ++i) {
+                paletteCache[i] = palette.apply(i);
+            }
+        }
+
+        boolean fullSection = rowLength == 16 && maxY - minY == 16 && maxZ - minZ == 16;
+        if (fullSection)
+            storage.unpack(unpackBuffer);
+
+        for (int y = minY; y < maxY; ++y) {
+            for (int z = minZ; z < maxZ; ++z) {
+                int srcIdx = (y << 8 | z << 4) + minX;
+                int dstIdx = ((dstY + y - minY) * dstWidth + (dstZ + z - minZ)) * dstWidth + dstX;
+
+                for (int x = 0; x < rowLength; ++x) {
+                    int id = fullSection ? unpackBuffer[srcIdx + x] : storage.get(srcIdx + x);
+                    dst[dstIdx + x] = cachePalette ? paletteCache[id] : palette.apply(id);
+                }
+            }
+        }
+    }
+}
@@ -12,20 +12,22 @@ import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.chunk.Palette;
 import net.minecraft.world.level.chunk.PalettedContainer;
 import net.minecraft.world.level.levelgen.DebugLevelSource;
 import net.minecraft.world.level.lighting.LevelLightEngine;
 import net.minecraft.world.level.material.FluidState;
+import net.vulkanmod.render.chunk.build.thread.BuilderResources;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Map;
-import java.util.function.Function;
 
 public class RenderRegion implements BlockAndTintGetter {
     public static final int WIDTH = 3;
     public static final int SIZE = WIDTH * WIDTH * WIDTH;
+    public static final int CENTER_SECTION_IDX = SIZE / 2;
 
     public static final int BOUNDARY_BLOCK_WIDTH = 2;
     public static final int REGION_BLOCK_WIDTH = 16 + BOUNDARY_BLOCK_WIDTH * 2;
@@ -47,9 +49,14 @@ public class RenderRegion implements BlockAndTintGetter {
 
     private final Map<BlockPos, BlockEntity> blockEntityMap;
 
-    private final Function<BlockPos, BlockState> blockStateGetter;
+    // State of every block of the center section, if it has a single value palette
+    @Nullable
+    private final BlockState uniformState;
+
+    private final boolean debug;
 
-    RenderRegion(Level level, int x, int y, int z, PalettedContainer<BlockState>[] blockData, DataLayer[][] lightData, Map<BlockPos, BlockEntity> blockEntityMap) {
+    RenderRegion(Level level, int x, int y, int z, PalettedContainer<BlockState>[] blockData, DataLayer[][] lightData, Map<BlockPos, BlockEntity> blockEntityMap,
+                 @Nullable BlockState uniformState) {
         this.level = level;
 
         this.minSecX = x - 1;
@@ -65,16 +72,20 @@ public class RenderRegion implements BlockAndTintGetter {
         this.blockDataContainers = blockData;
         this.lightData = lightData;
         this.blockEntityMap = blockEntityMap;
+        this.uniformState = uniformState;
 
         this.blockData = new BlockState[BLOCK_COUNT];
 
-        this.blockStateGetter = level.isDebug() ? this::debugBlockState : this::defaultBlockState;
+        this.debug = level.isDebug();
 
         this.blendRadius = Minecraft.getInstance().options.biomeBlendRadius().get();
     }
 
-    public void loadBlockStates() {
-        Arrays.fill(blockData, Blocks.AIR.defaultBlockState());
+    public void loadBlockStates(BuilderResources resources) {
+        if (this.debug) {
+            loadDebugBlockStates();
+            return;
+        }
 
         for(int x = 0; x <= 2; ++x) {
             for(int z = 0; z <= 2; ++z) {
@@ -83,9 +94,6 @@ public class RenderRegion implements BlockAndTintGetter {
 
                     PalettedContainer<BlockState> container = blockDataContainers[idx];
 
-                    if(container == null)
-                        continue;
-
                     int absBlockX = (x + minSecX) << 4;
                     int absBlockY = (y + minSecY) << 4;
                     int absBlockZ = (z + minSecZ) << 4;
@@ -98,37 +106,105 @@ public class RenderRegion implements BlockAndTintGetter {
                     int tMaxY = Math.min(maxY, absBlockY + 16);
                     int tMaxZ = Math.min(maxZ, absBlockZ + 16);
 
-                    loadSectionBlockStates(container, blockData,
+                    loadSectionBlockStates(container, resources,
                             tMinX, tMinY, tMinZ, tMaxX, tMaxY, tMaxZ);
-                    
                 }
             }
         }
     }
 
-    void loadSectionBlockStates(PalettedContainer<BlockState> container, BlockState[] blockStates,
+    void loadSectionBlockStates(PalettedContainer<BlockState> container, BuilderResources resources,
                                 int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int dstX = minX - this.minX;
+        int dstY = minY - this.minY;
+        int dstZ = minZ - this.minZ;
+
+        if (container == null) {
+            for (int y = dstY; y < dstY + maxY - minY; ++y) {
+                for (int z = dstZ; z < dstZ + maxZ - minZ; ++z) {
+                    int idx = getBlockIdx(dstX, y, z);
+                    Arrays.fill(this.blockData, idx, idx + maxX - minX, AIR_BLOCK_STATE);
+                }
+            }
+            return;
+        }
 
-        for (int y = minY; y < maxY; ++y) {
-            for (int z = minZ; z < maxZ; ++z) {
-                for (int x = minX; x < maxX; ++x) {
-                    final int idx = getBlockIdx(x - this.minX, y - this.minY, z - this.minZ);
+        PalettedContainer.Data<BlockState> data = container.data;
+        Palette<BlockState> palette = data.palette();
+
+        PaletteDecoder.copyBox(data.storage(), palette::valueFor, palette.getSize(),
+                this.blockData, REGION_BLOCK_WIDTH, dstX, dstY, dstZ,
+                minX & 15, minY & 15, minZ & 15, ((maxX - 1) & 15) + 1, ((maxY - 1) & 15) + 1, ((maxZ - 1) & 15) + 1,
+                resources.paletteCache, resources.unpackBuffer);
+    }
 
-                    blockStates[idx] = container != null ?
-                            container.get(x & 15, y & 15, z & 15)
-                            : Blocks.AIR.defaultBlockState();
+    private void loadDebugBlockStates() {
+        BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos();
+
+        for (int y = 0; y < REGION_BLOCK_WIDTH; ++y) {
+            for (int z = 0; z < REGION_BLOCK_WIDTH; ++z) {
+                for (int x = 0; x < REGION_BLOCK_WIDTH; ++x) {
+                    blockPos.set(this.minX + x, this.minY + y, this.minZ + z);
+                    this.blockData[getBlockIdx(x, y, z)] = debugBlockState(blockPos);
                 }
             }
         }
     }
 
+    @Nullable
+    public BlockState getUniformState() {
+        return this.uniformState;
+    }
+
+    /**
+     * Checks if every section in common with {@code other} uses the same block and light data,
+     * so that data derived from {@code other} in the shared area is still valid.
+     */
+    public boolean sharesSectionData(RenderRegion other) {
+        if (this.debug || other.debug || this.level != other.level)
+            return false;
+
+        for (int y = 0; y < WIDTH; ++y) {
+            for (int z = 0; z < WIDTH; ++z) {
+                for (int x = 0; x < WIDTH; ++x) {
+                    int otherX = x + this.minSecX - other.minSecX;
+                    int otherY = y + this.minSecY - other.minSecY;
+                    int otherZ = z + this.minSecZ - other.minSecZ;
+
+                    if (otherX < 0 || otherX >= WIDTH || otherY < 0 || otherY >= WIDTH || otherZ < 0 || otherZ >= WIDTH)
+                        continue;
+
+                    int idx = getSectionIdx(x, y, z);
+                    int otherIdx = getSectionIdx(otherX, otherY, otherZ);
+
+                    DataLayer[] lightData = this.lightData[idx];
+                    DataLayer[] otherLightData = other.lightData[otherIdx];
+
+                    if (this.blockDataContainers[idx] != other.blockDataContainers[otherIdx]
+                            || lightData[0] != otherLightData[0] || lightData[1] != otherLightData[1])
+                        return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
     public void initTintCache(TintCache tintCache) {
         this.tintCache = tintCache;
         this.tintCache.init(blendRadius, minSecX + 1, minSecY + 1, minSecZ + 1);
     }
 
     public BlockState getBlockState(BlockPos blockPos) {
-        return blockStateGetter.apply(blockPos);
+        int x = blockPos.getX() - this.minX;
+        int y = blockPos.getY() - this.minY;
+        int z = blockPos.getZ() - this.minZ;
+
+        // Any negative term means the position is outside the region
+        if ((x | y | z | (REGION_BLOCK_WIDTH - 1 - x) | (REGION_BLOCK_WIDTH - 1 - y) | (REGION_BLOCK_WIDTH - 1 - z)) < 0)
+            return AIR_BLOCK_STATE;
+
+        return this.blockData[getBlockIdx(x, y, z)];
     }
 
     public FluidState getFluidState(BlockPos blockPos) {
@@ -207,22 +283,6 @@ public class RenderRegion implements BlockAndTintGetter {
         return x < minX || x >= maxX || y < minY || y >= maxY || z < minZ || z >= maxZ;
     }
 
-    public BlockState defaultBlockState(BlockPos blockPos) {
-        int x = blockPos.getX();
-        int y = blockPos.getY();
-        int z = blockPos.getZ();
-
-        if (outsideRegion(x, y, z)) {
-            return AIR_BLOCK_STATE;
-        }
-
-        x -= minX;
-        y -= minY;
-        z -= minZ;
-
-        return blockData[getBlockIdx(x, y, z)];
-    }
-
     public BlockState debugBlockState(BlockPos blockPos) {
         int x = blockPos.getX();
         int y = blockPos.getY();
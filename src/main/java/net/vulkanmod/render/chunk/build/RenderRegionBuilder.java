@@ -18,6 +18,9 @@ public class RenderRegionBuilder {
     private static final int MAX_CACHE_ENTRIES = 256;
     private final Long2ReferenceLinkedOpenHashMap<LevelChunk> levelChunkCache = new Long2ReferenceLinkedOpenHashMap<>(MAX_CACHE_ENTRIES);
 
+    // Each section is copied once per frame and shared by the regions of its neighbours
+    private final SectionSnapshotCache<PalettedContainer<BlockState>> snapshotCache = new SectionSnapshotCache<>(PalettedContainer::copy);
+
     public RenderRegion createRegion(Level level, int secX, int secY, int secZ) {
         LevelChunk levelChunk = getLevelChunk(level, secX, secZ);
         var sections = levelChunk.getSections();
@@ -52,7 +55,7 @@ public class RenderRegionBuilder {
                     final int relX = (x - minSecX), relY = (y - minSecY), relZ = (z - minSecZ);
                     final int idx = (relY * RenderRegion.WIDTH + relZ) * RenderRegion.WIDTH + relX;
 
-                    PalettedContainer<BlockState> values = section == null || section.hasOnlyAir() ? null : section.getStates().copy();
+                    PalettedContainer<BlockState> values = section == null || section.hasOnlyAir() ? null : this.snapshotCache.getSnapshot(x, y, z, section.getStates());
 
                     blockData[idx] = values;
 
@@ -64,7 +67,10 @@ public class RenderRegionBuilder {
             }
         }
 
-        return new RenderRegion(level, secX, secY, secZ, blockData, lightData, entityMap);
+        PalettedContainer<BlockState> centerData = blockData[RenderRegion.CENTER_SECTION_IDX];
+        BlockState uniformState = PaletteDecoder.getSingleValue(centerData);
+
+        return new RenderRegion(level, secX, secY, secZ, blockData, lightData, entityMap, uniformState);
     }
 
     private DataLayer[] getSectionDataLayers(Level level, SectionPos pos) {
@@ -113,7 +119,20 @@ public class RenderRegionBuilder {
         levelChunkCache.remove(ChunkPos.asLong(x, z));
     }
 
+    public void setSectionDirty(int x, int y, int z) {
+        this.remove(x, z);
+        this.snapshotCache.invalidate(x, y, z);
+    }
+
+    /**
+     * Releases the section snapshots taken during this frame, regions already created keep their own references.
+     */
+    public void clearSnapshots() {
+        this.snapshotCache.clear();
+    }
+
     public void clear() {
         this.levelChunkCache.clear();
+        this.snapshotCache.clear();
     }
 }
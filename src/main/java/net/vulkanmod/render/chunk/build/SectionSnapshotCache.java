@@ -0,0 +1,62 @@
+package net.vulkanmod.render.chunk.build;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.SectionPos;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable copies of section data shared by the {@link RenderRegion}s captured in the same frame.
+ * <p>
+ * A snapshot is reused as long as the section hasn't been invalidated and its live data is the same object,
+ * a reloaded chunk has new containers so it's never served an old copy.
+ */
+public class SectionSnapshotCache<T> {
+    private final UnaryOperator<T> copyFunction;
+    private final Long2ObjectOpenHashMap<Entry<T>> entries = new Long2ObjectOpenHashMap<>();
+
+    private int copies = 0;
+
+    public SectionSnapshotCache(UnaryOperator<T> copyFunction) {
+        this.copyFunction = copyFunction;
+    }
+
+    /**
+     * @return a copy of {@code source}, shared with previous calls for the same section and source
+     */
+    public T getSnapshot(int x, int y, int z, T source) {
+        long pos = SectionPos.asLong(x, y, z);
+        Entry<T> entry = this.entries.get(pos);
+
+        if (entry != null && entry.source == source)
+            return entry.snapshot;
+
+        T snapshot = this.copyFunction.apply(source);
+        this.entries.put(pos, new Entry<>(source, snapshot));
+        this.copies++;
+
+        return snapshot;
+    }
+
+    /**
+     * Drops the snapshot of a section whose data has changed.
+     */
+    public void invalidate(int x, int y, int z) {
+        this.entries.remove(SectionPos.asLong(x, y, z));
+    }
+
+    public void clear() {
+        this.entries.clear();
+        this.entries.trim();
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public int getCopies() {
+        return this.copies;
+    }
+
+    record Entry<T>(T source, T snapshot) {}
+}
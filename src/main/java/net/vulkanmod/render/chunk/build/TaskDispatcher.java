@@ -7,13 +7,12 @@ import net.vulkanmod.render.chunk.RenderSection;
 import net.vulkanmod.render.chunk.WorldRenderer;
 import net.vulkanmod.render.chunk.buffer.DrawBuffers;
 import net.vulkanmod.render.chunk.build.task.ChunkTask;
+import net.vulkanmod.render.chunk.build.task.ChunkTaskQueue;
 import net.vulkanmod.render.chunk.build.task.CompileResult;
 import net.vulkanmod.render.chunk.build.thread.ThreadBuilderPack;
 import net.vulkanmod.render.chunk.build.thread.BuilderResources;
 import net.vulkanmod.render.vertex.TerrainRenderType;
 
-import org.jetbrains.annotations.Nullable;
-
 import java.util.Queue;
 
 public class TaskDispatcher {
@@ -23,9 +22,12 @@ public class TaskDispatcher {
     private volatile boolean stopThreads;
     private Thread[] threads;
     private BuilderResources[] resources;
-    private int idleThreads;
-    private final Queue<ChunkTask> highPriorityTasks = Queues.newConcurrentLinkedQueue();
-    private final Queue<ChunkTask> lowPriorityTasks = Queues.newConcurrentLinkedQueue();
+    private final ChunkTaskQueue taskQueue = new ChunkTaskQueue();
+
+    // Camera state used to prioritize tasks, in section coordinates
+    private int cameraX, cameraY, cameraZ;
+    private short visibleFrame = -1;
+    private int maxDistance = Integer.MAX_VALUE;
 
     public TaskDispatcher() {
         this.fixedBuffers = new ThreadBuilderPack();
@@ -44,6 +46,7 @@ public class TaskDispatcher {
         }
 
         this.stopThreads = false;
+        this.taskQueue.start();
 
         if(this.resources != null) {
             for (BuilderResources resources : this.resources) {
@@ -68,18 +71,12 @@ public class TaskDispatcher {
 
     private void runTaskThread(BuilderResources builderResources) {
         while(!this.stopThreads) {
-            ChunkTask task = this.pollTask();
-
-            if(task == null)
-                synchronized (this) {
-                    try {
-                        this.idleThreads++;
-                        this.wait();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-                    this.idleThreads--;
-                }
+            ChunkTask task;
+            try {
+                task = this.taskQueue.take();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
 
             if(task == null)
                 continue;
@@ -92,25 +89,41 @@ public class TaskDispatcher {
         if(chunkTask == null)
             return;
 
-        if (chunkTask.highPriority) {
-            this.highPriorityTasks.offer(chunkTask);
-        } else {
-            this.lowPriorityTasks.offer(chunkTask);
-        }
+        this.taskQueue.add(chunkTask, this.getPriority(chunkTask));
+    }
 
-        synchronized (this) {
-            this.notify();
-        }
+    /**
+     * Updates the camera state used to prioritize tasks, re-prioritizing queued tasks
+     * and cancelling the ones whose section is out of range.
+     * @param frame the graph frame, sections visited during that frame are considered visible
+     */
+    public void updateCamera(int sectionX, int sectionY, int sectionZ, short frame, int renderDistance) {
+        this.cameraX = sectionX;
+        this.cameraY = sectionY;
+        this.cameraZ = sectionZ;
+        this.visibleFrame = frame;
+        this.maxDistance = renderDistance + 1;
+
+        this.taskQueue.cancelIf(task -> !this.isInRange(task.getSection()));
+        this.taskQueue.reprioritize(this::getPriority);
     }
 
-    @Nullable
-    private ChunkTask pollTask() {
-        ChunkTask task = this.highPriorityTasks.poll();
+    private long getPriority(ChunkTask task) {
+        RenderSection section = task.getSection();
+
+        long dx = (section.xOffset() >> 4) - this.cameraX;
+        long dy = (section.yOffset() >> 4) - this.cameraY;
+        long dz = (section.zOffset() >> 4) - this.cameraZ;
+        boolean visible = section.getLastFrame() == this.visibleFrame;
+
+        return ChunkTaskQueue.priorityKey(task.highPriority, visible, dx * dx + dy * dy + dz * dz);
+    }
 
-        if(task == null)
-            task = this.lowPriorityTasks.poll();
+    private boolean isInRange(RenderSection section) {
+        int dx = (section.xOffset() >> 4) - this.cameraX;
+        int dz = (section.zOffset() >> 4) - this.cameraZ;
 
-        return task;
+        return Math.max(Math.abs(dx), Math.abs(dz)) <= this.maxDistance;
     }
 
     public void stopThreads() {
@@ -119,9 +132,7 @@ public class TaskDispatcher {
 
         this.stopThreads = true;
 
-        synchronized (this) {
-            this.notifyAll();
-        }
+        this.taskQueue.stop();
 
         for (Thread thread : this.threads) {
             try {
@@ -178,27 +189,16 @@ public class TaskDispatcher {
         }
     }
 
-    public boolean isIdle() { return this.idleThreads == this.threads.length && this.compileResults.isEmpty(); }
+    public boolean isIdle() {
+        return this.taskQueue.getWaitingThreads() == this.threads.length && this.compileResults.isEmpty();
+    }
 
     public void clearBatchQueue() {
-        while(!this.highPriorityTasks.isEmpty()) {
-            ChunkTask chunkTask = this.highPriorityTasks.poll();
-            if (chunkTask != null) {
-                chunkTask.cancel();
-            }
-        }
-
-        while(!this.lowPriorityTasks.isEmpty()) {
-            ChunkTask chunkTask = this.lowPriorityTasks.poll();
-            if (chunkTask != null) {
-                chunkTask.cancel();
-            }
-        }
+        this.taskQueue.cancelAll();
     }
 
     public String getStats() {
-        int taskCount = highPriorityTasks.size() + lowPriorityTasks.size();
-        return String.format("iT: %d Ts: %d", this.idleThreads, taskCount);
+        return String.format("iT: %d Ts: %d", this.taskQueue.getWaitingThreads(), this.taskQueue.size());
     }
 
     public BuilderResources[] getResourcesArray() {
@@ -8,11 +8,9 @@ import net.minecraft.world.level.ColorResolver;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.Biome;
 import net.vulkanmod.render.chunk.WorldRenderer;
+import net.vulkanmod.render.chunk.build.biome.BiomeColorCache;
 import net.vulkanmod.render.chunk.build.biome.BoxBlur;
 
-import java.util.Arrays;
-import java.util.function.BiFunction;
-
 public class TintCache {
     private static final int SECTION_WIDTH = 16;
 
@@ -24,10 +22,16 @@ public class TintCache {
     private int maxX, maxZ;
 
     private int dataSize;
-    private int[] temp;
+
+    private final BoxBlur boxBlur = new BoxBlur();
+
+    private final BiomeColorCache.Sampler sampler = this::sampleCell;
+    private final BlockPos.MutableBlockPos samplePos = new BlockPos.MutableBlockPos();
 
     public TintCache() {
-        Arrays.fill(layers, new Layer());
+        for (int i = 0; i < layers.length; ++i) {
+            layers[i] = new Layer();
+        }
     }
 
     public void init(int blendRadius, int secX, int secY, int secZ) {
@@ -50,7 +54,6 @@ public class TintCache {
             for (Layer layer : layers) {
                 layer.allocate(size);
             }
-            temp = new int[size];
         } else {
             for (Layer layer : layers) {
                 layer.invalidate();
@@ -72,38 +75,71 @@ public class TintCache {
     }
 
     public void calculateLayer(int y) {
-        Level level = WorldRenderer.getLevel();
         Layer layer = layers[y];
+        BiomeColorCache biomeColorCache = BiomeColorCache.INSTANCE;
 
-        BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos();
         int absY = (secY << 4) + y;
 
-        Biome tB = level.getBiome(blockPos.set(minX, absY, minZ)).value();
+        Biome tB = null;
         boolean mixed = false;
-        for (int absZ = minZ; absZ < maxZ ; absZ++) {
-            for (int absX = minX; absX < maxX ; absX++) {
-                blockPos.set(absX, absY, absZ);
-                Biome biome = level.getBiome(blockPos).value();
+        for (int cellZ = minZ >> 2; cellZ <= (maxZ - 1) >> 2; cellZ++) {
+            for (int cellX = minX >> 2; cellX <= (maxX - 1) >> 2; cellX++) {
+                BiomeColorCache.Cell cell = biomeColorCache.getCell(cellX, absY, cellZ, this.sampler);
 
-                if (biome != tB)
+                if (tB == null)
+                    tB = cell.biome;
+                if (cell.biome == null || cell.biome != tB)
                     mixed = true;
 
-                final int idx = (absX - minX) + (absZ - minZ) * totalWidth;
-                layer.grass[idx] = biome.getGrassColor(absX, absZ);
-                layer.foliage[idx] = biome.getFoliageColor();
-                layer.water[idx] = biome.getWaterColor();
+                // Copy the part of the cell inside the layer area
+                int x0 = Math.max(cellX << 2, minX), x1 = Math.min((cellX << 2) + 4, maxX);
+                int z0 = Math.max(cellZ << 2, minZ), z1 = Math.min((cellZ << 2) + 4, maxZ);
+
+                for (int absZ = z0; absZ < z1; absZ++) {
+                    for (int absX = x0; absX < x1; absX++) {
+                        final int cellIdx = (absZ & 3) * BiomeColorCache.CELL_WIDTH + (absX & 3);
+                        final int idx = (absX - minX) + (absZ - minZ) * totalWidth;
+
+                        layer.grass[idx] = cell.grass[cellIdx];
+                        layer.foliage[idx] = cell.foliage[cellIdx];
+                        layer.water[idx] = cell.water[cellIdx];
+                    }
+                }
             }
         }
 
         if(mixed && blendRadius > 0) {
-            BoxBlur.blur(layer.grass, temp, SECTION_WIDTH, blendRadius);
-            BoxBlur.blur(layer.foliage, temp, SECTION_WIDTH, blendRadius);
-            BoxBlur.blur(layer.water, temp, SECTION_WIDTH, blendRadius);
+            boxBlur.blur(layer.grass, SECTION_WIDTH, blendRadius);
+            boxBlur.blur(layer.foliage, SECTION_WIDTH, blendRadius);
+            boxBlur.blur(layer.water, SECTION_WIDTH, blendRadius);
         }
 
         layer.invalidated = false;
     }
 
+    private void sampleCell(BiomeColorCache.Cell cell, int x0, int y, int z0) {
+        Level level = WorldRenderer.getLevel();
+        BlockPos.MutableBlockPos blockPos = this.samplePos;
+
+        Biome cellBiome = level.getBiome(blockPos.set(x0, y, z0)).value();
+        for (int z = 0; z < BiomeColorCache.CELL_WIDTH; z++) {
+            for (int x = 0; x < BiomeColorCache.CELL_WIDTH; x++) {
+                int absX = x0 + x, absZ = z0 + z;
+                Biome biome = level.getBiome(blockPos.set(absX, y, absZ)).value();
+
+                if (biome != cellBiome)
+                    cellBiome = null;
+
+                final int idx = z * BiomeColorCache.CELL_WIDTH + x;
+                cell.grass[idx] = biome.getGrassColor(absX, absZ);
+                cell.foliage[idx] = biome.getFoliageColor();
+                cell.water[idx] = biome.getWaterColor();
+            }
+        }
+
+        cell.biome = cellBiome;
+    }
+
     static class Layer {
         private boolean invalidated = true;
 
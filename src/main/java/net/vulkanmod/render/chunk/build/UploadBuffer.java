@@ -1,5 +1,6 @@
 package net.vulkanmod.render.chunk.build;
 
+import com.mojang.blaze3d.vertex.VertexFormat;
 import net.vulkanmod.render.chunk.util.BufferUtil;
 import net.vulkanmod.render.vertex.TerrainBufferBuilder;
 import org.lwjgl.system.MemoryUtil;
@@ -10,6 +11,7 @@ public class UploadBuffer {
     public final int indexCount;
     public final boolean autoIndices;
     public final boolean indexOnly;
+    public final boolean wideIndices;
     private final ByteBuffer vertexBuffer;
     private final ByteBuffer indexBuffer;
 
@@ -18,6 +20,7 @@ public class UploadBuffer {
         this.indexCount = drawState.indexCount();
         this.autoIndices = drawState.sequentialIndex();
         this.indexOnly = drawState.indexOnly();
+        this.wideIndices = drawState.indexType() == VertexFormat.IndexType.INT;
 
         if (!this.indexOnly)
             this.vertexBuffer = BufferUtil.clone(renderedBuffer.vertexBuffer());
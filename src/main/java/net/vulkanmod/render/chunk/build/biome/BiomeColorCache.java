@@ -0,0 +1,124 @@
+package net.vulkanmod.render.chunk.build.biome;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.biome.Biome;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Biome color samples shared by all builder threads, stored per 4x4 column cell of a block layer.
+ * <p>
+ * Slots are direct mapped and hold immutable cells, a racing sample of the same cell is just redundant work.
+ * Cells sampled concurrently with an invalidation are discarded, so stale data is never kept.
+ */
+public class BiomeColorCache {
+    public static final int CELL_WIDTH = 4;
+    public static final int CELL_SIZE = CELL_WIDTH * CELL_WIDTH;
+
+    private static final int DEFAULT_SIZE = 1 << 15;
+
+    public static final BiomeColorCache INSTANCE = new BiomeColorCache(DEFAULT_SIZE);
+
+    private final int mask;
+    private final AtomicReferenceArray<Cell> cells;
+
+    private final AtomicInteger generation = new AtomicInteger();
+
+    public BiomeColorCache(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, 16) - 1) << 1;
+
+        this.mask = capacity - 1;
+        this.cells = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return the cell at cell coords ({@code cellX}, {@code cellZ}) of block layer {@code y}, sampled if not cached
+     */
+    public Cell getCell(int cellX, int y, int cellZ, Sampler sampler) {
+        long key = BlockPos.asLong(cellX, y, cellZ);
+        int slot = slot(key);
+
+        Cell cell = this.cells.get(slot);
+        if (cell != null && cell.key == key)
+            return cell;
+
+        int generation = this.generation.get();
+
+        cell = new Cell(key);
+        sampler.sample(cell, cellX * CELL_WIDTH, y, cellZ * CELL_WIDTH);
+
+        this.cells.set(slot, cell);
+
+        // An invalidation happened while sampling, the cell may be stale
+        if (this.generation.get() != generation)
+            this.cells.compareAndSet(slot, cell, null);
+
+        return cell;
+    }
+
+    /**
+     * Drops the cells of a chunk column, i.e. after its biomes are loaded or replaced.
+     */
+    public void invalidateChunk(int chunkX, int chunkZ, int minY, int maxY) {
+        this.generation.incrementAndGet();
+
+        int cellX0 = chunkX * (16 / CELL_WIDTH);
+        int cellZ0 = chunkZ * (16 / CELL_WIDTH);
+
+        for (int y = minY; y < maxY; ++y) {
+            for (int cellZ = cellZ0; cellZ < cellZ0 + 16 / CELL_WIDTH; ++cellZ) {
+                for (int cellX = cellX0; cellX < cellX0 + 16 / CELL_WIDTH; ++cellX) {
+                    long key = BlockPos.asLong(cellX, y, cellZ);
+                    int slot = slot(key);
+
+                    Cell cell = this.cells.get(slot);
+                    if (cell != null && cell.key == key)
+                        this.cells.compareAndSet(slot, cell, null);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        this.generation.incrementAndGet();
+
+        for (int i = 0; i < this.cells.length(); ++i) {
+            this.cells.set(i, null);
+        }
+    }
+
+    public int capacity() {
+        return this.cells.length();
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & this.mask;
+    }
+
+    /**
+     * Colors of a 4x4 block area indexed as z * 4 + x, filled by a {@link Sampler} before being shared.
+     */
+    public static class Cell {
+        final long key;
+
+        public final int[] grass = new int[CELL_SIZE];
+        public final int[] foliage = new int[CELL_SIZE];
+        public final int[] water = new int[CELL_SIZE];
+
+        // Biome of every sample, null if the cell has more than one
+        @Nullable
+        public Biome biome;
+
+        Cell(long key) {
+            this.key = key;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Sampler {
+        void sample(Cell cell, int x0, int y, int z0);
+    }
+}
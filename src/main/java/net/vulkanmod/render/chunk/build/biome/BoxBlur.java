@@ -1,43 +1,83 @@
 package net.vulkanmod.render.chunk.build.biome;
 
+/**
+ * Separable box blur of a square color area, used for biome blending.
+ * Colors are split in channel planes so that each pass works on plain ints, scratch arrays are reused between calls.
+ */
 public class BoxBlur {
+    private int[] red = new int[0];
+    private int[] green = new int[0];
+    private int[] blue = new int[0];
+    private int[] temp = new int[0];
 
-    public static void blur(int[] buffer, int[] temp, int width, int filterRadius) {
-        horizontalBlur(buffer, temp, 0, width, filterRadius);
-        horizontalBlur(temp, buffer, filterRadius, width, filterRadius);
+    /**
+     * Blurs the center {@code width}^2 area of {@code buffer}, a square of side {@code width + 2 * filterRadius}.
+     * The border is only read.
+     */
+    public void blur(int[] buffer, int width, int filterRadius) {
+        final int totalWidth = (filterRadius * 2) + width;
+        final int size = totalWidth * totalWidth;
+
+        if (this.temp.length < size) {
+            this.red = new int[size];
+            this.green = new int[size];
+            this.blue = new int[size];
+            this.temp = new int[size];
+        }
+
+        for (int i = 0; i < size; ++i) {
+            int color = buffer[i];
+            this.red[i] = unpackR(color);
+            this.green[i] = unpackG(color);
+            this.blue[i] = unpackB(color);
+        }
+
+        blurChannel(this.red, this.temp, width, filterRadius);
+        blurChannel(this.green, this.temp, width, filterRadius);
+        blurChannel(this.blue, this.temp, width, filterRadius);
+
+        for (int z = filterRadius; z < filterRadius + width; ++z) {
+            for (int x = filterRadius; x < filterRadius + width; ++x) {
+                int idx = getIdx(x, z, totalWidth);
+                buffer[idx] = packColor(this.red[idx], this.green[idx], this.blue[idx]);
+            }
+        }
     }
 
-    public static void horizontalBlur(int[] src, int[] dst, int y0, int width, int filterRadius) {
+    /**
+     * Horizontal pass of every row into {@code temp}, then vertical pass of the center columns back into {@code channel}.
+     */
+    public static void blurChannel(int[] channel, int[] temp, int width, int filterRadius) {
         final int div = filterRadius * 2 + 1;
-        final int x0 = filterRadius;
         final int totalWidth = (filterRadius * 2) + width;
-        for (int y = y0; y < totalWidth; y++) {
-            int color;
-            int r = 0, g = 0, b = 0;
-
-            //init accumulator
-            for(int x = 0; x < x0 + 1 + filterRadius; ++x) {
-                color = src[getIdx(x, y, totalWidth)];
-                r += unpackR(color);
-                g += unpackG(color);
-                b += unpackB(color);
-            }
+        final int x0 = filterRadius;
+        final int x1 = filterRadius + width;
+
+        for (int z = 0; z < totalWidth; ++z) {
+            final int row = z * totalWidth;
 
-            dst[getIdx(y, x0, totalWidth)] = packColor(r, g, b, div);
+            int sum = 0;
+            for (int x = 0; x < div; ++x) {
+                sum += channel[row + x];
+            }
+            temp[row + x0] = sum / div;
 
-            for (int x = x0 + 1; x < x0 + width; x++) {
-                color = src[getIdx(x - filterRadius - 1, y, totalWidth)];
-                r -= unpackR(color);
-                g -= unpackG(color);
-                b -= unpackB(color);
+            for (int x = x0 + 1; x < x1; ++x) {
+                sum += channel[row + x + filterRadius] - channel[row + x - filterRadius - 1];
+                temp[row + x] = sum / div;
+            }
+        }
 
-                color = src[getIdx(x + filterRadius, y, totalWidth)];
-                r += unpackR(color);
-                g += unpackG(color);
-                b += unpackB(color);
+        for (int x = x0; x < x1; ++x) {
+            int sum = 0;
+            for (int z = 0; z < div; ++z) {
+                sum += temp[getIdx(x, z, totalWidth)];
+            }
+            channel[getIdx(x, x0, totalWidth)] = sum / div;
 
-                //transpose
-                dst[getIdx(y, x, totalWidth)] = packColor(r, g, b, div);
+            for (int z = x0 + 1; z < x1; ++z) {
+                sum += temp[getIdx(x, z + filterRadius, totalWidth)] - temp[getIdx(x, z - filterRadius - 1, totalWidth)];
+                channel[getIdx(x, z, totalWidth)] = sum / div;
             }
         }
     }
@@ -58,7 +98,7 @@ public class BoxBlur {
         return color & 0xFF;
     }
 
-    public static int packColor(int r, int g, int b, int div) {
-        return 0xFF000000 | (((r / div) & 0xFF) << 16) | (((g / div) & 0xFF) << 8) | ((b / div) & 0xFF);
+    public static int packColor(int r, int g, int b) {
+        return 0xFF000000 | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | (b & 0xFF);
     }
 }
@@ -24,14 +24,34 @@ public class ArrayLightDataCache extends LightDataAccess {
         this.light = new int[BLOCK_LENGTH * BLOCK_LENGTH * BLOCK_LENGTH];
     }
 
+    public ArrayLightDataCache(boolean subBlockLighting) {
+        super(subBlockLighting);
+        this.light = new int[BLOCK_LENGTH * BLOCK_LENGTH * BLOCK_LENGTH];
+    }
+
     public void reset(BlockAndTintGetter blockAndTintGetter, int x, int y, int z) {
+        this.reset(blockAndTintGetter, x, y, z, false);
+    }
+
+    /**
+     * @param keepOverlap if the data of the area shared with the previous origin is still valid,
+     *                    in which case it's moved to the new position instead of being recomputed
+     */
+    public void reset(BlockAndTintGetter blockAndTintGetter, int x, int y, int z, boolean keepOverlap) {
         this.world = blockAndTintGetter;
 
-        this.xOffset = x - NEIGHBOR_BLOCK_RADIUS;
-        this.yOffset = y - NEIGHBOR_BLOCK_RADIUS;
-        this.zOffset = z - NEIGHBOR_BLOCK_RADIUS;
+        int xOffset = x - NEIGHBOR_BLOCK_RADIUS;
+        int yOffset = y - NEIGHBOR_BLOCK_RADIUS;
+        int zOffset = z - NEIGHBOR_BLOCK_RADIUS;
 
-        Arrays.fill(this.light, 0);
+        if (keepOverlap)
+            shift(this.light, xOffset - this.xOffset, yOffset - this.yOffset, zOffset - this.zOffset);
+        else
+            Arrays.fill(this.light, 0);
+
+        this.xOffset = xOffset;
+        this.yOffset = yOffset;
+        this.zOffset = zOffset;
     }
 
     public void reset(SectionPos origin) {
@@ -50,6 +70,43 @@ public class ArrayLightDataCache extends LightDataAccess {
         Arrays.fill(this.light, 0);
     }
 
+    /**
+     * Moves the values of {@code data} by minus the given offset, clearing the values with no source.
+     */
+    static void shift(int[] data, int dx, int dy, int dz) {
+        final int length = BLOCK_LENGTH;
+
+        if (Math.abs(dx) >= length || Math.abs(dy) >= length || Math.abs(dz) >= length) {
+            Arrays.fill(data, 0);
+            return;
+        }
+
+        // Rows are (z, y) pairs, iterate so that a source row is read before being overwritten
+        final int rowStep = dz * length + dy;
+        final int rows = length * length;
+
+        for (int i = 0; i < rows; ++i) {
+            int row = rowStep >= 0 ? i : rows - 1 - i;
+            int z = row / length, y = row % length;
+            int dstIdx = row * length;
+
+            int srcZ = z + dz, srcY = y + dy;
+            if (srcZ < 0 || srcZ >= length || srcY < 0 || srcY >= length) {
+                Arrays.fill(data, dstIdx, dstIdx + length, 0);
+                continue;
+            }
+
+            int srcIdx = (srcZ * length + srcY) * length;
+            if (dx >= 0) {
+                System.arraycopy(data, srcIdx + dx, data, dstIdx, length - dx);
+                Arrays.fill(data, dstIdx + length - dx, dstIdx + length, 0);
+            } else {
+                System.arraycopy(data, srcIdx, data, dstIdx - dx, length + dx);
+                Arrays.fill(data, dstIdx, dstIdx - dx, 0);
+            }
+        }
+    }
+
     private int index(int x, int y, int z) {
         int x2 = x - this.xOffset;
         int y2 = y - this.yOffset;
@@ -58,6 +115,13 @@ public class ArrayLightDataCache extends LightDataAccess {
         return (z2 * BLOCK_LENGTH * BLOCK_LENGTH) + (y2 * BLOCK_LENGTH) + x2;
     }
 
+    /**
+     * Stores precomputed light data for the given position, bypassing the world lookup.
+     */
+    public void put(int x, int y, int z, int word) {
+        this.light[this.index(x, y, z)] = word;
+    }
+
     @Override
     public int get(int x, int y, int z) {
         int l = this.index(x, y, z);
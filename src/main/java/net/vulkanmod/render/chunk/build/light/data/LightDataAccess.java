@@ -50,7 +50,11 @@ public abstract class LightDataAccess {
     final boolean subBlockLighting;
 
     protected LightDataAccess() {
-        this.subBlockLighting = Initializer.CONFIG.ambientOcclusion == LightMode.SUB_BLOCK;
+        this(Initializer.CONFIG.ambientOcclusion == LightMode.SUB_BLOCK);
+    }
+
+    protected LightDataAccess(boolean subBlockLighting) {
+        this.subBlockLighting = subBlockLighting;
     }
 
     public int get(int x, int y, int z, SimpleDirection d1, SimpleDirection d2) {
@@ -16,6 +16,18 @@ class AoFaceData {
 
     protected int flags;
 
+    // Edge and corner values of the face, combined by the blender
+    protected final int[] edgeLm = new int[4];
+    protected final int[] cornerLm = new int[4];
+    protected final float[] edgeAo = new float[4];
+    protected final float[] cornerAo = new float[4];
+
+    protected final CornerBlender blender;
+
+    AoFaceData(CornerBlender blender) {
+        this.blender = blender;
+    }
+
     public void initLightData(LightDataAccess cache, BlockPos pos, SimpleDirection direction, boolean offset) {
         final int oX = pos.getX();
         final int oY = pos.getY();
@@ -141,38 +153,51 @@ class AoFaceData {
             c3em = unpackEM(d3);
         }
 
-        float[] ao = this.ao;
-        ao[0] = (e0ao + e1ao + c0ao + oao) * 0.25f;
-        ao[1] = (e1ao + e2ao + c1ao + oao) * 0.25f;
-        ao[2] = (e2ao + e3ao + c2ao + oao) * 0.25f;
-        ao[3] = (e3ao + e0ao + c3ao + oao) * 0.25f;
+        float[] edgeAo = this.edgeAo;
+        edgeAo[0] = e0ao;
+        edgeAo[1] = e1ao;
+        edgeAo[2] = e2ao;
+        edgeAo[3] = e3ao;
+
+        float[] cornerAo = this.cornerAo;
+        cornerAo[0] = c0ao;
+        cornerAo[1] = c1ao;
+        cornerAo[2] = c2ao;
+        cornerAo[3] = c3ao;
+
+        this.blender.blendAo(edgeAo, cornerAo, oao, this.ao);
 
-        int[] cb = this.lm;
-        cb[0] = calculateCornerBrightness(e0lm, e1lm, c0lm, olm, e0em, e1em, c0em, oem);
-        cb[1] = calculateCornerBrightness(e1lm, e2lm, c1lm, olm, e1em, e2em, c1em, oem);
-        cb[2] = calculateCornerBrightness(e2lm, e3lm, c2lm, olm, e2em, e3em, c2em, oem);
-        cb[3] = calculateCornerBrightness(e3lm, e0lm, c3lm, olm, e3em, e0em, c3em, oem);
+        this.blendLightmaps(e0lm, e1lm, e2lm, e3lm, c0lm, c1lm, c2lm, c3lm, olm,
+                packEmissive(e0em, e1em, e2em, e3em), packEmissive(c0em, c1em, c2em, c3em), oem);
 
         this.flags |= FaceDataFlags.HAS_LIGHT_DATA;
     }
 
     public void unpackLightData() {
-        int[] lm = this.lm;
+        this.blender.unpackLightmaps(this.lm, this.bl, this.sl);
 
-        float[] bl = this.bl;
-        float[] sl = this.sl;
-
-        bl[0] = unpackBlockLight(lm[0]);
-        bl[1] = unpackBlockLight(lm[1]);
-        bl[2] = unpackBlockLight(lm[2]);
-        bl[3] = unpackBlockLight(lm[3]);
+        this.flags |= FaceDataFlags.HAS_UNPACKED_LIGHT_DATA;
+    }
 
-        sl[0] = unpackSkyLight(lm[0]);
-        sl[1] = unpackSkyLight(lm[1]);
-        sl[2] = unpackSkyLight(lm[2]);
-        sl[3] = unpackSkyLight(lm[3]);
+    protected void blendLightmaps(int e0lm, int e1lm, int e2lm, int e3lm, int c0lm, int c1lm, int c2lm, int c3lm, int olm,
+                                  int edgeEm, int cornerEm, boolean oem) {
+        int[] edgeLm = this.edgeLm;
+        edgeLm[0] = e0lm;
+        edgeLm[1] = e1lm;
+        edgeLm[2] = e2lm;
+        edgeLm[3] = e3lm;
+
+        int[] cornerLm = this.cornerLm;
+        cornerLm[0] = c0lm;
+        cornerLm[1] = c1lm;
+        cornerLm[2] = c2lm;
+        cornerLm[3] = c3lm;
+
+        this.blender.blendLightmaps(edgeLm, cornerLm, olm, edgeEm, cornerEm, oem, this.lm);
+    }
 
-        this.flags |= FaceDataFlags.HAS_UNPACKED_LIGHT_DATA;
+    static int packEmissive(boolean em0, boolean em1, boolean em2, boolean em3) {
+        return (em0 ? 0b0001 : 0) | (em1 ? 0b0010 : 0) | (em2 ? 0b0100 : 0) | (em3 ? 0b1000 : 0);
     }
 
     public boolean getCornerOcclusion(int bits, int[] values, int i) {
@@ -0,0 +1,47 @@
+package net.vulkanmod.render.chunk.build.light.smooth;
+
+import net.vulkanmod.Initializer;
+
+/**
+ * Per corner arithmetic of a face's AO data, computing the 4 corners at once.
+ * Corner i is made of edges i and i + 1 (mod 4), corner block i and the origin block.
+ */
+public interface CornerBlender {
+    String VECTOR_MODULE = "jdk.incubator.vector";
+    String VECTOR_BLENDER_CLASS = "net.vulkanmod.render.chunk.build.light.smooth.VectorCornerBlender";
+
+    // Selected once, so that call sites only ever see one implementation
+    CornerBlender INSTANCE = create();
+
+    /**
+     * out[i] = (edgeAo[i] + edgeAo[i + 1] + cornerAo[i] + originAo) * 0.25
+     */
+    void blendAo(float[] edgeAo, float[] cornerAo, float originAo, float[] out);
+
+    /**
+     * Corner lightmaps as in {@link AoFaceData#calculateCornerBrightness}, emissive masks have bit i set for element i.
+     */
+    void blendLightmaps(int[] edgeLm, int[] cornerLm, int originLm, int edgeEm, int cornerEm, boolean originEm, int[] out);
+
+    /**
+     * Splits packed lightmaps in block and sky light values.
+     */
+    void unpackLightmaps(int[] lm, float[] bl, float[] sl);
+
+    /**
+     * @return the Vector API implementation if the incubator module is available, the scalar one otherwise
+     */
+    static CornerBlender create() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                CornerBlender blender = (CornerBlender) Class.forName(VECTOR_BLENDER_CLASS).getDeclaredConstructor().newInstance();
+                Initializer.LOGGER.info("Using Vector API smooth lighting");
+                return blender;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                Initializer.LOGGER.warn("Unable to load Vector API smooth lighting, using scalar fallback", e);
+            }
+        }
+
+        return new ScalarCornerBlender();
+    }
+}
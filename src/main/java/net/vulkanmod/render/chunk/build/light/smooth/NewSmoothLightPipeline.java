@@ -24,7 +24,7 @@ public class NewSmoothLightPipeline implements LightPipeline {
     /**
      * Face data to allow face self-occlusion computation.
      */
-    private final SubBlockAoFace self = new SubBlockAoFace();
+    private final SubBlockAoFace self;
 
     private long cachedPos = Long.MIN_VALUE;
 
@@ -34,10 +34,15 @@ public class NewSmoothLightPipeline implements LightPipeline {
     private final float[] weights = new float[4];
 
     public NewSmoothLightPipeline(LightDataAccess cache) {
+        this(cache, CornerBlender.INSTANCE);
+    }
+
+    public NewSmoothLightPipeline(LightDataAccess cache, CornerBlender blender) {
         this.lightCache = cache;
+        this.self = new SubBlockAoFace(blender);
 
         for (int i = 0; i < this.cachedFaceData.length; i++) {
-            this.cachedFaceData[i] = new SubBlockAoFace();
+            this.cachedFaceData[i] = new SubBlockAoFace(blender);
         }
     }
 
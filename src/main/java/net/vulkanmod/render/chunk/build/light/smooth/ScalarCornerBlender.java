@@ -0,0 +1,32 @@
+package net.vulkanmod.render.chunk.build.light.smooth;
+
+/**
+ * Default {@link CornerBlender}, one corner at a time.
+ */
+public class ScalarCornerBlender implements CornerBlender {
+
+    @Override
+    public void blendAo(float[] edgeAo, float[] cornerAo, float originAo, float[] out) {
+        out[0] = (edgeAo[0] + edgeAo[1] + cornerAo[0] + originAo) * 0.25f;
+        out[1] = (edgeAo[1] + edgeAo[2] + cornerAo[1] + originAo) * 0.25f;
+        out[2] = (edgeAo[2] + edgeAo[3] + cornerAo[2] + originAo) * 0.25f;
+        out[3] = (edgeAo[3] + edgeAo[0] + cornerAo[3] + originAo) * 0.25f;
+    }
+
+    @Override
+    public void blendLightmaps(int[] edgeLm, int[] cornerLm, int originLm, int edgeEm, int cornerEm, boolean originEm, int[] out) {
+        for (int i = 0; i < 4; ++i) {
+            int next = (i + 1) & 3;
+            out[i] = AoFaceData.calculateCornerBrightness(edgeLm[i], edgeLm[next], cornerLm[i], originLm,
+                    (edgeEm & (1 << i)) != 0, (edgeEm & (1 << next)) != 0, (cornerEm & (1 << i)) != 0, originEm);
+        }
+    }
+
+    @Override
+    public void unpackLightmaps(int[] lm, float[] bl, float[] sl) {
+        for (int i = 0; i < 4; ++i) {
+            bl[i] = AoFaceData.unpackBlockLight(lm[i]);
+            sl[i] = AoFaceData.unpackSkyLight(lm[i]);
+        }
+    }
+}
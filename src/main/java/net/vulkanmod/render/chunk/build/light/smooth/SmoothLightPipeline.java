@@ -59,10 +59,14 @@ public class SmoothLightPipeline implements LightPipeline {
     private final float[] weights = new float[4];
 
     public SmoothLightPipeline(LightDataAccess cache) {
+        this(cache, CornerBlender.INSTANCE);
+    }
+
+    public SmoothLightPipeline(LightDataAccess cache, CornerBlender blender) {
         this.lightCache = cache;
 
         for (int i = 0; i < this.cachedFaceData.length; i++) {
-            this.cachedFaceData[i] = new AoFaceData();
+            this.cachedFaceData[i] = new AoFaceData(blender);
         }
     }
 
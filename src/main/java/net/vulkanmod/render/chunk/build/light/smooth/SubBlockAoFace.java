@@ -8,6 +8,10 @@ import static net.vulkanmod.render.chunk.build.light.data.LightDataAccess.*;
 
 public class SubBlockAoFace extends AoFaceData {
 
+    public SubBlockAoFace(CornerBlender blender) {
+        super(blender);
+    }
+
     public void initLightData(LightDataAccess cache, BlockPos pos, SimpleDirection direction, boolean offset) {
         final int oX = pos.getX();
         final int oY = pos.getY();
@@ -206,11 +210,8 @@ public class SubBlockAoFace extends AoFaceData {
         ao[2] = c2ao * 0.25f;
         ao[3] = c3ao * 0.25f;
 
-        int[] cb = this.lm;
-        cb[0] = calculateCornerBrightness(e0lm, e1lm, c0lm, olm, e0em, e1em, c0em, oem);
-        cb[1] = calculateCornerBrightness(e1lm, e2lm, c1lm, olm, e1em, e2em, c1em, oem);
-        cb[2] = calculateCornerBrightness(e2lm, e3lm, c2lm, olm, e2em, e3em, c2em, oem);
-        cb[3] = calculateCornerBrightness(e3lm, e0lm, c3lm, olm, e3em, e0em, c3em, oem);
+        this.blendLightmaps(e0lm, e1lm, e2lm, e3lm, c0lm, c1lm, c2lm, c3lm, olm,
+                packEmissive(e0em, e1em, e2em, e3em), packEmissive(c0em, c1em, c2em, c3em), oem);
 
         this.flags |= FaceDataFlags.HAS_LIGHT_DATA;
     }
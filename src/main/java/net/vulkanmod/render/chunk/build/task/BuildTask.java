@@ -4,7 +4,11 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.ItemBlockRenderTypes;
 import net.minecraft.client.renderer.blockentity.BlockEntityRenderer;
 import net.minecraft.client.renderer.chunk.VisGraph;
+import net.minecraft.client.renderer.chunk.VisibilitySet;
+import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.core.BlockPos;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.BlockGetter;
 import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
@@ -13,8 +17,6 @@ import net.minecraft.world.phys.Vec3;
 import net.vulkanmod.Initializer;
 import net.vulkanmod.render.chunk.RenderSection;
 import net.vulkanmod.render.chunk.WorldRenderer;
-import net.vulkanmod.render.chunk.build.BlockRenderer;
-import net.vulkanmod.render.chunk.build.LiquidRenderer;
 import net.vulkanmod.render.chunk.build.RenderRegion;
 import net.vulkanmod.render.chunk.build.UploadBuffer;
 import net.vulkanmod.render.chunk.build.thread.BuilderResources;
@@ -25,6 +27,9 @@ import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3f;
 
 public class BuildTask extends ChunkTask {
+    // Section relative positions of the blocks on the faces of a section, packed as (y << 8 | z << 4 | x)
+    static final int[] BOUNDARY_BLOCKS = createBoundaryBlocks();
+
     @Nullable
     protected RenderRegion region;
 
@@ -76,88 +81,145 @@ public class BuildTask extends ChunkTask {
         CompileResult compileResult = new CompileResult(this.section, true);
 
         BlockPos startBlockPos = new BlockPos(section.xOffset(), section.yOffset(), section.zOffset()).immutable();
-        VisGraph visGraph = new VisGraph();
 
+        // Empty section, nothing to build and visible from every direction
         if (this.region == null) {
-            compileResult.visibilitySet = visGraph.resolve();
+            compileResult.visibilitySet = emptySectionVisibility();
             return compileResult;
         }
 
-        Vector3f pos = new Vector3f();
         ThreadBuilderPack bufferBuilders = builderResources.builderPack;
         setupBufferBuilders(bufferBuilders);
 
-        this.region.loadBlockStates();
+        this.region.loadBlockStates(builderResources);
         this.region.initTintCache(builderResources.tintCache);
 
         builderResources.update(this.region, this.section);
 
-        BlockRenderer blockRenderer = builderResources.blockRenderer;
+        Vector3f pos = new Vector3f();
+
+        BlockState uniformState = this.region.getUniformState();
+        if (uniformState != null && !isOpaqueCube(uniformState, startBlockPos))
+            uniformState = null;
+
+        compileResult.visibilitySet = walkSection(this.region, uniformState, section.xOffset(), section.yOffset(), section.zOffset(),
+                (blockState, blockPos) -> compileBlock(compileResult, builderResources, blockState, blockPos, pos));
+
+        TerrainBufferBuilder translucentBufferBuilder = bufferBuilders.builder(TerrainRenderType.TRANSLUCENT);
+        if (!translucentBufferBuilder.isCurrentBatchEmpty()) {
+            translucentBufferBuilder.setQuadSortOrigin(camX - (float) startBlockPos.getX(), camY - (float) startBlockPos.getY(), camZ - (float) startBlockPos.getZ());
+            compileResult.transparencyState = translucentBufferBuilder.getSortState();
+        }
+
+        for (TerrainRenderType renderType : TerrainRenderType.VALUES) {
+            TerrainBufferBuilder.RenderedBuffer renderedBuffer = bufferBuilders.builder(renderType).end();
+            if (renderedBuffer != null) {
+                UploadBuffer uploadBuffer = new UploadBuffer(renderedBuffer);
+                compileResult.renderedLayers.put(renderType, uploadBuffer);
+                renderedBuffer.release();
+            }
+        }
 
-        LiquidRenderer liquidRenderer = builderResources.liquidRenderer;
+        this.region = null;
+        return compileResult;
+    }
 
+    /**
+     * Visits the blocks of a section that can produce geometry and resolves its visibility.
+     * @param uniformOpaqueState the state of every block of the section if it's an opaque cube, see {@link #isOpaqueCube}:
+     *                           inner blocks are then surrounded by the same cube and only boundary blocks are visited
+     */
+    static VisibilitySet walkSection(BlockGetter region, @Nullable BlockState uniformOpaqueState,
+                                     int originX, int originY, int originZ, BlockVisitor visitor) {
         BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos();
 
+        if (uniformOpaqueState != null) {
+            for (int i = 0; i < BOUNDARY_BLOCKS.length; ++i) {
+                int packedPos = BOUNDARY_BLOCKS[i];
+                blockPos.set(originX + unpackX(packedPos), originY + unpackY(packedPos), originZ + unpackZ(packedPos));
+
+                visitor.accept(uniformOpaqueState, blockPos);
+            }
+
+            // Same result as a VisGraph with every block opaque
+            return new VisibilitySet();
+        }
+
+        VisGraph visGraph = new VisGraph();
+
         for (int y = 0; y < 16; ++y) {
             for (int z = 0; z < 16; ++z) {
                 for (int x = 0; x < 16; ++x) {
-                    blockPos.set(section.xOffset() + x, section.yOffset() + y, section.zOffset() + z);
+                    blockPos.set(originX + x, originY + y, originZ + z);
 
-                    BlockState blockState = this.region.getBlockState(blockPos);
-                    if (blockState.isSolidRender(this.region, blockPos)) {
+                    BlockState blockState = region.getBlockState(blockPos);
+                    if (blockState.isSolidRender(region, blockPos)) {
                         visGraph.setOpaque(blockPos);
                     }
 
-                    if (blockState.hasBlockEntity()) {
-                        BlockEntity blockEntity = this.region.getBlockEntity(blockPos);
-                        if (blockEntity != null) {
-                            this.handleBlockEntity(compileResult, blockEntity);
-                        }
-                    }
-
-                    FluidState fluidState = blockState.getFluidState();
-                    TerrainRenderType renderType;
-                    TerrainBufferBuilder bufferBuilder;
-                    if (!fluidState.isEmpty()) {
-                        renderType = TerrainRenderType.get(ItemBlockRenderTypes.getRenderLayer(fluidState));
-
-                        bufferBuilder = getBufferBuilder(bufferBuilders, renderType);
-                        bufferBuilder.setBlockAttributes(blockState);
+                    visitor.accept(blockState, blockPos);
+                }
+            }
+        }
 
-                        liquidRenderer.renderLiquid(blockState, fluidState, blockPos, bufferBuilder);
-                    }
+        return visGraph.resolve();
+    }
 
-                    if (blockState.getRenderShape() == RenderShape.MODEL) {
-                        renderType = TerrainRenderType.get(ItemBlockRenderTypes.getChunkRenderType(blockState));
+    /**
+     * Same result as a VisGraph without opaque blocks.
+     */
+    static VisibilitySet emptySectionVisibility() {
+        VisibilitySet visibilitySet = new VisibilitySet();
+        visibilitySet.setAll(true);
+        return visibilitySet;
+    }
 
-                        bufferBuilder = getBufferBuilder(bufferBuilders, renderType);
-                        bufferBuilder.setBlockAttributes(blockState);
+    private void compileBlock(CompileResult compileResult, BuilderResources builderResources, BlockState blockState,
+                              BlockPos blockPos, Vector3f pos) {
+        ThreadBuilderPack bufferBuilders = builderResources.builderPack;
 
-                        pos.set(blockPos.getX() & 15, blockPos.getY() & 15, blockPos.getZ() & 15);
-                        blockRenderer.renderBatched(blockState, blockPos, pos, bufferBuilder);
-                    }
-                }
+        if (blockState.hasBlockEntity()) {
+            BlockEntity blockEntity = this.region.getBlockEntity(blockPos);
+            if (blockEntity != null) {
+                this.handleBlockEntity(compileResult, blockEntity);
             }
         }
 
-        TerrainBufferBuilder translucentBufferBuilder = bufferBuilders.builder(TerrainRenderType.TRANSLUCENT);
-        if (!translucentBufferBuilder.isCurrentBatchEmpty()) {
-            translucentBufferBuilder.setQuadSortOrigin(camX - (float) startBlockPos.getX(), camY - (float) startBlockPos.getY(), camZ - (float) startBlockPos.getZ());
-            compileResult.transparencyState = translucentBufferBuilder.getSortState();
+        FluidState fluidState = blockState.getFluidState();
+        TerrainRenderType renderType;
+        TerrainBufferBuilder bufferBuilder;
+        if (!fluidState.isEmpty()) {
+            renderType = TerrainRenderType.get(ItemBlockRenderTypes.getRenderLayer(fluidState));
+
+            bufferBuilder = getBufferBuilder(bufferBuilders, renderType);
+            bufferBuilder.setBlockAttributes(blockState);
+
+            builderResources.liquidRenderer.renderLiquid(blockState, fluidState, blockPos, bufferBuilder);
         }
 
-        for (TerrainRenderType renderType : TerrainRenderType.VALUES) {
-            TerrainBufferBuilder.RenderedBuffer renderedBuffer = bufferBuilders.builder(renderType).end();
-            if (renderedBuffer != null) {
-                UploadBuffer uploadBuffer = new UploadBuffer(renderedBuffer);
-                compileResult.renderedLayers.put(renderType, uploadBuffer);
-                renderedBuffer.release();
-            }
+        if (blockState.getRenderShape() == RenderShape.MODEL) {
+            renderType = TerrainRenderType.get(ItemBlockRenderTypes.getChunkRenderType(blockState));
+
+            bufferBuilder = getBufferBuilder(bufferBuilders, renderType);
+            bufferBuilder.setBlockAttributes(blockState);
+
+            pos.set(blockPos.getX() & 15, blockPos.getY() & 15, blockPos.getZ() & 15);
+            builderResources.blockRenderer.renderBatched(blockState, blockPos, pos, bufferBuilder);
         }
+    }
 
-        compileResult.visibilitySet = visGraph.resolve();
-        this.region = null;
-        return compileResult;
+    /**
+     * Checks if a block hides every face of the same neighbouring block, and renders nothing else:
+     * a full opaque model without unculled quads, fluid or block entity.
+     */
+    private boolean isOpaqueCube(BlockState blockState, BlockPos blockPos) {
+        if (!blockState.isSolidRender(this.region, blockPos) || blockState.getRenderShape() != RenderShape.MODEL
+                || blockState.hasBlockEntity() || !blockState.getFluidState().isEmpty())
+            return false;
+
+        BakedModel model = Minecraft.getInstance().getBlockRenderer().getBlockModel(blockState);
+        RandomSource random = RandomSource.create(blockState.getSeed(blockPos));
+        return model.getQuads(blockState, null, random).isEmpty();
     }
 
     private void setupBufferBuilders(ThreadBuilderPack builderPack) {
@@ -189,6 +251,39 @@ public class BuildTask extends ChunkTask {
         return renderType;
     }
 
+    static int[] createBoundaryBlocks() {
+        int[] positions = new int[16 * 16 * 16 - 14 * 14 * 14];
+
+        int i = 0;
+        for (int y = 0; y < 16; ++y) {
+            for (int z = 0; z < 16; ++z) {
+                for (int x = 0; x < 16; ++x) {
+                    if (x == 0 || x == 15 || y == 0 || y == 15 || z == 0 || z == 15)
+                        positions[i++] = y << 8 | z << 4 | x;
+                }
+            }
+        }
+
+        return positions;
+    }
+
+    static int unpackX(int packedPos) {
+        return packedPos & 15;
+    }
+
+    static int unpackY(int packedPos) {
+        return packedPos >> 8;
+    }
+
+    static int unpackZ(int packedPos) {
+        return (packedPos >> 4) & 15;
+    }
+
+    @FunctionalInterface
+    interface BlockVisitor {
+        void accept(BlockState blockState, BlockPos blockPos);
+    }
+
     private <E extends BlockEntity> void handleBlockEntity(CompileResult compileResult, E blockEntity) {
         BlockEntityRenderer<E> blockEntityRenderer = Minecraft.getInstance().getBlockEntityRenderDispatcher().getRenderer(blockEntity);
         if (blockEntityRenderer != null) {
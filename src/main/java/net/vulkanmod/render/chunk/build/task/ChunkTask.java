@@ -20,6 +20,10 @@ public abstract class ChunkTask {
     protected final RenderSection section;
     public boolean highPriority = false;
 
+    // Scheduling state, managed by ChunkTaskQueue
+    long priority;
+    long sequence;
+
     ChunkTask(RenderSection renderSection) {
         this.section = renderSection;
     }
@@ -32,6 +36,10 @@ public abstract class ChunkTask {
         this.cancelled.set(true);
     }
 
+    public RenderSection getSection() {
+        return this.section;
+    }
+
     public static void setTaskDispatcher(TaskDispatcher dispatcher) {
         taskDispatcher = dispatcher;
     }
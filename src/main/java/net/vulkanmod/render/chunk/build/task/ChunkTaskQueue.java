@@ -0,0 +1,275 @@
+package net.vulkanmod.render.chunk.build.task;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Blocking priority queue of chunk tasks shared by the builder threads.
+ * Tasks with the lowest priority key run first, ties are resolved in submission order.
+ * Priorities can be recomputed in place when the camera moves, and tasks that are cancelled
+ * or no longer needed are dropped without being handed to a builder thread.
+ */
+public class ChunkTaskQueue {
+    private static final long HIGH_PRIORITY_BIT = 1L << 62;
+    private static final long NOT_VISIBLE_BIT = 1L << 61;
+    private static final long MAX_DISTANCE = NOT_VISIBLE_BIT - 1;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = this.lock.newCondition();
+
+    private ChunkTask[] heap = new ChunkTask[256];
+    private int size = 0;
+    private long sequence = 0;
+
+    private boolean stopped = false;
+    private int waitingThreads = 0;
+
+    /**
+     * Builds a priority key: high priority tasks first, then visible sections, then by distance to the camera.
+     */
+    public static long priorityKey(boolean highPriority, boolean visible, long distanceSq) {
+        long key = Math.min(Math.max(distanceSq, 0), MAX_DISTANCE);
+
+        if (!highPriority)
+            key |= HIGH_PRIORITY_BIT;
+        if (!visible)
+            key |= NOT_VISIBLE_BIT;
+
+        return key;
+    }
+
+    public void add(ChunkTask task, long priority) {
+        this.lock.lock();
+        try {
+            task.priority = priority;
+            task.sequence = this.sequence++;
+
+            if (this.size == this.heap.length)
+                this.heap = Arrays.copyOf(this.heap, this.size * 2);
+
+            this.heap[this.size] = task;
+            siftUp(this.size++);
+
+            this.notEmpty.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the most urgent task that hasn't been cancelled, or null if there's none
+     */
+    public ChunkTask poll() {
+        this.lock.lock();
+        try {
+            return pollTask();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a task is available.
+     * @return the most urgent task or null once the queue has been stopped
+     */
+    public ChunkTask take() throws InterruptedException {
+        this.lock.lock();
+        try {
+            ChunkTask task;
+            while ((task = pollTask()) == null) {
+                if (this.stopped)
+                    return null;
+
+                this.waitingThreads++;
+                try {
+                    this.notEmpty.await();
+                } finally {
+                    this.waitingThreads--;
+                }
+            }
+
+            return task;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private ChunkTask pollTask() {
+        while (this.size > 0) {
+            ChunkTask task = removeAt(0);
+
+            if (!task.cancelled.get())
+                return task;
+        }
+
+        return null;
+    }
+
+    /**
+     * Recomputes the priority of every queued task, keeping submission order among equal keys.
+     */
+    public void reprioritize(ToLongFunction<ChunkTask> priorityFunction) {
+        this.lock.lock();
+        try {
+            for (int i = 0; i < this.size; ++i) {
+                ChunkTask task = this.heap[i];
+                task.priority = priorityFunction.applyAsLong(task);
+            }
+
+            heapify();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels and removes queued tasks matching the predicate, as well as tasks cancelled elsewhere.
+     * @return the number of removed tasks
+     */
+    public int cancelIf(Predicate<ChunkTask> predicate) {
+        this.lock.lock();
+        try {
+            int removed = 0;
+            int j = 0;
+            for (int i = 0; i < this.size; ++i) {
+                ChunkTask task = this.heap[i];
+
+                if (task.cancelled.get() || predicate.test(task)) {
+                    task.cancel();
+                    removed++;
+                } else {
+                    this.heap[j++] = task;
+                }
+            }
+
+            Arrays.fill(this.heap, j, this.size, null);
+            this.size = j;
+
+            heapify();
+
+            return removed;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void cancelAll() {
+        this.lock.lock();
+        try {
+            for (int i = 0; i < this.size; ++i) {
+                this.heap[i].cancel();
+                this.heap[i] = null;
+            }
+
+            this.size = 0;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up every waiting thread, {@link #take()} returns null until {@link #start()} is called.
+     */
+    public void stop() {
+        this.lock.lock();
+        try {
+            this.stopped = true;
+            this.notEmpty.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void start() {
+        this.lock.lock();
+        try {
+            this.stopped = false;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.size;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getWaitingThreads() {
+        this.lock.lock();
+        try {
+            return this.waitingThreads;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private ChunkTask removeAt(int i) {
+        ChunkTask task = this.heap[i];
+
+        int last = --this.size;
+        this.heap[i] = this.heap[last];
+        this.heap[last] = null;
+
+        if (i < last) {
+            siftDown(i);
+            siftUp(i);
+        }
+
+        return task;
+    }
+
+    private void heapify() {
+        for (int i = (this.size >>> 1) - 1; i >= 0; --i) {
+            siftDown(i);
+        }
+    }
+
+    private void siftUp(int i) {
+        ChunkTask task = this.heap[i];
+
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            ChunkTask p = this.heap[parent];
+
+            if (!before(task, p))
+                break;
+
+            this.heap[i] = p;
+            i = parent;
+        }
+
+        this.heap[i] = task;
+    }
+
+    private void siftDown(int i) {
+        ChunkTask task = this.heap[i];
+        int half = this.size >>> 1;
+
+        while (i < half) {
+            int child = (i << 1) + 1;
+            int right = child + 1;
+
+            if (right < this.size && before(this.heap[right], this.heap[child]))
+                child = right;
+
+            if (!before(this.heap[child], task))
+                break;
+
+            this.heap[i] = this.heap[child];
+            i = child;
+        }
+
+        this.heap[i] = task;
+    }
+
+    private static boolean before(ChunkTask t1, ChunkTask t2) {
+        return t1.priority != t2.priority ? t1.priority < t2.priority : t1.sequence < t2.sequence;
+    }
+}
@@ -1,9 +1,11 @@
 package net.vulkanmod.render.chunk.build.thread;
 
+import net.minecraft.world.level.block.state.BlockState;
 import net.vulkanmod.Initializer;
 import net.vulkanmod.render.chunk.RenderSection;
 import net.vulkanmod.render.chunk.build.BlockRenderer;
 import net.vulkanmod.render.chunk.build.LiquidRenderer;
+import net.vulkanmod.render.chunk.build.PaletteDecoder;
 import net.vulkanmod.render.chunk.build.RenderRegion;
 import net.vulkanmod.render.chunk.build.TintCache;
 import net.vulkanmod.render.chunk.build.light.LightMode;
@@ -13,14 +15,22 @@ import net.vulkanmod.render.chunk.build.light.data.QuadLightData;
 import net.vulkanmod.render.chunk.build.light.flat.FlatLightPipeline;
 import net.vulkanmod.render.chunk.build.light.smooth.NewSmoothLightPipeline;
 import net.vulkanmod.render.chunk.build.light.smooth.SmoothLightPipeline;
+import net.vulkanmod.render.util.RadixSort;
 
 public class BuilderResources {
     public final ThreadBuilderPack builderPack = new ThreadBuilderPack();
-    public final BlockRenderer blockRenderer = new BlockRenderer();
+    public final BlockRenderer blockRenderer = new BlockRenderer(Initializer.CONFIG.faceOcclusionCacheSize);
     public final LiquidRenderer liquidRenderer = new LiquidRenderer();
 
     public final TintCache tintCache = new TintCache();
 
+    // Scratch sort buffers shared by this thread's translucent builders
+    public final RadixSort quadSorter = new RadixSort();
+
+    // Scratch palette decoding buffers used when loading region block states
+    public final BlockState[] paletteCache = new BlockState[PaletteDecoder.MAX_CACHED_PALETTE_SIZE];
+    public final int[] unpackBuffer = new int[PaletteDecoder.SECTION_SIZE];
+
     public RenderRegion region;
 
     public final ArrayLightDataCache lightDataCache = new ArrayLightDataCache();
@@ -32,6 +42,8 @@ public class BuilderResources {
     private int totalBuildTime = 0, buildCount = 0;
 
     public BuilderResources() {
+        this.builderPack.setQuadSorter(this.quadSorter);
+
         this.flatLightPipeline = new FlatLightPipeline(lightDataCache);
 
         if(Initializer.CONFIG.ambientOcclusion == LightMode.SUB_BLOCK)
@@ -41,16 +53,20 @@ public class BuilderResources {
     }
 
     public void update(RenderRegion region, RenderSection renderSection) {
+        // Consecutive builds of neighbour sections can keep the light data of their common area
+        boolean keepLightData = this.region != null && region.sharesSectionData(this.region);
         this.region = region;
 
-        lightDataCache.reset(region, renderSection.xOffset(), renderSection.yOffset(), renderSection.zOffset());
+        lightDataCache.reset(region, renderSection.xOffset(), renderSection.yOffset(), renderSection.zOffset(), keepLightData);
 
         blockRenderer.setResources(this);
         liquidRenderer.setResources(this);
     }
 
     public void clear() {
+        this.region = null;
         builderPack.clearAll();
+        blockRenderer.clearCaches();
     }
 
     public void updateBuildStats(int buildTime) {
@@ -66,8 +82,17 @@ public class BuilderResources {
         return buildCount;
     }
 
+    public long getOcclusionCacheHits() {
+        return blockRenderer.getOcclusionCache().getHits();
+    }
+
+    public long getOcclusionCacheMisses() {
+        return blockRenderer.getOcclusionCache().getMisses();
+    }
+
     public void resetCounters() {
         totalBuildTime = 0;
         buildCount = 0;
+        blockRenderer.getOcclusionCache().resetCounters();
     }
 }
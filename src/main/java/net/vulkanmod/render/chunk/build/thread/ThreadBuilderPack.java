@@ -1,5 +1,6 @@
 package net.vulkanmod.render.chunk.build.thread;
 
+import net.vulkanmod.render.util.RadixSort;
 import net.vulkanmod.render.vertex.TerrainBufferBuilder;
 import net.vulkanmod.render.vertex.TerrainRenderType;
 
@@ -34,6 +35,10 @@ public class ThreadBuilderPack {
         return this.builders.get(renderType);
     }
 
+    public void setQuadSorter(RadixSort quadSorter) {
+        this.builders.values().forEach(builder -> builder.setQuadSorter(quadSorter));
+    }
+
     public void clearAll() {
         this.builders.values().forEach(TerrainBufferBuilder::clear);
     }
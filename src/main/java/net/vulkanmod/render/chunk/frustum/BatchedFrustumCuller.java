@@ -0,0 +1,147 @@
+package net.vulkanmod.render.chunk.frustum;
+
+import net.vulkanmod.render.chunk.ChunkArea;
+import org.joml.FrustumIntersection;
+
+import java.util.Arrays;
+
+import static net.vulkanmod.render.chunk.ChunkAreaManager.AREA_SH_XZ;
+
+/**
+ * Frustum test of many boxes at once. Boxes are stored as structure of arrays and each plane
+ * is tested against all of them in a plain loop, which the JIT can unroll and vectorize.
+ * <p>
+ * Results match {@link VFrustum#cubeInFrustum}: the first plane a box is outside of,
+ * {@link FrustumIntersection#INTERSECT} or {@link FrustumIntersection#INSIDE}.
+ */
+public class BatchedFrustumCuller {
+    private static final int PLANES = 6;
+
+    // Cells of a ChunkArea frustum buffer, each made of 2x2x2 sections
+    public static final int AREA_CELLS = 64;
+
+    private final float[] minX, minY, minZ;
+    private final float[] maxX, maxY, maxZ;
+
+    // Bit i set if the box is outside, or not fully inside, of plane i
+    private final byte[] outside;
+    private final byte[] partial;
+
+    private final float[] planes = new float[PLANES * 4];
+    private double camX, camY, camZ;
+
+    public BatchedFrustumCuller(int capacity) {
+        this.minX = new float[capacity];
+        this.minY = new float[capacity];
+        this.minZ = new float[capacity];
+        this.maxX = new float[capacity];
+        this.maxY = new float[capacity];
+        this.maxZ = new float[capacity];
+
+        this.outside = new byte[capacity];
+        this.partial = new byte[capacity];
+    }
+
+    public void updateFrustumVisibility(VFrustum frustum, ChunkArea[] chunkAreas) {
+        this.setFrustum(frustum);
+
+        for (ChunkArea chunkArea : chunkAreas) {
+            var position = chunkArea.getPosition();
+            this.updateFrustumVisibility(frustum, chunkArea.getFrustumBuffer(), position.x, position.y, position.z);
+        }
+    }
+
+    /**
+     * Fills the 64 cells of an area frustum buffer, laid out as in {@link FrustumOctree}.
+     * Requires {@link #setFrustum} to be called with the same frustum first.
+     */
+    public void updateFrustumVisibility(VFrustum frustum, byte[] buffer, int minX, int minY, int minZ) {
+        int width = 1 << (AREA_SH_XZ + 4);
+
+        int frustumResult = frustum.cubeInFrustum(minX, minY, minZ,
+                minX + width, minY + width, minZ + width);
+
+        if (frustumResult != FrustumIntersection.INTERSECT) {
+            Arrays.fill(buffer, (byte) frustumResult);
+            return;
+        }
+
+        int halfWidth = width >> 1;
+        int cellWidth = width >> 2;
+
+        for (int i = 0; i < AREA_CELLS; ++i) {
+            // Same float arithmetic as the octree subdivision
+            float x1 = ((float) minX + ((i >> 5) & 1) * halfWidth) + ((i >> 2) & 1) * cellWidth;
+            float y1 = ((float) minY + ((i >> 4) & 1) * halfWidth) + ((i >> 1) & 1) * cellWidth;
+            float z1 = ((float) minZ + ((i >> 3) & 1) * halfWidth) + (i & 1) * cellWidth;
+
+            this.setBox(i, x1, y1, z1, x1 + cellWidth, y1 + cellWidth, z1 + cellWidth);
+        }
+
+        this.test(AREA_CELLS, buffer);
+    }
+
+    public void setFrustum(VFrustum frustum) {
+        frustum.getPlanes(this.planes);
+
+        this.camX = frustum.getCamX();
+        this.camY = frustum.getCamY();
+        this.camZ = frustum.getCamZ();
+    }
+
+    /**
+     * Stores box {@code i} in world coordinates, converted to camera relative ones as {@link VFrustum} does.
+     */
+    public void setBox(int i, float x1, float y1, float z1, float x2, float y2, float z2) {
+        this.minX[i] = (float) (x1 - this.camX);
+        this.minY[i] = (float) (y1 - this.camY);
+        this.minZ[i] = (float) (z1 - this.camZ);
+        this.maxX[i] = (float) (x2 - this.camX);
+        this.maxY[i] = (float) (y2 - this.camY);
+        this.maxZ[i] = (float) (z2 - this.camZ);
+    }
+
+    /**
+     * Tests the first {@code count} boxes and writes their result in {@code results}.
+     */
+    public void test(int count, byte[] results) {
+        final byte[] outside = this.outside;
+        final byte[] partial = this.partial;
+
+        Arrays.fill(outside, 0, count, (byte) 0);
+        Arrays.fill(partial, 0, count, (byte) 0);
+
+        for (int p = 0; p < PLANES; ++p) {
+            final float a = this.planes[p * 4];
+            final float b = this.planes[p * 4 + 1];
+            final float c = this.planes[p * 4 + 2];
+            final float w = -this.planes[p * 4 + 3];
+            final byte bit = (byte) (1 << p);
+
+            // The farthest vertex along the plane normal tells if the box is outside, the nearest if it's inside
+            final float[] farX = a < 0 ? this.minX : this.maxX;
+            final float[] farY = b < 0 ? this.minY : this.maxY;
+            final float[] farZ = c < 0 ? this.minZ : this.maxZ;
+            final float[] nearX = a < 0 ? this.maxX : this.minX;
+            final float[] nearY = b < 0 ? this.maxY : this.minY;
+            final float[] nearZ = c < 0 ? this.maxZ : this.minZ;
+
+            for (int i = 0; i < count; ++i) {
+                float far = a * farX[i] + b * farY[i] + c * farZ[i];
+                float near = a * nearX[i] + b * nearY[i] + c * nearZ[i];
+
+                outside[i] |= far < w ? bit : 0;
+                partial[i] |= near < w ? bit : 0;
+            }
+        }
+
+        for (int i = 0; i < count; ++i) {
+            int outsidePlanes = outside[i];
+
+            if (outsidePlanes != 0)
+                results[i] = (byte) Integer.numberOfTrailingZeros(outsidePlanes);
+            else
+                results[i] = (byte) (partial[i] != 0 ? FrustumIntersection.INTERSECT : FrustumIntersection.INSIDE);
+        }
+    }
+}
@@ -11,24 +11,22 @@ public class FrustumOctree {
     static final int LEVELS = 2;
 
     public static void updateFrustumVisibility(VFrustum frustum, ChunkArea[] chunkAreas) {
-        int width = 1 << (AREA_SH_XZ + 4);
-
         for (ChunkArea chunkArea : chunkAreas) {
             var position = chunkArea.getPosition();
-            int minX2 = position.x;
-            int minY2 = position.y;
-            int minZ2 = position.z;
+            updateFrustumVisibility(frustum, chunkArea.getFrustumBuffer(), position.x, position.y, position.z);
+        }
+    }
 
-            int frustumResult = frustum.cubeInFrustum(minX2, minY2, minZ2,
-                    minX2 + width, minY2 + width, minZ2 + width);
+    public static void updateFrustumVisibility(VFrustum frustum, byte[] buffer, int minX, int minY, int minZ) {
+        int width = 1 << (AREA_SH_XZ + 4);
 
-            byte[] buffer = chunkArea.getFrustumBuffer();
+        int frustumResult = frustum.cubeInFrustum(minX, minY, minZ,
+                minX + width, minY + width, minZ + width);
 
-            if (frustumResult != FrustumIntersection.INTERSECT)
-                Arrays.fill(buffer, (byte) frustumResult);
-            else
-                innerCube(frustum, buffer, LEVELS, minX2, minY2, minZ2, width, 0);
-        }
+        if (frustumResult != FrustumIntersection.INTERSECT)
+            Arrays.fill(buffer, (byte) frustumResult);
+        else
+            innerCube(frustum, buffer, LEVELS, minX, minY, minZ, width, 0);
     }
 
     static void innerCube(VFrustum frustum, byte[] buffer, int level,
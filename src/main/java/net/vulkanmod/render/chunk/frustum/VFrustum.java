@@ -44,6 +44,47 @@ public class VFrustum {
         this.viewVector = this.matrix.transformTranspose(new Vector4f(0.0F, 0.0F, 1.0F, 0.0F));
     }
 
+    /**
+     * Writes the 6 plane equations (a, b, c, d) in {@link FrustumIntersection} plane order,
+     * not normalized, as {@link FrustumIntersection#set(org.joml.Matrix4fc, boolean)} computes them without sphere tests.
+     */
+    public void getPlanes(float[] planes) {
+        Matrix4f m = this.matrix;
+
+        setPlane(planes, FrustumIntersection.PLANE_NX, m.m03() + m.m00(), m.m13() + m.m10(), m.m23() + m.m20(), m.m33() + m.m30());
+        setPlane(planes, FrustumIntersection.PLANE_PX, m.m03() - m.m00(), m.m13() - m.m10(), m.m23() - m.m20(), m.m33() - m.m30());
+        setPlane(planes, FrustumIntersection.PLANE_NY, m.m03() + m.m01(), m.m13() + m.m11(), m.m23() + m.m21(), m.m33() + m.m31());
+        setPlane(planes, FrustumIntersection.PLANE_PY, m.m03() - m.m01(), m.m13() - m.m11(), m.m23() - m.m21(), m.m33() - m.m31());
+        setPlane(planes, FrustumIntersection.PLANE_NZ, m.m03() + m.m02(), m.m13() + m.m12(), m.m23() + m.m22(), m.m33() + m.m32());
+        setPlane(planes, FrustumIntersection.PLANE_PZ, m.m03() - m.m02(), m.m13() - m.m12(), m.m23() - m.m22(), m.m33() - m.m32());
+    }
+
+    private static void setPlane(float[] planes, int plane, float a, float b, float c, float d) {
+        planes[plane * 4] = a;
+        planes[plane * 4 + 1] = b;
+        planes[plane * 4 + 2] = c;
+        planes[plane * 4 + 3] = d;
+    }
+
+    public double getCamX() {
+        return this.camX;
+    }
+
+    public double getCamY() {
+        return this.camY;
+    }
+
+    public double getCamZ() {
+        return this.camZ;
+    }
+
+    /**
+     * @return projection * model view matrix, relative to the camera position
+     */
+    public Matrix4f getMatrix() {
+        return this.matrix;
+    }
+
     public int cubeInFrustum(float x1, float y1, float z1, float x2, float y2, float z2) {
         float f = (float) (x1 - this.camX);
         float f1 = (float) (y1 - this.camY);
@@ -1,6 +1,5 @@
 package net.vulkanmod.render.chunk.graph;
 
-import com.google.common.collect.Lists;
 import net.minecraft.client.Camera;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.culling.Frustum;
@@ -15,13 +14,12 @@ import net.vulkanmod.render.chunk.*;
 import net.vulkanmod.render.chunk.build.RenderRegionBuilder;
 import net.vulkanmod.render.chunk.build.TaskDispatcher;
 import net.vulkanmod.render.chunk.frustum.VFrustum;
+import net.vulkanmod.render.chunk.occlusion.OcclusionCuller;
 import net.vulkanmod.render.chunk.util.AreaSetQueue;
 import net.vulkanmod.render.chunk.util.ResettableQueue;
 import net.vulkanmod.render.profiling.Profiler;
 import org.joml.FrustumIntersection;
 
-import java.util.List;
-
 public class SectionGraph {
     Minecraft minecraft;
     private final Level level;
@@ -29,6 +27,9 @@ public class SectionGraph {
     private final SectionGrid sectionGrid;
     private final ChunkAreaManager chunkAreaManager;
     private final TaskDispatcher taskDispatcher;
+    private final SectionTraversal traversal = new SectionTraversal();
+    private final OcclusionCuller occlusionCuller = new OcclusionCuller();
+    // Visible sections of the last update, in traversal order
     private final ResettableQueue<RenderSection> sectionQueue = new ResettableQueue<>();
     private AreaSetQueue chunkAreaQueue;
     private short lastFrame = 0;
@@ -40,6 +41,8 @@ public class SectionGraph {
 
     public RenderRegionBuilder renderRegionCache;
     int nonEmptyChunks;
+    int traversals;
+    int occludedChunks;
 
 
     public SectionGraph(Level level, SectionGrid sectionGrid, TaskDispatcher taskDispatcher) {
@@ -73,18 +76,58 @@ public class SectionGraph {
         this.minecraft.getProfiler().push("partial_update");
 
         this.initUpdate();
-        this.initializeQueueForFullUpdate(camera);
 
-        if (flag)
-            this.updateRenderChunks();
-        else
-            this.updateRenderChunksSpectator();
+        int maxDirectionsChanges = Initializer.CONFIG.advCulling - 1;
+        int sectionX = SectionPos.blockToSectionCoord(blockpos.getX());
+        int sectionY = SectionPos.blockToSectionCoord(blockpos.getY());
+        int sectionZ = SectionPos.blockToSectionCoord(blockpos.getZ());
+
+        if (Initializer.CONFIG.incrementalGraph) {
+            // Frustum independent traversal, only redone when its inputs change
+            if (this.traversal.needsUpdate(sectionX, sectionY, sectionZ, flag, maxDirectionsChanges)) {
+                this.traversal.begin(sectionX, sectionY, sectionZ, this.lastFrame);
+                this.initializeQueueForFullUpdate(camera);
+                this.traversal.traverse(flag, maxDirectionsChanges, null);
+                this.traversals++;
+            }
+
+            this.traversal.collectVisible(this.lastFrame, this::notInFrustum, this.sectionQueue);
+        } else {
+            this.traversal.begin(sectionX, sectionY, sectionZ, this.lastFrame);
+            this.initializeQueueForFullUpdate(camera);
+            this.traversal.traverse(flag, maxDirectionsChanges, this::notInFrustum);
+            this.traversals++;
+
+            ResettableQueue<RenderSection> reached = this.traversal.getReached();
+            this.sectionQueue.ensureCapacity(reached.size());
+            for (int i = 0; i < reached.size(); ++i) {
+                this.sectionQueue.add(reached.get(i));
+            }
+        }
+
+        // Without smart cull (i.e. a spectator inside a solid block) everything behind walls is meant to be shown
+        boolean occlusionCulling = Initializer.CONFIG.occlusionCulling && flag;
+        if (occlusionCulling) {
+            profiler.push("occlusion");
+            this.updateOccluders(camera);
+            profiler.pop();
+        }
 
+        this.addVisibleSections(flag, occlusionCulling);
+
+        this.taskDispatcher.updateCamera(sectionX, sectionY, sectionZ, this.lastFrame, WorldRenderer.getInstance().getRenderDistance());
         this.scheduleRebuilds();
 
         this.minecraft.getProfiler().pop();
     }
 
+    /**
+     * Forces the next update to traverse the graph again, to be called when section visibility changes.
+     */
+    public void invalidateTraversal() {
+        this.traversal.invalidate();
+    }
+
     private void initializeQueueForFullUpdate(Camera camera) {
         Vec3 vec3 = camera.getPosition();
         BlockPos blockpos = camera.getBlockPosition();
@@ -96,7 +139,6 @@ public class SectionGraph {
             int x = Mth.floor(vec3.x / 16.0D) * 16;
             int z = Mth.floor(vec3.z / 16.0D) * 16;
 
-            List<RenderSection> list = Lists.newArrayList();
             int renderDistance = WorldRenderer.getInstance().getRenderDistance();
 
             for (int x1 = -renderDistance; x1 <= renderDistance; ++x1) {
@@ -104,51 +146,23 @@ public class SectionGraph {
 
                     RenderSection renderSection1 = this.sectionGrid.getSectionAtBlockPos(new BlockPos(x + SectionPos.sectionToBlockCoord(x1, 8), y, z + SectionPos.sectionToBlockCoord(z1, 8)));
                     if (renderSection1 != null) {
-                        initFirstNode(renderSection1, this.lastFrame);
-                        list.add(renderSection1);
+                        this.traversal.addStartNode(renderSection1);
                     }
                 }
             }
 
-            this.sectionQueue.ensureCapacity(list.size());
-            for (RenderSection chunkInfo : list) {
-                this.sectionQueue.add(chunkInfo);
-            }
-
         } else {
-            initFirstNode(renderSection, this.lastFrame);
-
-            this.sectionQueue.add(renderSection);
+            this.traversal.addStartNode(renderSection);
         }
 
     }
 
-    private static void initFirstNode(RenderSection renderSection, short frame) {
-        renderSection.mainDir = 7;
-        renderSection.sourceDirs = (byte) (1 << 7);
-        renderSection.directions = (byte) 0xFF;
-        renderSection.setLastFrame(frame);
-        renderSection.visibility |= initVisibility();
-        renderSection.directionChanges = 0;
-        renderSection.steps = 0;
-    }
-
-    // Init special value used by first graph node
-    private static long initVisibility() {
-        long vis = 0;
-        for (int dir = 0; dir < 6; dir++) {
-            vis |= 1L << ((6 << 3) + dir);
-            vis |= 1L << ((7 << 3) + dir);
-        }
-
-        return vis;
-    }
-
     private void initUpdate() {
         this.resetUpdateQueues();
 
         this.lastFrame++;
         this.nonEmptyChunks = 0;
+        this.occludedChunks = 0;
     }
 
     private void resetUpdateQueues() {
@@ -159,25 +173,35 @@ public class SectionGraph {
         this.rebuildQueue.clear();
     }
 
-    private void updateRenderChunks() {
-        int maxDirectionsChanges = Initializer.CONFIG.advCulling - 1;
+    private void updateOccluders(Camera camera) {
+        Vec3 pos = camera.getPosition();
+        this.occlusionCuller.begin(this.frustum.getMatrix(), pos.x, pos.y, pos.z);
+
+        for (int i = 0; i < this.sectionQueue.size(); ++i) {
+            this.occlusionCuller.addSectionOccluders(this.sectionQueue.get(i));
+        }
 
-        while (this.sectionQueue.hasNext()) {
-            RenderSection renderSection = this.sectionQueue.poll();
+        this.occlusionCuller.build();
+    }
 
-            if (notInFrustum(renderSection))
-                continue;
+    private void addVisibleSections(boolean addBlockEntities, boolean occlusionCulling) {
+        for (int i = 0; i < this.sectionQueue.size(); ++i) {
+            RenderSection renderSection = this.sectionQueue.get(i);
 
-            if (renderSection.directionChanges > maxDirectionsChanges)
-                continue;
+            // Hidden sections are still rebuilt when dirty, so they are ready once they get visible
+            boolean occluded = occlusionCulling
+                    && (!renderSection.isCompletelyEmpty() || renderSection.containsBlockEntities())
+                    && this.occlusionCuller.isOccluded(renderSection);
 
-            if (!renderSection.isCompletelyEmpty()) {
+            if (occluded) {
+                this.occludedChunks++;
+            } else if (!renderSection.isCompletelyEmpty()) {
                 renderSection.getChunkArea().sectionQueue.add(renderSection);
                 this.chunkAreaQueue.add(renderSection.getChunkArea());
                 this.nonEmptyChunks++;
             }
 
-            if (renderSection.containsBlockEntities()) {
+            if (addBlockEntities && !occluded && renderSection.containsBlockEntities()) {
                 this.blockEntitiesSections.ensureCapacity(1);
                 this.blockEntitiesSections.add(renderSection);
             }
@@ -186,10 +210,6 @@ public class SectionGraph {
                 this.rebuildQueue.ensureCapacity(1);
                 this.rebuildQueue.add(renderSection);
             }
-
-            byte dirs = (byte) (renderSection.getVisibilityDirs() & renderSection.getDirections());
-
-            visitAdjacentNodes(renderSection, dirs);
         }
     }
 
@@ -201,6 +221,8 @@ public class SectionGraph {
             section.setNotDirty();
         }
         this.rebuildQueue.clear();
+
+        this.renderRegionCache.clearSnapshots();
     }
 
     private boolean notInFrustum(RenderSection renderSection) {
@@ -214,85 +236,6 @@ public class SectionGraph {
         return false;
     }
 
-    private void visitAdjacentNodes(RenderSection renderSection, byte dirs) {
-        dirs &= renderSection.adjDirs;
-
-        this.sectionQueue.ensureCapacity(6);
-
-        RenderSection relativeSection;
-
-        relativeSection = renderSection.adjDown;
-        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.DOWN, (byte) GraphDirections.UP, dirs);
-
-        relativeSection = renderSection.adjUp;
-        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.UP, (byte) GraphDirections.DOWN, dirs);
-
-        relativeSection = renderSection.adjNorth;
-        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.NORTH, (byte) GraphDirections.SOUTH, dirs);
-
-        relativeSection = renderSection.adjSouth;
-        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.SOUTH, (byte) GraphDirections.NORTH, dirs);
-
-        relativeSection = renderSection.adjWest;
-        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.WEST, (byte) GraphDirections.EAST, dirs);
-
-        relativeSection = renderSection.adjEast;
-        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.EAST, (byte) GraphDirections.WEST, dirs);
-    }
-
-    private void checkToAdd(RenderSection renderSection, RenderSection relativeSection, byte dir, byte opposite, byte dirs) {
-        if ((dirs & (1 << dir)) != 0) {
-            addNode(renderSection, relativeSection, dir, opposite);
-        }
-    }
-
-    private void updateRenderChunksSpectator() {
-        while (this.sectionQueue.hasNext()) {
-            RenderSection renderSection = this.sectionQueue.poll();
-
-            if (notInFrustum(renderSection))
-                continue;
-
-            if (!renderSection.isCompletelyEmpty()) {
-                renderSection.getChunkArea().sectionQueue.add(renderSection);
-                this.chunkAreaQueue.add(renderSection.getChunkArea());
-                this.nonEmptyChunks++;
-            }
-
-            if (renderSection.isDirty()) {
-                this.rebuildQueue.ensureCapacity(1);
-                this.rebuildQueue.add(renderSection);
-            }
-
-            byte dirs = (byte) (renderSection.adjDirs & renderSection.getDirections());
-
-            visitAdjacentNodes(renderSection, dirs);
-        }
-    }
-
-    private void addNode(RenderSection renderSection, RenderSection relativeSection, byte direction, byte opposite) {
-        if (relativeSection.getLastFrame() != this.lastFrame) {
-            relativeSection.setLastFrame(this.lastFrame);
-
-            relativeSection.mainDir = direction;
-            relativeSection.sourceDirs = (byte) (1 << direction);
-
-            final byte steps = (byte) (renderSection.steps + 1);
-            relativeSection.directionChanges = (byte) (steps < 10 ? 0 : 127);
-            relativeSection.steps = steps;
-
-            relativeSection.directions = (byte) (renderSection.directions & ~(1 << opposite));
-            this.sectionQueue.add(relativeSection);
-        }
-
-        relativeSection.addDir(direction);
-
-        boolean increase = (renderSection.sourceDirs & 1 << direction) == 0 && !renderSection.isCompletelyEmpty();
-        byte dc = increase ? (byte) (renderSection.directionChanges + 1) : renderSection.directionChanges;
-
-        relativeSection.directionChanges = dc < relativeSection.directionChanges ? dc : relativeSection.directionChanges;
-    }
-
     public AreaSetQueue getChunkAreaQueue() {
         return this.chunkAreaQueue;
     }
@@ -315,7 +258,7 @@ public class SectionGraph {
         int renderDistance = WorldRenderer.getInstance().getRenderDistance();
         String tasksInfo = this.taskDispatcher == null ? "null" : this.taskDispatcher.getStats();
 
-        return String.format("Chunks: %d(%d)/%d D: %d, %s", this.nonEmptyChunks, sections, totalSections, renderDistance, tasksInfo);
+        return String.format("Chunks: %d(%d)/%d D: %d T: %d O: %d, %s", this.nonEmptyChunks, sections, totalSections, renderDistance, this.traversals, this.occludedChunks, tasksInfo);
     }
 }
 
@@ -0,0 +1,224 @@
+package net.vulkanmod.render.chunk.graph;
+
+import net.vulkanmod.render.chunk.RenderSection;
+import net.vulkanmod.render.chunk.util.ResettableQueue;
+import net.vulkanmod.render.chunk.util.Util;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Predicate;
+
+/**
+ * Breadth first search of the sections reachable from the camera through the visibility data of each section.
+ * <p>
+ * Without a cull filter the result only depends on the camera section, the traversal settings
+ * and the sections visibility, so it can be reused over frames until one of them changes.
+ * Such a traversal has to include every section a culled one could reach: instead of keeping the state given
+ * by the first visit, each section merges what every adjacent section allows and is visited again when it improves.
+ */
+public class SectionTraversal {
+    private final ResettableQueue<RenderSection> queue = new ResettableQueue<>();
+
+    // Sections accepted by the last traversal, in visit order
+    private final ResettableQueue<RenderSection> reached = new ResettableQueue<>();
+
+    private short frame;
+    // Merge the state of sections visited more than once, see addNode
+    private boolean merge;
+
+    private boolean valid = false;
+    private int sectionX, sectionY, sectionZ;
+    private boolean smartCull;
+    private int maxDirectionChanges;
+
+    /**
+     * @return true if the last result can't be reused for the given camera section and settings
+     */
+    public boolean needsUpdate(int sectionX, int sectionY, int sectionZ, boolean smartCull, int maxDirectionChanges) {
+        return !this.valid
+                || sectionX != this.sectionX || sectionY != this.sectionY || sectionZ != this.sectionZ
+                || smartCull != this.smartCull || maxDirectionChanges != this.maxDirectionChanges;
+    }
+
+    /**
+     * Marks the last result as stale, i.e. after some section visibility changed.
+     */
+    public void invalidate() {
+        this.valid = false;
+    }
+
+    public void begin(int sectionX, int sectionY, int sectionZ, short frame) {
+        this.sectionX = sectionX;
+        this.sectionY = sectionY;
+        this.sectionZ = sectionZ;
+        this.frame = frame;
+
+        this.queue.clear();
+        this.reached.clear();
+    }
+
+    public void addStartNode(RenderSection renderSection) {
+        renderSection.mainDir = 7;
+        renderSection.sourceDirs = (byte) (1 << 7);
+        renderSection.directions = (byte) 0xFF;
+        renderSection.setLastFrame(this.frame);
+        renderSection.visibility |= initVisibility();
+        renderSection.directionChanges = 0;
+        renderSection.steps = 0;
+
+        this.queue.ensureCapacity(1);
+        this.queue.add(renderSection);
+    }
+
+    // Init special value used by first graph node
+    private static long initVisibility() {
+        long vis = 0;
+        for (int dir = 0; dir < 6; dir++) {
+            vis |= 1L << ((6 << 3) + dir);
+            vis |= 1L << ((7 << 3) + dir);
+        }
+
+        return vis;
+    }
+
+    /**
+     * @param smartCull follow section visibility, otherwise every adjacent section is visited
+     * @param culled    sections to skip and not traverse through, null to traverse every reachable section
+     */
+    public void traverse(boolean smartCull, int maxDirectionChanges, @Nullable Predicate<RenderSection> culled) {
+        this.smartCull = smartCull;
+        this.maxDirectionChanges = maxDirectionChanges;
+        this.merge = culled == null;
+
+        while (this.queue.hasNext()) {
+            RenderSection renderSection = this.queue.poll();
+
+            if (culled != null && culled.test(renderSection))
+                continue;
+
+            if (smartCull && renderSection.directionChanges > maxDirectionChanges)
+                continue;
+
+            // Merged sections can be visited again
+            if (renderSection.lastReachedFrame != this.frame) {
+                renderSection.lastReachedFrame = this.frame;
+
+                this.reached.ensureCapacity(1);
+                this.reached.add(renderSection);
+            }
+
+            byte visibilityDirs = this.merge ? getSourceVisibilityDirs(renderSection) : renderSection.getVisibilityDirs();
+            byte dirs = smartCull
+                    ? (byte) (visibilityDirs & renderSection.getDirections())
+                    : (byte) (renderSection.adjDirs & renderSection.getDirections());
+
+            visitAdjacentNodes(renderSection, dirs);
+        }
+
+        this.valid = culled == null;
+    }
+
+    /**
+     * Marks the sections of the last traversal as visited in {@code frame}, and adds the ones not culled to {@code visible}.
+     */
+    public void collectVisible(short frame, Predicate<RenderSection> culled, ResettableQueue<RenderSection> visible) {
+        visible.ensureCapacity(this.reached.size());
+
+        for (int i = 0; i < this.reached.size(); ++i) {
+            RenderSection renderSection = this.reached.get(i);
+            renderSection.setLastFrame(frame);
+
+            if (!culled.test(renderSection))
+                visible.add(renderSection);
+        }
+    }
+
+    // Directions visible from any face the section was entered from
+    private static byte getSourceVisibilityDirs(RenderSection renderSection) {
+        byte dirs = 0;
+
+        for (byte dir = 0; dir < 8; ++dir) {
+            if ((renderSection.sourceDirs & (1 << dir)) != 0)
+                dirs |= (byte) (renderSection.visibility >> (Util.getOppositeDirIdx(dir) << 3));
+        }
+
+        return dirs;
+    }
+
+    public ResettableQueue<RenderSection> getReached() {
+        return this.reached;
+    }
+
+    private void visitAdjacentNodes(RenderSection renderSection, byte dirs) {
+        dirs &= renderSection.adjDirs;
+
+        this.queue.ensureCapacity(6);
+
+        RenderSection relativeSection;
+
+        relativeSection = renderSection.adjDown;
+        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.DOWN, (byte) GraphDirections.UP, dirs);
+
+        relativeSection = renderSection.adjUp;
+        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.UP, (byte) GraphDirections.DOWN, dirs);
+
+        relativeSection = renderSection.adjNorth;
+        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.NORTH, (byte) GraphDirections.SOUTH, dirs);
+
+        relativeSection = renderSection.adjSouth;
+        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.SOUTH, (byte) GraphDirections.NORTH, dirs);
+
+        relativeSection = renderSection.adjWest;
+        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.WEST, (byte) GraphDirections.EAST, dirs);
+
+        relativeSection = renderSection.adjEast;
+        checkToAdd(renderSection, relativeSection, (byte) GraphDirections.EAST, (byte) GraphDirections.WEST, dirs);
+    }
+
+    private void checkToAdd(RenderSection renderSection, RenderSection relativeSection, byte dir, byte opposite, byte dirs) {
+        if ((dirs & (1 << dir)) != 0) {
+            addNode(renderSection, relativeSection, dir, opposite);
+        }
+    }
+
+    private void addNode(RenderSection renderSection, RenderSection relativeSection, byte direction, byte opposite) {
+        final byte steps = (byte) (renderSection.steps + 1);
+        final byte directions = (byte) (renderSection.directions & ~(1 << opposite));
+
+        boolean increase = (renderSection.sourceDirs & 1 << direction) == 0 && !renderSection.isCompletelyEmpty();
+        byte dc = increase ? (byte) (renderSection.directionChanges + 1) : renderSection.directionChanges;
+
+        if (relativeSection.getLastFrame() != this.frame) {
+            relativeSection.setLastFrame(this.frame);
+
+            relativeSection.mainDir = direction;
+            relativeSection.sourceDirs = (byte) (1 << direction);
+
+            relativeSection.directionChanges = (byte) (steps < 10 ? 0 : 127);
+            relativeSection.steps = steps;
+
+            relativeSection.directions = directions;
+            this.queue.add(relativeSection);
+        } else if (this.merge) {
+            byte stepsDc = (byte) (steps < 10 ? 0 : 127);
+            byte newDc = (byte) Math.min(relativeSection.directionChanges, Math.min(dc, stepsDc));
+
+            boolean improved = (relativeSection.sourceDirs & 1 << direction) == 0
+                    || (directions & ~relativeSection.directions) != 0
+                    || newDc < relativeSection.directionChanges;
+
+            relativeSection.directions |= directions;
+            relativeSection.steps = (byte) Math.min(relativeSection.steps, steps);
+
+            if (improved) {
+                relativeSection.addDir(direction);
+                relativeSection.directionChanges = newDc;
+                this.queue.add(relativeSection);
+                return;
+            }
+        }
+
+        relativeSection.addDir(direction);
+
+        relativeSection.directionChanges = dc < relativeSection.directionChanges ? dc : relativeSection.directionChanges;
+    }
+}
@@ -0,0 +1,255 @@
+package net.vulkanmod.render.chunk.occlusion;
+
+import java.util.Arrays;
+
+/**
+ * Low resolution depth buffer with a min-max mip chain, depth grows with distance from the camera.
+ * <p>
+ * Level 0 holds the nearest occluder depth of every pixel, {@link Float#POSITIVE_INFINITY} where there is none.
+ * Each texel of the next levels stores the min and max of its 2x2 texels of the previous level.
+ */
+public class HiZBuffer {
+    private final int width, height;
+    private final int levels;
+
+    private final int[] levelWidths, levelHeights;
+    private final float[][] minDepth;
+    private final float[][] maxDepth;
+
+    public static final int MAX_VERTICES = 8;
+
+    private static final float DEPTH_BIAS = 1.0e-3f;
+
+    // Edge functions of the polygon being drawn
+    private final float[] edgeA = new float[MAX_VERTICES], edgeB = new float[MAX_VERTICES], edgeC = new float[MAX_VERTICES];
+
+    /**
+     * @param width  power of two width
+     * @param height power of two height
+     */
+    public HiZBuffer(int width, int height) {
+        if (Integer.bitCount(width) != 1 || Integer.bitCount(height) != 1)
+            throw new IllegalArgumentException("Size must be a power of two: %dx%d".formatted(width, height));
+
+        this.width = width;
+        this.height = height;
+
+        int levels = 1;
+        while ((width >> levels) > 0 && (height >> levels) > 0) {
+            ++levels;
+        }
+        this.levels = levels;
+
+        this.levelWidths = new int[levels];
+        this.levelHeights = new int[levels];
+        this.minDepth = new float[levels][];
+        this.maxDepth = new float[levels][];
+
+        for (int i = 0; i < levels; ++i) {
+            this.levelWidths[i] = Math.max(1, width >> i);
+            this.levelHeights[i] = Math.max(1, height >> i);
+            this.maxDepth[i] = new float[this.levelWidths[i] * this.levelHeights[i]];
+            this.minDepth[i] = i == 0 ? this.maxDepth[i] : new float[this.levelWidths[i] * this.levelHeights[i]];
+        }
+
+        this.clear();
+    }
+
+    public void clear() {
+        Arrays.fill(this.maxDepth[0], Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Draws a convex polygon, vertices in pixel coordinates with their clip space w:
+     * pixel (x, y) spans [x, x + 1] x [y, y + 1].
+     * <p>
+     * Only fully covered pixels are written, with the farthest depth the polygon has over them,
+     * so that occlusion stays conservative.
+     */
+    public void drawPolygon(float[] xs, float[] ys, float[] ws, int count) {
+        float area = 0.0f;
+        float maxW = 0.0f;
+        for (int i = 0; i < count; ++i) {
+            int j = i + 1 < count ? i + 1 : 0;
+            area += xs[i] * ys[j] - xs[j] * ys[i];
+            maxW = Math.max(maxW, ws[i]);
+        }
+
+        // Smaller than a pixel or seen edge on
+        if (Math.abs(area) < 2.0f)
+            return;
+
+        float sign = area > 0.0f ? 1.0f : -1.0f;
+
+        float minX = xs[0], maxX = xs[0], minY = ys[0], maxY = ys[0];
+        for (int i = 1; i < count; ++i) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        int x0 = Math.max((int) Math.floor(minX), 0);
+        int x1 = Math.min((int) Math.ceil(maxX), this.width) - 1;
+        int y0 = Math.max((int) Math.floor(minY), 0);
+        int y1 = Math.min((int) Math.ceil(maxY), this.height) - 1;
+
+        if (x0 > x1 || y0 > y1)
+            return;
+
+        // Edge functions, positive inside, evaluated at the pixel corner that is the least inside
+        final float[] a = this.edgeA, b = this.edgeB, c = this.edgeC;
+        for (int i = 0; i < count; ++i) {
+            int j = i + 1 < count ? i + 1 : 0;
+            float ea = -sign * (ys[j] - ys[i]);
+            float eb = sign * (xs[j] - xs[i]);
+
+            a[i] = ea;
+            b[i] = eb;
+            c[i] = -ea * xs[i] - eb * ys[i] + Math.min(ea, 0.0f) + Math.min(eb, 0.0f);
+        }
+
+        // 1 / w is affine in screen space, take its plane from the largest triangle of the fan
+        int t = 1;
+        float maxArea = 0.0f;
+        for (int i = 1; i < count - 1; ++i) {
+            float triArea = Math.abs((xs[i] - xs[0]) * (ys[i + 1] - ys[0]) - (xs[i + 1] - xs[0]) * (ys[i] - ys[0]));
+            if (triArea > maxArea) {
+                maxArea = triArea;
+                t = i;
+            }
+        }
+
+        float dx1 = xs[t] - xs[0], dy1 = ys[t] - ys[0], dq1 = 1.0f / ws[t] - 1.0f / ws[0];
+        float dx2 = xs[t + 1] - xs[0], dy2 = ys[t + 1] - ys[0], dq2 = 1.0f / ws[t + 1] - 1.0f / ws[0];
+        float det = dx1 * dy2 - dx2 * dy1;
+
+        float qa = (dq1 * dy2 - dq2 * dy1) / det;
+        float qb = (dx1 * dq2 - dx2 * dq1) / det;
+        // Lowest 1 / w over the pixel
+        float qc = 1.0f / ws[0] - qa * xs[0] - qb * ys[0] + Math.min(qa, 0.0f) + Math.min(qb, 0.0f);
+
+        final float[] depthBuffer = this.maxDepth[0];
+
+        for (int y = y0; y <= y1; ++y) {
+            int row = y * this.width;
+
+            for (int x = x0; x <= x1; ++x) {
+                if (!this.covers(count, x, y))
+                    continue;
+
+                float q = qa * x + qb * y + qc;
+                // Never farther than the polygon, bias against rounding of the plane
+                float depth = q > 0.0f ? Math.min(maxW, (1.0f / q) * (1.0f + DEPTH_BIAS)) : maxW;
+
+                int idx = row + x;
+                if (depth < depthBuffer[idx])
+                    depthBuffer[idx] = depth;
+            }
+        }
+    }
+
+    private boolean covers(int count, int x, int y) {
+        for (int i = 0; i < count; ++i) {
+            if (this.edgeA[i] * x + this.edgeB[i] * y + this.edgeC[i] < 0.0f)
+                return false;
+        }
+        return true;
+    }
+
+    public void buildMips() {
+        for (int level = 1; level < this.levels; ++level) {
+            final float[] srcMin = this.minDepth[level - 1];
+            final float[] srcMax = this.maxDepth[level - 1];
+            final float[] dstMin = this.minDepth[level];
+            final float[] dstMax = this.maxDepth[level];
+            final int srcWidth = this.levelWidths[level - 1];
+            final int w = this.levelWidths[level];
+            final int h = this.levelHeights[level];
+
+            for (int y = 0; y < h; ++y) {
+                for (int x = 0; x < w; ++x) {
+                    int i0 = (y * 2) * srcWidth + x * 2;
+                    int i1 = i0 + srcWidth;
+
+                    dstMin[y * w + x] = Math.min(Math.min(srcMin[i0], srcMin[i0 + 1]), Math.min(srcMin[i1], srcMin[i1 + 1]));
+                    dstMax[y * w + x] = Math.max(Math.max(srcMax[i0], srcMax[i0 + 1]), Math.max(srcMax[i1], srcMax[i1 + 1]));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param depth nearest depth of the tested object
+     * @return true if every pixel of the inclusive rect has an occluder nearer than {@code depth}
+     */
+    public boolean isOccluded(int minX, int minY, int maxX, int maxY, float depth) {
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        maxX = Math.min(maxX, this.width - 1);
+        maxY = Math.min(maxY, this.height - 1);
+
+        if (minX > maxX || minY > maxY)
+            return false;
+
+        // Coarsest level where the rect spans at most 2x2 texels
+        int level = 0;
+        while (level < this.levels - 1 && ((maxX >> level) - (minX >> level) > 1 || (maxY >> level) - (minY >> level) > 1)) {
+            ++level;
+        }
+
+        return this.isOccluded(level, minX, minY, maxX, maxY, depth);
+    }
+
+    private boolean isOccluded(int level, int minX, int minY, int maxX, int maxY, float depth) {
+        final float[] min = this.minDepth[level];
+        final float[] max = this.maxDepth[level];
+        final int w = this.levelWidths[level];
+
+        int tx0 = minX >> level, tx1 = maxX >> level;
+        int ty0 = minY >> level, ty1 = maxY >> level;
+
+        for (int ty = ty0; ty <= ty1; ++ty) {
+            for (int tx = tx0; tx <= tx1; ++tx) {
+                int idx = ty * w + tx;
+
+                // Every occluder of the texel is nearer
+                if (max[idx] < depth)
+                    continue;
+
+                // No occluder of the texel is nearer
+                if (depth <= min[idx] || level == 0)
+                    return false;
+
+                // Refine the part of the rect inside this texel
+                int x0 = Math.max(minX, tx << level), x1 = Math.min(maxX, ((tx + 1) << level) - 1);
+                int y0 = Math.max(minY, ty << level), y1 = Math.min(maxY, ((ty + 1) << level) - 1);
+
+                if (!this.isOccluded(level - 1, x0, y0, x1, y1, depth))
+                    return false;
+            }
+        }
+
+        return true;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public int getLevels() {
+        return this.levels;
+    }
+
+    public float getMinDepth(int level, int x, int y) {
+        return this.minDepth[level][y * this.levelWidths[level] + x];
+    }
+
+    public float getMaxDepth(int level, int x, int y) {
+        return this.maxDepth[level][y * this.levelWidths[level] + x];
+    }
+}
@@ -0,0 +1,326 @@
+package net.vulkanmod.render.chunk.occlusion;
+
+import net.vulkanmod.render.chunk.RenderSection;
+import net.vulkanmod.render.chunk.graph.GraphDirections;
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+
+/**
+ * Software occlusion culling of sections.
+ * <p>
+ * Occluders are the faces of nearby sections that no open space of the section connects to any other face:
+ * every ray entering the section through such a face hits an opaque block before leaving it.
+ * Adjacent coplanar faces are merged in rectangles, rasterized in a {@link HiZBuffer} and section boxes
+ * are then tested against it.
+ */
+public class OcclusionCuller {
+    public static final int WIDTH = 256;
+    public static final int HEIGHT = 128;
+
+    // Occluders are taken from sections within this distance from the camera section
+    public static final int OCCLUDER_RADIUS = 8;
+
+    // Face planes go from -R to R + 1 relative to the camera section
+    private static final int GRID = OCCLUDER_RADIUS * 2 + 2;
+    private static final int AXIS_X = 0, AXIS_Y = 1, AXIS_Z = 2;
+
+    private static final float NEAR = 0.05f;
+
+    private final HiZBuffer depthBuffer = new HiZBuffer(WIDTH, HEIGHT);
+
+    // Occluder faces indexed by axis, plane, v and u
+    private final boolean[] faces = new boolean[3 * GRID * GRID * GRID];
+    private final int[] planeFaces = new int[3 * GRID];
+
+    private final float[] matrix = new float[16];
+    private double camX, camY, camZ;
+    private int originX, originY, originZ;
+
+    private final float[] clipX = new float[4], clipY = new float[4], clipW = new float[4];
+    private final float[] xs = new float[HiZBuffer.MAX_VERTICES];
+    private final float[] ys = new float[HiZBuffer.MAX_VERTICES];
+    private final float[] ws = new float[HiZBuffer.MAX_VERTICES];
+
+    private int occluders;
+
+    /**
+     * Clears the occluders of the previous frame.
+     *
+     * @param viewProjection projection * model view matrix, camera at the origin
+     */
+    public void begin(Matrix4f viewProjection, double camX, double camY, double camZ) {
+        viewProjection.get(this.matrix);
+
+        this.camX = camX;
+        this.camY = camY;
+        this.camZ = camZ;
+        this.originX = (int) Math.floor(camX) >> 4;
+        this.originY = (int) Math.floor(camY) >> 4;
+        this.originZ = (int) Math.floor(camZ) >> 4;
+
+        Arrays.fill(this.faces, false);
+        Arrays.fill(this.planeFaces, 0);
+        this.occluders = 0;
+    }
+
+    /**
+     * Adds the occluder faces of a compiled section, derived from its visibility data.
+     */
+    public void addSectionOccluders(RenderSection section) {
+        if (!section.isCompiled())
+            return;
+
+        int sectionX = section.xOffset >> 4;
+        int sectionY = section.yOffset >> 4;
+        int sectionZ = section.zOffset >> 4;
+
+        if (Math.abs(sectionX - this.originX) > OCCLUDER_RADIUS || Math.abs(sectionY - this.originY) > OCCLUDER_RADIUS
+                || Math.abs(sectionZ - this.originZ) > OCCLUDER_RADIUS)
+            return;
+
+        for (int dir = 0; dir < 6; ++dir) {
+            if (isOccluderFace(section.visibility, dir))
+                this.addFace(sectionX, sectionY, sectionZ, dir);
+        }
+    }
+
+    /**
+     * @return true if the face in {@code direction} is not connected to any other face
+     */
+    static boolean isOccluderFace(long visibility, int direction) {
+        return ((visibility >> (direction << 3)) & 0x3F & ~(1 << direction)) == 0;
+    }
+
+    /**
+     * Adds the face of a section in {@code direction} as occluder, if the camera is on its outer side.
+     */
+    public void addFace(int sectionX, int sectionY, int sectionZ, int direction) {
+        int axis, plane, u, v;
+        boolean facing;
+
+        switch (direction) {
+            case GraphDirections.DOWN, GraphDirections.UP -> {
+                axis = AXIS_Y;
+                plane = direction == GraphDirections.UP ? sectionY + 1 : sectionY;
+                facing = direction == GraphDirections.UP ? this.camY > plane << 4 : this.camY < plane << 4;
+                u = sectionX - this.originX;
+                v = sectionZ - this.originZ;
+                plane -= this.originY;
+            }
+            case GraphDirections.NORTH, GraphDirections.SOUTH -> {
+                axis = AXIS_Z;
+                plane = direction == GraphDirections.SOUTH ? sectionZ + 1 : sectionZ;
+                facing = direction == GraphDirections.SOUTH ? this.camZ > plane << 4 : this.camZ < plane << 4;
+                u = sectionX - this.originX;
+                v = sectionY - this.originY;
+                plane -= this.originZ;
+            }
+            case GraphDirections.WEST, GraphDirections.EAST -> {
+                axis = AXIS_X;
+                plane = direction == GraphDirections.EAST ? sectionX + 1 : sectionX;
+                facing = direction == GraphDirections.EAST ? this.camX > plane << 4 : this.camX < plane << 4;
+                u = sectionZ - this.originZ;
+                v = sectionY - this.originY;
+                plane -= this.originX;
+            }
+            default -> throw new IllegalArgumentException("direction: " + direction);
+        }
+
+        if (!facing || !inGrid(plane) || !inGrid(u) || !inGrid(v))
+            return;
+
+        int idx = faceIndex(axis, plane, u, v);
+        if (!this.faces[idx]) {
+            this.faces[idx] = true;
+            this.planeFaces[axis * GRID + plane + OCCLUDER_RADIUS]++;
+        }
+    }
+
+    /**
+     * Merges the added faces and rasterizes them.
+     */
+    public void build() {
+        this.depthBuffer.clear();
+
+        for (int axis = 0; axis < 3; ++axis) {
+            for (int plane = -OCCLUDER_RADIUS; plane <= OCCLUDER_RADIUS + 1; ++plane) {
+                if (this.planeFaces[axis * GRID + plane + OCCLUDER_RADIUS] != 0)
+                    this.mergePlane(axis, plane);
+            }
+        }
+
+        this.depthBuffer.buildMips();
+    }
+
+    // Greedy merge of the plane faces in rectangles, faces are consumed
+    private void mergePlane(int axis, int plane) {
+        for (int v = -OCCLUDER_RADIUS; v <= OCCLUDER_RADIUS + 1; ++v) {
+            for (int u = -OCCLUDER_RADIUS; u <= OCCLUDER_RADIUS + 1; ++u) {
+                if (!this.faces[faceIndex(axis, plane, u, v)])
+                    continue;
+
+                int u1 = u + 1;
+                while (inGrid(u1) && this.faces[faceIndex(axis, plane, u1, v)]) {
+                    ++u1;
+                }
+
+                int v1 = v + 1;
+                while (inGrid(v1) && this.isRowSet(axis, plane, u, u1, v1)) {
+                    ++v1;
+                }
+
+                for (int v2 = v; v2 < v1; ++v2) {
+                    for (int u2 = u; u2 < u1; ++u2) {
+                        this.faces[faceIndex(axis, plane, u2, v2)] = false;
+                    }
+                }
+
+                this.drawRect(axis, plane, u, v, u1, v1);
+            }
+        }
+    }
+
+    private boolean isRowSet(int axis, int plane, int u0, int u1, int v) {
+        for (int u = u0; u < u1; ++u) {
+            if (!this.faces[faceIndex(axis, plane, u, v)])
+                return false;
+        }
+        return true;
+    }
+
+    private void drawRect(int axis, int plane, int u0, int v0, int u1, int v1) {
+        for (int i = 0; i < 4; ++i) {
+            // Corners in winding order
+            int u = (i == 1 || i == 2) ? u1 : u0;
+            int v = i < 2 ? v0 : v1;
+
+            double x, y, z;
+            switch (axis) {
+                case AXIS_X -> {
+                    x = (plane + this.originX) << 4;
+                    y = (v + this.originY) << 4;
+                    z = (u + this.originZ) << 4;
+                }
+                case AXIS_Y -> {
+                    x = (u + this.originX) << 4;
+                    y = (plane + this.originY) << 4;
+                    z = (v + this.originZ) << 4;
+                }
+                default -> {
+                    x = (u + this.originX) << 4;
+                    y = (v + this.originY) << 4;
+                    z = (plane + this.originZ) << 4;
+                }
+            }
+
+            float rx = (float) (x - this.camX);
+            float ry = (float) (y - this.camY);
+            float rz = (float) (z - this.camZ);
+
+            final float[] m = this.matrix;
+            this.clipX[i] = m[0] * rx + m[4] * ry + m[8] * rz + m[12];
+            this.clipY[i] = m[1] * rx + m[5] * ry + m[9] * rz + m[13];
+            this.clipW[i] = m[3] * rx + m[7] * ry + m[11] * rz + m[15];
+        }
+
+        int count = this.clipNear();
+        if (count < 3)
+            return;
+
+        for (int i = 0; i < count; ++i) {
+            float w = this.ws[i];
+            this.xs[i] = (this.xs[i] / w * 0.5f + 0.5f) * WIDTH;
+            this.ys[i] = (this.ys[i] / w * 0.5f + 0.5f) * HEIGHT;
+        }
+
+        this.depthBuffer.drawPolygon(this.xs, this.ys, this.ws, count);
+        this.occluders++;
+    }
+
+    // Clips the clip space quad against the near plane into xs, ys, ws
+    private int clipNear() {
+        int count = 0;
+
+        for (int i = 0; i < 4; ++i) {
+            int j = (i + 1) & 3;
+            float wi = this.clipW[i], wj = this.clipW[j];
+            boolean insideI = wi >= NEAR;
+            boolean insideJ = wj >= NEAR;
+
+            if (insideI) {
+                this.xs[count] = this.clipX[i];
+                this.ys[count] = this.clipY[i];
+                this.ws[count] = wi;
+                ++count;
+            }
+
+            if (insideI != insideJ) {
+                float t = (NEAR - wi) / (wj - wi);
+                this.xs[count] = this.clipX[i] + (this.clipX[j] - this.clipX[i]) * t;
+                this.ys[count] = this.clipY[i] + (this.clipY[j] - this.clipY[i]) * t;
+                this.ws[count] = NEAR;
+                ++count;
+            }
+        }
+
+        return count;
+    }
+
+    public boolean isOccluded(RenderSection section) {
+        return this.isOccluded(section.xOffset, section.yOffset, section.zOffset,
+                section.xOffset + 16, section.yOffset + 16, section.zOffset + 16);
+    }
+
+    /**
+     * @return true if the box, in world coordinates, is hidden by the occluders of the last {@link #build}
+     */
+    public boolean isOccluded(double x1, double y1, double z1, double x2, double y2, double z2) {
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        float minW = Float.POSITIVE_INFINITY;
+
+        final float[] m = this.matrix;
+
+        for (int i = 0; i < 8; ++i) {
+            float rx = (float) (((i & 1) != 0 ? x2 : x1) - this.camX);
+            float ry = (float) (((i & 2) != 0 ? y2 : y1) - this.camY);
+            float rz = (float) (((i & 4) != 0 ? z2 : z1) - this.camZ);
+
+            float w = m[3] * rx + m[7] * ry + m[11] * rz + m[15];
+
+            // Crosses the near plane, might cover the whole screen
+            if (w < NEAR)
+                return false;
+
+            float sx = ((m[0] * rx + m[4] * ry + m[8] * rz + m[12]) / w * 0.5f + 0.5f) * WIDTH;
+            float sy = ((m[1] * rx + m[5] * ry + m[9] * rz + m[13]) / w * 0.5f + 0.5f) * HEIGHT;
+
+            minX = Math.min(minX, sx);
+            maxX = Math.max(maxX, sx);
+            minY = Math.min(minY, sy);
+            maxY = Math.max(maxY, sy);
+            minW = Math.min(minW, w);
+        }
+
+        // Only the on screen part of the box is tested
+        return this.depthBuffer.isOccluded((int) Math.floor(minX), (int) Math.floor(minY),
+                (int) Math.floor(maxX), (int) Math.floor(maxY), minW);
+    }
+
+    public HiZBuffer getDepthBuffer() {
+        return this.depthBuffer;
+    }
+
+    public int getOccluderCount() {
+        return this.occluders;
+    }
+
+    private static boolean inGrid(int c) {
+        return c >= -OCCLUDER_RADIUS && c <= OCCLUDER_RADIUS + 1;
+    }
+
+    private static int faceIndex(int axis, int plane, int u, int v) {
+        return ((axis * GRID + plane + OCCLUDER_RADIUS) * GRID + v + OCCLUDER_RADIUS) * GRID + u + OCCLUDER_RADIUS;
+    }
+}
@@ -0,0 +1,35 @@
+package net.vulkanmod.render.chunk.util;
+
+/**
+ * Static queue with a version that changes when its content differs from the last time the version was read.
+ * <p>
+ * Clearing keeps the previous elements in place, so each add can compare with the element it overwrites:
+ * refilling the queue with the same elements in the same order keeps the version.
+ */
+public class VersionedQueue<T> extends StaticQueue<T> {
+    private int version;
+    private int lastLimit;
+    private boolean changed;
+
+    public VersionedQueue(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    @Override
+    public void add(T t) {
+        if (this.limit >= this.lastLimit || this.queue[this.limit] != t)
+            this.changed = true;
+
+        super.add(t);
+    }
+
+    public int getVersion() {
+        if (this.changed || this.limit != this.lastLimit) {
+            this.version++;
+            this.changed = false;
+            this.lastLimit = this.limit;
+        }
+
+        return this.version;
+    }
+}
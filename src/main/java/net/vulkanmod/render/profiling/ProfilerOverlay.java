@@ -146,13 +146,19 @@ public class ProfilerOverlay {
         BuilderResources[] resourcesArray = WorldRenderer.getInstance().getTaskDispatcher().getResourcesArray();
         int totalTime = 0;
         int buildCount = 0;
+        long occlusionHits = 0, occlusionMisses = 0;
 
         for (BuilderResources resources : resourcesArray) {
             totalTime += resources.getTotalBuildTime();
             buildCount += resources.getBuildCount();
+            occlusionHits += resources.getOcclusionCacheHits();
+            occlusionMisses += resources.getOcclusionCacheMisses();
         }
 
-        return String.format("Builders time: %dms avg %dms (%d builds)",
-                totalTime, totalTime / resourcesArray.length, buildCount);
+        long occlusionLookups = occlusionHits + occlusionMisses;
+        float occlusionHitRate = occlusionLookups != 0 ? (float) occlusionHits / occlusionLookups * 100.0f : 0.0f;
+
+        return String.format("Builders time: %dms avg %dms (%d builds) occlusion cache: %.1f%% hits",
+                totalTime, totalTime / resourcesArray.length, buildCount, occlusionHitRate);
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package net.vulkanmod.render.util;
+
+import java.util.Arrays;
+
+/**
+ * LSD radix sort of indices by float keys.
+ * Scratch arrays are kept between calls, an instance must not be shared between threads.
+ */
+public class RadixSort {
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+    private static final int PASSES = Integer.SIZE / RADIX_BITS;
+
+    private final int[] histograms = new int[RADIX * PASSES];
+
+    private float[] values = new float[0];
+    private int[] keys = new int[0];
+    private int[] keysTmp = new int[0];
+    private int[] indices = new int[0];
+    private int[] indicesTmp = new int[0];
+
+    /**
+     * @return a scratch array of at least {@code size} elements the caller can fill with sort values
+     */
+    public float[] getValueBuffer(int size) {
+        if (this.values.length < size)
+            this.values = new float[size];
+
+        return this.values;
+    }
+
+    /**
+     * Sorts indices {@code [0, count)} by descending value.
+     * Equivalent to {@link SortUtil#mergeSort(int[], float[])}: the sort is stable
+     * and values are ordered as by {@link Float#compare}.
+     * @return the sorted indices, valid until the next call
+     */
+    public int[] sortDescending(float[] values, int count) {
+        ensureCapacity(count);
+
+        if (count == 0)
+            return this.indices;
+
+        int[] keys = this.keys;
+        int[] indices = this.indices;
+        int[] histograms = this.histograms;
+
+        Arrays.fill(histograms, 0);
+
+        for (int i = 0; i < count; ++i) {
+            int key = descendingKey(values[i]);
+            keys[i] = key;
+            indices[i] = i;
+
+            for (int pass = 0; pass < PASSES; ++pass) {
+                histograms[(pass << RADIX_BITS) + ((key >>> (pass * RADIX_BITS)) & RADIX_MASK)]++;
+            }
+        }
+
+        int[] keysTmp = this.keysTmp;
+        int[] indicesTmp = this.indicesTmp;
+
+        for (int pass = 0; pass < PASSES; ++pass) {
+            int histogramOffset = pass << RADIX_BITS;
+            int shift = pass * RADIX_BITS;
+
+            // Skip passes where every key falls in the same bucket
+            if (histograms[histogramOffset + ((keys[0] >>> shift) & RADIX_MASK)] == count)
+                continue;
+
+            int sum = 0;
+            for (int i = histogramOffset; i < histogramOffset + RADIX; ++i) {
+                int c = histograms[i];
+                histograms[i] = sum;
+                sum += c;
+            }
+
+            for (int i = 0; i < count; ++i) {
+                int key = keys[i];
+                int dst = histograms[histogramOffset + ((key >>> shift) & RADIX_MASK)]++;
+
+                keysTmp[dst] = key;
+                indicesTmp[dst] = indices[i];
+            }
+
+            int[] t = keys;
+            keys = keysTmp;
+            keysTmp = t;
+
+            t = indices;
+            indices = indicesTmp;
+            indicesTmp = t;
+        }
+
+        this.keys = keys;
+        this.keysTmp = keysTmp;
+        this.indices = indices;
+        this.indicesTmp = indicesTmp;
+
+        return indices;
+    }
+
+    /**
+     * Maps a float to an int whose unsigned ascending order matches descending {@link Float#compare} order.
+     */
+    static int descendingKey(float value) {
+        int bits = Float.floatToIntBits(value);
+        // Flip all bits of negative values and only the sign bit of positive ones to get ascending order
+        int ascending = bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+        return ~ascending;
+    }
+
+    private void ensureCapacity(int size) {
+        if (this.keys.length < size) {
+            this.keys = new int[size];
+            this.keysTmp = new int[size];
+            this.indices = new int[size];
+            this.indicesTmp = new int[size];
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package net.vulkanmod.render.vertex;
+
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Writes triangle list indices (0, 1, 2, 2, 3, 0) for quads in a given order.
+ */
+public abstract class QuadIndexWriter {
+    /** Max vertex count addressable by 16 bit indices. */
+    public static final int MAX_SHORT_INDEX_VERTICES = 0x10000;
+
+    public static boolean useShortIndices(int vertexCount) {
+        return vertexCount <= MAX_SHORT_INDEX_VERTICES;
+    }
+
+    public static int getIndexSize(int vertexCount) {
+        return useShortIndices(vertexCount) ? Short.BYTES : Integer.BYTES;
+    }
+
+    /**
+     * Writes 6 16 bit indices for each of the first {@code quadCount} quads in {@code quads}.
+     * All quad indices must be lower than {@code MAX_SHORT_INDEX_VERTICES / 4}.
+     */
+    public static void putShortIndices(long ptr, int[] quads, int quadCount) {
+        for (int i = 0; i < quadCount; ++i) {
+            int vertex = quads[i] << 2;
+
+            MemoryUtil.memPutShort(ptr + 0, (short) (vertex + 0));
+            MemoryUtil.memPutShort(ptr + 2, (short) (vertex + 1));
+            MemoryUtil.memPutShort(ptr + 4, (short) (vertex + 2));
+            MemoryUtil.memPutShort(ptr + 6, (short) (vertex + 2));
+            MemoryUtil.memPutShort(ptr + 8, (short) (vertex + 3));
+            MemoryUtil.memPutShort(ptr + 10, (short) (vertex + 0));
+
+            ptr += 12;
+        }
+    }
+
+    /**
+     * Writes 6 32 bit indices for each of the first {@code quadCount} quads in {@code quads}.
+     */
+    public static void putIntIndices(long ptr, int[] quads, int quadCount) {
+        for (int i = 0; i < quadCount; ++i) {
+            int vertex = quads[i] << 2;
+
+            MemoryUtil.memPutInt(ptr + 0, vertex + 0);
+            MemoryUtil.memPutInt(ptr + 4, vertex + 1);
+            MemoryUtil.memPutInt(ptr + 8, vertex + 2);
+            MemoryUtil.memPutInt(ptr + 12, vertex + 2);
+            MemoryUtil.memPutInt(ptr + 16, vertex + 3);
+            MemoryUtil.memPutInt(ptr + 20, vertex + 0);
+
+            ptr += 24;
+        }
+    }
+}
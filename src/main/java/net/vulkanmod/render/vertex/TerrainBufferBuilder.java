@@ -6,10 +6,9 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.vulkanmod.Initializer;
 import net.vulkanmod.render.PipelineManager;
 import net.vulkanmod.render.chunk.util.BufferUtil;
-import net.vulkanmod.render.util.SortUtil;
+import net.vulkanmod.render.util.RadixSort;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
-import org.joml.Vector3f;
 import org.lwjgl.system.MemoryUtil;
 
 import java.nio.ByteBuffer;
@@ -29,7 +28,8 @@ public class TerrainBufferBuilder {
 
     private boolean building;
 
-    private Vector3f[] sortingPoints;
+    // Quad centers, stored as consecutive x, y, z triples
+    private float[] sortingPoints;
     private float sortX = Float.NaN;
     private float sortY = Float.NaN;
     private float sortZ = Float.NaN;
@@ -37,6 +37,8 @@ public class TerrainBufferBuilder {
 
     protected VertexBuilder vertexBuilder;
 
+    private RadixSort quadSorter;
+
     public TerrainBufferBuilder(int size) {
         this.buffer = MemoryTracker.create(size * 6);
         this.bufferPtr = MemoryUtil.memAddress0(this.buffer);
@@ -66,6 +68,10 @@ public class TerrainBufferBuilder {
         this.bufferPtr = MemoryUtil.memAddress0(this.buffer);
     }
 
+    public void setQuadSorter(RadixSort quadSorter) {
+        this.quadSorter = quadSorter;
+    }
+
     public void setQuadSortOrigin(float f, float g, float h) {
         if (this.sortX != f || this.sortY != g || this.sortZ != h) {
             this.sortX = f;
@@ -101,9 +107,9 @@ public class TerrainBufferBuilder {
         }
     }
 
-    private Vector3f[] makeQuadSortingPoints() {
+    private float[] makeQuadSortingPoints() {
         int pointsNum = this.vertices / 4;
-        Vector3f[] sortingPoints = new Vector3f[pointsNum];
+        float[] sortingPoints = new float[pointsNum * 3];
 
         int stride = this.format.getVertexSize() * 4;
         int vertexSize = this.format.getVertexSize();
@@ -122,10 +128,9 @@ public class TerrainBufferBuilder {
                 short y2 = MemoryUtil.memGetShort(ptr + offset + 2);
                 short z2 = MemoryUtil.memGetShort(ptr + offset + 4);
 
-                float xa = (x0 + x2) * invConv * 0.5f;
-                float ya = (y0 + y2) * invConv * 0.5f;
-                float za = (z0 + z2) * invConv * 0.5f;
-                sortingPoints[m] = new Vector3f(xa, ya, za);
+                sortingPoints[m * 3 + 0] = (x0 + x2) * invConv * 0.5f;
+                sortingPoints[m * 3 + 1] = (y0 + y2) * invConv * 0.5f;
+                sortingPoints[m * 3 + 2] = (z0 + z2) * invConv * 0.5f;
             }
         } else {
             for (int m = 0; m < pointsNum; ++m) {
@@ -138,10 +143,9 @@ public class TerrainBufferBuilder {
                 float y2 = MemoryUtil.memGetFloat(ptr + offset + 4);
                 float z2 = MemoryUtil.memGetFloat(ptr + offset + 8);
 
-                float q = (x0 + x2) * 0.5f;
-                float r = (y0 + y2) * 0.5f;
-                float s = (z0 + z2) * 0.5f;
-                sortingPoints[m] = new Vector3f(q, r, s);
+                sortingPoints[m * 3 + 0] = (x0 + x2) * 0.5f;
+                sortingPoints[m * 3 + 1] = (y0 + y2) * 0.5f;
+                sortingPoints[m * 3 + 2] = (z0 + z2) * 0.5f;
             }
         }
 
@@ -149,41 +153,27 @@ public class TerrainBufferBuilder {
     }
 
     private void putSortedQuadIndices(VertexFormat.IndexType indexType) {
-        float[] distances = new float[this.sortingPoints.length];
-        int[] sortingPoints = new int[this.sortingPoints.length];
+        if (this.quadSorter == null)
+            this.quadSorter = new RadixSort();
 
-        for (int i = 0; i < this.sortingPoints.length; sortingPoints[i] = i++) {
-            float dx = this.sortingPoints[i].x() - this.sortX;
-            float dy = this.sortingPoints[i].y() - this.sortY;
-            float dz = this.sortingPoints[i].z() - this.sortZ;
+        final int quadCount = this.sortingPoints.length / 3;
+        float[] distances = this.quadSorter.getValueBuffer(quadCount);
+
+        for (int i = 0; i < quadCount; ++i) {
+            float dx = this.sortingPoints[i * 3 + 0] - this.sortX;
+            float dy = this.sortingPoints[i * 3 + 1] - this.sortY;
+            float dz = this.sortingPoints[i * 3 + 2] - this.sortZ;
             distances[i] = dx * dx + dy * dy + dz * dz;
         }
 
-        SortUtil.mergeSort(sortingPoints, distances);
+        int[] sortedQuads = this.quadSorter.sortDescending(distances, quadCount);
 
         long ptr = this.bufferPtr + this.nextElementByte;
 
-        final int size = getIndexSize(indexType);
-        final int stride = 4; // 4 vertices in a quad
-        for (int i = 0; i < sortingPoints.length; ++i) {
-            int quadIndex = sortingPoints[i];
-
-            MemoryUtil.memPutInt(ptr + (size * 0L), quadIndex * stride + 0);
-            MemoryUtil.memPutInt(ptr + (size * 1L), quadIndex * stride + 1);
-            MemoryUtil.memPutInt(ptr + (size * 2L), quadIndex * stride + 2);
-            MemoryUtil.memPutInt(ptr + (size * 3L), quadIndex * stride + 2);
-            MemoryUtil.memPutInt(ptr + (size * 4L), quadIndex * stride + 3);
-            MemoryUtil.memPutInt(ptr + (size * 5L), quadIndex * stride + 0);
-
-            ptr += size * 6L;
-        }
-    }
-
-    private static int getIndexSize(VertexFormat.IndexType indexType) {
-        return switch (indexType) {
-            case SHORT -> 2;
-            case INT -> 4;
-        };
+        if (indexType == VertexFormat.IndexType.SHORT)
+            QuadIndexWriter.putShortIndices(ptr, sortedQuads, quadCount);
+        else
+            QuadIndexWriter.putIntIndices(ptr, sortedQuads, quadCount);
     }
 
     public boolean isCurrentBatchEmpty() {
@@ -212,7 +202,8 @@ public class TerrainBufferBuilder {
     private RenderedBuffer storeRenderedBuffer() {
         int indexCount = this.vertices / 4 * 6;
         int vertexBufferSize = !this.indexOnly ? this.vertices * this.format.getVertexSize() : 0;
-        VertexFormat.IndexType indexType = VertexFormat.IndexType.least(indexCount);
+        // IndexType.least() is overwritten to always return SHORT, pick by vertex count instead
+        VertexFormat.IndexType indexType = QuadIndexWriter.useShortIndices(this.vertices) ? VertexFormat.IndexType.SHORT : VertexFormat.IndexType.INT;
         boolean sequentialIndexing;
         int size;
 
@@ -294,15 +285,15 @@ public class TerrainBufferBuilder {
         final VertexFormat.Mode mode;
         final int vertices;
         @Nullable
-        final Vector3f[] sortingPoints;
+        final float[] sortingPoints;
         final float sortX;
         final float sortY;
         final float sortZ;
 
-        SortState(VertexFormat.Mode mode, int i, @Nullable Vector3f[] vector3fs, float f, float g, float h) {
+        SortState(VertexFormat.Mode mode, int i, @Nullable float[] sortingPoints, float f, float g, float h) {
             this.mode = mode;
             this.vertices = i;
-            this.sortingPoints = vector3fs;
+            this.sortingPoints = sortingPoints;
             this.sortX = f;
             this.sortY = g;
             this.sortZ = h;
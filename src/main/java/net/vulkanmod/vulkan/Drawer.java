@@ -120,28 +120,40 @@ public class Drawer {
     }
 
     public void drawIndexed(VertexBuffer vertexBuffer, IndexBuffer indexBuffer, int indexCount) {
+        drawIndexed(vertexBuffer, vertexBuffer.getOffset(), indexBuffer, indexBuffer.getOffset(), indexCount);
+    }
+
+    public void drawIndexed(VertexBuffer vertexBuffer, long vertexOffset, IndexBuffer indexBuffer, long indexOffset, int indexCount) {
         VkCommandBuffer commandBuffer = Renderer.getCommandBuffer();
 
         VUtil.UNSAFE.putLong(pBuffers, vertexBuffer.getId());
-        VUtil.UNSAFE.putLong(pOffsets, vertexBuffer.getOffset());
+        VUtil.UNSAFE.putLong(pOffsets, vertexOffset);
         nvkCmdBindVertexBuffers(commandBuffer, 0, 1, pBuffers, pOffsets);
 
-        bindIndexBuffer(commandBuffer, indexBuffer);
+        bindIndexBuffer(commandBuffer, indexBuffer, indexOffset);
         vkCmdDrawIndexed(commandBuffer, indexCount, 1, 0, 0, 0);
     }
 
     public void draw(VertexBuffer vertexBuffer, int vertexCount) {
+        draw(vertexBuffer, vertexBuffer.getOffset(), vertexCount);
+    }
+
+    public void draw(VertexBuffer vertexBuffer, long vertexOffset, int vertexCount) {
         VkCommandBuffer commandBuffer = Renderer.getCommandBuffer();
 
         VUtil.UNSAFE.putLong(pBuffers, vertexBuffer.getId());
-        VUtil.UNSAFE.putLong(pOffsets, vertexBuffer.getOffset());
+        VUtil.UNSAFE.putLong(pOffsets, vertexOffset);
         nvkCmdBindVertexBuffers(commandBuffer, 0, 1, pBuffers, pOffsets);
 
         vkCmdDraw(commandBuffer, vertexCount, 1, 0, 0);
     }
 
     public void bindIndexBuffer(VkCommandBuffer commandBuffer, IndexBuffer indexBuffer) {
-        vkCmdBindIndexBuffer(commandBuffer, indexBuffer.getId(), indexBuffer.getOffset(), indexBuffer.indexType.type);
+        bindIndexBuffer(commandBuffer, indexBuffer, indexBuffer.getOffset());
+    }
+
+    public void bindIndexBuffer(VkCommandBuffer commandBuffer, IndexBuffer indexBuffer, long offset) {
+        vkCmdBindIndexBuffer(commandBuffer, indexBuffer.getId(), offset, indexBuffer.indexType.type);
     }
 
     public void cleanUpResources() {
@@ -7,6 +7,7 @@ import net.vulkanmod.Initializer;
 import net.vulkanmod.gl.GlFramebuffer;
 import net.vulkanmod.mixin.window.WindowAccessor;
 import net.vulkanmod.render.PipelineManager;
+import net.vulkanmod.render.VBO;
 import net.vulkanmod.render.chunk.WorldRenderer;
 import net.vulkanmod.render.chunk.buffer.UploadManager;
 import net.vulkanmod.render.profiling.Profiler;
@@ -14,6 +15,7 @@ import net.vulkanmod.vulkan.device.DeviceManager;
 import net.vulkanmod.vulkan.framebuffer.Framebuffer;
 import net.vulkanmod.vulkan.framebuffer.RenderPass;
 import net.vulkanmod.vulkan.memory.MemoryManager;
+import net.vulkanmod.vulkan.memory.StagingBuffer;
 import net.vulkanmod.vulkan.memory.UniformBuffer;
 import net.vulkanmod.vulkan.pass.DefaultMainPass;
 import net.vulkanmod.vulkan.pass.MainPass;
@@ -90,6 +92,7 @@ public class Renderer {
     private RenderPass boundRenderPass;
 
     private static int currentFrame = 0;
+    private static long frameIndex = 0;
     private static int imageIndex;
     private static int lastReset = -1;
     private VkCommandBuffer currentCmdBuffer;
@@ -114,7 +117,7 @@ public class Renderer {
 
     private void init() {
         MemoryManager.createInstance(Renderer.getFramesNum());
-        Vulkan.createStagingBuffers();
+        Vulkan.createStagingBuffer();
 
         drawer = new Drawer();
         drawer.createResources(framesNum);
@@ -122,6 +125,7 @@ public class Renderer {
         Uniforms.setupDefaultUniforms();
         PipelineManager.init();
         UploadManager.createInstance();
+        VBO.createArenas();
 
         allocateCommandBuffers();
         createSyncObjects();
@@ -330,6 +334,7 @@ public class Renderer {
             }
 
             currentFrame = (currentFrame + 1) % framesNum;
+            frameIndex++;
         }
     }
 
@@ -383,7 +388,12 @@ public class Renderer {
 
         drawer.resetBuffers(currentFrame);
 
-        Vulkan.getStagingBuffer().reset();
+        // Copies and draws made while this frame slot was last in use have completed
+        StagingBuffer stagingBuffer = Vulkan.getStagingBuffer();
+        stagingBuffer.retireFrames(frameIndex - framesNum);
+        stagingBuffer.beginFrame(frameIndex);
+        VBO.retireFrames(frameIndex - framesNum);
+        VBO.beginFrame(frameIndex);
 
         WorldRenderer.getInstance().uploadSections();
         UploadManager.INSTANCE.submitUploads();
@@ -442,7 +452,6 @@ public class Renderer {
 
             framesNum = newFramesNum;
             MemoryManager.createInstance(newFramesNum);
-            createStagingBuffers();
             allocateCommandBuffers();
 
             GraphicsPipeline.recreateDescriptorSets(framesNum);
@@ -462,6 +471,7 @@ public class Renderer {
         destroySyncObjects();
 
         drawer.cleanUpResources();
+        VBO.freeArenas();
 
         PipelineManager.destroyPipelines();
         VTextureSelector.getWhiteTexture().free();
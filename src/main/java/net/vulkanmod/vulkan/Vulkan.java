@@ -5,7 +5,6 @@ import net.vulkanmod.config.Config;
 import net.vulkanmod.vulkan.device.Device;
 import net.vulkanmod.vulkan.device.DeviceManager;
 import net.vulkanmod.vulkan.framebuffer.SwapChain;
-import net.vulkanmod.vulkan.memory.Buffer;
 import net.vulkanmod.vulkan.memory.MemoryManager;
 import net.vulkanmod.vulkan.memory.MemoryTypes;
 import net.vulkanmod.vulkan.memory.StagingBuffer;
@@ -138,7 +137,9 @@ public class Vulkan {
 
     private static long allocator;
 
-    private static StagingBuffer[] stagingBuffers;
+    // Shared by all frames in flight, see StagingBuffer
+    private static final int STAGING_BUFFER_SIZE = 64 * 1024 * 1024;
+    private static StagingBuffer stagingBuffer;
 
     public static boolean use24BitsDepthFormat = true;
     private static int DEFAULT_DEPTH_FORMAT = 0;
@@ -185,16 +186,12 @@ public class Vulkan {
 
     }
 
-    static void createStagingBuffers() {
-        if (stagingBuffers != null) {
-            freeStagingBuffers();
+    static void createStagingBuffer() {
+        if (stagingBuffer != null) {
+            freeStagingBuffer();
         }
 
-        stagingBuffers = new StagingBuffer[Renderer.getFramesNum()];
-
-        for (int i = 0; i < stagingBuffers.length; ++i) {
-            stagingBuffers[i] = new StagingBuffer(30 * 1024 * 1024);
-        }
+        stagingBuffer = new StagingBuffer(STAGING_BUFFER_SIZE);
     }
 
     static void setupDepthFormat() {
@@ -219,7 +216,7 @@ public class Vulkan {
         Renderer.getInstance().cleanUpResources();
         swapChain.cleanUp();
 
-        freeStagingBuffers();
+        freeStagingBuffer();
 
         try {
             MemoryManager.getInstance().freeAllBuffers();
@@ -235,8 +232,8 @@ public class Vulkan {
         vkDestroyInstance(instance, null);
     }
 
-    private static void freeStagingBuffers() {
-        Arrays.stream(stagingBuffers).forEach(Buffer::freeBuffer);
+    private static void freeStagingBuffer() {
+        stagingBuffer.freeBuffer();
     }
 
     private static void createInstance() {
@@ -492,7 +489,7 @@ public class Vulkan {
     }
 
     public static StagingBuffer getStagingBuffer() {
-        return stagingBuffers[Renderer.getCurrentFrame()];
+        return stagingBuffer;
     }
 
     public static Device getDevice() {
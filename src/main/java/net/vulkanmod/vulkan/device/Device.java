@@ -30,11 +30,13 @@ public class Device {
 
     public final VkPhysicalDeviceFeatures2 availableFeatures;
     public final VkPhysicalDeviceVulkan11Features availableFeatures11;
+    public final VkPhysicalDeviceVulkan12Features availableFeatures12;
 
 //    public final VkPhysicalDeviceVulkan13Features availableFeatures13;
 //    public final boolean vulkan13Support;
 
     private boolean drawIndirectSupported;
+    private boolean drawIndirectCountSupported;
 
     public Device(VkPhysicalDevice device) {
         this.physicalDevice = device;
@@ -51,10 +53,16 @@ public class Device {
         this.availableFeatures = VkPhysicalDeviceFeatures2.calloc();
         this.availableFeatures.sType$Default();
 
-        this.availableFeatures11 = VkPhysicalDeviceVulkan11Features.malloc();
+        this.availableFeatures11 = VkPhysicalDeviceVulkan11Features.calloc();
         this.availableFeatures11.sType$Default();
         this.availableFeatures.pNext(this.availableFeatures11);
 
+        // Vulkan 1.2 features can only be queried on 1.2 devices
+        this.availableFeatures12 = VkPhysicalDeviceVulkan12Features.calloc();
+        this.availableFeatures12.sType$Default();
+        if (VK_VERSION_MINOR(properties.apiVersion()) >= 2)
+            this.availableFeatures11.pNext(this.availableFeatures12.address());
+
         //Vulkan 1.3
 //        this.availableFeatures13 = VkPhysicalDeviceVulkan13Features.malloc();
 //        this.availableFeatures13.sType$Default();
@@ -67,6 +75,9 @@ public class Device {
         if (this.availableFeatures.features().multiDrawIndirect() && this.availableFeatures11.shaderDrawParameters())
             this.drawIndirectSupported = true;
 
+        if (this.drawIndirectSupported && this.availableFeatures12.drawIndirectCount())
+            this.drawIndirectCountSupported = true;
+
     }
 
     private static String decodeVendor(int i) {
@@ -147,6 +158,10 @@ public class Device {
         return drawIndirectSupported;
     }
 
+    public boolean isDrawIndirectCountSupported() {
+        return drawIndirectCountSupported;
+    }
+
     // Added these to allow detecting GPU vendor, to allow handling vendor specific circumstances:
     // (e.g. such as in case we encounter a vendor specific driver bug)
     public boolean isAMD() {
@@ -215,6 +215,15 @@ public abstract class DeviceManager {
 //                deviceVulkan13Features.pNext(deviceVulkan11Features.address());
             }
 
+            if (device.isDrawIndirectCountSupported()) {
+                VkPhysicalDeviceVulkan12Features deviceVulkan12Features = VkPhysicalDeviceVulkan12Features.calloc(stack);
+                deviceVulkan12Features.sType$Default();
+                deviceVulkan12Features.drawIndirectCount(true);
+
+                deviceVulkan12Features.pNext(createInfo.pNext());
+                createInfo.pNext(deviceVulkan12Features.address());
+            }
+
             if (!Vulkan.getHeadless()) {
                 createInfo.ppEnabledExtensionNames(asPointerBuffer(Vulkan.REQUIRED_GRAPHICS_EXTENSIONS));
             }
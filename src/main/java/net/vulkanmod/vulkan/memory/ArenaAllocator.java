@@ -0,0 +1,172 @@
+package net.vulkanmod.vulkan.memory;
+
+import net.vulkanmod.render.chunk.buffer.AreaBuffer;
+import net.vulkanmod.render.chunk.buffer.SegmentAllocator;
+
+import java.util.ArrayDeque;
+
+/**
+ * Range bookkeeping of a buffer shared by many small resources, ranges are best fit allocated by a {@link SegmentAllocator}.
+ * <p>
+ * Frames are tagged with increasing indices as in {@link RingAllocator}. A range freed or drawn in a frame
+ * might still be read by the GPU until that frame is retired by {@link #retireFrames(long)}:
+ * freed ranges are only released then. Writes submitted to the GPU are not ordered with each other either,
+ * so only ranges neither written nor used by a frame in flight can be updated in place.
+ */
+public class ArenaAllocator {
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final int alignment;
+    private final SegmentAllocator allocator;
+
+    // Freed ranges in frame order
+    private final ArrayDeque<Range> pendingFrees = new ArrayDeque<>();
+
+    private long frame = 0;
+    private long retiredFrame = NEVER;
+
+    public ArenaAllocator(int size, int alignment) {
+        if (size <= 0 || alignment <= 0 || size % alignment != 0)
+            throw new IllegalArgumentException("Invalid arena: size %d alignment %d".formatted(size, alignment));
+
+        this.alignment = alignment;
+        this.allocator = new SegmentAllocator(size, alignment);
+    }
+
+    /**
+     * @return a range of at least {@code size} bytes or null if there's no free range large enough
+     */
+    public Range allocate(int size) {
+        AreaBuffer.Segment segment = this.allocator.allocate(this.alignSize(size));
+
+        if (segment == null)
+            return null;
+
+        return new Range(segment.getOffset(), segment.getSize());
+    }
+
+    /**
+     * @return true if {@code size} bytes can be written in place of the range content
+     */
+    public boolean canUpdate(Range range, int size) {
+        return !range.free && this.alignSize(size) <= range.size
+                && range.lastUseFrame <= this.retiredFrame && range.lastWriteFrame <= this.retiredFrame;
+    }
+
+    /**
+     * Marks the range as written by the current frame.
+     */
+    public void markWritten(Range range) {
+        range.lastWriteFrame = this.frame;
+    }
+
+    /**
+     * Marks the range as read by the current frame.
+     */
+    public void markUsed(Range range) {
+        range.lastUseFrame = this.frame;
+    }
+
+    /**
+     * Frees the range once the current frame is retired.
+     */
+    public void free(Range range) {
+        if (range.free)
+            throw new IllegalStateException("Range at offset %d already freed".formatted(range.offset));
+
+        range.free = true;
+        range.freeFrame = this.frame;
+        this.pendingFrees.add(range);
+    }
+
+    /**
+     * Extends the arena so that {@code size} more bytes can be allocated.
+     * @return the new arena size
+     */
+    public int grow(int size) {
+        int minIncrement = this.align(this.allocator.getSize() >> 3);
+        int increment = Math.max(minIncrement, this.alignSize(size) << 1);
+
+        this.allocator.grow(increment);
+
+        return this.allocator.getSize();
+    }
+
+    /**
+     * Ranges freed or used from now on are tagged with {@code frame}.
+     */
+    public void beginFrame(long frame) {
+        this.frame = frame;
+    }
+
+    /**
+     * Releases the ranges freed up to {@code frame}, whose commands must have completed.
+     */
+    public void retireFrames(long frame) {
+        this.retiredFrame = Math.max(this.retiredFrame, frame);
+
+        while (!this.pendingFrees.isEmpty() && this.pendingFrees.peek().freeFrame <= this.retiredFrame) {
+            Range range = this.pendingFrees.poll();
+            this.allocator.free(range.offset);
+        }
+    }
+
+    private int alignSize(int size) {
+        // Empty uploads still get a range of their own
+        return this.align(Math.max(size, 1));
+    }
+
+    private int align(int size) {
+        int r = size % this.alignment;
+        return r != 0 ? size + this.alignment - r : size;
+    }
+
+    public int getSize() {
+        return this.allocator.getSize();
+    }
+
+    /**
+     * @return the bytes of allocated ranges, including the freed ones not yet released
+     */
+    public int getUsed() {
+        return this.allocator.getUsed();
+    }
+
+    public int getSegmentCount() {
+        return this.allocator.getSegmentCount();
+    }
+
+    public int getPendingFreeCount() {
+        return this.pendingFrees.size();
+    }
+
+    public boolean checkSegments() {
+        return this.allocator.checkSegments();
+    }
+
+    public static class Range {
+        final int offset, size;
+
+        long lastUseFrame = NEVER;
+        long lastWriteFrame = NEVER;
+        long freeFrame;
+        boolean free = false;
+
+        Range(int offset, int size) {
+            this.offset = offset;
+            this.size = size;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public boolean isFree() {
+            return free;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package net.vulkanmod.vulkan.memory;
+
+import net.vulkanmod.vulkan.Synchronization;
+import net.vulkanmod.vulkan.Vulkan;
+import net.vulkanmod.vulkan.device.DeviceManager;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+
+/**
+ * Device local buffer shared by many small resources, sub-allocated by an {@link ArenaAllocator}.
+ * <p>
+ * Data is written right away, through the staging buffer and the transfer queue
+ * or directly if the memory is mappable, like uploads to a dedicated buffer.
+ */
+public class BufferArena<T extends Buffer> {
+    private final IntFunction<T> bufferFactory;
+    private final ArenaAllocator allocator;
+
+    private T buffer;
+
+    public BufferArena(int size, int alignment, IntFunction<T> bufferFactory) {
+        this.bufferFactory = bufferFactory;
+        this.allocator = new ArenaAllocator(size, alignment);
+        this.buffer = bufferFactory.apply(size);
+    }
+
+    /**
+     * Writes {@code data} in place of the range content if possible, otherwise in a new range
+     * while the old one is freed.
+     * @param range the current range of the resource, or null
+     * @return the range holding the data
+     */
+    public ArenaAllocator.Range upload(ArenaAllocator.Range range, ByteBuffer data) {
+        int size = data.remaining();
+
+        if (range != null) {
+            if (this.allocator.canUpdate(range, size)) {
+                this.write(range, data);
+                return range;
+            }
+
+            this.allocator.free(range);
+        }
+
+        ArenaAllocator.Range newRange = this.allocator.allocate(size);
+
+        if (newRange == null) {
+            this.reallocate(size);
+            newRange = this.allocator.allocate(size);
+        }
+
+        this.write(newRange, data);
+
+        return newRange;
+    }
+
+    public void free(ArenaAllocator.Range range) {
+        this.allocator.free(range);
+    }
+
+    public void markUsed(ArenaAllocator.Range range) {
+        this.allocator.markUsed(range);
+    }
+
+    public void beginFrame(long frame) {
+        this.allocator.beginFrame(frame);
+    }
+
+    public void retireFrames(long frame) {
+        this.allocator.retireFrames(frame);
+    }
+
+    private void write(ArenaAllocator.Range range, ByteBuffer data) {
+        int size = data.remaining();
+        int offset = range.getOffset();
+
+        if (size == 0)
+            return;
+
+        this.allocator.markWritten(range);
+
+        if (this.buffer.type.mappable()) {
+            MemoryUtil.memCopy(MemoryUtil.memAddress(data), this.buffer.data.get(0) + offset, size);
+        } else {
+            StagingBuffer stagingBuffer = Vulkan.getStagingBuffer();
+            stagingBuffer.copyBuffer(size, data);
+
+            DeviceManager.getTransferQueue().copyBufferCmd(stagingBuffer.getId(), stagingBuffer.getOffset(), this.buffer.getId(), offset, size);
+        }
+    }
+
+    private void reallocate(int uploadSize) {
+        int newSize = this.allocator.grow(uploadSize);
+        T dst = this.bufferFactory.apply(newSize);
+
+        // Pending writes to the old buffer must complete before it's copied
+        Synchronization.INSTANCE.waitFences();
+
+        if (this.buffer.type.mappable())
+            MemoryUtil.memCopy(this.buffer.data.get(0), dst.data.get(0), this.buffer.getBufferSize());
+        else
+            // Waits for the copy, writes following it might overlap the copied region
+            DeviceManager.getTransferQueue().uploadBufferImmediate(this.buffer.getId(), 0, dst.getId(), 0, this.buffer.getBufferSize());
+
+        // Frames in flight might still read the old buffer
+        this.buffer.freeBuffer();
+        this.buffer = dst;
+    }
+
+    public T getBuffer() {
+        return this.buffer;
+    }
+
+    public int getSize() {
+        return this.allocator.getSize();
+    }
+
+    public int getUsed() {
+        return this.allocator.getUsed();
+    }
+
+    public void cleanUp() {
+        MemoryManager.freeBuffer(this.buffer.getId(), this.buffer.getAllocation());
+    }
+}
@@ -0,0 +1,159 @@
+package net.vulkanmod.vulkan.memory;
+
+import java.util.ArrayDeque;
+
+/**
+ * Offset bookkeeping of a ring buffer whose allocations are grouped in tagged regions.
+ * <p>
+ * Allocations are made at the head and belong to the region opened by the last {@link #beginRegion(long)} call.
+ * Tags (e.g. frame indices) are expected to increase, {@link #retire(long)} releases regions
+ * from the oldest one, once the GPU work using them has completed.
+ */
+public class RingAllocator {
+    private final int size;
+
+    private int head = 0;
+    private int tail = 0;
+    private int used = 0;
+
+    private final ArrayDeque<Region> regions = new ArrayDeque<>();
+
+    private long currentTag = Long.MIN_VALUE;
+    private int currentBytes = 0;
+
+    public RingAllocator(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Size must be positive: " + size);
+
+        this.size = size;
+    }
+
+    /**
+     * Closes the current region and opens a new one with the given tag.
+     * Nothing happens if the tag is the current one.
+     */
+    public void beginRegion(long tag) {
+        if (tag == this.currentTag)
+            return;
+
+        closeRegion();
+        this.currentTag = tag;
+    }
+
+    /**
+     * @return the offset of {@code size} bytes aligned to {@code alignment},
+     * or -1 if there's not enough contiguous space left before the oldest live region
+     */
+    public int allocate(int size, int alignment) {
+        if (size < 0 || alignment <= 0)
+            throw new IllegalArgumentException("Invalid allocation: size %d alignment %d".formatted(size, alignment));
+
+        if (size > this.size)
+            return -1;
+
+        if (this.used == 0) {
+            // Empty ring, restart from the beginning to get the largest contiguous space
+            this.head = 0;
+            this.tail = 0;
+        }
+
+        int offset = align(this.head, alignment);
+
+        if (this.used == 0 || this.head > this.tail) {
+            // Free space is [head, size) followed by [0, tail)
+            if ((long) offset + size <= this.size) {
+                return take(offset, size);
+            }
+
+            // Skip the end of the buffer and wrap around
+            if (size <= this.tail) {
+                this.used += this.size - this.head;
+                this.currentBytes += this.size - this.head;
+                this.head = 0;
+
+                return take(0, size);
+            }
+
+            return -1;
+        }
+
+        // Wrapped, free space is [head, tail)
+        if ((long) offset + size <= this.tail)
+            return take(offset, size);
+
+        return -1;
+    }
+
+    private int take(int offset, int size) {
+        int bytes = offset + size - this.head;
+
+        this.head = offset + size;
+        this.used += bytes;
+        this.currentBytes += bytes;
+
+        // Keep head inside the buffer, a full ring is told apart from an empty one by the used bytes
+        if (this.head == this.size)
+            this.head = 0;
+
+        return offset;
+    }
+
+    /**
+     * Releases every region with a tag lower or equal to {@code tag}, stopping at the first newer one.
+     */
+    public void retire(long tag) {
+        if (this.currentTag <= tag)
+            closeRegion();
+
+        while (!this.regions.isEmpty() && this.regions.peekFirst().tag <= tag) {
+            release(this.regions.pollFirst());
+        }
+    }
+
+    /**
+     * Releases every region, including the current one.
+     */
+    public void retireAll() {
+        closeRegion();
+
+        while (!this.regions.isEmpty()) {
+            release(this.regions.pollFirst());
+        }
+    }
+
+    private void closeRegion() {
+        if (this.currentBytes == 0)
+            return;
+
+        this.regions.addLast(new Region(this.currentTag, this.head, this.currentBytes));
+        this.currentBytes = 0;
+    }
+
+    private void release(Region region) {
+        this.tail = region.end;
+        this.used -= region.bytes;
+    }
+
+    private static int align(int offset, int alignment) {
+        int r = offset % alignment;
+        return r != 0 ? offset + alignment - r : offset;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public int getUsed() {
+        return this.used;
+    }
+
+    public int getHead() {
+        return this.head;
+    }
+
+    public int getRegionCount() {
+        return this.regions.size() + (this.currentBytes > 0 ? 1 : 0);
+    }
+
+    record Region(long tag, int end, int bytes) {}
+}
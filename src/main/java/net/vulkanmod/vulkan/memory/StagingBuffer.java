@@ -1,7 +1,6 @@
 package net.vulkanmod.vulkan.memory;
 
-import net.vulkanmod.render.chunk.util.Util;
-import net.vulkanmod.vulkan.util.VUtil;
+import net.vulkanmod.Initializer;
 import org.lwjgl.system.MemoryUtil;
 
 import java.nio.ByteBuffer;
@@ -9,7 +8,16 @@ import java.nio.ByteBuffer;
 import static org.lwjgl.system.libc.LibCString.nmemcpy;
 import static org.lwjgl.vulkan.VK10.*;
 
+/**
+ * Host visible ring buffer used as source of buffer and image uploads.
+ * Copies made during a frame are tagged with its index and the space is reused
+ * once the frame has retired, the buffer only grows if a single frame needs more than its size.
+ */
 public class StagingBuffer extends Buffer {
+    private RingAllocator ring;
+    private long frame;
+
+    private int alignment = 1;
 
     public StagingBuffer(int bufferSize) {
         super(VK_BUFFER_USAGE_TRANSFER_SRC_BIT, MemoryTypes.HOST_MEM);
@@ -17,37 +25,61 @@ public class StagingBuffer extends Buffer {
         this.offset = 0;
 
         this.createBuffer(bufferSize);
+        this.ring = new RingAllocator(bufferSize);
     }
 
     public void copyBuffer(int size, ByteBuffer byteBuffer) {
+        int offset = this.ring.allocate(size, this.alignment);
 
-        if(size > this.bufferSize - this.usedBytes) {
-            resizeBuffer((this.bufferSize + size) * 2);
+        if (offset == -1) {
+            resizeBuffer(Math.max(this.bufferSize * 2, size * 2));
+            offset = this.ring.allocate(size, this.alignment);
         }
 
-//        VUtil.memcpy(byteBuffer, this.data.getByteBuffer(0, this.bufferSize), this.usedBytes);
-        nmemcpy(this.data.get(0) + this.usedBytes, MemoryUtil.memAddress(byteBuffer), size);
-
-        offset = usedBytes;
-        usedBytes += size;
+        nmemcpy(this.data.get(0) + offset, MemoryUtil.memAddress(byteBuffer), size);
 
-        //createVertexBuffer(vertexSize, vertexCount, byteBuffer);
+        this.offset = offset;
+        this.usedBytes = this.ring.getUsed();
+        this.alignment = 1;
     }
 
+    /**
+     * Aligns the offset of the next copy.
+     */
     public void align(int alignment) {
-        int alignedValue = Util.align(usedBytes, alignment);
+        this.alignment = Math.max(alignment, 1);
+    }
 
-        if(alignedValue > this.bufferSize) {
-            resizeBuffer((this.bufferSize) * 2);
-        }
+    /**
+     * Copies made from now on are released by {@link #retireFrames(long)} with a frame index of at least {@code frame}.
+     */
+    public void beginFrame(long frame) {
+        this.frame = frame;
+        this.ring.beginRegion(frame);
+    }
 
-        usedBytes = alignedValue;
+    /**
+     * Releases the space of copies made up to {@code frame}, whose commands must have completed.
+     */
+    public void retireFrames(long frame) {
+        this.ring.retire(frame);
+        this.usedBytes = this.ring.getUsed();
+    }
+
+    @Override
+    public void reset() {
+        this.ring.retireAll();
+        this.usedBytes = 0;
     }
 
     private void resizeBuffer(int newSize) {
+        // In flight copies still read from the old buffer, it gets freed once the current frame has retired
         MemoryManager.getInstance().addToFreeable(this);
         this.createBuffer(newSize);
 
-        System.out.println("resized staging buffer to: " + newSize);
+        this.ring = new RingAllocator(newSize);
+        this.ring.beginRegion(this.frame);
+
+        Initializer.LOGGER.info("Resized staging buffer to: {}", newSize);
     }
 }
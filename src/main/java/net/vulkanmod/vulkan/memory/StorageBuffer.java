@@ -11,7 +11,11 @@ public class StorageBuffer extends Buffer {
     }
 
     public StorageBuffer(int size, MemoryType type) {
-        super(VK_BUFFER_USAGE_STORAGE_BUFFER_BIT, type);
+        this(size, type, 0);
+    }
+
+    public StorageBuffer(int size, MemoryType type, int additionalUsage) {
+        super(VK_BUFFER_USAGE_STORAGE_BUFFER_BIT | additionalUsage, type);
         this.createBuffer(size);
 
     }
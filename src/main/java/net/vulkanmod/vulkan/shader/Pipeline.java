@@ -38,11 +38,16 @@ public abstract class Pipeline {
     protected static final long PIPELINE_CACHE = createPipelineCache();
 
     private static long createPipelineCache() {
+        ByteBuffer initialData = PipelineCacheData.load(DeviceManager.deviceProperties);
+
         try (MemoryStack stack = stackPush()) {
 
             VkPipelineCacheCreateInfo cacheCreateInfo = VkPipelineCacheCreateInfo.calloc(stack);
             cacheCreateInfo.sType(VK_STRUCTURE_TYPE_PIPELINE_CACHE_CREATE_INFO);
 
+            if (initialData != null)
+                cacheCreateInfo.pInitialData(initialData);
+
             LongBuffer pPipelineCache = stack.mallocLong(1);
 
             if (vkCreatePipelineCache(DEVICE, cacheCreateInfo, null, pPipelineCache) != VK_SUCCESS) {
@@ -50,10 +55,15 @@ public abstract class Pipeline {
             }
 
             return pPipelineCache.get(0);
+        } finally {
+            if (initialData != null)
+                MemoryUtil.memFree(initialData);
         }
     }
 
     public static void destroyPipelineCache() {
+        PipelineCacheData.save(DEVICE, PIPELINE_CACHE);
+
         vkDestroyPipelineCache(DEVICE, PIPELINE_CACHE, null);
     }
 
@@ -254,7 +264,7 @@ public abstract class Pipeline {
         DescriptorSets(Pipeline pipeline) {
             this.pipeline = pipeline;
             this.boundTextures = new ImageDescriptor.State[pipeline.imageDescriptors.size()];
-            this.dynamicOffsets = MemoryUtil.memAllocInt(pipeline.descriptors.size());
+            this.dynamicOffsets = MemoryUtil.memCallocInt(pipeline.descriptors.size());
             this.boundBuffers = new long[pipeline.descriptors.size()];
 
             Arrays.setAll(boundTextures, i -> new ImageDescriptor.State(0, 0));
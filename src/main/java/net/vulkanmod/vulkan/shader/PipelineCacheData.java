@@ -0,0 +1,134 @@
+package net.vulkanmod.vulkan.shader;
+
+import net.vulkanmod.Initializer;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.vulkan.VkDevice;
+import org.lwjgl.vulkan.VkPhysicalDeviceProperties;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import static org.lwjgl.vulkan.VK10.*;
+
+/**
+ * Persists the contents of the pipeline cache across runs.
+ * Cache blobs start with a {@code VK_PIPELINE_CACHE_HEADER_VERSION_ONE} header, a blob is only
+ * handed to the driver if the header matches the current device.
+ */
+public class PipelineCacheData {
+    static final int HEADER_SIZE = 16 + VK_UUID_SIZE;
+
+    private static Path cacheFile;
+
+    public static void setCacheFile(Path path) {
+        cacheFile = path;
+    }
+
+    public record Header(int headerSize, int headerVersion, int vendorId, int deviceId, byte[] pipelineCacheUUID) {
+
+        public boolean matches(int vendorId, int deviceId, byte[] pipelineCacheUUID) {
+            return this.headerVersion == VK_PIPELINE_CACHE_HEADER_VERSION_ONE
+                    && this.vendorId == vendorId
+                    && this.deviceId == deviceId
+                    && Arrays.equals(this.pipelineCacheUUID, pipelineCacheUUID);
+        }
+    }
+
+    /**
+     * @return the parsed header or null if the data is too short to hold one
+     */
+    public static Header parseHeader(ByteBuffer data) {
+        if (data.remaining() < HEADER_SIZE)
+            return null;
+
+        // Header fields are little endian on every host
+        ByteBuffer buffer = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        int headerSize = buffer.getInt(0);
+        int headerVersion = buffer.getInt(4);
+        int vendorId = buffer.getInt(8);
+        int deviceId = buffer.getInt(12);
+
+        byte[] uuid = new byte[VK_UUID_SIZE];
+        buffer.get(16, uuid);
+
+        if (headerSize < HEADER_SIZE || headerSize > data.remaining())
+            return null;
+
+        return new Header(headerSize, headerVersion, vendorId, deviceId, uuid);
+    }
+
+    public static boolean isCompatible(ByteBuffer data, int vendorId, int deviceId, byte[] pipelineCacheUUID) {
+        Header header = parseHeader(data);
+        return header != null && header.matches(vendorId, deviceId, pipelineCacheUUID);
+    }
+
+    /**
+     * Reads the cache file, returns null if missing or not compatible with the given device.
+     * The returned buffer has to be freed with {@link MemoryUtil#memFree}.
+     */
+    public static ByteBuffer load(VkPhysicalDeviceProperties properties) {
+        if (cacheFile == null || !Files.exists(cacheFile))
+            return null;
+
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(cacheFile);
+        } catch (IOException e) {
+            Initializer.LOGGER.warn("Unable to read pipeline cache", e);
+            return null;
+        }
+
+        byte[] uuid = new byte[VK_UUID_SIZE];
+        properties.pipelineCacheUUID().get(0, uuid);
+
+        if (!isCompatible(ByteBuffer.wrap(bytes), properties.vendorID(), properties.deviceID(), uuid)) {
+            Initializer.LOGGER.info("Discarding pipeline cache created by a different device or driver");
+            return null;
+        }
+
+        ByteBuffer data = MemoryUtil.memAlloc(bytes.length);
+        data.put(0, bytes);
+
+        return data;
+    }
+
+    public static void save(VkDevice device, long pipelineCache) {
+        if (cacheFile == null)
+            return;
+
+        ByteBuffer data = null;
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer pDataSize = stack.mallocPointer(1);
+
+            if (vkGetPipelineCacheData(device, pipelineCache, pDataSize, null) != VK_SUCCESS)
+                return;
+
+            data = MemoryUtil.memAlloc((int) pDataSize.get(0));
+
+            if (vkGetPipelineCacheData(device, pipelineCache, pDataSize, data) != VK_SUCCESS)
+                return;
+
+            byte[] bytes = new byte[(int) pDataSize.get(0)];
+            data.get(0, bytes);
+
+            Files.createDirectories(cacheFile.getParent());
+
+            Path tmpFile = Files.createTempFile(cacheFile.getParent(), "pipeline_cache", ".tmp");
+            Files.write(tmpFile, bytes);
+            Files.move(tmpFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Initializer.LOGGER.warn("Unable to write pipeline cache", e);
+        } finally {
+            if (data != null)
+                MemoryUtil.memFree(data);
+        }
+    }
+}
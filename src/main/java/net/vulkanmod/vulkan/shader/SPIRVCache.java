@@ -0,0 +1,175 @@
+package net.vulkanmod.vulkan.shader;
+
+import net.vulkanmod.Initializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Content addressed on-disk cache of compiled SPIR-V binaries.
+ * Entries are keyed by a hash of everything that affects the compiler output
+ * and are validated with a checksum when read back, corrupt entries are discarded.
+ */
+public class SPIRVCache {
+    private static final int MAGIC = 0x56535056; // VSPV
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 20;
+
+    private static final int SPIRV_MAGIC = 0x07230203;
+
+    private static final String EXTENSION = ".spv";
+
+    private final Path directory;
+
+    private int hits, misses;
+
+    public SPIRVCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param includes name and content of each file included (directly or not) by the source
+     * @param options  description of the compiler configuration
+     */
+    public static String computeKey(String source, int shaderKind, List<String> includes, String options) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        updateDigest(digest, options);
+        digest.update(ByteBuffer.allocate(4).putInt(0, shaderKind));
+        updateDigest(digest, source);
+
+        for (String include : includes) {
+            updateDigest(digest, include);
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void updateDigest(MessageDigest digest, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+        // Length prefix avoids ambiguities when concatenating
+        digest.update(ByteBuffer.allocate(4).putInt(0, bytes.length));
+        digest.update(bytes);
+    }
+
+    /**
+     * @return the cached SPIR-V binary or null on a miss or an invalid entry
+     */
+    public byte[] load(String key) {
+        Path path = getEntryPath(key);
+
+        if (!Files.exists(path)) {
+            this.misses++;
+            return null;
+        }
+
+        try {
+            byte[] spirv = decode(Files.readAllBytes(path));
+
+            if (spirv != null) {
+                this.hits++;
+                return spirv;
+            }
+
+            Initializer.LOGGER.warn(String.format("Discarding corrupt SPIR-V cache entry %s", path.getFileName()));
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            Initializer.LOGGER.warn(String.format("Unable to read SPIR-V cache entry %s", path.getFileName()), e);
+        }
+
+        this.misses++;
+        return null;
+    }
+
+    public void store(String key, ByteBuffer spirv) {
+        byte[] bytes = new byte[spirv.remaining()];
+        spirv.get(spirv.position(), bytes);
+
+        Path path = getEntryPath(key);
+
+        try {
+            Files.createDirectories(this.directory);
+
+            // Write to a temporary file first so that a partially written entry is never visible
+            Path tmpPath = Files.createTempFile(this.directory, key, ".tmp");
+            Files.write(tmpPath, encode(bytes));
+            Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Initializer.LOGGER.warn(String.format("Unable to write SPIR-V cache entry %s", path.getFileName()), e);
+        }
+    }
+
+    static byte[] encode(byte[] spirv) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + spirv.length).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(spirv.length);
+        buffer.putLong(checksum(spirv));
+        buffer.put(spirv);
+
+        return buffer.array();
+    }
+
+    static byte[] decode(byte[] data) {
+        if (data.length < HEADER_SIZE)
+            return null;
+
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION)
+            return null;
+
+        int length = buffer.getInt();
+        long checksum = buffer.getLong();
+
+        if (length != data.length - HEADER_SIZE || length < 4 || length % 4 != 0)
+            return null;
+
+        byte[] spirv = new byte[length];
+        buffer.get(spirv);
+
+        if (checksum(spirv) != checksum)
+            return null;
+
+        // SPIR-V is a stream of words in host endianness, shaderc output is little endian
+        if (ByteBuffer.wrap(spirv).order(ByteOrder.LITTLE_ENDIAN).getInt(0) != SPIRV_MAGIC)
+            return null;
+
+        return spirv;
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes);
+        return crc32.getValue();
+    }
+
+    Path getEntryPath(String key) {
+        return this.directory.resolve(key + EXTENSION);
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+}
@@ -1,6 +1,7 @@
 package net.vulkanmod.vulkan.shader;
 
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.lwjgl.Version;
 import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 import org.lwjgl.system.NativeResource;
@@ -18,6 +19,11 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.lwjgl.system.MemoryUtil.NULL;
 import static org.lwjgl.system.MemoryUtil.memASCII;
@@ -37,6 +43,11 @@ public class SPIRVUtils {
 
     private static ObjectArrayList<String> includePaths;
 
+    private static final Pattern INCLUDE_PATTERN = Pattern.compile("^\\s*#\\s*include\\s+[<\"]([^>\"]+)[>\"]", Pattern.MULTILINE);
+
+    private static SPIRVCache cache;
+    private static String optionsDescription;
+
     private static float time = 0.0f;
 
     static {
@@ -67,6 +78,18 @@ public class SPIRVUtils {
 
         includePaths = new ObjectArrayList<>();
         addIncludePath("/assets/vulkanmod/shaders/include/");
+
+        // Anything that changes compiler output must be part of the cache key
+        optionsDescription = String.format("lwjgl=%s;optimizations=%b;debug=%b;env=%d;api=%d",
+                Version.getVersion(), OPTIMIZATIONS, DEBUG, shaderc_env_version_vulkan_1_2, VK12.VK_API_VERSION_1_2);
+    }
+
+    public static void setCacheDirectory(Path directory) {
+        cache = directory != null ? new SPIRVCache(directory) : null;
+    }
+
+    public static SPIRVCache getCache() {
+        return cache;
     }
 
     public static void addIncludePath(String path) {
@@ -89,6 +112,17 @@ public class SPIRVUtils {
     public static SPIRV compileShader(String filename, String source, ShaderKind shaderKind) {
         long startTime = System.nanoTime();
 
+        String key = null;
+        if (cache != null) {
+            key = SPIRVCache.computeKey(source, shaderKind.kind, collectIncludes(source), optionsDescription);
+
+            byte[] bytes = cache.load(key);
+            if (bytes != null) {
+                time += (System.nanoTime() - startTime) / 1000000.0f;
+                return fromBytes(bytes);
+            }
+        }
+
         long result = shaderc_compile_into_spv(compiler, source, shaderKind.kind, filename, "main", options);
 
         if(result == NULL) {
@@ -99,9 +133,69 @@ public class SPIRVUtils {
             throw new RuntimeException("Failed to compile shader " + filename + " into SPIR-V:\n" + shaderc_result_get_error_message(result));
         }
 
+        ByteBuffer bytecode = shaderc_result_get_bytes(result);
+
+        if (cache != null)
+            cache.store(key, bytecode);
+
         time += (System.nanoTime() - startTime) / 1000000.0f;
 
-        return new SPIRV(result, shaderc_result_get_bytes(result));
+        return new SPIRV(result, bytecode);
+    }
+
+    /**
+     * Collects name and content of every file reachable through #include directives.
+     */
+    static List<String> collectIncludes(String source) {
+        List<String> includes = new ObjectArrayList<>();
+        collectIncludes(source, new HashSet<>(), includes);
+        return includes;
+    }
+
+    private static void collectIncludes(String source, Set<String> visited, List<String> includes) {
+        Matcher matcher = INCLUDE_PATTERN.matcher(source);
+
+        while (matcher.find()) {
+            String name = matcher.group(1);
+
+            if (!visited.add(name))
+                continue;
+
+            byte[] bytes = resolveInclude(name);
+
+            // Unresolved includes will fail compilation anyway
+            if (bytes == null)
+                continue;
+
+            String content = new String(bytes);
+            includes.add(name);
+            includes.add(content);
+
+            collectIncludes(content, visited, includes);
+        }
+    }
+
+    private static byte[] resolveInclude(String name) {
+        try {
+            for (String includePath : includePaths) {
+                Path path = Paths.get(new URI(String.format("%s%s", includePath, name)));
+
+                if (Files.exists(path))
+                    return Files.readAllBytes(path);
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+
+        return null;
+    }
+
+    private static SPIRV fromBytes(byte[] bytes) {
+        ByteBuffer buffer = MemoryUtil.memAlloc(bytes.length);
+        buffer.put(bytes);
+        buffer.position(0);
+
+        return new SPIRV(MemoryUtil.memAddress(buffer), buffer);
     }
 
     private static SPIRV readFromStream(InputStream inputStream) {
@@ -140,23 +234,15 @@ public class SPIRVUtils {
             var requesting = memASCII(requesting_source);
             var requested = memASCII(requested_source);
 
-            try(MemoryStack stack = MemoryStack.stackPush()) {
-                Path path;
-
-                for(String includePath : includePaths) {
-                    path = Paths.get(new URI(String.format("%s%s", includePath, requested)));
-
-                    if(Files.exists(path)) {
-                        byte[] bytes = Files.readAllBytes(path);
+            byte[] bytes = resolveInclude(requested);
 
-                        return ShadercIncludeResult.malloc(stack)
-                                .source_name(stack.ASCII(requested))
-                                .content(stack.bytes(bytes))
-                                .user_data(user_data).address();
-                    }
+            if (bytes != null) {
+                try(MemoryStack stack = MemoryStack.stackPush()) {
+                    return ShadercIncludeResult.malloc(stack)
+                            .source_name(stack.ASCII(requested))
+                            .content(stack.bytes(bytes))
+                            .user_data(user_data).address();
                 }
-            } catch (IOException | URISyntaxException e) {
-                throw new RuntimeException(e);
             }
 
             throw new RuntimeException(String.format("%s: Unable to find %s in include paths", requesting, requested));
@@ -0,0 +1,175 @@
+package net.vulkanmod.compute;
+
+import net.vulkanmod.config.Platform;
+import net.vulkanmod.vulkan.Vulkan;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Validates the compute pass against {@link SectionCulling#cull}, skipped when no Vulkan device is available.
+ */
+public class SectionCullingPassTest {
+    private static final int CAPACITY = 4096;
+
+    // Boxes this close to a plane may be classified differently on the GPU
+    private static final float EPSILON = 1.0e-3f;
+
+    @Test
+    public void matchesReference() {
+        assumeTrue(initVulkan(), "No Vulkan device available");
+
+        Random random = new Random(7);
+        ComputeManager computeManager = new ComputeManager();
+        SectionCullingPass pass = new SectionCullingPass(computeManager, CAPACITY);
+
+        ByteBuffer reference = MemoryUtil.memAlloc(SectionCulling.getBufferSize(CAPACITY));
+        long refPtr = MemoryUtil.memAddress0(reference);
+
+        for (int iteration = 0; iteration < 8; ++iteration) {
+            float[] planes = new float[SectionCulling.PLANES * 4];
+            for (int p = 0; p < SectionCulling.PLANES; ++p) {
+                planes[p * 4] = random.nextFloat() - 0.5f;
+                planes[p * 4 + 1] = random.nextFloat() - 0.5f;
+                planes[p * 4 + 2] = random.nextFloat() - 0.5f;
+                planes[p * 4 + 3] = random.nextFloat() * 200.0f;
+            }
+
+            pass.setPlanes(planes);
+            SectionCulling.setPlanes(refPtr, planes);
+
+            int sectionCount = CAPACITY - random.nextInt(CAPACITY / 2);
+            boolean[] borderline = new boolean[sectionCount];
+
+            pass.begin();
+            for (int i = 0; i < sectionCount; ++i) {
+                float x = random.nextInt(64) * 16 - 512, y = random.nextInt(24) * 16 - 192, z = random.nextInt(64) * 16 - 512;
+                int indexCount = random.nextInt(8) == 0 ? 0 : (i + 1) * 6;
+                boolean wideIndices = random.nextInt(8) == 0;
+
+                pass.addSection(x, y, z, x + 16, y + 16, z + 16, indexCount, i * 6, i * 4, i, wideIndices);
+                SectionCulling.setSection(refPtr, i, x, y, z, x + 16, y + 16, z + 16, indexCount, i * 6, i * 4, i, wideIndices);
+
+                borderline[i] = isBorderline(planes, x, y, z);
+            }
+            SectionCulling.setSectionCount(refPtr, CAPACITY, sectionCount);
+
+            computeManager.waitForFrame(pass.dispatch());
+            int refDrawCount = SectionCulling.cull(refPtr);
+
+            // GPU commands are in any order, compare them sorted by section, baseInstance being the section index
+            long[] gpuCommands = sortedCommands(pass.getCommand(0), pass.getDrawCount(), borderline);
+            long[] refCommands = sortedCommands(SectionCulling.getCommand(refPtr, CAPACITY, 0), refDrawCount, borderline);
+
+            assertArrayEquals(refCommands, gpuCommands);
+        }
+
+        MemoryUtil.memFree(reference);
+        pass.cleanUp();
+    }
+
+    @Test
+    public void drawCountBufferMatchesReference() {
+        assumeTrue(initVulkan(), "No Vulkan device available");
+        assumeTrue(SectionCullingPass.usesDrawCountBuffer(), "drawIndirectCount not supported");
+
+        ComputeManager computeManager = new ComputeManager();
+        SectionCullingPass pass = new SectionCullingPass(computeManager, CAPACITY);
+
+        ByteBuffer reference = MemoryUtil.memAlloc(SectionCulling.getBufferSize(CAPACITY));
+        long refPtr = MemoryUtil.memAddress0(reference);
+
+        // Camera relative box frustum, from -256 to 256 on every axis
+        float[] planes = {
+                1, 0, 0, 256,
+                -1, 0, 0, 256,
+                0, 1, 0, 256,
+                0, -1, 0, 256,
+                0, 0, 1, 256,
+                0, 0, -1, 256
+        };
+        pass.setPlanes(planes);
+        SectionCulling.setPlanes(refPtr, planes);
+
+        // Every section visible: the count read by vkCmdDrawIndexedIndirectCount is capped by the capacity
+        pass.begin();
+        for (int i = 0; i < CAPACITY; ++i) {
+            float x = (i & 15) * 16 - 128, y = ((i >> 4) & 15) * 16 - 128, z = (i >> 8) * 16 - 128;
+
+            pass.addSection(x, y, z, x + 16, y + 16, z + 16, 6, i * 6, i * 4, i, false);
+            SectionCulling.setSection(refPtr, i, x, y, z, x + 16, y + 16, z + 16, 6, i * 6, i * 4, i, false);
+        }
+        SectionCulling.setSectionCount(refPtr, CAPACITY, CAPACITY);
+
+        computeManager.waitForFrame(pass.dispatch());
+
+        // Same word the draw reads at DRAW_COUNT_OFFSET, with the capacity as maxDrawCount
+        int drawCount = pass.getDrawCount();
+        assertEquals(SectionCulling.cull(refPtr), drawCount);
+        assertEquals(CAPACITY, drawCount);
+
+        boolean[] borderline = new boolean[CAPACITY];
+        assertArrayEquals(sortedCommands(SectionCulling.getCommand(refPtr, CAPACITY, 0), drawCount, borderline),
+                sortedCommands(pass.getCommand(0), drawCount, borderline));
+
+        MemoryUtil.memFree(reference);
+        pass.cleanUp();
+    }
+
+    private static Boolean vulkanAvailable;
+
+    // Headless init isn't repeatable, done once for every test
+    private static boolean initVulkan() {
+        if (vulkanAvailable == null) {
+            try {
+                Platform.init();
+                Vulkan.initHeadless();
+                vulkanAvailable = true;
+            } catch (Throwable e) {
+                vulkanAvailable = false;
+            }
+        }
+
+        return vulkanAvailable;
+    }
+
+    private static boolean isBorderline(float[] planes, float x, float y, float z) {
+        for (int p = 0; p < SectionCulling.PLANES; ++p) {
+            float a = planes[p * 4], b = planes[p * 4 + 1], c = planes[p * 4 + 2];
+            float far = a * (a < 0 ? x : x + 16) + b * (b < 0 ? y : y + 16) + c * (c < 0 ? z : z + 16);
+
+            if (Math.abs(far + planes[p * 4 + 3]) < EPSILON * Math.max(1.0f, Math.abs(planes[p * 4 + 3])))
+                return true;
+        }
+
+        return false;
+    }
+
+    // Packs index count and section index of each command, dropping borderline sections
+    private static long[] sortedCommands(long ptr, int drawCount, boolean[] borderline) {
+        long[] commands = new long[drawCount];
+        int count = 0;
+
+        for (int i = 0; i < drawCount; ++i) {
+            long command = ptr + (long) i * SectionCulling.COMMAND_SIZE;
+            int section = MemoryUtil.memGetInt(command + 16);
+
+            assertEquals(1, MemoryUtil.memGetInt(command + 4));
+            assertEquals(section * 6, MemoryUtil.memGetInt(command + 8));
+            assertEquals(section * 4, MemoryUtil.memGetInt(command + 12));
+
+            if (!borderline[section])
+                commands[count++] = ((long) section << 32) | MemoryUtil.memGetInt(command);
+        }
+
+        long[] result = Arrays.copyOf(commands, count);
+        Arrays.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,156 @@
+package net.vulkanmod.compute;
+
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SectionCullingTest {
+    // Box frustum from -32 to 32 on every axis
+    private static final float[] BOX_PLANES = {
+            1, 0, 0, 32,
+            -1, 0, 0, 32,
+            0, 1, 0, 32,
+            0, -1, 0, 32,
+            0, 0, 1, 32,
+            0, 0, -1, 32
+    };
+
+    @Test
+    public void compactsVisibleSections() {
+        int capacity = 8;
+        ByteBuffer buffer = MemoryUtil.memAlloc(SectionCulling.getBufferSize(capacity));
+        long ptr = MemoryUtil.memAddress0(buffer);
+
+        SectionCulling.setPlanes(ptr, BOX_PLANES);
+        // Inside
+        SectionCulling.setSection(ptr, 0, -8, -8, -8, 8, 8, 8, 6, 0, 100, 1, false);
+        // Outside of +x
+        SectionCulling.setSection(ptr, 1, 40, -8, -8, 56, 8, 8, 12, 6, 200, 2, false);
+        // Crossing -z
+        SectionCulling.setSection(ptr, 2, -8, -8, -40, 8, 8, -24, 18, 18, 300, 3, false);
+        // Empty
+        SectionCulling.setSection(ptr, 3, -8, -8, -8, 8, 8, 8, 0, 36, 400, 4, false);
+        // Touching +y
+        SectionCulling.setSection(ptr, 4, -8, 32, -8, 8, 48, 8, 24, 36, 500, 5, false);
+        SectionCulling.setSectionCount(ptr, capacity, 5);
+
+        assertEquals(3, SectionCulling.cull(ptr));
+        assertEquals(3, SectionCulling.getDrawCount(ptr));
+
+        assertCommand(ptr, capacity, 0, 6, 0, 100, 1);
+        assertCommand(ptr, capacity, 1, 18, 18, 300, 3);
+        assertCommand(ptr, capacity, 2, 24, 36, 500, 5);
+
+        // Draw count is reset before each pass
+        SectionCulling.setSectionCount(ptr, capacity, 2);
+        assertEquals(0, SectionCulling.getDrawCount(ptr));
+        assertEquals(1, SectionCulling.cull(ptr));
+
+        MemoryUtil.memFree(buffer);
+    }
+
+    @Test
+    public void skipsWideIndexSections() {
+        int capacity = 4;
+        ByteBuffer buffer = MemoryUtil.memAlloc(SectionCulling.getBufferSize(capacity));
+        long ptr = MemoryUtil.memAddress0(buffer);
+
+        SectionCulling.setPlanes(ptr, BOX_PLANES);
+        SectionCulling.setSection(ptr, 0, -8, -8, -8, 8, 8, 8, 6, 0, 100, 1, false);
+        // Visible, but drawn with the 32 bit index buffer
+        SectionCulling.setSection(ptr, 1, -8, -8, -8, 8, 8, 8, 12, 6, 200, 2, true);
+        SectionCulling.setSection(ptr, 2, -8, -8, -8, 8, 8, 8, 18, 18, 300, 3, false);
+        SectionCulling.setSection(ptr, 3, -8, -8, -8, 8, 8, 8, 24, 36, 400, 4, true);
+        SectionCulling.setSectionCount(ptr, capacity, 4);
+
+        assertEquals(2, SectionCulling.cull(ptr));
+
+        assertCommand(ptr, capacity, 0, 6, 0, 100, 1);
+        assertCommand(ptr, capacity, 1, 18, 18, 300, 3);
+
+        // The flag doesn't change the box
+        SectionCulling.setSection(ptr, 1, -8, -8, -8, 8, 8, 8, 12, 6, 200, 2, false);
+        SectionCulling.setSectionCount(ptr, capacity, 4);
+        assertEquals(3, SectionCulling.cull(ptr));
+        assertCommand(ptr, capacity, 1, 12, 6, 200, 2);
+
+        MemoryUtil.memFree(buffer);
+    }
+
+    @Test
+    public void matchesBoxCornersTest() {
+        Random random = new Random(42);
+        int capacity = 256;
+        ByteBuffer buffer = MemoryUtil.memAlloc(SectionCulling.getBufferSize(capacity));
+        long ptr = MemoryUtil.memAddress0(buffer);
+
+        for (int iteration = 0; iteration < 20; ++iteration) {
+            float[] planes = new float[SectionCulling.PLANES * 4];
+            for (int i = 0; i < planes.length; ++i) {
+                planes[i] = (random.nextFloat() - 0.5f) * 2.0f;
+            }
+            // Planes far enough from the origin for some sections to be outside
+            for (int p = 0; p < SectionCulling.PLANES; ++p) {
+                planes[p * 4 + 3] = random.nextFloat() * 100.0f;
+            }
+            SectionCulling.setPlanes(ptr, planes);
+
+            float[][] boxes = new float[capacity][];
+            for (int i = 0; i < capacity; ++i) {
+                float x = random.nextInt(32) * 16 - 256, y = random.nextInt(32) * 16 - 256, z = random.nextInt(32) * 16 - 256;
+                boxes[i] = new float[]{x, y, z, x + 16, y + 16, z + 16};
+                SectionCulling.setSection(ptr, i, x, y, z, x + 16, y + 16, z + 16, i + 1, i * 6, i * 4, i, false);
+            }
+            SectionCulling.setSectionCount(ptr, capacity, capacity);
+
+            int drawCount = SectionCulling.cull(ptr);
+
+            int expected = 0;
+            for (int i = 0; i < capacity; ++i) {
+                if (isOutside(planes, boxes[i]))
+                    continue;
+
+                assertCommand(ptr, capacity, expected, i + 1, i * 6, i * 4, i);
+                ++expected;
+            }
+
+            assertEquals(expected, drawCount);
+        }
+
+        MemoryUtil.memFree(buffer);
+    }
+
+    // A box is outside if all its corners are outside of the same plane
+    private static boolean isOutside(float[] planes, float[] box) {
+        for (int p = 0; p < SectionCulling.PLANES; ++p) {
+            boolean outside = true;
+
+            for (int corner = 0; corner < 8; ++corner) {
+                float x = box[(corner & 1) != 0 ? 3 : 0];
+                float y = box[(corner & 2) != 0 ? 4 : 1];
+                float z = box[(corner & 4) != 0 ? 5 : 2];
+
+                if (planes[p * 4] * x + planes[p * 4 + 1] * y + planes[p * 4 + 2] * z >= -planes[p * 4 + 3])
+                    outside = false;
+            }
+
+            if (outside)
+                return true;
+        }
+
+        return false;
+    }
+
+    private static void assertCommand(long ptr, int capacity, int i, int indexCount, int firstIndex, int vertexOffset, int baseInstance) {
+        long command = SectionCulling.getCommand(ptr, capacity, i);
+        assertEquals(indexCount, MemoryUtil.memGetInt(command));
+        assertEquals(1, MemoryUtil.memGetInt(command + 4));
+        assertEquals(firstIndex, MemoryUtil.memGetInt(command + 8));
+        assertEquals(vertexOffset, MemoryUtil.memGetInt(command + 12));
+        assertEquals(baseInstance, MemoryUtil.memGetInt(command + 16));
+    }
+}
@@ -0,0 +1,190 @@
+package net.vulkanmod.render.chunk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkStatusMapTest {
+    private static final int RENDER_DISTANCE = 4;
+
+    @Test
+    public void neighbourhoodMustBeReady() {
+        ChunkStatusMap map = new ChunkStatusMap(RENDER_DISTANCE);
+
+        for (int z = -1; z <= 1; ++z) {
+            for (int x = -1; x <= 1; ++x) {
+                map.setChunkStatus(x, z, ChunkStatusMap.DATA_READY);
+            }
+        }
+        assertFalse(map.chunkRenderReady(0, 0));
+        assertEquals(0, map.getReadyNeighbours(0, 0));
+
+        for (int z = -1; z <= 1; ++z) {
+            for (int x = -1; x <= 1; ++x) {
+                if (x == 1 && z == 1)
+                    continue;
+                map.setChunkStatus(x, z, ChunkStatusMap.LIGHT_READY);
+            }
+        }
+        assertEquals(8, map.getReadyNeighbours(0, 0));
+        assertFalse(map.chunkRenderReady(0, 0));
+
+        map.setChunkStatus(1, 1, ChunkStatusMap.LIGHT_READY);
+        assertTrue(map.chunkRenderReady(0, 0));
+        assertEquals(ChunkStatusMap.ALL_FLAGS, map.getStatus(0, 0));
+        assertFalse(map.chunkRenderReady(1, 1));
+
+        // Setting a flag twice doesn't count the chunk twice
+        map.setChunkStatus(1, 1, ChunkStatusMap.DATA_READY);
+        assertEquals(ChunkStatusMap.NEIGHBOURHOOD, map.getReadyNeighbours(0, 0));
+
+        map.resetChunkStatus(-1, 0, ChunkStatusMap.DATA_READY);
+        assertFalse(map.chunkRenderReady(0, 0));
+        assertEquals(ChunkStatusMap.LIGHT_READY, map.getStatus(-1, 0));
+
+        map.resetChunkStatus(-1, 0, ChunkStatusMap.DATA_READY);
+        assertEquals(8, map.getReadyNeighbours(0, 0));
+    }
+
+    @Test
+    public void outOfRangeChunksAreIgnored() {
+        ChunkStatusMap map = new ChunkStatusMap(RENDER_DISTANCE);
+        int radius = map.getRadius();
+
+        map.setChunkStatus(radius + 1, 0, ChunkStatusMap.CHUNK_READY);
+        assertEquals(0, map.getStatus(radius + 1, 0));
+
+        // Aliases the cell of the out of range chunk
+        assertEquals(0, map.getStatus(radius + 1 - (radius * 2 + 1), 0));
+    }
+
+    @Test
+    public void recenterMatchesReference() {
+        Random random = new Random(0);
+        ChunkStatusMap map = new ChunkStatusMap(RENDER_DISTANCE);
+        Reference reference = new Reference(map.getRadius());
+
+        int centerX = 0, centerZ = 0;
+        for (int i = 0; i < 5000; ++i) {
+            if (random.nextInt(50) == 0) {
+                // Mostly single chunk steps, sometimes teleports
+                int step = random.nextInt(10) == 0 ? 40 : 1;
+                centerX += random.nextInt(step * 2 + 1) - step;
+                centerZ += random.nextInt(step * 2 + 1) - step;
+
+                map.setCenter(centerX, centerZ);
+                reference.setCenter(centerX, centerZ);
+            }
+
+            int x = centerX + random.nextInt(map.getRadius() * 2 + 3) - map.getRadius() - 1;
+            int z = centerZ + random.nextInt(map.getRadius() * 2 + 3) - map.getRadius() - 1;
+            byte flag = random.nextBoolean() ? ChunkStatusMap.DATA_READY : ChunkStatusMap.LIGHT_READY;
+
+            if (random.nextInt(4) == 0) {
+                map.resetChunkStatus(x, z, flag);
+                reference.reset(x, z, flag);
+            } else {
+                map.setChunkStatus(x, z, flag);
+                reference.set(x, z, flag);
+            }
+
+            if (i % 100 == 0)
+                assertMatches(reference, map);
+        }
+        assertMatches(reference, map);
+    }
+
+    @Test
+    public void resizeKeepsChunksInRange() {
+        ChunkStatusMap map = new ChunkStatusMap(RENDER_DISTANCE);
+        map.setCenter(10, -3);
+
+        int radius = map.getRadius();
+        for (int z = -3 - radius; z <= -3 + radius; ++z) {
+            for (int x = 10 - radius; x <= 10 + radius; ++x) {
+                map.setChunkStatus(x, z, ChunkStatusMap.CHUNK_READY);
+            }
+        }
+        assertTrue(map.chunkRenderReady(10 + radius - 1, -3));
+        assertFalse(map.chunkRenderReady(10 + radius, -3));
+
+        map.updateDistance(RENDER_DISTANCE + 2);
+        assertEquals(ChunkStatusMap.CHUNK_READY, map.getStatus(10 + radius, -3) & ChunkStatusMap.CHUNK_READY);
+        assertFalse(map.chunkRenderReady(10 + radius, -3));
+
+        map.setChunkStatus(10 + radius + 1, -4, ChunkStatusMap.CHUNK_READY);
+        map.setChunkStatus(10 + radius + 1, -3, ChunkStatusMap.CHUNK_READY);
+        map.setChunkStatus(10 + radius + 1, -2, ChunkStatusMap.CHUNK_READY);
+        assertTrue(map.chunkRenderReady(10 + radius, -3));
+
+        map.updateDistance(RENDER_DISTANCE);
+        assertEquals(0, map.getStatus(10 + radius + 1, -3));
+        assertTrue(map.chunkRenderReady(10 + radius - 1, -3));
+        assertFalse(map.chunkRenderReady(10 + radius, -3));
+    }
+
+    private static void assertMatches(Reference reference, ChunkStatusMap map) {
+        int radius = map.getRadius();
+        for (int z = reference.centerZ - radius; z <= reference.centerZ + radius; ++z) {
+            for (int x = reference.centerX - radius; x <= reference.centerX + radius; ++x) {
+                assertEquals(reference.get(x, z) & ChunkStatusMap.CHUNK_READY, map.getStatus(x, z) & ChunkStatusMap.CHUNK_READY);
+                assertEquals(reference.neighboursReady(x, z), map.chunkRenderReady(x, z), "Chunk " + x + ", " + z);
+            }
+        }
+    }
+
+    /**
+     * Hash map with bounds and brute force neighbour checks.
+     */
+    static class Reference {
+        final Map<Long, Byte> flags = new HashMap<>();
+        final int radius;
+        int centerX, centerZ;
+
+        Reference(int radius) {
+            this.radius = radius;
+        }
+
+        void setCenter(int x, int z) {
+            this.centerX = x;
+            this.centerZ = z;
+            this.flags.keySet().removeIf(key -> !this.inRange((int) (key >> 32), (int) (long) key));
+        }
+
+        void set(int x, int z, byte flag) {
+            if (this.inRange(x, z))
+                this.flags.merge(key(x, z), flag, (a, b) -> (byte) (a | b));
+        }
+
+        void reset(int x, int z, byte flag) {
+            if (this.inRange(x, z))
+                this.flags.computeIfPresent(key(x, z), (k, v) -> (byte) (v & ~flag));
+        }
+
+        byte get(int x, int z) {
+            return this.flags.getOrDefault(key(x, z), (byte) 0);
+        }
+
+        boolean neighboursReady(int x, int z) {
+            for (int z1 = z - 1; z1 <= z + 1; ++z1) {
+                for (int x1 = x - 1; x1 <= x + 1; ++x1) {
+                    if ((this.get(x1, z1) & ChunkStatusMap.CHUNK_READY) != ChunkStatusMap.CHUNK_READY)
+                        return false;
+                }
+            }
+            return true;
+        }
+
+        boolean inRange(int x, int z) {
+            return Math.abs(x - this.centerX) <= this.radius && Math.abs(z - this.centerZ) <= this.radius;
+        }
+
+        static long key(int x, int z) {
+            return ((long) x << 32) | (z & 0xFFFFFFFFL);
+        }
+    }
+}
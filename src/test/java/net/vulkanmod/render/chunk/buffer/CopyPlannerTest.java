@@ -0,0 +1,165 @@
+package net.vulkanmod.render.chunk.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CopyPlannerTest {
+    private static final long STAGING = 1;
+    private static final long A = 2;
+    private static final long B = 3;
+
+    @Test
+    public void mergesContiguousCopies() {
+        List<CopyPlanner.Batch> batches = CopyPlanner.plan(List.of(
+                copy(STAGING, 0, A, 100, 16),
+                copy(STAGING, 32, A, 132, 8),
+                copy(STAGING, 16, A, 116, 16),
+                // Contiguous source but not destination
+                copy(STAGING, 40, A, 200, 8)));
+
+        assertEquals(1, batches.size());
+
+        List<CopyPlanner.Group> groups = batches.get(0).groups();
+        assertEquals(1, groups.size());
+        assertEquals(List.of(
+                new CopyPlanner.Region(0, 100, 40),
+                new CopyPlanner.Region(40, 200, 8)), groups.get(0).regions());
+    }
+
+    @Test
+    public void groupsByBufferPair() {
+        List<CopyPlanner.Batch> batches = CopyPlanner.plan(List.of(
+                copy(STAGING, 0, A, 0, 16),
+                copy(STAGING, 16, B, 0, 16),
+                copy(STAGING, 32, A, 16, 16),
+                copy(A, 64, B, 64, 16)));
+
+        assertEquals(1, batches.size());
+
+        List<CopyPlanner.Group> groups = batches.get(0).groups();
+        assertEquals(3, groups.size());
+
+        // Interleaved with the copy to B, so not contiguous in the staging buffer
+        assertGroup(groups.get(0), STAGING, A, new CopyPlanner.Region(0, 0, 16), new CopyPlanner.Region(32, 16, 16));
+        assertGroup(groups.get(1), STAGING, B, new CopyPlanner.Region(16, 0, 16));
+        assertGroup(groups.get(2), A, B, new CopyPlanner.Region(64, 64, 16));
+    }
+
+    @Test
+    public void overlappingWritesNeedBarrier() {
+        List<CopyPlanner.Batch> batches = CopyPlanner.plan(List.of(
+                copy(STAGING, 0, A, 0, 32),
+                // Adjacent, no overlap
+                copy(STAGING, 32, A, 32, 32),
+                copy(STAGING, 64, A, 48, 8)));
+
+        assertEquals(2, batches.size());
+        assertGroup(batches.get(0).groups().get(0), STAGING, A, new CopyPlanner.Region(0, 0, 64));
+        // Later write must land after the first one
+        assertGroup(batches.get(1).groups().get(0), STAGING, A, new CopyPlanner.Region(64, 48, 8));
+    }
+
+    @Test
+    public void readAfterWriteNeedsBarrier() {
+        // Upload followed by a buffer reallocation copying the whole old buffer
+        List<CopyPlanner.Batch> batches = CopyPlanner.plan(List.of(
+                copy(STAGING, 0, A, 64, 32),
+                copy(A, 0, B, 0, 128),
+                copy(STAGING, 32, B, 128, 32)));
+
+        assertEquals(2, batches.size());
+        assertGroup(batches.get(0).groups().get(0), STAGING, A, new CopyPlanner.Region(0, 64, 32));
+
+        List<CopyPlanner.Group> groups = batches.get(1).groups();
+        assertGroup(groups.get(0), A, B, new CopyPlanner.Region(0, 0, 128));
+        assertGroup(groups.get(1), STAGING, B, new CopyPlanner.Region(32, 128, 32));
+    }
+
+    @Test
+    public void writeAfterReadNeedsBarrier() {
+        List<CopyPlanner.Batch> batches = CopyPlanner.plan(List.of(
+                copy(A, 0, B, 0, 64),
+                // Disjoint from the read range
+                copy(STAGING, 0, A, 64, 64),
+                copy(STAGING, 64, A, 32, 16)));
+
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).groups().size());
+        assertGroup(batches.get(1).groups().get(0), STAGING, A, new CopyPlanner.Region(64, 32, 16));
+    }
+
+    @Test
+    public void compactionMovesInSameBuffer() {
+        // Moves to earlier free ranges, the third one reuses the range freed by the first one
+        List<CopyPlanner.Batch> batches = CopyPlanner.plan(List.of(
+                copy(A, 512, A, 0, 64),
+                copy(A, 576, A, 64, 32),
+                copy(A, 1024, A, 512, 64)));
+
+        assertEquals(2, batches.size());
+        assertGroup(batches.get(0).groups().get(0), A, A, new CopyPlanner.Region(512, 0, 96));
+        assertGroup(batches.get(1).groups().get(0), A, A, new CopyPlanner.Region(1024, 512, 64));
+    }
+
+    @Test
+    public void batchesKeepCopyOrder() {
+        List<CopyPlanner.Copy> copies = new ArrayList<>();
+        // Same range written 3 times, only the last write must be visible
+        for (int i = 0; i < 3; i++) {
+            copies.add(copy(STAGING, i * 16, A, 0, 16));
+            copies.add(copy(STAGING, 100 + i * 16, B, i * 16, 16));
+        }
+
+        List<CopyPlanner.Batch> batches = CopyPlanner.plan(copies);
+        assertEquals(3, batches.size());
+
+        for (int i = 0; i < 3; i++) {
+            List<CopyPlanner.Group> groups = batches.get(i).groups();
+            assertGroup(groups.get(0), STAGING, A, new CopyPlanner.Region(i * 16, 0, 16));
+            assertGroup(groups.get(1), STAGING, B, new CopyPlanner.Region(100 + i * 16, i * 16, 16));
+        }
+    }
+
+    @Test
+    public void skipsEmptyCopies() {
+        assertTrue(CopyPlanner.plan(List.of()).isEmpty());
+        assertTrue(CopyPlanner.plan(List.of(copy(STAGING, 0, A, 0, 0))).isEmpty());
+    }
+
+    @Test
+    public void rangesJoinAdjacent() {
+        CopyPlanner.Ranges ranges = new CopyPlanner.Ranges();
+        ranges.add(10, 20);
+        ranges.add(30, 40);
+        ranges.add(20, 30);
+        ranges.add(50, 60);
+
+        assertEquals(2, ranges.ranges.size());
+        assertEquals(40, (long) ranges.ranges.get(10L));
+
+        assertFalse(ranges.overlaps(0, 10));
+        assertFalse(ranges.overlaps(40, 50));
+        assertTrue(ranges.overlaps(39, 41));
+        assertTrue(ranges.overlaps(0, 100));
+        assertTrue(ranges.overlaps(55, 56));
+
+        // Covers multiple ranges
+        ranges.add(5, 55);
+        assertEquals(1, ranges.ranges.size());
+        assertEquals(60, (long) ranges.ranges.get(5L));
+    }
+
+    private static void assertGroup(CopyPlanner.Group group, long src, long dst, CopyPlanner.Region... regions) {
+        assertEquals(src, group.src());
+        assertEquals(dst, group.dst());
+        assertEquals(List.of(regions), group.regions());
+    }
+
+    private static CopyPlanner.Copy copy(long src, long srcOffset, long dst, long dstOffset, long size) {
+        return new CopyPlanner.Copy(src, srcOffset, dst, dstOffset, size);
+    }
+}
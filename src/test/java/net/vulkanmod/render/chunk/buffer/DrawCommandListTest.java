@@ -0,0 +1,81 @@
+package net.vulkanmod.render.chunk.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DrawCommandListTest {
+
+    @Test
+    public void encodesIndexedIndirectCommands() {
+        DrawCommandList commandList = new DrawCommandList();
+        commandList.begin(4);
+        commandList.add(6, 0, 100, 0x010203);
+        commandList.add(12, 6, 0, 0x7F7F7F);
+        commandList.end(1, 1);
+
+        ByteBuffer commands = commandList.getCommands();
+        assertEquals(2, commandList.getDrawCount());
+        assertEquals(0, commands.position());
+        assertEquals(2 * DrawCommandList.COMMAND_SIZE, commands.remaining());
+
+        assertCommand(commands, 0, 6, 0, 100, 0x010203);
+        assertCommand(commands, 1, 12, 6, 0, 0x7F7F7F);
+
+        commandList.free();
+    }
+
+    @Test
+    public void growsAndKeepsOnlyNewCommands() {
+        DrawCommandList commandList = new DrawCommandList();
+        commandList.begin(1);
+        commandList.add(3, 0, 0, 0);
+        commandList.end(1, 1);
+
+        commandList.begin(64);
+        for (int i = 0; i < 64; ++i) {
+            commandList.add(i + 1, i * 6, i * 4, i);
+        }
+        commandList.end(2, 1);
+
+        ByteBuffer commands = commandList.getCommands();
+        assertEquals(64 * DrawCommandList.COMMAND_SIZE, commands.remaining());
+        for (int i = 0; i < 64; ++i) {
+            assertCommand(commands, i, i + 1, i * 6, i * 4, i);
+        }
+
+        commandList.free();
+    }
+
+    @Test
+    public void validUntilAVersionChanges() {
+        DrawCommandList commandList = new DrawCommandList();
+        assertFalse(commandList.isValid(0, 0));
+
+        commandList.begin(1);
+        assertFalse(commandList.isValid(0, 0));
+        commandList.end(3, 5);
+
+        assertTrue(commandList.isValid(3, 5));
+        assertFalse(commandList.isValid(4, 5));
+        assertFalse(commandList.isValid(3, 6));
+
+        commandList.invalidate();
+        assertFalse(commandList.isValid(3, 5));
+
+        commandList.free();
+    }
+
+    private static void assertCommand(ByteBuffer commands, int i, int indexCount, int firstIndex, int vertexOffset, int baseInstance) {
+        long ptr = MemoryUtil.memAddress(commands) + (long) i * DrawCommandList.COMMAND_SIZE;
+
+        assertEquals(indexCount, MemoryUtil.memGetInt(ptr));
+        assertEquals(1, MemoryUtil.memGetInt(ptr + 4));
+        assertEquals(firstIndex, MemoryUtil.memGetInt(ptr + 8));
+        assertEquals(vertexOffset, MemoryUtil.memGetInt(ptr + 12));
+        assertEquals(baseInstance, MemoryUtil.memGetInt(ptr + 16));
+    }
+}
@@ -0,0 +1,252 @@
+package net.vulkanmod.render.chunk.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentAllocatorTest {
+    private static final int ELEMENT_SIZE = 4;
+
+    @Test
+    public void allocatesBestFit() {
+        SegmentAllocator allocator = new SegmentAllocator(1024, ELEMENT_SIZE);
+
+        AreaBuffer.Segment s0 = allocator.allocate(64);
+        AreaBuffer.Segment s1 = allocator.allocate(32);
+        AreaBuffer.Segment s2 = allocator.allocate(128);
+        AreaBuffer.Segment s3 = allocator.allocate(16);
+
+        assertEquals(0, s0.getOffset());
+        assertEquals(64, s1.getOffset());
+        assertEquals(96, s2.getOffset());
+        assertEquals(224, s3.getOffset());
+
+        // Leave two holes: 64 bytes at 0 and 128 bytes at 96
+        allocator.free(s0.getOffset());
+        allocator.free(s2.getOffset());
+        assertTrue(allocator.checkSegments());
+
+        AreaBuffer.Segment s4 = allocator.allocate(48);
+        assertEquals(0, s4.getOffset());
+
+        AreaBuffer.Segment s5 = allocator.allocate(100);
+        assertEquals(96, s5.getOffset());
+
+        assertEquals(48 + 32 + 100 + 16, allocator.getUsed());
+        assertTrue(allocator.checkSegments());
+    }
+
+    @Test
+    public void returnsNullWhenFull() {
+        SegmentAllocator allocator = new SegmentAllocator(128, ELEMENT_SIZE);
+
+        assertNotNull(allocator.allocate(128));
+        assertNull(allocator.allocate(4));
+
+        allocator.grow(64);
+        AreaBuffer.Segment segment = allocator.allocate(64);
+        assertNotNull(segment);
+        assertEquals(128, segment.getOffset());
+        assertEquals(192, allocator.getSize());
+        assertTrue(allocator.checkSegments());
+    }
+
+    @Test
+    public void coalescesNeighbours() {
+        SegmentAllocator allocator = new SegmentAllocator(256, ELEMENT_SIZE);
+
+        AreaBuffer.Segment s0 = allocator.allocate(64);
+        AreaBuffer.Segment s1 = allocator.allocate(64);
+        AreaBuffer.Segment s2 = allocator.allocate(64);
+
+        allocator.free(s0.getOffset());
+        allocator.free(s2.getOffset());
+        assertEquals(2, allocator.getFreeSegmentCount());
+
+        // Freeing the middle segment merges all of them back with the trailing free space
+        allocator.free(s1.getOffset());
+        assertEquals(1, allocator.getSegmentCount());
+        assertEquals(1, allocator.getFreeSegmentCount());
+        assertEquals(0, allocator.getUsed());
+        assertTrue(allocator.checkSegments());
+
+        assertNull(allocator.free(s1.getOffset()));
+    }
+
+    @Test
+    public void fragmentation() {
+        SegmentAllocator allocator = new SegmentAllocator(512, ELEMENT_SIZE);
+
+        AreaBuffer.Segment s0 = allocator.allocate(64);
+        AreaBuffer.Segment s1 = allocator.allocate(64);
+        allocator.allocate(64);
+
+        assertEquals(0, allocator.fragmentation());
+
+        allocator.free(s0.getOffset());
+        assertEquals(64, allocator.fragmentation());
+
+        allocator.free(s1.getOffset());
+        assertEquals(128, allocator.fragmentation());
+    }
+
+    @Test
+    public void randomAllocations() {
+        SegmentAllocator allocator = new SegmentAllocator(4096, ELEMENT_SIZE);
+        List<AreaBuffer.Segment> allocated = new ArrayList<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10000; i++) {
+            if (allocated.isEmpty() || random.nextInt(3) != 0) {
+                int size = (1 + random.nextInt(64)) * ELEMENT_SIZE;
+                AreaBuffer.Segment segment = allocator.allocate(size);
+
+                if (segment == null) {
+                    allocator.grow(Math.max(allocator.getSize() >> 3, size << 1));
+                    segment = allocator.allocate(size);
+                }
+
+                assertNotNull(segment);
+                assertEquals(size, segment.getSize());
+                allocated.add(segment);
+            } else {
+                AreaBuffer.Segment segment = allocated.remove(random.nextInt(allocated.size()));
+                assertNotNull(allocator.free(segment.getOffset()));
+            }
+        }
+
+        int used = allocated.stream().mapToInt(AreaBuffer.Segment::getSize).sum();
+        assertEquals(used, allocator.getUsed());
+        assertTrue(allocator.checkSegments());
+    }
+
+    @Test
+    public void compactionFillsLowestHoles() {
+        SegmentAllocator allocator = new SegmentAllocator(1024, ELEMENT_SIZE);
+
+        AreaBuffer.Segment[] segments = new AreaBuffer.Segment[6];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = allocate(allocator, 64);
+        }
+
+        // Holes at 0 and 128
+        allocator.free(segments[0].getOffset());
+        allocator.free(segments[2].getOffset());
+        assertEquals(128, allocator.fragmentation());
+
+        DrawBuffers.DrawParameters params5 = segments[5].drawParameters;
+        DrawBuffers.DrawParameters params4 = segments[4].drawParameters;
+
+        List<SegmentAllocator.Move> moves = allocator.planCompaction(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertEquals(2, moves.size());
+        assertSame(segments[5], moves.get(0).src());
+        assertEquals(0, moves.get(0).dstOffset());
+        assertSame(segments[4], moves.get(1).src());
+        assertEquals(128, moves.get(1).dstOffset());
+
+        // Planning doesn't modify the allocator
+        assertEquals(128, allocator.fragmentation());
+        assertTrue(allocator.checkSegments());
+
+        AreaBuffer.Segment dst0 = allocator.applyMove(moves.get(0));
+        AreaBuffer.Segment dst1 = allocator.applyMove(moves.get(1));
+
+        assertEquals(0, dst0.getOffset());
+        assertSame(params5, dst0.drawParameters);
+        assertNull(segments[5].drawParameters);
+
+        assertEquals(128, dst1.getOffset());
+        assertSame(params4, dst1.drawParameters);
+        assertTrue(allocator.checkSegments());
+
+        // Sources stay reserved until freed
+        assertNotNull(allocator.getUsedSegment(segments[4].getOffset()));
+        allocator.free(segments[4].getOffset());
+        allocator.free(segments[5].getOffset());
+
+        assertEquals(0, allocator.fragmentation());
+        assertEquals(4 * 64, allocator.getUsed());
+        assertTrue(allocator.checkSegments());
+    }
+
+    @Test
+    public void compactionRespectsBudget() {
+        SegmentAllocator allocator = new SegmentAllocator(4096, ELEMENT_SIZE);
+
+        List<AreaBuffer.Segment> segments = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            segments.add(allocate(allocator, 64));
+        }
+
+        for (int i = 0; i < 16; i += 2) {
+            allocator.free(segments.get(i).getOffset());
+        }
+
+        List<SegmentAllocator.Move> moves = allocator.planCompaction(3 * 64, Integer.MAX_VALUE);
+        assertEquals(3, moves.size());
+
+        moves = allocator.planCompaction(Integer.MAX_VALUE, 2);
+        assertEquals(2, moves.size());
+    }
+
+    @Test
+    public void compactionSkipsReservedSegments() {
+        SegmentAllocator allocator = new SegmentAllocator(512, ELEMENT_SIZE);
+
+        AreaBuffer.Segment s0 = allocate(allocator, 64);
+        allocate(allocator, 64);
+        // Segment without draw parameters, e.g. already moved and waiting to be freed
+        allocator.allocate(64);
+
+        allocator.free(s0.getOffset());
+
+        List<SegmentAllocator.Move> moves = allocator.planCompaction(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertEquals(1, moves.size());
+        assertEquals(64, moves.get(0).src().getOffset());
+    }
+
+    @Test
+    public void randomCompaction() {
+        SegmentAllocator allocator = new SegmentAllocator(1 << 16, ELEMENT_SIZE);
+        List<AreaBuffer.Segment> allocated = new ArrayList<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 500; i++) {
+            allocated.add(allocate(allocator, (1 + random.nextInt(32)) * ELEMENT_SIZE));
+        }
+
+        for (int i = 0; i < 250; i++) {
+            AreaBuffer.Segment segment = allocated.remove(random.nextInt(allocated.size()));
+            allocator.free(segment.getOffset());
+        }
+
+        int used = allocator.getUsed();
+        int fragmentation = allocator.fragmentation();
+
+        for (SegmentAllocator.Move move : allocator.planCompaction(Integer.MAX_VALUE, Integer.MAX_VALUE)) {
+            AreaBuffer.Segment src = move.src();
+            AreaBuffer.Segment dst = allocator.applyMove(move);
+            assertNotNull(dst);
+
+            assertTrue(dst.getOffset() < src.getOffset());
+            assertEquals(src.getSize(), dst.getSize());
+            assertTrue(dst.getOffset() + dst.getSize() <= src.getOffset() || src.getOffset() + src.getSize() <= dst.getOffset());
+
+            allocator.free(src.getOffset());
+        }
+
+        assertEquals(used, allocator.getUsed());
+        assertTrue(allocator.fragmentation() < fragmentation);
+        assertTrue(allocator.checkSegments());
+    }
+
+    private static AreaBuffer.Segment allocate(SegmentAllocator allocator, int size) {
+        AreaBuffer.Segment segment = allocator.allocate(size);
+        segment.drawParameters = new DrawBuffers.DrawParameters();
+        return segment;
+    }
+}
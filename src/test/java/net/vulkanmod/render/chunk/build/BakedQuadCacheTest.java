@@ -0,0 +1,132 @@
+package net.vulkanmod.render.chunk.build;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.renderer.block.model.ItemOverrides;
+import net.minecraft.client.renderer.block.model.ItemTransforms;
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.client.resources.model.SimpleBakedModel;
+import net.minecraft.client.resources.model.WeightedBakedModel;
+import net.minecraft.core.Direction;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.util.RandomSource;
+import net.minecraft.util.random.WeightedEntry;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BakedQuadCacheTest {
+
+    @BeforeAll
+    public static void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    @Test
+    public void simpleModelIsCachedPerState() {
+        BakedQuadCache cache = new BakedQuadCache();
+        RandomSource random = RandomSource.create();
+        BlockState stone = Blocks.STONE.defaultBlockState();
+        BlockState dirt = Blocks.DIRT.defaultBlockState();
+        BakedModel model = simpleModel();
+
+        List<BakedQuad>[] quads = cache.getQuads(stone, model, random, 1L);
+        assertNotNull(quads);
+        assertEquals(BakedQuadCache.FACES, quads.length);
+
+        for (Direction direction : Direction.values()) {
+            assertSame(model.getQuads(stone, direction, random), quads[direction.ordinal()]);
+        }
+        assertSame(model.getQuads(stone, null, random), quads[BakedQuadCache.UNCULLED_IDX]);
+
+        // Seed doesn't matter
+        assertSame(quads, cache.getQuads(stone, model, random, 12345L));
+
+        cache.getQuads(dirt, model, random, 1L);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void weightedModelPicksSameVariant() {
+        BakedQuadCache cache = new BakedQuadCache();
+        RandomSource random = RandomSource.create();
+        BlockState stone = Blocks.STONE.defaultBlockState();
+
+        List<WeightedEntry.Wrapper<BakedModel>> variants = List.of(
+                WeightedEntry.wrap(simpleModel(), 1),
+                WeightedEntry.wrap(simpleModel(), 3),
+                WeightedEntry.wrap(simpleModel(), 2));
+        WeightedBakedModel model = new WeightedBakedModel(variants);
+
+        for (long seed = 0; seed < 1000; seed++) {
+            List<BakedQuad>[] quads = cache.getQuads(stone, model, random, seed * 0x9E3779B97F4A7C15L);
+            assertNotNull(quads);
+
+            random.setSeed(seed * 0x9E3779B97F4A7C15L);
+            assertSame(model.getQuads(stone, Direction.UP, random), quads[Direction.UP.ordinal()]);
+        }
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void unknownModelsAreNotCached() {
+        BakedQuadCache cache = new BakedQuadCache();
+        RandomSource random = RandomSource.create();
+        BlockState stone = Blocks.STONE.defaultBlockState();
+
+        BakedModel subclass = new SimpleBakedModel(List.of(), faces(), true, true, false, null,
+                ItemTransforms.NO_TRANSFORMS, ItemOverrides.EMPTY) {};
+        assertNull(cache.getQuads(stone, subclass, random, 0L));
+
+        // Weighted model with a variant that can depend on the seed
+        WeightedBakedModel weighted = new WeightedBakedModel(List.of(
+                WeightedEntry.wrap(simpleModel(), 1),
+                WeightedEntry.wrap(subclass, 1)));
+        assertNull(cache.getQuads(stone, weighted, random, 0L));
+    }
+
+    @Test
+    public void reloadedModelReplacesEntry() {
+        BakedQuadCache cache = new BakedQuadCache();
+        RandomSource random = RandomSource.create();
+        BlockState stone = Blocks.STONE.defaultBlockState();
+
+        BakedModel oldModel = simpleModel();
+        BakedModel newModel = simpleModel();
+
+        List<BakedQuad>[] oldQuads = cache.getQuads(stone, oldModel, random, 0L);
+        List<BakedQuad>[] newQuads = cache.getQuads(stone, newModel, random, 0L);
+
+        assertNotSame(oldQuads, newQuads);
+        assertSame(newModel.getQuads(stone, Direction.NORTH, random), newQuads[Direction.NORTH.ordinal()]);
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNotSame(newQuads, cache.getQuads(stone, newModel, random, 0L));
+    }
+
+    private static BakedModel simpleModel() {
+        return new SimpleBakedModel(new ArrayList<>(), faces(), true, true, false, null,
+                ItemTransforms.NO_TRANSFORMS, ItemOverrides.EMPTY);
+    }
+
+    // Distinct list instances so that identity checks tell faces and models apart
+    private static Map<Direction, List<BakedQuad>> faces() {
+        Map<Direction, List<BakedQuad>> faces = new EnumMap<>(Direction.class);
+        for (Direction direction : Direction.values()) {
+            faces.put(direction, new ArrayList<>());
+        }
+        return faces;
+    }
+}
@@ -0,0 +1,81 @@
+package net.vulkanmod.render.chunk.build;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FaceOcclusionCacheTest {
+
+    @Test
+    public void returnsStoredResults() {
+        FaceOcclusionCache cache = new FaceOcclusionCache(64);
+        Object a = new Object(), b = new Object();
+
+        assertEquals(FaceOcclusionCache.MISS, cache.get(a, b, 0));
+
+        cache.put(a, b, 0, true);
+        cache.put(a, b, 1, false);
+
+        assertEquals(1, cache.get(a, b, 0));
+        assertEquals(0, cache.get(a, b, 1));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void keysAreOrderedAndIdentityBased() {
+        FaceOcclusionCache cache = new FaceOcclusionCache(64);
+        String a = new String("state"), b = new String("state");
+
+        cache.put(a, b, 2, true);
+
+        assertEquals(FaceOcclusionCache.MISS, cache.get(b, a, 2));
+        assertEquals(FaceOcclusionCache.MISS, cache.get(a, a, 2));
+        assertEquals(FaceOcclusionCache.MISS, cache.get(a, b, 3));
+        assertEquals(1, cache.get(a, b, 2));
+    }
+
+    @Test
+    public void collidingPutEvictsSlot() {
+        FaceOcclusionCache cache = new FaceOcclusionCache(16);
+        Object a = new Object(), b = new Object();
+        cache.put(a, b, 0, true);
+
+        // Find another key mapped to the same slot
+        int slot = cache.slot(a, b, 0);
+        Object c = null;
+        while (c == null) {
+            Object candidate = new Object();
+            if (cache.slot(candidate, b, 0) == slot)
+                c = candidate;
+        }
+
+        cache.put(c, b, 0, false);
+
+        assertEquals(FaceOcclusionCache.MISS, cache.get(a, b, 0));
+        assertEquals(0, cache.get(c, b, 0));
+    }
+
+    @Test
+    public void capacityIsPowerOfTwo() {
+        assertEquals(16, new FaceOcclusionCache(0).capacity());
+        assertEquals(1024, new FaceOcclusionCache(1000).capacity());
+        assertEquals(2048, new FaceOcclusionCache(2048).capacity());
+    }
+
+    @Test
+    public void clearAndResetCounters() {
+        FaceOcclusionCache cache = new FaceOcclusionCache(64);
+        Object a = new Object(), b = new Object();
+
+        cache.put(a, b, 5, true);
+        assertEquals(1, cache.get(a, b, 5));
+
+        cache.clear();
+        assertEquals(FaceOcclusionCache.MISS, cache.get(a, b, 5));
+
+        cache.resetCounters();
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+}
@@ -0,0 +1,174 @@
+package net.vulkanmod.render.chunk.build;
+
+import net.minecraft.core.IdMap;
+import net.minecraft.util.BitStorage;
+import net.minecraft.util.SimpleBitStorage;
+import net.minecraft.util.ZeroBitStorage;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaletteDecoderTest {
+    private static final int REGION_WIDTH = 20;
+
+    @Test
+    public void fullSectionMatchesLookups() {
+        for (int bits : new int[]{1, 2, 4, 5, 8}) {
+            int paletteSize = 1 << bits;
+            BitStorage storage = randomStorage(bits, paletteSize, bits);
+
+            String[] dst = decode(storage, paletteSize, 2, 2, 2, 0, 0, 0, 16, 16, 16);
+
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        assertEquals(lookup(storage, x, y, z), dst[regionIdx(x + 2, y + 2, z + 2)]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void partialBoxMatchesLookups() {
+        BitStorage storage = randomStorage(4, 16, 0);
+
+        // Upper boundary slab of a neighbour section, placed at the bottom of the region
+        String[] dst = decode(storage, 16, 2, 0, 2, 0, 14, 0, 16, 16, 16);
+
+        for (int y = 14; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    assertEquals(lookup(storage, x, y, z), dst[regionIdx(x + 2, y - 14, z + 2)]);
+                }
+            }
+        }
+
+        // Corner
+        dst = decode(storage, 16, 18, 18, 18, 0, 0, 0, 2, 2, 2);
+        for (int y = 0; y < 2; y++) {
+            for (int z = 0; z < 2; z++) {
+                for (int x = 0; x < 2; x++) {
+                    assertEquals(lookup(storage, x, y, z), dst[regionIdx(x + 18, y + 18, z + 18)]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void writesOnlyTheBox() {
+        BitStorage storage = randomStorage(2, 4, 1);
+        String[] dst = decode(storage, 4, 0, 0, 0, 14, 0, 0, 16, 16, 16);
+
+        int written = 0;
+        for (String s : dst) {
+            if (s != null)
+                written++;
+        }
+
+        assertEquals(2 * 16 * 16, written);
+        assertNull(dst[regionIdx(2, 0, 0)]);
+    }
+
+    @Test
+    public void singleValuePalette() {
+        String[] dst = decode(new ZeroBitStorage(PaletteDecoder.SECTION_SIZE), 1, 2, 2, 2, 0, 0, 0, 16, 16, 16);
+
+        for (int y = 2; y < 18; y++) {
+            for (int z = 2; z < 18; z++) {
+                for (int x = 2; x < 18; x++) {
+                    assertEquals("v0", dst[regionIdx(x, y, z)]);
+                }
+            }
+        }
+
+        assertNull(dst[regionIdx(1, 2, 2)]);
+    }
+
+    @Test
+    public void largePaletteIsLookedUpPerBlock() {
+        int paletteSize = PaletteDecoder.MAX_CACHED_PALETTE_SIZE * 4;
+        BitStorage storage = randomStorage(10, paletteSize, 2);
+
+        String[] dst = decode(storage, paletteSize, 2, 2, 2, 0, 0, 0, 16, 16, 16);
+
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    assertEquals(lookup(storage, x, y, z), dst[regionIdx(x + 2, y + 2, z + 2)]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void singleValueOfUniformContainer() {
+        PalettedContainer<String> container = new PalettedContainer<>(ID_MAP, "a", PalettedContainer.Strategy.SECTION_STATES);
+        assertEquals("a", PaletteDecoder.getSingleValue(container));
+
+        container.set(3, 4, 5, "b");
+        assertNull(PaletteDecoder.getSingleValue(container));
+    }
+
+    private static String[] decode(BitStorage storage, int paletteSize, int dstX, int dstY, int dstZ,
+                                   int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        String[] dst = new String[REGION_WIDTH * REGION_WIDTH * REGION_WIDTH];
+
+        PaletteDecoder.copyBox(storage, PALETTE, paletteSize, dst, REGION_WIDTH, dstX, dstY, dstZ,
+                minX, minY, minZ, maxX, maxY, maxZ,
+                new String[PaletteDecoder.MAX_CACHED_PALETTE_SIZE], new int[PaletteDecoder.SECTION_SIZE]);
+
+        return dst;
+    }
+
+    private static final IntFunction<String> PALETTE = id -> "v" + id;
+
+    private static final IdMap<String> ID_MAP = new IdMap<>() {
+        final List<String> values = List.of("a", "b", "c");
+
+        @Override
+        public int getId(String value) {
+            return this.values.indexOf(value);
+        }
+
+        @Override
+        public String byId(int id) {
+            return id >= 0 && id < this.values.size() ? this.values.get(id) : null;
+        }
+
+        @Override
+        public int size() {
+            return this.values.size();
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return this.values.iterator();
+        }
+    };
+
+    private static String lookup(BitStorage storage, int x, int y, int z) {
+        return PALETTE.apply(storage.get((y << 4 | z) << 4 | x));
+    }
+
+    private static int regionIdx(int x, int y, int z) {
+        return (y * REGION_WIDTH + z) * REGION_WIDTH + x;
+    }
+
+    private static BitStorage randomStorage(int bits, int paletteSize, long seed) {
+        Random random = new Random(seed);
+        SimpleBitStorage storage = new SimpleBitStorage(bits, PaletteDecoder.SECTION_SIZE);
+
+        for (int i = 0; i < PaletteDecoder.SECTION_SIZE; i++) {
+            storage.set(i, random.nextInt(paletteSize));
+        }
+
+        return storage;
+    }
+}
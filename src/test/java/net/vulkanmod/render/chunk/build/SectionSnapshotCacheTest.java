@@ -0,0 +1,102 @@
+package net.vulkanmod.render.chunk.build;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SectionSnapshotCacheTest {
+
+    @Test
+    public void sharesSnapshotBetweenNeighbours() {
+        SectionSnapshotCache<int[]> cache = new SectionSnapshotCache<>(int[]::clone);
+        int[][] sections = new int[27][];
+        for (int i = 0; i < sections.length; i++) {
+            sections[i] = new int[]{i};
+        }
+
+        // Capture the 27 neighbourhoods of a 3x3x3 block of sections, as a full rebuild does
+        for (int cx = 0; cx < 3; cx++) {
+            for (int cy = 0; cy < 3; cy++) {
+                for (int cz = 0; cz < 3; cz++) {
+                    for (int x = cx - 1; x <= cx + 1; x++) {
+                        for (int y = cy - 1; y <= cy + 1; y++) {
+                            for (int z = cz - 1; z <= cz + 1; z++) {
+                                if (x < 0 || x > 2 || y < 0 || y > 2 || z < 0 || z > 2)
+                                    continue;
+
+                                int[] source = sections[(y * 3 + z) * 3 + x];
+                                int[] snapshot = cache.getSnapshot(x, y, z, source);
+
+                                assertNotSame(source, snapshot);
+                                assertArrayEquals(source, snapshot);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        assertEquals(27, cache.getCopies());
+        assertEquals(27, cache.size());
+    }
+
+    @Test
+    public void snapshotIsNotAffectedBySourceChanges() {
+        SectionSnapshotCache<int[]> cache = new SectionSnapshotCache<>(int[]::clone);
+        int[] source = {1, 2, 3};
+
+        int[] snapshot = cache.getSnapshot(0, 0, 0, source);
+        source[0] = 10;
+
+        assertArrayEquals(new int[]{1, 2, 3}, snapshot);
+        assertSame(snapshot, cache.getSnapshot(0, 0, 0, source));
+    }
+
+    @Test
+    public void invalidateForcesNewCopy() {
+        SectionSnapshotCache<int[]> cache = new SectionSnapshotCache<>(int[]::clone);
+        int[] source = {1};
+        int[] other = {2};
+
+        int[] snapshot = cache.getSnapshot(4, -2, 7, source);
+        cache.getSnapshot(5, -2, 7, other);
+
+        source[0] = 5;
+        cache.invalidate(4, -2, 7);
+
+        int[] newSnapshot = cache.getSnapshot(4, -2, 7, source);
+        assertNotSame(snapshot, newSnapshot);
+        assertArrayEquals(new int[]{5}, newSnapshot);
+
+        // Neighbour is untouched
+        assertEquals(3, cache.getCopies());
+        cache.getSnapshot(5, -2, 7, other);
+        assertEquals(3, cache.getCopies());
+    }
+
+    @Test
+    public void newSourceForcesNewCopy() {
+        SectionSnapshotCache<int[]> cache = new SectionSnapshotCache<>(int[]::clone);
+
+        // Chunk reloaded with new containers at the same position
+        int[] snapshot = cache.getSnapshot(1, 2, 3, new int[]{1});
+        int[] newSnapshot = cache.getSnapshot(1, 2, 3, new int[]{2});
+
+        assertArrayEquals(new int[]{1}, snapshot);
+        assertArrayEquals(new int[]{2}, newSnapshot);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void clearDropsSnapshots() {
+        SectionSnapshotCache<int[]> cache = new SectionSnapshotCache<>(int[]::clone);
+        int[] source = {1};
+
+        int[] snapshot = cache.getSnapshot(0, 0, 0, source);
+        cache.clear();
+        assertEquals(0, cache.size());
+
+        assertNotSame(snapshot, cache.getSnapshot(0, 0, 0, source));
+        assertEquals(2, cache.getCopies());
+    }
+}
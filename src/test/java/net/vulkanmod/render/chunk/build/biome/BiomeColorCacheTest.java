@@ -0,0 +1,70 @@
+package net.vulkanmod.render.chunk.build.biome;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BiomeColorCacheTest {
+
+    @Test
+    public void cellIsSampledOnce() {
+        BiomeColorCache cache = new BiomeColorCache(256);
+        AtomicInteger samples = new AtomicInteger();
+        BiomeColorCache.Sampler sampler = (cell, x0, y, z0) -> {
+            samples.incrementAndGet();
+            for (int i = 0; i < BiomeColorCache.CELL_SIZE; i++) {
+                cell.grass[i] = x0 * 31 + y * 17 + z0 + i;
+            }
+        };
+
+        BiomeColorCache.Cell cell = cache.getCell(3, 64, -2, sampler);
+        assertEquals(12 * 31 + 64 * 17 - 8, cell.grass[0]);
+
+        assertSame(cell, cache.getCell(3, 64, -2, sampler));
+        assertEquals(1, samples.get());
+
+        cache.getCell(3, 65, -2, sampler);
+        assertEquals(2, samples.get());
+    }
+
+    @Test
+    public void invalidateChunkDropsItsCells() {
+        BiomeColorCache cache = new BiomeColorCache(1024);
+        AtomicInteger samples = new AtomicInteger();
+        BiomeColorCache.Sampler sampler = (cell, x0, y, z0) -> samples.incrementAndGet();
+
+        // Cells 0..3 belong to chunk 0, cell 4 to chunk 1
+        BiomeColorCache.Cell inside = cache.getCell(2, 10, 3, sampler);
+        BiomeColorCache.Cell outside = cache.getCell(4, 10, 3, sampler);
+
+        cache.invalidateChunk(0, 0, 0, 16);
+
+        assertNotSame(inside, cache.getCell(2, 10, 3, sampler));
+        assertSame(outside, cache.getCell(4, 10, 3, sampler));
+        assertEquals(3, samples.get());
+    }
+
+    @Test
+    public void cellSampledDuringInvalidationIsNotKept() {
+        BiomeColorCache cache = new BiomeColorCache(256);
+
+        BiomeColorCache.Cell stale = cache.getCell(0, 0, 0, (cell, x0, y, z0) -> cache.invalidateChunk(0, 0, 0, 1));
+        BiomeColorCache.Cell fresh = cache.getCell(0, 0, 0, (cell, x0, y, z0) -> {});
+
+        assertNotSame(stale, fresh);
+        assertSame(fresh, cache.getCell(0, 0, 0, (cell, x0, y, z0) -> fail("Cell should be cached")));
+    }
+
+    @Test
+    public void clearDropsEveryCell() {
+        BiomeColorCache cache = new BiomeColorCache(100);
+        assertEquals(128, cache.capacity());
+
+        BiomeColorCache.Cell cell = cache.getCell(1, 2, 3, (c, x0, y, z0) -> {});
+        cache.clear();
+
+        assertNotSame(cell, cache.getCell(1, 2, 3, (c, x0, y, z0) -> {}));
+    }
+}
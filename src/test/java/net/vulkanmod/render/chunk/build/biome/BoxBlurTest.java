@@ -0,0 +1,121 @@
+package net.vulkanmod.render.chunk.build.biome;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoxBlurTest {
+    private static final int SECTION_WIDTH = 16;
+
+    @Test
+    public void matchesTransposingBlur() {
+        BoxBlur boxBlur = new BoxBlur();
+        Random random = new Random(0);
+
+        // Reuse the same instance across sizes, as a TintCache does on blend radius changes
+        for (int radius : new int[]{1, 2, 3, 7, 5, 1}) {
+            int totalWidth = SECTION_WIDTH + radius * 2;
+            int[] colors = randomColors(random, totalWidth * totalWidth);
+
+            int[] expected = colors.clone();
+            referenceBlur(expected, new int[colors.length], SECTION_WIDTH, radius);
+
+            int[] actual = colors.clone();
+            boxBlur.blur(actual, SECTION_WIDTH, radius);
+
+            for (int z = radius; z < radius + SECTION_WIDTH; z++) {
+                for (int x = radius; x < radius + SECTION_WIDTH; x++) {
+                    int idx = BoxBlur.getIdx(x, z, totalWidth);
+                    assertEquals(expected[idx], actual[idx], "radius " + radius + " at " + x + ", " + z);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void uniformAreaIsUnchanged() {
+        int radius = 3;
+        int totalWidth = SECTION_WIDTH + radius * 2;
+        int[] colors = new int[totalWidth * totalWidth];
+        Arrays.fill(colors, 0xFF79C05A);
+
+        new BoxBlur().blur(colors, SECTION_WIDTH, radius);
+
+        for (int color : colors) {
+            assertEquals(0xFF79C05A, color);
+        }
+    }
+
+    @Test
+    public void borderIsNotWritten() {
+        int radius = 2;
+        int totalWidth = SECTION_WIDTH + radius * 2;
+        int[] colors = randomColors(new Random(1), totalWidth * totalWidth);
+        int[] blurred = colors.clone();
+
+        new BoxBlur().blur(blurred, SECTION_WIDTH, radius);
+
+        for (int z = 0; z < totalWidth; z++) {
+            for (int x = 0; x < totalWidth; x++) {
+                boolean border = x < radius || z < radius || x >= radius + SECTION_WIDTH || z >= radius + SECTION_WIDTH;
+                int idx = BoxBlur.getIdx(x, z, totalWidth);
+                if (border)
+                    assertEquals(colors[idx], blurred[idx]);
+            }
+        }
+    }
+
+    private static int[] randomColors(Random random, int size) {
+        int[] colors = new int[size];
+        for (int i = 0; i < size; i++) {
+            colors[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        return colors;
+    }
+
+    // Previous packed color implementation, blurring rows and transposing twice
+    private static void referenceBlur(int[] buffer, int[] temp, int width, int filterRadius) {
+        referenceHorizontalBlur(buffer, temp, 0, width, filterRadius);
+        referenceHorizontalBlur(temp, buffer, filterRadius, width, filterRadius);
+    }
+
+    private static void referenceHorizontalBlur(int[] src, int[] dst, int y0, int width, int filterRadius) {
+        final int div = filterRadius * 2 + 1;
+        final int x0 = filterRadius;
+        final int totalWidth = (filterRadius * 2) + width;
+        for (int y = y0; y < totalWidth; y++) {
+            int color;
+            int r = 0, g = 0, b = 0;
+
+            for (int x = 0; x < x0 + 1 + filterRadius; ++x) {
+                color = src[BoxBlur.getIdx(x, y, totalWidth)];
+                r += BoxBlur.unpackR(color);
+                g += BoxBlur.unpackG(color);
+                b += BoxBlur.unpackB(color);
+            }
+
+            dst[BoxBlur.getIdx(y, x0, totalWidth)] = referencePack(r, g, b, div);
+
+            for (int x = x0 + 1; x < x0 + width; x++) {
+                color = src[BoxBlur.getIdx(x - filterRadius - 1, y, totalWidth)];
+                r -= BoxBlur.unpackR(color);
+                g -= BoxBlur.unpackG(color);
+                b -= BoxBlur.unpackB(color);
+
+                color = src[BoxBlur.getIdx(x + filterRadius, y, totalWidth)];
+                r += BoxBlur.unpackR(color);
+                g += BoxBlur.unpackG(color);
+                b += BoxBlur.unpackB(color);
+
+                dst[BoxBlur.getIdx(y, x, totalWidth)] = referencePack(r, g, b, div);
+            }
+        }
+    }
+
+    private static int referencePack(int r, int g, int b, int div) {
+        return 0xFF000000 | (((r / div) & 0xFF) << 16) | (((g / div) & 0xFF) << 8) | ((b / div) & 0xFF);
+    }
+}
@@ -0,0 +1,108 @@
+package net.vulkanmod.render.chunk.build.light.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArrayLightDataCacheTest {
+    private static final int RADIUS = 2;
+    private static final int LENGTH = 16 + RADIUS * 2;
+
+    @Test
+    public void shiftedCacheMatchesFullRecompute() {
+        int[][] offsets = {
+                {0, 16, 0}, {0, -16, 0},
+                {16, 0, 0}, {-16, 0, 0},
+                {0, 0, 16}, {0, 0, -16},
+                {16, -16, 16}, {0, 0, 0}
+        };
+
+        for (int[] offset : offsets) {
+            SyntheticCache cache = new SyntheticCache(0);
+            fill(cache, 32, 48, -16);
+
+            int x = 32 + offset[0], y = 48 + offset[1], z = -16 + offset[2];
+            cache.reset(null, x, y, z, true);
+
+            SyntheticCache expected = new SyntheticCache(0);
+            expected.reset(null, x, y, z);
+
+            cache.computed = 0;
+            assertRegionEquals(expected, cache, x, y, z);
+
+            int overlap = (LENGTH - Math.abs(offset[0])) * (LENGTH - Math.abs(offset[1])) * (LENGTH - Math.abs(offset[2]));
+            assertEquals(LENGTH * LENGTH * LENGTH - overlap, cache.computed);
+        }
+    }
+
+    @Test
+    public void changedSourceIsRecomputedWithoutOverlap() {
+        SyntheticCache cache = new SyntheticCache(0);
+        fill(cache, 0, 0, 0);
+
+        // Light or blocks changed, the previous data must not be kept
+        cache.seed = 1;
+        cache.reset(null, 0, 16, 0, false);
+
+        SyntheticCache expected = new SyntheticCache(1);
+        expected.reset(null, 0, 16, 0);
+
+        assertRegionEquals(expected, cache, 0, 16, 0);
+    }
+
+    @Test
+    public void farOffsetClearsCache() {
+        SyntheticCache cache = new SyntheticCache(0);
+        fill(cache, 0, 0, 0);
+
+        cache.reset(null, 64, 0, 0, true);
+        cache.computed = 0;
+
+        SyntheticCache expected = new SyntheticCache(0);
+        expected.reset(null, 64, 0, 0);
+        assertRegionEquals(expected, cache, 64, 0, 0);
+        assertEquals(LENGTH * LENGTH * LENGTH, cache.computed);
+    }
+
+    private static void fill(SyntheticCache cache, int x, int y, int z) {
+        cache.reset(null, x, y, z);
+
+        for (int z1 = z - RADIUS; z1 < z + 16 + RADIUS; z1++) {
+            for (int y1 = y - RADIUS; y1 < y + 16 + RADIUS; y1++) {
+                for (int x1 = x - RADIUS; x1 < x + 16 + RADIUS; x1++) {
+                    cache.get(x1, y1, z1);
+                }
+            }
+        }
+    }
+
+    private static void assertRegionEquals(SyntheticCache expected, SyntheticCache actual, int x, int y, int z) {
+        for (int z1 = z - RADIUS; z1 < z + 16 + RADIUS; z1++) {
+            for (int y1 = y - RADIUS; y1 < y + 16 + RADIUS; y1++) {
+                for (int x1 = x - RADIUS; x1 < x + 16 + RADIUS; x1++) {
+                    assertEquals(expected.get(x1, y1, z1), actual.get(x1, y1, z1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Light words derived from the position only, in place of a world.
+     */
+    static class SyntheticCache extends ArrayLightDataCache {
+        int seed;
+        int computed;
+
+        SyntheticCache(int seed) {
+            super(false);
+            this.seed = seed;
+        }
+
+        @Override
+        protected int compute(int x, int y, int z) {
+            this.computed++;
+            int h = (x * 73856093) ^ (y * 19349663) ^ (z * 83492791) ^ this.seed;
+            return h | 1;
+        }
+    }
+}
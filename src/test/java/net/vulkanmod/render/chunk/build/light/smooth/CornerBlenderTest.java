@@ -0,0 +1,18 @@
+package net.vulkanmod.render.chunk.build.light.smooth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+public class CornerBlenderTest {
+
+    @Test
+    public void fallsBackToScalarWithoutVectorModule() {
+        // Regular tests run without the module, the vector blender is tested by the vectorTest task
+        assumeFalse(ModuleLayer.boot().findModule(CornerBlender.VECTOR_MODULE).isPresent());
+
+        assertInstanceOf(ScalarCornerBlender.class, CornerBlender.INSTANCE);
+        assertInstanceOf(ScalarCornerBlender.class, CornerBlender.create());
+    }
+}
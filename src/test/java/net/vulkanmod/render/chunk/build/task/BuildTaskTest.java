@@ -0,0 +1,214 @@
+package net.vulkanmod.render.chunk.build.task;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.SharedConstants;
+import net.minecraft.client.renderer.chunk.VisGraph;
+import net.minecraft.client.renderer.chunk.VisibilitySet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.material.FluidState;
+import net.vulkanmod.render.chunk.build.BlockRenderer;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BuildTaskTest {
+    private static final int ORIGIN_X = 16, ORIGIN_Y = 64, ORIGIN_Z = -32;
+
+    @BeforeAll
+    public static void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    @Test
+    public void boundaryBlocksCoverSectionFaces() {
+        int[] positions = BuildTask.BOUNDARY_BLOCKS;
+        assertEquals(16 * 16 * 16 - 14 * 14 * 14, positions.length);
+
+        IntOpenHashSet unique = new IntOpenHashSet(positions);
+        assertEquals(positions.length, unique.size());
+
+        for (int packedPos : positions) {
+            int x = BuildTask.unpackX(packedPos);
+            int y = BuildTask.unpackY(packedPos);
+            int z = BuildTask.unpackZ(packedPos);
+
+            assertTrue(x >= 0 && x < 16 && y >= 0 && y < 16 && z >= 0 && z < 16);
+            assertTrue(x == 0 || x == 15 || y == 0 || y == 15 || z == 0 || z == 15);
+        }
+
+        assertTrue(unique.contains(15 << 8 | 15 << 4 | 15));
+        assertFalse(unique.contains(1 << 8 | 1 << 4 | 1));
+    }
+
+    @Test
+    public void emptySectionMatchesVisGraph() {
+        assertVisibilityEquals(new VisGraph().resolve(), BuildTask.emptySectionVisibility());
+
+        // Same as walking a section of air
+        Region region = new Region(Blocks.AIR.defaultBlockState());
+        VisibilitySet visibilitySet = BuildTask.walkSection(region, null, ORIGIN_X, ORIGIN_Y, ORIGIN_Z, (blockState, blockPos) -> {});
+        assertVisibilityEquals(visibilitySet, BuildTask.emptySectionVisibility());
+    }
+
+    @Test
+    public void uniformSectionSurroundedBySolidBlocks() {
+        Region region = new Region(Blocks.STONE.defaultBlockState());
+
+        assertUniformPathMatches(region, Blocks.STONE.defaultBlockState());
+        assertTrue(collectFaces(region, Blocks.STONE.defaultBlockState()).isEmpty());
+    }
+
+    @Test
+    public void uniformSectionWithNonSolidNeighbours() {
+        BlockState stone = Blocks.STONE.defaultBlockState();
+        Region region = new Region(stone);
+
+        // Air above, glass to the east and a mix to the north
+        region.setNeighbour(Direction.UP, pos -> Blocks.AIR.defaultBlockState());
+        region.setNeighbour(Direction.EAST, pos -> Blocks.GLASS.defaultBlockState());
+
+        BlockState[] states = {
+                Blocks.AIR.defaultBlockState(), Blocks.STONE.defaultBlockState(), Blocks.GLASS.defaultBlockState(),
+                Blocks.OAK_SLAB.defaultBlockState(), Blocks.WATER.defaultBlockState(), Blocks.OAK_LEAVES.defaultBlockState()
+        };
+        Random random = new Random(3);
+        BlockState[] north = new BlockState[16 * 16];
+        for (int i = 0; i < north.length; ++i) {
+            north[i] = states[random.nextInt(states.length)];
+        }
+        region.setNeighbour(Direction.NORTH, pos -> north[(pos.getY() & 15) << 4 | (pos.getX() & 15)]);
+
+        LongOpenHashSet faces = assertUniformPathMatches(region, stone);
+
+        // Every top face, every east face and some of the north ones
+        assertTrue(faces.size() > 2 * 16 * 16);
+        assertTrue(faces.size() < 3 * 16 * 16);
+    }
+
+    /**
+     * Compares the uniform opaque path with the full loop over the section.
+     * @return the emitted faces
+     */
+    private static LongOpenHashSet assertUniformPathMatches(Region region, BlockState uniformState) {
+        LongOpenHashSet fastFaces = new LongOpenHashSet();
+        LongOpenHashSet fullFaces = new LongOpenHashSet();
+        BlockRenderer blockRenderer = new BlockRenderer(64);
+
+        VisibilitySet fastVisibility = BuildTask.walkSection(region, uniformState, ORIGIN_X, ORIGIN_Y, ORIGIN_Z,
+                (blockState, blockPos) -> addFaces(blockRenderer, region, blockState, blockPos, fastFaces));
+        VisibilitySet fullVisibility = BuildTask.walkSection(region, null, ORIGIN_X, ORIGIN_Y, ORIGIN_Z,
+                (blockState, blockPos) -> addFaces(blockRenderer, region, blockState, blockPos, fullFaces));
+
+        assertVisibilityEquals(fullVisibility, fastVisibility);
+        for (Direction from : Direction.values()) {
+            for (Direction to : Direction.values()) {
+                assertFalse(fastVisibility.visibleBetween(from, to));
+            }
+        }
+
+        assertEquals(fullFaces, fastFaces);
+        return fastFaces;
+    }
+
+    private static LongOpenHashSet collectFaces(Region region, BlockState uniformState) {
+        LongOpenHashSet faces = new LongOpenHashSet();
+        BlockRenderer blockRenderer = new BlockRenderer(64);
+
+        BuildTask.walkSection(region, uniformState, ORIGIN_X, ORIGIN_Y, ORIGIN_Z,
+                (blockState, blockPos) -> addFaces(blockRenderer, region, blockState, blockPos, faces));
+
+        return faces;
+    }
+
+    private static void addFaces(BlockRenderer blockRenderer, BlockGetter region, BlockState blockState, BlockPos blockPos, LongOpenHashSet faces) {
+        BlockPos.MutableBlockPos adjPos = new BlockPos.MutableBlockPos();
+
+        for (Direction direction : Direction.values()) {
+            adjPos.setWithOffset(blockPos, direction);
+
+            if (blockRenderer.shouldRenderFace(region, blockState, blockPos, direction, adjPos))
+                faces.add(blockPos.asLong() * 6 + direction.ordinal());
+        }
+    }
+
+    private static void assertVisibilityEquals(VisibilitySet expected, VisibilitySet actual) {
+        for (Direction from : Direction.values()) {
+            for (Direction to : Direction.values()) {
+                assertEquals(expected.visibleBetween(from, to), actual.visibleBetween(from, to), from + " -> " + to);
+            }
+        }
+    }
+
+    /**
+     * Section filled with a single state, neighbour sections are filled with the same state unless set.
+     */
+    private static class Region implements BlockGetter {
+        private final BlockState centerState;
+        private final NeighbourFunction[] neighbours = new NeighbourFunction[Direction.values().length];
+
+        Region(BlockState centerState) {
+            this.centerState = centerState;
+        }
+
+        void setNeighbour(Direction direction, NeighbourFunction function) {
+            this.neighbours[direction.ordinal()] = function;
+        }
+
+        @Override
+        public BlockState getBlockState(BlockPos blockPos) {
+            int secX = Math.floorDiv(blockPos.getX() - ORIGIN_X, 16);
+            int secY = Math.floorDiv(blockPos.getY() - ORIGIN_Y, 16);
+            int secZ = Math.floorDiv(blockPos.getZ() - ORIGIN_Z, 16);
+
+            if (secX == 0 && secY == 0 && secZ == 0)
+                return this.centerState;
+
+            // Only face neighbours are reachable from the section blocks
+            for (Direction direction : Direction.values()) {
+                if (direction.getStepX() == secX && direction.getStepY() == secY && direction.getStepZ() == secZ
+                        && this.neighbours[direction.ordinal()] != null)
+                    return this.neighbours[direction.ordinal()].get(blockPos);
+            }
+
+            return this.centerState;
+        }
+
+        @Override
+        public FluidState getFluidState(BlockPos blockPos) {
+            return this.getBlockState(blockPos).getFluidState();
+        }
+
+        @Nullable
+        @Override
+        public BlockEntity getBlockEntity(BlockPos blockPos) {
+            return null;
+        }
+
+        @Override
+        public int getHeight() {
+            return 384;
+        }
+
+        @Override
+        public int getMinBuildHeight() {
+            return -64;
+        }
+    }
+
+    @FunctionalInterface
+    private interface NeighbourFunction {
+        BlockState get(BlockPos blockPos);
+    }
+}
@@ -0,0 +1,252 @@
+package net.vulkanmod.render.chunk.build.task;
+
+import net.vulkanmod.render.chunk.build.thread.BuilderResources;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkTaskQueueTest {
+
+    @Test
+    public void pollsByPriorityThenSubmissionOrder() {
+        ChunkTaskQueue queue = new ChunkTaskQueue();
+        FakeTask t1 = new FakeTask(1);
+        FakeTask t2 = new FakeTask(2);
+        FakeTask t3 = new FakeTask(3);
+        FakeTask t4 = new FakeTask(4);
+
+        queue.add(t1, 10);
+        queue.add(t2, 5);
+        queue.add(t3, 10);
+        queue.add(t4, 0);
+
+        assertSame(t4, queue.poll());
+        assertSame(t2, queue.poll());
+        assertSame(t1, queue.poll());
+        assertSame(t3, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void priorityKeyOrdering() {
+        long nearVisible = ChunkTaskQueue.priorityKey(false, true, 1);
+        long farVisible = ChunkTaskQueue.priorityKey(false, true, 400);
+        long nearHidden = ChunkTaskQueue.priorityKey(false, false, 1);
+        long farHighPriority = ChunkTaskQueue.priorityKey(true, false, 10000);
+
+        assertTrue(farHighPriority < nearVisible);
+        assertTrue(nearVisible < farVisible);
+        assertTrue(farVisible < nearHidden);
+
+        // Out of range distances are clamped without overflowing into the flag bits
+        assertTrue(ChunkTaskQueue.priorityKey(true, true, Long.MAX_VALUE) < ChunkTaskQueue.priorityKey(true, false, 0));
+    }
+
+    @Test
+    public void manyTasksComeOutSorted() {
+        ChunkTaskQueue queue = new ChunkTaskQueue();
+        int count = 2000;
+
+        for (int i = 0; i < count; i++) {
+            // Scrambled distances with plenty of ties
+            queue.add(new FakeTask((i * 7919) % 97), (i * 7919) % 97);
+        }
+
+        assertEquals(count, queue.size());
+
+        long last = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            FakeTask task = (FakeTask) queue.poll();
+            assertNotNull(task);
+            assertTrue(task.id >= last);
+            last = task.id;
+        }
+
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void reprioritizeReordersQueuedTasks() {
+        ChunkTaskQueue queue = new ChunkTaskQueue();
+        List<FakeTask> tasks = new ArrayList<>();
+
+        // Queued while the camera was at 0, then it moves to 10
+        for (int i = 0; i <= 10; i++) {
+            FakeTask task = new FakeTask(i);
+            tasks.add(task);
+            queue.add(task, (long) i * i);
+        }
+
+        queue.reprioritize(task -> {
+            long d = ((FakeTask) task).id - 10;
+            return d * d;
+        });
+
+        for (int i = 10; i >= 0; i--) {
+            assertSame(tasks.get(i), queue.poll());
+        }
+    }
+
+    @Test
+    public void cancelIfRemovesMatchingTasks() {
+        ChunkTaskQueue queue = new ChunkTaskQueue();
+        List<FakeTask> tasks = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            FakeTask task = new FakeTask(i);
+            tasks.add(task);
+            queue.add(task, i);
+        }
+
+        // Cancelled by its section, should be dropped as well
+        tasks.get(1).cancel();
+
+        int removed = queue.cancelIf(task -> ((FakeTask) task).id >= 5);
+        assertEquals(6, removed);
+        assertEquals(4, queue.size());
+
+        for (int i = 5; i < 10; i++) {
+            assertTrue(tasks.get(i).cancelled.get());
+        }
+
+        assertSame(tasks.get(0), queue.poll());
+        assertSame(tasks.get(2), queue.poll());
+        assertSame(tasks.get(3), queue.poll());
+        assertSame(tasks.get(4), queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void pollSkipsCancelledTasks() {
+        ChunkTaskQueue queue = new ChunkTaskQueue();
+        FakeTask t1 = new FakeTask(1);
+        FakeTask t2 = new FakeTask(2);
+
+        queue.add(t1, 0);
+        queue.add(t2, 1);
+        t1.cancel();
+
+        assertSame(t2, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void takeWaitsForTasksAndStops() throws InterruptedException {
+        ChunkTaskQueue queue = new ChunkTaskQueue();
+        AtomicReference<ChunkTask> taken = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        Thread thread = new Thread(() -> {
+            try {
+                taken.set(queue.take());
+                // Blocks until the queue is stopped
+                assertNull(queue.take());
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            done.countDown();
+        });
+        thread.start();
+
+        waitForWaitingThreads(queue, 1);
+
+        FakeTask task = new FakeTask(0);
+        queue.add(task, 0);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (taken.get() == null && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertSame(task, taken.get());
+
+        queue.stop();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        thread.join();
+
+        assertEquals(0, queue.getWaitingThreads());
+    }
+
+    @Test
+    public void concurrentWorkersRunEachTaskOnce() throws InterruptedException {
+        ChunkTaskQueue queue = new ChunkTaskQueue();
+        int taskCount = 10000;
+        int workerCount = 4;
+
+        FakeTask[] tasks = new FakeTask[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            tasks[i] = new FakeTask(i);
+        }
+
+        AtomicInteger completed = new AtomicInteger();
+        Thread[] workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(() -> {
+                try {
+                    ChunkTask task;
+                    while ((task = queue.take()) != null) {
+                        task.runTask(null);
+                        completed.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            workers[i].start();
+        }
+
+        for (int i = 0; i < taskCount; i++) {
+            queue.add(tasks[i], i % 13);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (completed.get() < taskCount && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        queue.stop();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(taskCount, completed.get());
+        for (FakeTask task : tasks) {
+            assertEquals(1, task.runs.get());
+        }
+    }
+
+    private static void waitForWaitingThreads(ChunkTaskQueue queue, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.getWaitingThreads() != count) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for worker threads");
+            Thread.sleep(1);
+        }
+    }
+
+    static class FakeTask extends ChunkTask {
+        final int id;
+        final AtomicInteger runs = new AtomicInteger();
+
+        FakeTask(int id) {
+            super(null);
+            this.id = id;
+        }
+
+        @Override
+        public String name() {
+            return "fake";
+        }
+
+        @Override
+        public Result runTask(BuilderResources builderResources) {
+            this.runs.incrementAndGet();
+            return Result.SUCCESSFUL;
+        }
+    }
+}
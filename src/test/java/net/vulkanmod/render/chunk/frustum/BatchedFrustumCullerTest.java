@@ -0,0 +1,124 @@
+package net.vulkanmod.render.chunk.frustum;
+
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static net.vulkanmod.render.chunk.ChunkAreaManager.AREA_SH_XZ;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchedFrustumCullerTest {
+    private static final int BOXES = 256;
+
+    @Test
+    public void boxesMatchFrustum() {
+        Random random = new Random(0);
+        BatchedFrustumCuller culler = new BatchedFrustumCuller(BOXES);
+        float[][] boxes = new float[BOXES][6];
+        byte[] results = new byte[BOXES];
+        int[] counts = new int[3];
+
+        for (int frame = 0; frame < 200; ++frame) {
+            VFrustum frustum = randomFrustum(random);
+            culler.setFrustum(frustum);
+
+            for (int i = 0; i < BOXES; ++i) {
+                float[] box = boxes[i];
+                float size = 1.0f + random.nextFloat() * 64.0f;
+                box[0] = (float) frustum.getCamX() + (random.nextFloat() - 0.5f) * 512.0f;
+                box[1] = (float) frustum.getCamY() + (random.nextFloat() - 0.5f) * 512.0f;
+                box[2] = (float) frustum.getCamZ() + (random.nextFloat() - 0.5f) * 512.0f;
+                box[3] = box[0] + size;
+                box[4] = box[1] + size;
+                box[5] = box[2] + size;
+
+                culler.setBox(i, box[0], box[1], box[2], box[3], box[4], box[5]);
+            }
+
+            culler.test(BOXES, results);
+
+            for (int i = 0; i < BOXES; ++i) {
+                float[] box = boxes[i];
+                int expected = frustum.cubeInFrustum(box[0], box[1], box[2], box[3], box[4], box[5]);
+                assertEquals(expected, results[i], "Box " + i + " of frame " + frame);
+
+                counts[category(expected)]++;
+            }
+        }
+
+        // Make sure every outcome was covered
+        for (int count : counts) {
+            assertTrue(count > 0);
+        }
+    }
+
+    @Test
+    public void areaCellsMatchFrustum() {
+        Random random = new Random(1);
+        BatchedFrustumCuller culler = new BatchedFrustumCuller(BatchedFrustumCuller.AREA_CELLS);
+        byte[] buffer = new byte[BatchedFrustumCuller.AREA_CELLS];
+        byte[] octreeBuffer = new byte[BatchedFrustumCuller.AREA_CELLS];
+
+        int width = 1 << (AREA_SH_XZ + 4);
+        int cellWidth = width >> 2;
+
+        for (int frame = 0; frame < 200; ++frame) {
+            VFrustum frustum = randomFrustum(random);
+            culler.setFrustum(frustum);
+
+            for (int area = 0; area < 16; ++area) {
+                int minX = ((int) Math.floor(frustum.getCamX() / width) + random.nextInt(7) - 3) * width;
+                int minY = (random.nextInt(4) - 1) * width;
+                int minZ = ((int) Math.floor(frustum.getCamZ() / width) + random.nextInt(7) - 3) * width;
+
+                culler.updateFrustumVisibility(frustum, buffer, minX, minY, minZ);
+                FrustumOctree.updateFrustumVisibility(frustum, octreeBuffer, minX, minY, minZ);
+
+                int areaResult = frustum.cubeInFrustum(minX, minY, minZ, minX + width, minY + width, minZ + width);
+
+                for (int i = 0; i < BatchedFrustumCuller.AREA_CELLS; ++i) {
+                    // Octree index layout
+                    int x = minX + ((i >> 5) & 1) * (width >> 1) + ((i >> 2) & 1) * cellWidth;
+                    int y = minY + ((i >> 4) & 1) * (width >> 1) + ((i >> 1) & 1) * cellWidth;
+                    int z = minZ + ((i >> 3) & 1) * (width >> 1) + (i & 1) * cellWidth;
+
+                    if (areaResult == FrustumIntersection.INTERSECT) {
+                        int expected = frustum.cubeInFrustum(x, y, z, x + cellWidth, y + cellWidth, z + cellWidth);
+                        assertEquals(expected, buffer[i]);
+                    } else {
+                        assertEquals(areaResult, buffer[i]);
+                    }
+
+                    // The octree may report a different culling plane, but never a different outcome
+                    assertEquals(category(octreeBuffer[i]), category(buffer[i]));
+                }
+            }
+        }
+    }
+
+    private static VFrustum randomFrustum(Random random) {
+        float fov = (float) Math.toRadians(30.0 + random.nextDouble() * 80.0);
+        float aspect = 0.5f + random.nextFloat() * 2.0f;
+        Matrix4f projection = new Matrix4f().perspective(fov, aspect, 0.05f, 256.0f + random.nextFloat() * 512.0f);
+
+        Matrix4f modelView = new Matrix4f()
+                .rotateX((random.nextFloat() - 0.5f) * (float) Math.PI)
+                .rotateY(random.nextFloat() * 2.0f * (float) Math.PI);
+
+        VFrustum frustum = new VFrustum();
+        frustum.calculateFrustum(modelView, projection);
+        frustum.setCamOffset((random.nextDouble() - 0.5) * 60000.0, random.nextDouble() * 320.0 - 64.0, (random.nextDouble() - 0.5) * 60000.0);
+
+        return frustum;
+    }
+
+    private static int category(int result) {
+        return switch (result) {
+            case FrustumIntersection.INSIDE -> 0;
+            case FrustumIntersection.INTERSECT -> 1;
+            default -> 2;
+        };
+    }
+}
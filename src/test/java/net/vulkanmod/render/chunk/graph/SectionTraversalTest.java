@@ -0,0 +1,184 @@
+package net.vulkanmod.render.chunk.graph;
+
+import net.vulkanmod.render.chunk.RenderSection;
+import net.vulkanmod.render.chunk.util.ResettableQueue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SectionTraversalTest {
+    private static final int SIZE = 10;
+    private static final int MAX_DIRECTION_CHANGES = 1;
+
+    private short frame = 0;
+
+    @Test
+    public void incrementalCoversCulledTraversal() {
+        this.checkIncremental(true);
+    }
+
+    @Test
+    public void incrementalCoversCulledTraversalWithoutSmartCull() {
+        this.checkIncremental(false);
+    }
+
+    @Test
+    public void culledSectionsAreNotTraversed() {
+        RenderSection[][][] sections = createGrid(new Random(0));
+        RenderSection camera = sections[SIZE / 2][SIZE / 2][SIZE / 2];
+
+        // Only the camera column is not culled
+        Predicate<RenderSection> culled = section -> section.xOffset != camera.xOffset || section.zOffset != camera.zOffset;
+
+        SectionTraversal traversal = new SectionTraversal();
+        traversal.begin(SIZE / 2, SIZE / 2, SIZE / 2, ++this.frame);
+        traversal.addStartNode(camera);
+        traversal.traverse(true, MAX_DIRECTION_CHANGES, culled);
+
+        ResettableQueue<RenderSection> reached = traversal.getReached();
+        assertTrue(reached.size() > 0);
+        for (RenderSection section : reached) {
+            assertFalse(culled.test(section));
+        }
+
+        // A culled traversal depends on the frustum, it can't be reused
+        assertTrue(traversal.needsUpdate(SIZE / 2, SIZE / 2, SIZE / 2, true, MAX_DIRECTION_CHANGES));
+    }
+
+    private void checkIncremental(boolean smartCull) {
+        Random random = new Random(smartCull ? 1 : 2);
+        RenderSection[][][] sections = createGrid(random);
+
+        SectionTraversal incremental = new SectionTraversal();
+        ResettableQueue<RenderSection> visible = new ResettableQueue<>();
+        ResettableQueue<RenderSection> expected = new ResettableQueue<>();
+
+        int camX = SIZE / 2, camY = SIZE / 2, camZ = SIZE / 2;
+        int traversals = 0;
+        int culledVisible = 0;
+
+        for (int step = 0; step < 300; ++step) {
+            // Camera rotation, a new view direction every frame
+            float dirX = random.nextFloat() * 2.0f - 1.0f;
+            float dirY = random.nextFloat() * 2.0f - 1.0f;
+            float dirZ = random.nextFloat() * 2.0f - 1.0f;
+            Predicate<RenderSection> culled = behind(sections[camX][camY][camZ], dirX, dirY, dirZ);
+
+            int event = random.nextInt(10);
+            if (event == 0) {
+                camX = Math.floorMod(camX + random.nextInt(3) - 1, SIZE);
+                camY = Math.floorMod(camY + random.nextInt(3) - 1, SIZE);
+                camZ = Math.floorMod(camZ + random.nextInt(3) - 1, SIZE);
+            } else if (event == 1) {
+                RenderSection section = sections[random.nextInt(SIZE)][random.nextInt(SIZE)][random.nextInt(SIZE)];
+                section.setVisibility(randomVisibility(random));
+                section.setCompletelyEmpty(random.nextBoolean());
+                incremental.invalidate();
+            }
+
+            if (incremental.needsUpdate(camX, camY, camZ, smartCull, MAX_DIRECTION_CHANGES)) {
+                incremental.begin(camX, camY, camZ, ++this.frame);
+                incremental.addStartNode(sections[camX][camY][camZ]);
+                incremental.traverse(smartCull, MAX_DIRECTION_CHANGES, null);
+                ++traversals;
+            }
+            visible.clear();
+            incremental.collectVisible(++this.frame, culled, visible);
+
+            // A reused traversal gives the same result as a new one
+            SectionTraversal full = new SectionTraversal();
+            full.begin(camX, camY, camZ, ++this.frame);
+            full.addStartNode(sections[camX][camY][camZ]);
+            full.traverse(smartCull, MAX_DIRECTION_CHANGES, null);
+            expected.clear();
+            full.collectVisible(this.frame, culled, expected);
+
+            assertEquals(toList(expected), toList(visible), "Step " + step);
+
+            // Default mode, the frustum prunes the search: incremental mode must draw at least the same sections
+            SectionTraversal frustumCulled = new SectionTraversal();
+            frustumCulled.begin(camX, camY, camZ, ++this.frame);
+            frustumCulled.addStartNode(sections[camX][camY][camZ]);
+            frustumCulled.traverse(smartCull, MAX_DIRECTION_CHANGES, culled);
+
+            Set<RenderSection> visibleSet = new HashSet<>(toList(visible));
+            for (RenderSection section : frustumCulled.getReached()) {
+                assertTrue(visibleSet.contains(section), "Step " + step + ": section at %d %d %d not visible".formatted(section.xOffset, section.yOffset, section.zOffset));
+            }
+            if (frustumCulled.getReached().size() > 0)
+                ++culledVisible;
+        }
+
+        assertTrue(culledVisible > 0);
+
+        assertTrue(traversals < 150, "Traversal should be reused, got " + traversals);
+    }
+
+    private static RenderSection[][][] createGrid(Random random) {
+        RenderSection[][][] sections = new RenderSection[SIZE][SIZE][SIZE];
+
+        int index = 0;
+        for (int x = 0; x < SIZE; ++x) {
+            for (int y = 0; y < SIZE; ++y) {
+                for (int z = 0; z < SIZE; ++z) {
+                    RenderSection section = new RenderSection(index++, x << 4, y << 4, z << 4);
+                    section.setVisibility(randomVisibility(random));
+                    section.setCompletelyEmpty(random.nextInt(4) == 0);
+                    sections[x][y][z] = section;
+                }
+            }
+        }
+
+        for (int x = 0; x < SIZE; ++x) {
+            for (int y = 0; y < SIZE; ++y) {
+                for (int z = 0; z < SIZE; ++z) {
+                    RenderSection section = sections[x][y][z];
+
+                    if (x + 1 < SIZE)
+                        section.setAdjacent(sections[x + 1][y][z], GraphDirections.EAST);
+                    if (y + 1 < SIZE)
+                        section.setAdjacent(sections[x][y + 1][z], GraphDirections.UP);
+                    if (z + 1 < SIZE)
+                        section.setAdjacent(sections[x][y][z + 1], GraphDirections.SOUTH);
+                }
+            }
+        }
+
+        return sections;
+    }
+
+    // Visibility between each pair of faces, mostly open
+    private static long randomVisibility(Random random) {
+        long visibility = 0;
+        for (int from = 0; from < 6; ++from) {
+            for (int to = 0; to < 6; ++to) {
+                if (random.nextInt(5) != 0)
+                    visibility |= 1L << ((from << 3) + to);
+            }
+        }
+        return visibility;
+    }
+
+    // Half space frustum through the camera section
+    private static Predicate<RenderSection> behind(RenderSection camera, float dirX, float dirY, float dirZ) {
+        return section -> {
+            float dx = section.xOffset - camera.xOffset;
+            float dy = section.yOffset - camera.yOffset;
+            float dz = section.zOffset - camera.zOffset;
+            return dx * dirX + dy * dirY + dz * dirZ < -16.0f;
+        };
+    }
+
+    private static List<RenderSection> toList(ResettableQueue<RenderSection> queue) {
+        List<RenderSection> list = new ArrayList<>();
+        queue.forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,99 @@
+package net.vulkanmod.render.chunk.occlusion;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HiZBufferTest {
+    private static final float INF = Float.POSITIVE_INFINITY;
+
+    @Test
+    public void mipChainStoresMinAndMax() {
+        HiZBuffer buffer = new HiZBuffer(8, 4);
+        drawRect(buffer, 0, 0, 4, 4, 10.0f);
+        drawRect(buffer, 4, 0, 6, 2, 20.0f);
+        buffer.buildMips();
+
+        assertEquals(3, buffer.getLevels());
+
+        assertEquals(10.0f, buffer.getMaxDepth(0, 3, 3));
+        assertEquals(20.0f, buffer.getMaxDepth(0, 5, 1));
+        assertEquals(INF, buffer.getMaxDepth(0, 6, 0));
+
+        assertEquals(10.0f, buffer.getMinDepth(1, 0, 0));
+        assertEquals(10.0f, buffer.getMaxDepth(1, 1, 1));
+        assertEquals(20.0f, buffer.getMinDepth(1, 2, 0));
+        assertEquals(20.0f, buffer.getMaxDepth(1, 2, 0));
+        assertEquals(INF, buffer.getMinDepth(1, 2, 1));
+        assertEquals(INF, buffer.getMinDepth(1, 3, 0));
+
+        assertEquals(10.0f, buffer.getMinDepth(2, 0, 0));
+        assertEquals(10.0f, buffer.getMaxDepth(2, 0, 0));
+        assertEquals(20.0f, buffer.getMinDepth(2, 1, 0));
+        assertEquals(INF, buffer.getMaxDepth(2, 1, 0));
+    }
+
+    @Test
+    public void onlyCoveredPixelsAreWritten() {
+        HiZBuffer buffer = new HiZBuffer(8, 8);
+        drawRect(buffer, 0.5f, 0.5f, 3.5f, 3.0f, 5.0f);
+
+        for (int y = 0; y < 8; ++y) {
+            for (int x = 0; x < 8; ++x) {
+                boolean covered = x >= 1 && x <= 2 && y >= 1 && y <= 2;
+                assertEquals(covered ? 5.0f : INF, buffer.getMaxDepth(0, x, y), "Pixel %d %d".formatted(x, y));
+            }
+        }
+
+        // Nearest depth is kept
+        drawRect(buffer, 0.0f, 0.0f, 8.0f, 8.0f, 7.0f);
+        assertEquals(5.0f, buffer.getMaxDepth(0, 1, 1));
+        assertEquals(7.0f, buffer.getMaxDepth(0, 0, 0));
+    }
+
+    @Test
+    public void rectTest() {
+        HiZBuffer buffer = new HiZBuffer(64, 32);
+        drawRect(buffer, 8, 4, 40, 28, 10.0f);
+        buffer.buildMips();
+
+        assertTrue(buffer.isOccluded(8, 4, 39, 27, 10.5f));
+        assertTrue(buffer.isOccluded(20, 10, 21, 11, 10.5f));
+
+        // Nearer than the occluder
+        assertFalse(buffer.isOccluded(8, 4, 39, 27, 9.5f));
+        assertFalse(buffer.isOccluded(8, 4, 39, 27, 10.0f));
+        // One pixel column past the occluder
+        assertFalse(buffer.isOccluded(8, 4, 40, 27, 10.5f));
+        // Off screen
+        assertFalse(buffer.isOccluded(-10, -10, -1, -1, 100.0f));
+    }
+
+    @Test
+    public void depthIsInterpolated() {
+        HiZBuffer buffer = new HiZBuffer(16, 16);
+
+        // Depth grows along x from 1 to 17
+        float[] xs = {0, 16, 16, 0};
+        float[] ys = {0, 0, 16, 16};
+        float[] ws = {1, 17, 17, 1};
+        buffer.drawPolygon(xs, ys, ws, 4);
+
+        for (int x = 0; x < 16; ++x) {
+            // Farthest depth over the pixel, 1 / w is linear in screen space
+            double q0 = 1.0 / ws[0];
+            double q1 = 1.0 / ws[1];
+            double farthest = 1.0 / (q0 + (q1 - q0) * (x + 1) / 16.0);
+
+            float depth = buffer.getMaxDepth(0, x, 8);
+            assertTrue(depth >= farthest && depth <= farthest * 1.01, "Pixel %d depth %f".formatted(x, depth));
+        }
+    }
+
+    private static void drawRect(HiZBuffer buffer, float x0, float y0, float x1, float y1, float depth) {
+        float[] xs = {x0, x1, x1, x0};
+        float[] ys = {y0, y0, y1, y1};
+        float[] ws = {depth, depth, depth, depth};
+        buffer.drawPolygon(xs, ys, ws, 4);
+    }
+}
@@ -0,0 +1,192 @@
+package net.vulkanmod.render.chunk.occlusion;
+
+import net.vulkanmod.render.chunk.graph.GraphDirections;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OcclusionCullerTest {
+    private static final double CAM_X = 8.5, CAM_Y = 8.5, CAM_Z = 8.5;
+
+    @Test
+    public void wallOccludesSectionsBehind() {
+        OcclusionCuller culler = new OcclusionCuller();
+        culler.begin(viewProjection(0.0f, 0.0f), CAM_X, CAM_Y, CAM_Z);
+
+        // Wall facing the camera, looking towards -z
+        for (int y = -3; y <= 3; ++y) {
+            for (int x = -3; x <= 1; ++x) {
+                culler.addFace(x, y, -3, GraphDirections.SOUTH);
+            }
+        }
+        culler.build();
+
+        // Merged in a single rect
+        assertEquals(1, culler.getOccluderCount());
+
+        assertTrue(isSectionOccluded(culler, 0, 0, -5));
+        assertTrue(isSectionOccluded(culler, -2, 1, -8));
+
+        // In front of the wall
+        assertFalse(isSectionOccluded(culler, 0, 0, -2));
+        // Partly past the wall edge
+        assertFalse(isSectionOccluded(culler, 3, 0, -5));
+        // Behind the camera
+        assertFalse(isSectionOccluded(culler, 0, 0, 2));
+    }
+
+    @Test
+    public void facesSeenFromInsideAreIgnored() {
+        OcclusionCuller culler = new OcclusionCuller();
+        culler.begin(viewProjection(0.0f, 0.0f), CAM_X, CAM_Y, CAM_Z);
+
+        // Camera is on the inner side of these faces
+        for (int y = -3; y <= 3; ++y) {
+            for (int x = -3; x <= 3; ++x) {
+                culler.addFace(x, y, -3, GraphDirections.NORTH);
+            }
+        }
+        culler.build();
+
+        assertEquals(0, culler.getOccluderCount());
+        assertFalse(isSectionOccluded(culler, 0, 0, -5));
+    }
+
+    @Test
+    public void occluderFacesFromVisibility() {
+        // Every face connected to every other one
+        assertFalse(OcclusionCuller.isOccluderFace(0xFFFFFFFFFFFFL, GraphDirections.UP));
+        // Fully opaque section
+        for (int dir = 0; dir < 6; ++dir) {
+            assertTrue(OcclusionCuller.isOccluderFace(0L, dir));
+        }
+
+        // Only DOWN and UP connected
+        long visibility = (1L << ((GraphDirections.DOWN << 3) + GraphDirections.UP)) | (1L << ((GraphDirections.UP << 3) + GraphDirections.DOWN))
+                | (1L << ((GraphDirections.NORTH << 3) + GraphDirections.NORTH));
+        assertFalse(OcclusionCuller.isOccluderFace(visibility, GraphDirections.DOWN));
+        assertFalse(OcclusionCuller.isOccluderFace(visibility, GraphDirections.UP));
+        assertTrue(OcclusionCuller.isOccluderFace(visibility, GraphDirections.NORTH));
+        assertTrue(OcclusionCuller.isOccluderFace(visibility, GraphDirections.EAST));
+    }
+
+    @Test
+    public void occludedSectionsAreHidden() {
+        Random random = new Random(1234);
+        int occludedCount = 0;
+
+        for (int iteration = 0; iteration < 40; ++iteration) {
+            double camX = random.nextDouble() * 16.0, camY = random.nextDouble() * 16.0, camZ = random.nextDouble() * 16.0;
+
+            Matrix4f viewProjection = viewProjection((random.nextFloat() - 0.5f) * (float) Math.PI, random.nextFloat() * 2.0f * (float) Math.PI);
+            float[] matrix = viewProjection.get(new float[16]);
+
+            OcclusionCuller culler = new OcclusionCuller();
+            culler.begin(viewProjection, camX, camY, camZ);
+
+            List<float[]> faces = new ArrayList<>();
+            for (int i = 0; i < 400; ++i) {
+                int x = random.nextInt(9) - 4, y = random.nextInt(9) - 4, z = random.nextInt(9) - 4;
+                int dir = random.nextInt(6);
+
+                culler.addFace(x, y, z, dir);
+
+                // Only faces seen from outside occlude
+                float[] face = faceRect(x, y, z, dir);
+                double cam = face[0] == 0 ? camX : face[0] == 1 ? camY : camZ;
+                if ((dir & 1) != 0 ? cam > face[1] : cam < face[1])
+                    faces.add(face);
+            }
+            culler.build();
+
+            for (int z = -10; z <= 10; ++z) {
+                for (int y = -10; y <= 10; ++y) {
+                    for (int x = -10; x <= 10; ++x) {
+                        if (!isSectionOccluded(culler, x, y, z))
+                            continue;
+
+                        ++occludedCount;
+
+                        // Every point of the section on screen must be hidden by some face
+                        for (int i = 0; i <= 4; ++i) {
+                            for (int j = 0; j <= 4; ++j) {
+                                for (int k = 0; k <= 4; ++k) {
+                                    double px = (x << 4) + i * 4, py = (y << 4) + j * 4, pz = (z << 4) + k * 4;
+                                    if (!isOnScreen(matrix, px - camX, py - camY, pz - camZ))
+                                        continue;
+
+                                    assertTrue(isRayBlocked(faces, camX, camY, camZ, px, py, pz),
+                                            "Section %d %d %d is visible".formatted(x, y, z));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        assertTrue(occludedCount > 0);
+    }
+
+    private static boolean isSectionOccluded(OcclusionCuller culler, int x, int y, int z) {
+        return culler.isOccluded(x << 4, y << 4, z << 4, (x + 1) << 4, (y + 1) << 4, (z + 1) << 4);
+    }
+
+    private static Matrix4f viewProjection(float pitch, float yaw) {
+        Matrix4f projection = new Matrix4f().perspective((float) Math.toRadians(70.0), 16.0f / 9.0f, 0.05f, 512.0f);
+        Matrix4f modelView = new Matrix4f().rotateX(pitch).rotateY(yaw);
+
+        return projection.mul(modelView, new Matrix4f());
+    }
+
+    private static boolean isOnScreen(float[] m, double x, double y, double z) {
+        double clipX = m[0] * x + m[4] * y + m[8] * z + m[12];
+        double clipY = m[1] * x + m[5] * y + m[9] * z + m[13];
+        double clipW = m[3] * x + m[7] * y + m[11] * z + m[15];
+
+        return clipW > 0.0 && Math.abs(clipX) <= clipW && Math.abs(clipY) <= clipW;
+    }
+
+    // Axis, plane coord and the min, max of the other two coords, in blocks
+    private static float[] faceRect(int x, int y, int z, int dir) {
+        return switch (dir) {
+            case GraphDirections.DOWN, GraphDirections.UP ->
+                    new float[]{1, (y + (dir == GraphDirections.UP ? 1 : 0)) << 4, x << 4, (x + 1) << 4, z << 4, (z + 1) << 4};
+            case GraphDirections.NORTH, GraphDirections.SOUTH ->
+                    new float[]{2, (z + (dir == GraphDirections.SOUTH ? 1 : 0)) << 4, x << 4, (x + 1) << 4, y << 4, (y + 1) << 4};
+            default -> new float[]{0, (x + (dir == GraphDirections.EAST ? 1 : 0)) << 4, y << 4, (y + 1) << 4, z << 4, (z + 1) << 4};
+        };
+    }
+
+    private static boolean isRayBlocked(List<float[]> faces, double x0, double y0, double z0, double x1, double y1, double z1) {
+        double[] from = {x0, y0, z0};
+        double[] to = {x1, y1, z1};
+
+        for (float[] face : faces) {
+            int axis = (int) face[0];
+            int a = axis == 0 ? 1 : 0;
+            int b = axis == 2 ? 1 : 2;
+
+            double d = to[axis] - from[axis];
+            if (d == 0.0)
+                continue;
+
+            double t = (face[1] - from[axis]) / d;
+            if (t <= 0.0 || t > 1.0 + 1.0e-6)
+                continue;
+
+            double pa = from[a] + (to[a] - from[a]) * t;
+            double pb = from[b] + (to[b] - from[b]) * t;
+
+            if (pa >= face[2] && pa <= face[3] && pb >= face[4] && pb <= face[5])
+                return true;
+        }
+
+        return false;
+    }
+}
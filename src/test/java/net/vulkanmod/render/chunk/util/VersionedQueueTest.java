@@ -0,0 +1,68 @@
+package net.vulkanmod.render.chunk.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersionedQueueTest {
+    private static final Object A = new Object(), B = new Object(), C = new Object();
+
+    @Test
+    public void sameContentKeepsVersion() {
+        VersionedQueue<Object> queue = new VersionedQueue<>(8);
+        fill(queue, A, B, C);
+        int version = queue.getVersion();
+
+        fill(queue, A, B, C);
+        assertEquals(version, queue.getVersion());
+        // Reading again doesn't change it
+        assertEquals(version, queue.getVersion());
+    }
+
+    @Test
+    public void changedContentChangesVersion() {
+        VersionedQueue<Object> queue = new VersionedQueue<>(8);
+        fill(queue, A, B, C);
+        int version = queue.getVersion();
+
+        // Different order
+        fill(queue, A, C, B);
+        assertNotEquals(version, version = queue.getVersion());
+
+        // Removed element
+        fill(queue, A, C);
+        assertNotEquals(version, version = queue.getVersion());
+
+        // Added element
+        fill(queue, A, C, B);
+        assertNotEquals(version, version = queue.getVersion());
+
+        // Empty
+        fill(queue);
+        assertNotEquals(version, queue.getVersion());
+    }
+
+    @Test
+    public void changesBetweenReadsAreNotLost() {
+        VersionedQueue<Object> queue = new VersionedQueue<>(8);
+        fill(queue, A, B, C);
+        int version = queue.getVersion();
+
+        // Back to the read content, the queue matches what the version describes
+        fill(queue, A, B);
+        fill(queue, A, B, C);
+        assertEquals(version, queue.getVersion());
+
+        // Changed and back, conservatively a new version
+        fill(queue, C, B, A);
+        fill(queue, A, B, C);
+        assertNotEquals(version, queue.getVersion());
+    }
+
+    private static void fill(VersionedQueue<Object> queue, Object... elements) {
+        queue.clear();
+        for (Object element : elements) {
+            queue.add(element);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package net.vulkanmod.render.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RadixSortTest {
+
+    @Test
+    public void matchesMergeSort() {
+        RadixSort radixSort = new RadixSort();
+        Random random = new Random(1234);
+
+        for (int size : new int[] {1, 2, 15, 16, 17, 100, 1000, 4096, 20000}) {
+            float[] distances = new float[size];
+            for (int i = 0; i < size; i++) {
+                distances[i] = random.nextFloat() * 1000.0f;
+            }
+
+            assertSameOrder(radixSort, distances);
+        }
+    }
+
+    @Test
+    public void matchesMergeSortWithTies() {
+        RadixSort radixSort = new RadixSort();
+        Random random = new Random(42);
+
+        // Quads in a section have lots of equal distances, order among them must stay stable
+        float[] distances = new float[5000];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = random.nextInt(16) * 0.25f;
+        }
+
+        assertSameOrder(radixSort, distances);
+    }
+
+    @Test
+    public void handlesSpecialValues() {
+        RadixSort radixSort = new RadixSort();
+
+        float[] distances = new float[] {
+                0.0f, -0.0f, 1.0f, -1.0f, Float.MIN_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE,
+                Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NaN, 3.5f, 3.5f, -2.25f, 1e-30f
+        };
+
+        assertSameOrder(radixSort, distances);
+    }
+
+    @Test
+    public void reusesScratchBuffers() {
+        RadixSort radixSort = new RadixSort();
+
+        float[] large = radixSort.getValueBuffer(100);
+        for (int i = 0; i < 100; i++) {
+            large[i] = i;
+        }
+        radixSort.sortDescending(large, 100);
+
+        // Smaller sorts must not be affected by stale data past count
+        float[] small = radixSort.getValueBuffer(3);
+        assertSame(large, small);
+        small[0] = 1.0f;
+        small[1] = 3.0f;
+        small[2] = 2.0f;
+
+        int[] sorted = radixSort.sortDescending(small, 3);
+        assertArrayEquals(new int[] {1, 2, 0}, Arrays.copyOf(sorted, 3));
+
+        // Empty input
+        assertNotNull(radixSort.sortDescending(small, 0));
+    }
+
+    private static void assertSameOrder(RadixSort radixSort, float[] distances) {
+        int[] expected = new int[distances.length];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i;
+        }
+        SortUtil.mergeSort(expected, distances);
+
+        int[] actual = Arrays.copyOf(radixSort.sortDescending(distances, distances.length), distances.length);
+
+        assertArrayEquals(expected, actual);
+    }
+}
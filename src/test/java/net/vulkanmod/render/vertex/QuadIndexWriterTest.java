@@ -0,0 +1,97 @@
+package net.vulkanmod.render.vertex;
+
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuadIndexWriterTest {
+    private static final int[] QUAD_TRIANGLES = {0, 1, 2, 2, 3, 0};
+
+    @Test
+    public void writesShortIndicesInQuadOrder() {
+        int[] quads = {3, 0, 2, 1};
+
+        ByteBuffer buffer = write(quads, quads.length, false);
+        assertEquals(quads.length * 6 * Short.BYTES, buffer.capacity());
+
+        for (int i = 0; i < quads.length; i++) {
+            for (int j = 0; j < 6; j++) {
+                int index = Short.toUnsignedInt(MemoryUtil.memGetShort(MemoryUtil.memAddress(buffer) + (i * 6L + j) * Short.BYTES));
+                assertEquals(quads[i] * 4 + QUAD_TRIANGLES[j], index);
+            }
+        }
+
+        MemoryUtil.memFree(buffer);
+    }
+
+    @Test
+    public void writesIntIndicesInQuadOrder() {
+        int[] quads = {1, 4, 0, 3, 2};
+
+        ByteBuffer buffer = write(quads, quads.length, true);
+        assertEquals(quads.length * 6 * Integer.BYTES, buffer.capacity());
+
+        for (int i = 0; i < quads.length; i++) {
+            for (int j = 0; j < 6; j++) {
+                int index = MemoryUtil.memGetInt(MemoryUtil.memAddress(buffer) + (i * 6L + j) * Integer.BYTES);
+                assertEquals(quads[i] * 4 + QUAD_TRIANGLES[j], index);
+            }
+        }
+
+        MemoryUtil.memFree(buffer);
+    }
+
+    @Test
+    public void shortIndicesCoverFullRange() {
+        int quadCount = QuadIndexWriter.MAX_SHORT_INDEX_VERTICES / 4;
+        int[] quads = new int[quadCount];
+        for (int i = 0; i < quadCount; i++) {
+            quads[i] = quadCount - 1 - i;
+        }
+
+        ByteBuffer buffer = write(quads, quadCount, false);
+
+        // First quad is the last one, its 4th vertex is the highest addressable index
+        assertEquals(0xFFFF, Short.toUnsignedInt(MemoryUtil.memGetShort(MemoryUtil.memAddress(buffer) + 4 * Short.BYTES)));
+        assertEquals(2, Short.toUnsignedInt(MemoryUtil.memGetShort(MemoryUtil.memAddress(buffer) + buffer.capacity() - 3 * Short.BYTES)));
+
+        MemoryUtil.memFree(buffer);
+    }
+
+    @Test
+    public void writesOnlyRequestedQuads() {
+        int[] quads = {2, 0, 1};
+
+        // Guard bytes after the written range must be left untouched
+        ByteBuffer buffer = MemoryUtil.memAlloc(2 * 6 * Short.BYTES + 4);
+        MemoryUtil.memSet(buffer, 0x7F);
+
+        QuadIndexWriter.putShortIndices(MemoryUtil.memAddress(buffer), quads, 2);
+
+        assertEquals(0x7F7F7F7F, MemoryUtil.memGetInt(MemoryUtil.memAddress(buffer) + 2 * 6 * Short.BYTES));
+
+        MemoryUtil.memFree(buffer);
+    }
+
+    @Test
+    public void indexSizeByVertexCount() {
+        assertEquals(Short.BYTES, QuadIndexWriter.getIndexSize(4));
+        assertEquals(Short.BYTES, QuadIndexWriter.getIndexSize(QuadIndexWriter.MAX_SHORT_INDEX_VERTICES));
+        assertEquals(Integer.BYTES, QuadIndexWriter.getIndexSize(QuadIndexWriter.MAX_SHORT_INDEX_VERTICES + 4));
+    }
+
+    private static ByteBuffer write(int[] quads, int quadCount, boolean wide) {
+        int indexSize = wide ? Integer.BYTES : Short.BYTES;
+        ByteBuffer buffer = MemoryUtil.memAlloc(quadCount * 6 * indexSize);
+
+        if (wide)
+            QuadIndexWriter.putIntIndices(MemoryUtil.memAddress(buffer), quads, quadCount);
+        else
+            QuadIndexWriter.putShortIndices(MemoryUtil.memAddress(buffer), quads, quadCount);
+
+        return buffer;
+    }
+}
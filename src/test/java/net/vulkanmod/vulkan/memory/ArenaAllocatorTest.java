@@ -0,0 +1,271 @@
+package net.vulkanmod.vulkan.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArenaAllocatorTest {
+
+    @Test
+    public void allocatesAlignedRanges() {
+        ArenaAllocator arena = new ArenaAllocator(256, 16);
+
+        ArenaAllocator.Range r1 = arena.allocate(10);
+        ArenaAllocator.Range r2 = arena.allocate(40);
+        // Empty uploads get a range too
+        ArenaAllocator.Range r3 = arena.allocate(0);
+
+        assertEquals(0, r1.getOffset());
+        assertEquals(16, r1.getSize());
+        assertEquals(16, r2.getOffset());
+        assertEquals(48, r2.getSize());
+        assertEquals(64, r3.getOffset());
+        assertEquals(16, r3.getSize());
+
+        assertEquals(80, arena.getUsed());
+        assertNull(arena.allocate(200));
+        assertTrue(arena.checkSegments());
+    }
+
+    @Test
+    public void freedRangesAreReusedOnceRetired() {
+        ArenaAllocator arena = new ArenaAllocator(64, 16);
+        arena.beginFrame(0);
+
+        ArenaAllocator.Range r1 = arena.allocate(32);
+        ArenaAllocator.Range r2 = arena.allocate(32);
+        assertNull(arena.allocate(16));
+
+        arena.beginFrame(1);
+        arena.free(r1);
+        assertTrue(r1.isFree());
+        assertEquals(1, arena.getPendingFreeCount());
+        assertEquals(64, arena.getUsed());
+
+        // Frame 1 might still read the range
+        arena.beginFrame(2);
+        arena.retireFrames(0);
+        assertNull(arena.allocate(16));
+
+        arena.retireFrames(1);
+        assertEquals(0, arena.getPendingFreeCount());
+        assertEquals(32, arena.getUsed());
+
+        ArenaAllocator.Range r3 = arena.allocate(32);
+        assertEquals(r1.getOffset(), r3.getOffset());
+        assertFalse(r3.isFree());
+
+        assertThrows(IllegalStateException.class, () -> arena.free(r1));
+        assertTrue(arena.checkSegments());
+    }
+
+    @Test
+    public void pendingFreesAreReleasedInFrameOrder() {
+        ArenaAllocator arena = new ArenaAllocator(160, 16);
+
+        List<ArenaAllocator.Range> ranges = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            ranges.add(arena.allocate(16));
+        }
+
+        for (int frame = 0; frame < 5; ++frame) {
+            arena.beginFrame(frame);
+            arena.free(ranges.get(frame * 2));
+            arena.free(ranges.get(frame * 2 + 1));
+        }
+
+        assertEquals(10, arena.getPendingFreeCount());
+
+        arena.retireFrames(2);
+        assertEquals(4, arena.getPendingFreeCount());
+        assertEquals(64, arena.getUsed());
+
+        // Retired frames don't go back
+        arena.retireFrames(1);
+        assertEquals(4, arena.getPendingFreeCount());
+
+        arena.retireFrames(4);
+        assertEquals(0, arena.getPendingFreeCount());
+        assertEquals(0, arena.getUsed());
+        assertEquals(1, arena.getSegmentCount());
+        assertTrue(arena.checkSegments());
+    }
+
+    @Test
+    public void updatesInPlaceOnlyWhenNoFrameInFlightUsesTheRange() {
+        ArenaAllocator arena = new ArenaAllocator(256, 16);
+        arena.beginFrame(0);
+
+        ArenaAllocator.Range range = arena.allocate(40);
+
+        // Never drawn
+        assertTrue(arena.canUpdate(range, 48));
+        assertTrue(arena.canUpdate(range, 1));
+        // Larger than the range
+        assertFalse(arena.canUpdate(range, 49));
+
+        arena.beginFrame(3);
+        arena.markUsed(range);
+        assertFalse(arena.canUpdate(range, 40));
+
+        arena.beginFrame(4);
+        arena.retireFrames(2);
+        assertFalse(arena.canUpdate(range, 40));
+
+        arena.beginFrame(5);
+        arena.retireFrames(3);
+        assertTrue(arena.canUpdate(range, 40));
+
+        arena.free(range);
+        assertFalse(arena.canUpdate(range, 40));
+    }
+
+    @Test
+    public void updatesInPlaceOnlyOnceTheLastWriteIsRetired() {
+        ArenaAllocator arena = new ArenaAllocator(256, 16);
+        arena.beginFrame(0);
+
+        ArenaAllocator.Range range = arena.allocate(40);
+        arena.markWritten(range);
+
+        // Written but not drawn, the first write might still be in flight
+        assertFalse(arena.canUpdate(range, 40));
+
+        arena.beginFrame(1);
+        assertFalse(arena.canUpdate(range, 40));
+
+        arena.retireFrames(0);
+        assertTrue(arena.canUpdate(range, 40));
+
+        // Re-uploaded in place
+        arena.markWritten(range);
+        assertFalse(arena.canUpdate(range, 40));
+
+        arena.beginFrame(2);
+        arena.retireFrames(1);
+        assertTrue(arena.canUpdate(range, 40));
+    }
+
+    @Test
+    public void growsToFitLargeAllocations() {
+        ArenaAllocator arena = new ArenaAllocator(128, 16);
+
+        ArenaAllocator.Range r1 = arena.allocate(100);
+        assertNull(arena.allocate(100));
+
+        int newSize = arena.grow(100);
+        // At least twice the aligned upload size
+        assertEquals(128 + 224, newSize);
+        assertEquals(newSize, arena.getSize());
+
+        ArenaAllocator.Range r2 = arena.allocate(100);
+        assertNotNull(r2);
+        assertEquals(112, r2.getOffset());
+        assertEquals(0, r1.getOffset());
+
+        // Small uploads grow by an eighth of the arena
+        ArenaAllocator big = new ArenaAllocator(4096, 16);
+        assertEquals(4096 + 512, big.grow(16));
+
+        assertTrue(arena.checkSegments());
+        assertTrue(big.checkSegments());
+    }
+
+    @Test
+    public void randomUploads() {
+        Random random = new Random(17);
+        ArenaAllocator arena = new ArenaAllocator(1024, 16);
+
+        ArenaAllocator.Range[] ranges = new ArenaAllocator.Range[64];
+        List<ArenaAllocator.Range> freed = new ArrayList<>();
+        List<Long> freeFrames = new ArrayList<>();
+        int framesInFlight = 2;
+
+        for (int frame = 0; frame < 400; ++frame) {
+            arena.retireFrames(frame - framesInFlight);
+            arena.beginFrame(frame);
+
+            for (int k = freed.size() - 1; k >= 0; --k) {
+                if (freeFrames.get(k) <= frame - framesInFlight) {
+                    freed.remove(k);
+                    freeFrames.remove(k);
+                }
+            }
+
+            for (int j = 0; j < 8; ++j) {
+                int i = random.nextInt(ranges.length);
+                ArenaAllocator.Range range = ranges[i];
+
+                if (range != null && random.nextInt(4) == 0) {
+                    arena.free(range);
+                    freed.add(range);
+                    freeFrames.add((long) frame);
+                    ranges[i] = null;
+                    continue;
+                }
+
+                int size = random.nextInt(200);
+
+                if (range != null) {
+                    if (arena.canUpdate(range, size)) {
+                        arena.markWritten(range);
+                        continue;
+                    }
+
+                    arena.free(range);
+                    freed.add(range);
+                    freeFrames.add((long) frame);
+                }
+
+                ArenaAllocator.Range newRange = arena.allocate(size);
+                if (newRange == null) {
+                    arena.grow(size);
+                    newRange = arena.allocate(size);
+                }
+
+                assertNotNull(newRange);
+                arena.markWritten(newRange);
+                assertTrue(newRange.getSize() >= size);
+                assertEquals(0, newRange.getOffset() % 16);
+
+                // Ranges freed by frames in flight must not be reused
+                for (ArenaAllocator.Range freedRange : freed) {
+                    assertFalse(overlaps(newRange, freedRange));
+                }
+
+                ranges[i] = newRange;
+            }
+
+            // Draw some of the live ranges
+            for (ArenaAllocator.Range range : ranges) {
+                if (range != null && random.nextBoolean())
+                    arena.markUsed(range);
+            }
+
+            assertNoOverlaps(ranges);
+        }
+
+        assertTrue(arena.checkSegments());
+    }
+
+    private static void assertNoOverlaps(ArenaAllocator.Range[] ranges) {
+        for (int i = 0; i < ranges.length; ++i) {
+            for (int j = i + 1; j < ranges.length; ++j) {
+                ArenaAllocator.Range r1 = ranges[i], r2 = ranges[j];
+
+                if (r1 == null || r2 == null)
+                    continue;
+
+                assertFalse(overlaps(r1, r2), "Ranges %d and %d overlap".formatted(i, j));
+            }
+        }
+    }
+
+    private static boolean overlaps(ArenaAllocator.Range r1, ArenaAllocator.Range r2) {
+        return r1.getOffset() < r2.getOffset() + r2.getSize() && r2.getOffset() < r1.getOffset() + r1.getSize();
+    }
+}
@@ -0,0 +1,194 @@
+package net.vulkanmod.vulkan.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingAllocatorTest {
+
+    @Test
+    public void allocatesSequentiallyWithAlignment() {
+        RingAllocator ring = new RingAllocator(256);
+        ring.beginRegion(0);
+
+        assertEquals(0, ring.allocate(10, 1));
+        assertEquals(12, ring.allocate(8, 4));
+        assertEquals(20, ring.allocate(3, 1));
+        // Non power of two alignment, e.g. 3 bytes texels
+        assertEquals(24, ring.allocate(6, 3));
+
+        assertEquals(30, ring.getUsed());
+        assertEquals(1, ring.getRegionCount());
+    }
+
+    @Test
+    public void wrapsAroundOnceOlderRegionsRetire() {
+        RingAllocator ring = new RingAllocator(100);
+
+        ring.beginRegion(0);
+        assertEquals(0, ring.allocate(40, 1));
+        ring.beginRegion(1);
+        assertEquals(40, ring.allocate(40, 1));
+        ring.beginRegion(2);
+
+        // 20 bytes left at the end, nothing retired at the start
+        assertEquals(-1, ring.allocate(30, 1));
+
+        ring.retire(0);
+        assertEquals(40, ring.getUsed());
+
+        // Doesn't fit at the end, the 20 bytes tail gets skipped
+        assertEquals(0, ring.allocate(30, 1));
+        assertEquals(90, ring.getUsed());
+
+        // [30, 40) is free but too small
+        assertEquals(-1, ring.allocate(20, 1));
+        assertEquals(30, ring.allocate(10, 1));
+
+        // Skipped bytes are released together with the region that skipped them
+        ring.retire(1);
+        assertEquals(60, ring.getUsed());
+        ring.retire(2);
+        assertEquals(0, ring.getUsed());
+        assertEquals(0, ring.getRegionCount());
+    }
+
+    @Test
+    public void fillsExactlyToTheEnd() {
+        RingAllocator ring = new RingAllocator(64);
+
+        ring.beginRegion(0);
+        assertEquals(0, ring.allocate(32, 1));
+        ring.beginRegion(1);
+        assertEquals(32, ring.allocate(32, 1));
+
+        assertEquals(64, ring.getUsed());
+        assertEquals(0, ring.getHead());
+        assertEquals(-1, ring.allocate(1, 1));
+
+        ring.retire(0);
+        assertEquals(0, ring.allocate(32, 1));
+        assertEquals(-1, ring.allocate(1, 1));
+    }
+
+    @Test
+    public void rejectsOversizedRequests() {
+        RingAllocator ring = new RingAllocator(128);
+
+        ring.beginRegion(0);
+        assertEquals(-1, ring.allocate(129, 1));
+        assertEquals(0, ring.getUsed());
+
+        // The whole ring can be allocated once empty
+        assertEquals(0, ring.allocate(100, 1));
+        assertEquals(-1, ring.allocate(128, 1));
+        ring.retire(0);
+        assertEquals(0, ring.allocate(128, 1));
+
+        // Alignment padding counts towards the request
+        RingAllocator ring2 = new RingAllocator(128);
+        assertEquals(0, ring2.allocate(1, 1));
+        assertEquals(-1, ring2.allocate(125, 4));
+        assertEquals(4, ring2.allocate(124, 4));
+
+        assertThrows(IllegalArgumentException.class, () -> ring2.allocate(-1, 1));
+        assertThrows(IllegalArgumentException.class, () -> ring2.allocate(1, 0));
+    }
+
+    @Test
+    public void retiresInTagOrder() {
+        RingAllocator ring = new RingAllocator(300);
+
+        for (int frame = 0; frame < 3; frame++) {
+            ring.beginRegion(frame);
+            assertEquals(frame * 100, ring.allocate(100, 1));
+        }
+
+        assertEquals(3, ring.getRegionCount());
+
+        // Older tags than any region are a no-op
+        ring.retire(-1);
+        assertEquals(300, ring.getUsed());
+
+        ring.retire(1);
+        assertEquals(100, ring.getUsed());
+        assertEquals(1, ring.getRegionCount());
+
+        // Only the first 200 bytes have been released
+        assertEquals(0, ring.allocate(200, 1));
+        assertEquals(-1, ring.allocate(1, 1));
+    }
+
+    @Test
+    public void retiresCurrentRegion() {
+        RingAllocator ring = new RingAllocator(100);
+
+        ring.beginRegion(5);
+        ring.allocate(50, 1);
+
+        // Retiring the tag of the open region releases it as well
+        ring.retire(5);
+        assertEquals(0, ring.getUsed());
+
+        ring.allocate(60, 1);
+        // Reopening the same tag doesn't split the region
+        ring.beginRegion(5);
+        ring.allocate(20, 1);
+        assertEquals(1, ring.getRegionCount());
+
+        ring.beginRegion(6);
+        ring.allocate(10, 1);
+        ring.retireAll();
+        assertEquals(0, ring.getUsed());
+        assertEquals(0, ring.getRegionCount());
+    }
+
+    @Test
+    public void randomizedFrames() {
+        final int size = 4096;
+        final int framesInFlight = 3;
+
+        RingAllocator ring = new RingAllocator(size);
+        Random random = new Random(0);
+
+        // Live allocations as {tag, offset, size}, checked for overlaps
+        ArrayDeque<int[]> live = new ArrayDeque<>();
+
+        for (int frame = 0; frame < 2000; frame++) {
+            ring.retire(frame - framesInFlight);
+            while (!live.isEmpty() && live.peekFirst()[0] <= frame - framesInFlight) {
+                live.pollFirst();
+            }
+
+            ring.beginRegion(frame);
+
+            int count = random.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                int allocSize = 1 + random.nextInt(600);
+                int alignment = 1 << random.nextInt(4);
+
+                int offset = ring.allocate(allocSize, alignment);
+                if (offset == -1)
+                    continue;
+
+                assertEquals(0, offset % alignment);
+                assertTrue(offset + allocSize <= size);
+
+                for (int[] other : live) {
+                    assertTrue(offset + allocSize <= other[1] || other[1] + other[2] <= offset,
+                            "Overlapping allocations at frame " + frame);
+                }
+
+                live.addLast(new int[]{frame, offset, allocSize});
+            }
+
+            assertTrue(ring.getUsed() >= 0 && ring.getUsed() <= size);
+        }
+
+        ring.retireAll();
+        assertEquals(0, ring.getUsed());
+    }
+}
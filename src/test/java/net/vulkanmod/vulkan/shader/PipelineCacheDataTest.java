@@ -0,0 +1,95 @@
+package net.vulkanmod.vulkan.shader;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lwjgl.vulkan.VK10.VK_PIPELINE_CACHE_HEADER_VERSION_ONE;
+
+public class PipelineCacheDataTest {
+    private static final int VENDOR_ID = 0x10DE;
+    private static final int DEVICE_ID = 0x2484;
+    private static final byte[] UUID = new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15};
+
+    @Test
+    public void parsesHeader() {
+        ByteBuffer data = createBlob(PipelineCacheData.HEADER_SIZE, VK_PIPELINE_CACHE_HEADER_VERSION_ONE, VENDOR_ID, DEVICE_ID, UUID, 64);
+
+        PipelineCacheData.Header header = PipelineCacheData.parseHeader(data);
+        assertNotNull(header);
+        assertEquals(PipelineCacheData.HEADER_SIZE, header.headerSize());
+        assertEquals(VK_PIPELINE_CACHE_HEADER_VERSION_ONE, header.headerVersion());
+        assertEquals(VENDOR_ID, header.vendorId());
+        assertEquals(DEVICE_ID, header.deviceId());
+        assertArrayEquals(UUID, header.pipelineCacheUUID());
+
+        assertTrue(PipelineCacheData.isCompatible(data, VENDOR_ID, DEVICE_ID, UUID));
+    }
+
+    @Test
+    public void parsesLittleEndianHeader() {
+        byte[] bytes = new byte[PipelineCacheData.HEADER_SIZE];
+        byte[] fields = {
+                32, 0, 0, 0,
+                1, 0, 0, 0,
+                (byte) 0xDE, 0x10, 0, 0,
+                (byte) 0x84, 0x24, 0, 0
+        };
+        System.arraycopy(fields, 0, bytes, 0, fields.length);
+        System.arraycopy(UUID, 0, bytes, fields.length, UUID.length);
+
+        // Independent of the order of the buffer
+        ByteBuffer data = ByteBuffer.wrap(bytes).order(ByteOrder.BIG_ENDIAN);
+
+        PipelineCacheData.Header header = PipelineCacheData.parseHeader(data);
+        assertNotNull(header);
+        assertEquals(32, header.headerSize());
+        assertEquals(VK_PIPELINE_CACHE_HEADER_VERSION_ONE, header.headerVersion());
+        assertEquals(VENDOR_ID, header.vendorId());
+        assertEquals(DEVICE_ID, header.deviceId());
+        assertArrayEquals(UUID, header.pipelineCacheUUID());
+    }
+
+    @Test
+    public void rejectsMismatchingDevice() {
+        ByteBuffer data = createBlob(PipelineCacheData.HEADER_SIZE, VK_PIPELINE_CACHE_HEADER_VERSION_ONE, VENDOR_ID, DEVICE_ID, UUID, 64);
+
+        byte[] otherUUID = UUID.clone();
+        otherUUID[15] = 42;
+
+        assertFalse(PipelineCacheData.isCompatible(data, 0x1002, DEVICE_ID, UUID));
+        assertFalse(PipelineCacheData.isCompatible(data, VENDOR_ID, DEVICE_ID + 1, UUID));
+        assertFalse(PipelineCacheData.isCompatible(data, VENDOR_ID, DEVICE_ID, otherUUID));
+    }
+
+    @Test
+    public void rejectsMalformedHeader() {
+        // Unknown header version
+        ByteBuffer data = createBlob(PipelineCacheData.HEADER_SIZE, 2, VENDOR_ID, DEVICE_ID, UUID, 0);
+        assertFalse(PipelineCacheData.isCompatible(data, VENDOR_ID, DEVICE_ID, UUID));
+
+        // Header size smaller than the fields it must contain
+        data = createBlob(8, VK_PIPELINE_CACHE_HEADER_VERSION_ONE, VENDOR_ID, DEVICE_ID, UUID, 0);
+        assertNull(PipelineCacheData.parseHeader(data));
+
+        // Header size past the end of the blob
+        data = createBlob(1024, VK_PIPELINE_CACHE_HEADER_VERSION_ONE, VENDOR_ID, DEVICE_ID, UUID, 0);
+        assertNull(PipelineCacheData.parseHeader(data));
+
+        // Truncated blob
+        assertNull(PipelineCacheData.parseHeader(ByteBuffer.allocate(PipelineCacheData.HEADER_SIZE - 1)));
+        assertNull(PipelineCacheData.parseHeader(ByteBuffer.allocate(0)));
+    }
+
+    private static ByteBuffer createBlob(int headerSize, int headerVersion, int vendorId, int deviceId, byte[] uuid, int payloadSize) {
+        ByteBuffer buffer = ByteBuffer.allocate(PipelineCacheData.HEADER_SIZE + payloadSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(headerSize);
+        buffer.putInt(headerVersion);
+        buffer.putInt(vendorId);
+        buffer.putInt(deviceId);
+        buffer.put(uuid);
+        return buffer.position(0);
+    }
+}
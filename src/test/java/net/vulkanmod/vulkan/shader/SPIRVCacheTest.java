@@ -0,0 +1,115 @@
+package net.vulkanmod.vulkan.shader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SPIRVCacheTest {
+    private static final int KIND = 0;
+
+    @Test
+    public void keyDependsOnAllInputs() {
+        String key = SPIRVCache.computeKey("void main() {}", KIND, List.of("a.glsl", "x"), "opt");
+
+        assertEquals(key, SPIRVCache.computeKey("void main() {}", KIND, List.of("a.glsl", "x"), "opt"));
+
+        assertNotEquals(key, SPIRVCache.computeKey("void main() { }", KIND, List.of("a.glsl", "x"), "opt"));
+        assertNotEquals(key, SPIRVCache.computeKey("void main() {}", KIND + 1, List.of("a.glsl", "x"), "opt"));
+        assertNotEquals(key, SPIRVCache.computeKey("void main() {}", KIND, List.of("a.glsl", "y"), "opt"));
+        assertNotEquals(key, SPIRVCache.computeKey("void main() {}", KIND, List.of(), "opt"));
+        assertNotEquals(key, SPIRVCache.computeKey("void main() {}", KIND, List.of("a.glsl", "x"), "no-opt"));
+    }
+
+    @Test
+    public void storeAndLoad(@TempDir Path dir) {
+        SPIRVCache cache = new SPIRVCache(dir);
+        byte[] spirv = fakeSpirv(64);
+
+        assertNull(cache.load("key"));
+        assertEquals(1, cache.getMisses());
+
+        cache.store("key", ByteBuffer.wrap(spirv));
+
+        assertArrayEquals(spirv, cache.load("key"));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void corruptEntryIsDiscarded(@TempDir Path dir) throws IOException {
+        SPIRVCache cache = new SPIRVCache(dir);
+        cache.store("key", ByteBuffer.wrap(fakeSpirv(64)));
+
+        Path path = cache.getEntryPath("key");
+        byte[] data = Files.readAllBytes(path);
+        data[data.length - 1] ^= 1;
+        Files.write(path, data);
+
+        assertNull(cache.load("key"));
+        assertFalse(Files.exists(path));
+
+        // Truncated entry
+        cache.store("key", ByteBuffer.wrap(fakeSpirv(64)));
+        Files.write(path, new byte[] {1, 2, 3});
+        assertNull(cache.load("key"));
+    }
+
+    @Test
+    public void decodeRejectsNonSpirv() {
+        byte[] notSpirv = new byte[16];
+        assertNull(SPIRVCache.decode(SPIRVCache.encode(notSpirv)));
+
+        byte[] spirv = fakeSpirv(16);
+        assertArrayEquals(spirv, SPIRVCache.decode(SPIRVCache.encode(spirv)));
+    }
+
+    @Test
+    public void compiledShaderIsCached(@TempDir Path dir) throws IOException {
+        String source;
+        try (InputStream stream = SPIRVCacheTest.class.getResourceAsStream("/assets/vulkanmod/shaders/add42.comp")) {
+            source = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        SPIRVUtils.setCacheDirectory(dir);
+
+        try {
+            SPIRVCache cache = SPIRVUtils.getCache();
+
+            byte[] compiled = toArray(SPIRVUtils.compileShader("add42.comp", source, SPIRVUtils.ShaderKind.COMPUTE_SHADER));
+            assertEquals(1, cache.getMisses());
+            assertEquals(0, cache.getHits());
+
+            byte[] cached = toArray(SPIRVUtils.compileShader("add42.comp", source, SPIRVUtils.ShaderKind.COMPUTE_SHADER));
+            assertEquals(1, cache.getHits());
+
+            assertArrayEquals(compiled, cached);
+        } finally {
+            SPIRVUtils.setCacheDirectory(null);
+        }
+    }
+
+    private static byte[] toArray(SPIRVUtils.SPIRV spirv) {
+        ByteBuffer bytecode = spirv.bytecode();
+        byte[] bytes = new byte[bytecode.remaining()];
+        bytecode.get(bytecode.position(), bytes);
+        return bytes;
+    }
+
+    private static byte[] fakeSpirv(int size) {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0x07230203);
+        for (int i = 4; i < size; i += 4) {
+            buffer.putInt(i);
+        }
+        return buffer.array();
+    }
+}
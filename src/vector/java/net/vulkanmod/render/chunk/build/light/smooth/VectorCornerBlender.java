@@ -0,0 +1,84 @@
+package net.vulkanmod.render.chunk.build.light.smooth;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+import net.minecraft.client.renderer.LightTexture;
+
+/**
+ * {@link CornerBlender} computing the 4 corners of a face in the lanes of 128 bit vectors.
+ * Results are identical to {@link ScalarCornerBlender}, operations are applied in the same order.
+ * <p>
+ * Only loaded when the {@code jdk.incubator.vector} module is available, see {@link CornerBlender#create()}.
+ */
+public class VectorCornerBlender implements CornerBlender {
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_128;
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_128;
+
+    // Lane i takes edge i + 1
+    private static final VectorShuffle<Integer> NEXT_INT = VectorShuffle.fromValues(INT_SPECIES, 1, 2, 3, 0);
+    private static final VectorShuffle<Float> NEXT_FLOAT = VectorShuffle.fromValues(FLOAT_SPECIES, 1, 2, 3, 0);
+
+    @Override
+    public void blendAo(float[] edgeAo, float[] cornerAo, float originAo, float[] out) {
+        FloatVector edges = FloatVector.fromArray(FLOAT_SPECIES, edgeAo, 0);
+        FloatVector corners = FloatVector.fromArray(FLOAT_SPECIES, cornerAo, 0);
+
+        edges.add(edges.rearrange(NEXT_FLOAT))
+                .add(corners)
+                .add(originAo)
+                .mul(0.25f)
+                .intoArray(out, 0);
+    }
+
+    @Override
+    public void blendLightmaps(int[] edgeLm, int[] cornerLm, int originLm, int edgeEm, int cornerEm, boolean originEm, int[] out) {
+        IntVector a = IntVector.fromArray(INT_SPECIES, edgeLm, 0);
+        IntVector b = a.rearrange(NEXT_INT);
+        IntVector c = IntVector.fromArray(INT_SPECIES, cornerLm, 0);
+        IntVector d = IntVector.broadcast(INT_SPECIES, originLm);
+
+        // Normalize corners to the minimum non-zero value, see AoFaceData.calculateCornerBrightness
+        VectorMask<Integer> anyZero = a.eq(0).or(b.eq(0)).or(c.eq(0)).or(d.eq(0));
+        if (anyZero.anyTrue()) {
+            IntVector min = minNonZero(minNonZero(a, b), minNonZero(c, d));
+
+            a = a.blend(a.max(min), anyZero);
+            b = b.blend(b.max(min), anyZero);
+            c = c.blend(c.max(min), anyZero);
+            d = d.blend(d.max(min), anyZero);
+        }
+
+        // Emissive values are applied after normalization
+        int nextEdgeEm = ((edgeEm >> 1) | (edgeEm << 3)) & 0xF;
+        a = a.blend(LightTexture.FULL_BRIGHT, VectorMask.fromLong(INT_SPECIES, edgeEm));
+        b = b.blend(LightTexture.FULL_BRIGHT, VectorMask.fromLong(INT_SPECIES, nextEdgeEm));
+        c = c.blend(LightTexture.FULL_BRIGHT, VectorMask.fromLong(INT_SPECIES, cornerEm));
+        if (originEm)
+            d = IntVector.broadcast(INT_SPECIES, LightTexture.FULL_BRIGHT);
+
+        a.add(b)
+                .add(c)
+                .add(d)
+                .lanewise(VectorOperators.ASHR, 2)
+                .and(0xFF00FF)
+                .intoArray(out, 0);
+    }
+
+    @Override
+    public void unpackLightmaps(int[] lm, float[] bl, float[] sl) {
+        IntVector values = IntVector.fromArray(INT_SPECIES, lm, 0);
+
+        ((FloatVector) values.and(0xFF).convert(VectorOperators.I2F, 0)).intoArray(bl, 0);
+        ((FloatVector) values.lanewise(VectorOperators.ASHR, 16).and(0xFF).convert(VectorOperators.I2F, 0)).intoArray(sl, 0);
+    }
+
+    private static IntVector minNonZero(IntVector a, IntVector b) {
+        return a.min(b)
+                .blend(b, a.eq(0))
+                .blend(a, b.eq(0));
+    }
+}
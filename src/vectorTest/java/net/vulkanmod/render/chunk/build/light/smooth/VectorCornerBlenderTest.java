@@ -0,0 +1,109 @@
+package net.vulkanmod.render.chunk.build.light.smooth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VectorCornerBlenderTest {
+    private static final int ITERATIONS = 100_000;
+
+    private final CornerBlender scalar = new ScalarCornerBlender();
+    private final CornerBlender vector = new VectorCornerBlender();
+
+    @Test
+    public void vectorBlenderIsSelected() {
+        assertInstanceOf(VectorCornerBlender.class, CornerBlender.INSTANCE);
+    }
+
+    @Test
+    public void lightmapsMatchScalar() {
+        Random random = new Random(0);
+        int[] edgeLm = new int[4], cornerLm = new int[4];
+        int[] expected = new int[4], actual = new int[4];
+
+        for (int i = 0; i < ITERATIONS; ++i) {
+            for (int j = 0; j < 4; ++j) {
+                edgeLm[j] = randomLightmap(random);
+                cornerLm[j] = randomLightmap(random);
+            }
+            int originLm = randomLightmap(random);
+
+            // Emissive blocks are rare, keep most samples on the normalization path
+            int edgeEm = random.nextInt(3) == 0 ? random.nextInt(16) : 0;
+            int cornerEm = random.nextInt(3) == 0 ? random.nextInt(16) : 0;
+            boolean originEm = random.nextInt(5) == 0;
+
+            this.scalar.blendLightmaps(edgeLm, cornerLm, originLm, edgeEm, cornerEm, originEm, expected);
+            this.vector.blendLightmaps(edgeLm, cornerLm, originLm, edgeEm, cornerEm, originEm, actual);
+
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void scalarMatchesCornerBrightness() {
+        int[] edgeLm = {0, 0x00F000A0, 0x00300010, 0};
+        int[] cornerLm = {0x00500050, 0, 0x00100000, 0x00F000F0};
+        int originLm = 0x00200030;
+        int[] out = new int[4];
+
+        this.scalar.blendLightmaps(edgeLm, cornerLm, originLm, 0b0100, 0b1000, false, out);
+
+        for (int i = 0; i < 4; ++i) {
+            int next = (i + 1) & 3;
+            int expected = AoFaceData.calculateCornerBrightness(edgeLm[i], edgeLm[next], cornerLm[i], originLm,
+                    i == 2, next == 2, i == 3, false);
+            assertEquals(expected, out[i]);
+        }
+    }
+
+    @Test
+    public void aoMatchesScalar() {
+        Random random = new Random(1);
+        float[] edgeAo = new float[4], cornerAo = new float[4];
+        float[] expected = new float[4], actual = new float[4];
+
+        for (int i = 0; i < ITERATIONS; ++i) {
+            for (int j = 0; j < 4; ++j) {
+                edgeAo[j] = random.nextFloat();
+                cornerAo[j] = random.nextFloat();
+            }
+            float originAo = random.nextFloat();
+
+            this.scalar.blendAo(edgeAo, cornerAo, originAo, expected);
+            this.vector.blendAo(edgeAo, cornerAo, originAo, actual);
+
+            // Same operation order, results must be bit identical
+            assertArrayEquals(expected, actual, 0.0f);
+        }
+    }
+
+    @Test
+    public void unpackMatchesScalar() {
+        Random random = new Random(2);
+        int[] lm = new int[4];
+        float[] expectedBl = new float[4], expectedSl = new float[4];
+        float[] actualBl = new float[4], actualSl = new float[4];
+
+        for (int i = 0; i < ITERATIONS; ++i) {
+            for (int j = 0; j < 4; ++j) {
+                lm[j] = random.nextInt() & 0xFF00FF;
+            }
+
+            this.scalar.unpackLightmaps(lm, expectedBl, expectedSl);
+            this.vector.unpackLightmaps(lm, actualBl, actualSl);
+
+            assertArrayEquals(expectedBl, actualBl, 0.0f);
+            assertArrayEquals(expectedSl, actualSl, 0.0f);
+        }
+    }
+
+    private static int randomLightmap(Random random) {
+        if (random.nextInt(4) == 0)
+            return 0;
+
+        return (random.nextInt(16) << 4) | (random.nextInt(16) << 20);
+    }
+}